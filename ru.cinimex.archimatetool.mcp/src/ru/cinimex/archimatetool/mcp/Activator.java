@@ -26,8 +26,10 @@ import org.eclipse.ui.commands.ICommandService;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskManager;
 import ru.cinimex.archimatetool.mcp.preferences.MCPPreferences;
 import ru.cinimex.archimatetool.mcp.server.HttpServerRunner;
+import ru.cinimex.archimatetool.mcp.service.ActiveModelTracker;
 import ru.cinimex.archimatetool.mcp.util.McpLogger;
 
 /**
@@ -156,6 +158,8 @@ public class Activator extends AbstractUIPlugin {
             McpLogger.logOperationOutput("Plugin Shutdown", 
                 java.util.Map.of("status", "server stopped during plugin shutdown"));
         }
+        ActiveModelTracker.get().uninstall();
+        TaskManager.get().shutdown();
         
         instance = null;
         super.stop(context);
@@ -26,6 +26,26 @@ public final class Config {
 
     public static final String DEFAULT_HOST = "127.0.0.1";
     public static final int DEFAULT_PORT = 8765;
+    public static final String DEFAULT_HTTP_EXECUTOR = "auto";
+    public static final int DEFAULT_HTTP_MAX_CONCURRENT = 16;
+    public static final int DEFAULT_HTTP_MAX_QUEUED = 64;
+    public static final int DEFAULT_COMPRESSION_MIN_BYTES = 1024;
+    public static final int DEFAULT_STREAM_MIN_BYTES = 256 * 1024;
+    public static final int DEFAULT_BATCH_PARALLELISM = 4;
+    public static final int DEFAULT_TASK_WORKERS = 4;
+    public static final int DEFAULT_TASK_MAX = 256;
+    public static final int DEFAULT_TASK_TTL_SECONDS = 600;
+    public static final int DEFAULT_TASK_SCRIPT_TIMEOUT_MS = 600_000;
+    public static final int DEFAULT_SSE_HEARTBEAT_MS = 15_000;
+    public static final int DEFAULT_SSE_QUEUE_SIZE = 256;
+    public static final int DEFAULT_SSE_MAX_STREAMS = 8;
+    public static final int DEFAULT_CHANGE_COALESCE_MS = 200;
+    public static final int DEFAULT_CHANGE_REPLAY_SIZE = 1000;
+    public static final int DEFAULT_CHANGE_JOURNAL_SIZE = 5000;
+    public static final int DEFAULT_IMAGE_CACHE_MAX_BYTES = 64 * 1024 * 1024;
+    public static final int DEFAULT_RENDER_MAX_CONCURRENT = 2;
+    public static final int DEFAULT_IMAGE_LINK_TTL_SECONDS = 300;
+    public static final int DEFAULT_IMAGE_LINK_MAX_BYTES = 32 * 1024 * 1024;
 
     public static boolean isDebugEnabled() {
         String sp = System.getProperty("archi.mcp.debug");
@@ -34,6 +54,16 @@ public final class Config {
         return isTrue(ev);
     }
 
+    /**
+     * Whether search keeps an in-memory full-text index per model:
+     * System Property (archi.mcp.search.index) → Env (ARCHI_MCP_SEARCH_INDEX). Off by default.
+     */
+    public static boolean isSearchIndexEnabled() {
+        String sp = System.getProperty("archi.mcp.search.index");
+        if (sp != null && !sp.isEmpty()) return isTrue(sp);
+        return isTrue(getenv.apply("ARCHI_MCP_SEARCH_INDEX"));
+    }
+
     public static int resolvePort() {
         try {
             String sp = System.getProperty("archi.mcp.port");
@@ -62,6 +92,212 @@ public final class Config {
         return MCPPreferences.getHost();
     }
 
+    /**
+     * HTTP executor mode: auto (virtual threads when the runtime has them, otherwise a bounded pool),
+     * virtual or pool. System Property (archi.mcp.http.executor) → Env (ARCHI_MCP_HTTP_EXECUTOR) → Preferences.
+     */
+    public static String resolveHttpExecutor() {
+        String sp = System.getProperty("archi.mcp.http.executor");
+        if (sp != null && !sp.isEmpty()) return sp.trim().toLowerCase();
+        String ev = getenv.apply("ARCHI_MCP_HTTP_EXECUTOR");
+        if (ev != null && !ev.isEmpty()) return ev.trim().toLowerCase();
+        return MCPPreferences.getHttpExecutor();
+    }
+
+    /**
+     * Maximum number of requests handled at once:
+     * System Property (archi.mcp.http.maxConcurrent) → Env (ARCHI_MCP_HTTP_MAX_CONCURRENT) → Preferences.
+     */
+    public static int resolveHttpMaxConcurrent() {
+        return resolvePositiveInt("archi.mcp.http.maxConcurrent", "ARCHI_MCP_HTTP_MAX_CONCURRENT",
+                MCPPreferences.getHttpMaxConcurrent());
+    }
+
+    /**
+     * Maximum number of requests waiting for a slot before new ones are rejected:
+     * System Property (archi.mcp.http.maxQueued) → Env (ARCHI_MCP_HTTP_MAX_QUEUED) → Preferences.
+     */
+    public static int resolveHttpMaxQueued() {
+        int v = resolveInt("archi.mcp.http.maxQueued", "ARCHI_MCP_HTTP_MAX_QUEUED", MCPPreferences.getHttpMaxQueued());
+        return Math.max(0, v);
+    }
+
+    /**
+     * Smallest response body compressed with gzip/deflate; a negative value disables compression.
+     * System Property (archi.mcp.http.compressMinBytes) → Env (ARCHI_MCP_HTTP_COMPRESS_MIN_BYTES) → Default.
+     */
+    public static int resolveCompressionMinBytes() {
+        return resolveInt("archi.mcp.http.compressMinBytes", "ARCHI_MCP_HTTP_COMPRESS_MIN_BYTES",
+                DEFAULT_COMPRESSION_MIN_BYTES);
+    }
+
+    /**
+     * JSON bodies larger than this are streamed with chunked encoding instead of buffered:
+     * System Property (archi.mcp.http.streamMinBytes) → Env (ARCHI_MCP_HTTP_STREAM_MIN_BYTES) → Default.
+     */
+    public static int resolveStreamMinBytes() {
+        return resolvePositiveInt("archi.mcp.http.streamMinBytes", "ARCHI_MCP_HTTP_STREAM_MIN_BYTES",
+                DEFAULT_STREAM_MIN_BYTES);
+    }
+
+    /**
+     * Shape of tools/call results: text, both or structured (see ToolResult).
+     * System Property (archi.mcp.tools.resultFormat) → Env (ARCHI_MCP_TOOLS_RESULT_FORMAT) → text.
+     */
+    public static String resolveToolResultFormat() {
+        String v = System.getProperty("archi.mcp.tools.resultFormat");
+        if (v == null || v.isEmpty()) v = getenv.apply("ARCHI_MCP_TOOLS_RESULT_FORMAT");
+        if (v == null || v.isEmpty()) return "text";
+        return v.trim().toLowerCase();
+    }
+
+    /**
+     * Threads used to run read-only entries of a JSON-RPC batch in parallel; 1 runs batches serially.
+     * System Property (archi.mcp.batch.parallelism) → Env (ARCHI_MCP_BATCH_PARALLELISM) → Default.
+     */
+    public static int resolveBatchParallelism() {
+        return resolvePositiveInt("archi.mcp.batch.parallelism", "ARCHI_MCP_BATCH_PARALLELISM",
+                DEFAULT_BATCH_PARALLELISM);
+    }
+
+    /**
+     * Worker threads running async tool calls (tasks):
+     * System Property (archi.mcp.tasks.workers) → Env (ARCHI_MCP_TASKS_WORKERS) → Default.
+     */
+    public static int resolveTaskWorkers() {
+        return resolvePositiveInt("archi.mcp.tasks.workers", "ARCHI_MCP_TASKS_WORKERS", DEFAULT_TASK_WORKERS);
+    }
+
+    /**
+     * Size of the task table; finished tasks are evicted first when it is full:
+     * System Property (archi.mcp.tasks.max) → Env (ARCHI_MCP_TASKS_MAX) → Default.
+     */
+    public static int resolveTaskMax() {
+        return resolvePositiveInt("archi.mcp.tasks.max", "ARCHI_MCP_TASKS_MAX", DEFAULT_TASK_MAX);
+    }
+
+    /**
+     * How long a finished task and its result are kept:
+     * System Property (archi.mcp.tasks.ttlSeconds) → Env (ARCHI_MCP_TASKS_TTL_SECONDS) → Default.
+     */
+    public static int resolveTaskTtlSeconds() {
+        return resolvePositiveInt("archi.mcp.tasks.ttlSeconds", "ARCHI_MCP_TASKS_TTL_SECONDS",
+                DEFAULT_TASK_TTL_SECONDS);
+    }
+
+    /**
+     * Upper bound of timeout_ms for scripts run as a task (synchronous calls stay capped at 60s):
+     * System Property (archi.mcp.tasks.scriptTimeoutMs) → Env (ARCHI_MCP_TASKS_SCRIPT_TIMEOUT_MS) → Default.
+     */
+    public static int resolveTaskScriptTimeoutMs() {
+        return resolvePositiveInt("archi.mcp.tasks.scriptTimeoutMs", "ARCHI_MCP_TASKS_SCRIPT_TIMEOUT_MS",
+                DEFAULT_TASK_SCRIPT_TIMEOUT_MS);
+    }
+
+    /**
+     * Interval of keep-alive comments on idle SSE streams:
+     * System Property (archi.mcp.sse.heartbeatMs) → Env (ARCHI_MCP_SSE_HEARTBEAT_MS) → Default.
+     */
+    public static int resolveSseHeartbeatMs() {
+        return resolvePositiveInt("archi.mcp.sse.heartbeatMs", "ARCHI_MCP_SSE_HEARTBEAT_MS", DEFAULT_SSE_HEARTBEAT_MS);
+    }
+
+    /**
+     * Messages buffered per MCP session while its stream is slow or not connected:
+     * System Property (archi.mcp.sse.queueSize) → Env (ARCHI_MCP_SSE_QUEUE_SIZE) → Default.
+     */
+    public static int resolveSseQueueSize() {
+        return resolvePositiveInt("archi.mcp.sse.queueSize", "ARCHI_MCP_SSE_QUEUE_SIZE", DEFAULT_SSE_QUEUE_SIZE);
+    }
+
+    /**
+     * Long-lived GET /mcp streams open at once; they do not count against the request limit:
+     * System Property (archi.mcp.sse.maxStreams) → Env (ARCHI_MCP_SSE_MAX_STREAMS) → Default.
+     */
+    public static int resolveSseMaxStreams() {
+        return resolvePositiveInt("archi.mcp.sse.maxStreams", "ARCHI_MCP_SSE_MAX_STREAMS", DEFAULT_SSE_MAX_STREAMS);
+    }
+
+    /**
+     * Window over which model changes are merged before they are pushed; 0 pushes at once:
+     * System Property (archi.mcp.changes.coalesceMs) → Env (ARCHI_MCP_CHANGES_COALESCE_MS) → Default.
+     */
+    public static int resolveChangeCoalesceMs() {
+        return Math.max(0, resolveInt("archi.mcp.changes.coalesceMs", "ARCHI_MCP_CHANGES_COALESCE_MS",
+                DEFAULT_CHANGE_COALESCE_MS));
+    }
+
+    /**
+     * Change events kept for subscribers that reconnect:
+     * System Property (archi.mcp.changes.replaySize) → Env (ARCHI_MCP_CHANGES_REPLAY_SIZE) → Default.
+     */
+    public static int resolveChangeReplaySize() {
+        return resolvePositiveInt("archi.mcp.changes.replaySize", "ARCHI_MCP_CHANGES_REPLAY_SIZE",
+                DEFAULT_CHANGE_REPLAY_SIZE);
+    }
+
+    /**
+     * Versioned changes kept per model for change-since queries:
+     * System Property (archi.mcp.changes.journalSize) → Env (ARCHI_MCP_CHANGES_JOURNAL_SIZE) → Default.
+     */
+    public static int resolveChangeJournalSize() {
+        return resolvePositiveInt("archi.mcp.changes.journalSize", "ARCHI_MCP_CHANGES_JOURNAL_SIZE",
+                DEFAULT_CHANGE_JOURNAL_SIZE);
+    }
+
+    /**
+     * Total size of rendered view images kept in memory, 0 disables the cache:
+     * System Property (archi.mcp.imageCache.maxBytes) → Env (ARCHI_MCP_IMAGE_CACHE_MAX_BYTES) → Default.
+     */
+    public static int resolveImageCacheMaxBytes() {
+        return Math.max(0, resolveInt("archi.mcp.imageCache.maxBytes", "ARCHI_MCP_IMAGE_CACHE_MAX_BYTES",
+                DEFAULT_IMAGE_CACHE_MAX_BYTES));
+    }
+
+    /**
+     * View images rendered at once; further renders wait for a slot:
+     * System Property (archi.mcp.render.maxConcurrent) → Env (ARCHI_MCP_RENDER_MAX_CONCURRENT) → Default.
+     */
+    public static int resolveRenderMaxConcurrent() {
+        return resolvePositiveInt("archi.mcp.render.maxConcurrent", "ARCHI_MCP_RENDER_MAX_CONCURRENT",
+                DEFAULT_RENDER_MAX_CONCURRENT);
+    }
+
+    /**
+     * How long image links handed out by get_view_image stay valid:
+     * System Property (archi.mcp.imageLink.ttlSeconds) → Env (ARCHI_MCP_IMAGE_LINK_TTL_SECONDS) → Default.
+     */
+    public static int resolveImageLinkTtlSeconds() {
+        return resolvePositiveInt("archi.mcp.imageLink.ttlSeconds", "ARCHI_MCP_IMAGE_LINK_TTL_SECONDS",
+                DEFAULT_IMAGE_LINK_TTL_SECONDS);
+    }
+
+    /**
+     * Total size of the images held for image links; older links expire early beyond it:
+     * System Property (archi.mcp.imageLink.maxBytes) → Env (ARCHI_MCP_IMAGE_LINK_MAX_BYTES) → Default.
+     */
+    public static int resolveImageLinkMaxBytes() {
+        return resolvePositiveInt("archi.mcp.imageLink.maxBytes", "ARCHI_MCP_IMAGE_LINK_MAX_BYTES",
+                DEFAULT_IMAGE_LINK_MAX_BYTES);
+    }
+
+    private static int resolvePositiveInt(String property, String env, int fallback) {
+        int v = resolveInt(property, env, fallback);
+        return v > 0 ? v : fallback;
+    }
+
+    private static int resolveInt(String property, String env, int fallback) {
+        try {
+            String sp = System.getProperty(property);
+            if (sp != null && !sp.isEmpty()) return Integer.parseInt(sp.trim());
+        } catch (Exception ignore) {}
+        try {
+            String ev = getenv.apply(env);
+            if (ev != null && !ev.isEmpty()) return Integer.parseInt(ev.trim());
+        } catch (Exception ignore) {}
+        return fallback;
+    }
+
     private static java.util.function.Function<String, String> getenv = System::getenv;
 
     public static void setGetenv(java.util.function.Function<String, String> f) {
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.changes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One coalesced change of a model object, as published by the {@link ChangeFeed}.
+ */
+public final class ChangeEvent {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private final long seq;
+    private final long version;
+    private final String modelId;
+    private final String kind;
+    private final String id;
+    private final String op;
+    private final String type;
+    private final String name;
+    private final long time;
+
+    public ChangeEvent(String modelId, String kind, String id, String op, String type, String name) {
+        this(modelId, kind, id, op, type, name, 0);
+    }
+
+    /** @param version model version reached by this change */
+    public ChangeEvent(String modelId, String kind, String id, String op, String type, String name, long version) {
+        this(0, version, modelId, kind, id, op, type, name, System.currentTimeMillis());
+    }
+
+    private ChangeEvent(long seq, long version, String modelId, String kind, String id, String op, String type,
+            String name, long time) {
+        this.seq = seq;
+        this.version = version;
+        this.modelId = modelId;
+        this.kind = kind;
+        this.id = id;
+        this.op = op;
+        this.type = type;
+        this.name = name;
+        this.time = time;
+    }
+
+    ChangeEvent withSeq(long seq) {
+        return new ChangeEvent(seq, version, modelId, kind, id, op, type, name, time);
+    }
+
+    ChangeEvent withOp(String op) {
+        return op.equals(this.op) ? this : new ChangeEvent(seq, version, modelId, kind, id, op, type, name, time);
+    }
+
+    /** Position in the feed, increasing across all models. */
+    public long getSeq() {
+        return seq;
+    }
+
+    /** Version of the model right after this change. */
+    public long getVersion() {
+        return version;
+    }
+
+    public String getModelId() {
+        return modelId;
+    }
+
+    /** element, relation, view, folder or model. */
+    public String getKind() {
+        return kind;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** created, updated or deleted. */
+    public String getOp() {
+        return op;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        if (seq > 0) m.put("seq", seq);
+        m.put("modelId", modelId);
+        m.put("version", version);
+        m.put("kind", kind);
+        m.put("id", id);
+        m.put("op", op);
+        if (type != null) m.put("type", type);
+        if (name != null) m.put("name", name);
+        m.put("time", time);
+        return m;
+    }
+}
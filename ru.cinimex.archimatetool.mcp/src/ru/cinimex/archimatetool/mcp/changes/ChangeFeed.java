@@ -0,0 +1,185 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.changes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import ru.cinimex.archimatetool.mcp.Config;
+
+/**
+ * Process-wide feed of coalesced model changes.
+ * <p>
+ * {@link ChangeTracker}s publish batches here; every event gets a sequence
+ * number and is kept in a bounded replay buffer so a subscriber that reconnects
+ * can catch up, or learn that it has to resync because the buffer wrapped.
+ * Subscribers are called on the feed thread and must not block for long.
+ */
+public final class ChangeFeed {
+
+    private static final class Holder {
+        static final ChangeFeed INSTANCE = new ChangeFeed(Config.resolveChangeReplaySize(), Config.resolveChangeCoalesceMs());
+    }
+
+    /** Result of a replay request. */
+    public static final class Replay {
+        public final List<ChangeEvent> events;
+        /** True when events after the requested position were already dropped. */
+        public final boolean resync;
+        public final long lastSeq;
+
+        Replay(List<ChangeEvent> events, boolean resync, long lastSeq) {
+            this.events = events;
+            this.resync = resync;
+            this.lastSeq = lastSeq;
+        }
+    }
+
+    /** A registered subscriber; close it to stop delivery. */
+    public final class Subscription implements AutoCloseable {
+        private final ChangeFilter filter;
+        private final Consumer<List<ChangeEvent>> sink;
+
+        Subscription(ChangeFilter filter, Consumer<List<ChangeEvent>> sink) {
+            this.filter = filter;
+            this.sink = sink;
+        }
+
+        @Override
+        public void close() {
+            subscribers.remove(this);
+        }
+    }
+
+    private final int capacity;
+    private final long coalesceMs;
+    private final ArrayDeque<ChangeEvent> replay = new ArrayDeque<>();
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private long seq;
+
+    public ChangeFeed(int capacity, long coalesceMs) {
+        this.capacity = capacity;
+        this.coalesceMs = coalesceMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "archi-mcp-changes");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static ChangeFeed get() {
+        return Holder.INSTANCE;
+    }
+
+    /** Window over which a tracker merges changes before publishing them. */
+    public long getCoalesceMs() {
+        return coalesceMs;
+    }
+
+    /** Run a tracker flush on the feed thread after the coalescing window. */
+    void schedule(Runnable flush) {
+        scheduler.schedule(flush, coalesceMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Number and buffer the events, then hand the matching ones to each subscriber. */
+    public void publish(List<ChangeEvent> batch) {
+        if (batch.isEmpty()) return;
+        List<ChangeEvent> numbered = new ArrayList<>(batch.size());
+        synchronized (replay) {
+            for (ChangeEvent e : batch) {
+                ChangeEvent n = e.withSeq(++seq);
+                numbered.add(n);
+                replay.addLast(n);
+                if (replay.size() > capacity) replay.removeFirst();
+            }
+        }
+        published.addAndGet(numbered.size());
+        for (Subscription s : subscribers) {
+            List<ChangeEvent> matching = select(numbered, s.filter);
+            if (matching.isEmpty()) continue;
+            try {
+                s.sink.accept(matching);
+                delivered.addAndGet(matching.size());
+            } catch (RuntimeException ignore) {
+                // one broken subscriber must not starve the others
+            }
+        }
+    }
+
+    public Subscription subscribe(ChangeFilter filter, Consumer<List<ChangeEvent>> sink) {
+        Subscription s = new Subscription(filter, sink);
+        subscribers.add(s);
+        return s;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /** Buffered events after the given sequence number that match the filter. */
+    public Replay since(long after, ChangeFilter filter) {
+        synchronized (replay) {
+            long oldest = replay.isEmpty() ? seq + 1 : replay.peekFirst().getSeq();
+            // a position ahead of the feed comes from before a restart
+            boolean resync = after < oldest - 1 || after > seq;
+            List<ChangeEvent> out = new ArrayList<>();
+            for (ChangeEvent e : replay) {
+                if (e.getSeq() > after && filter.matches(e)) out.add(e);
+            }
+            return new Replay(out, resync, seq);
+        }
+    }
+
+    public long lastSeq() {
+        synchronized (replay) {
+            return seq;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        synchronized (replay) {
+            m.put("lastSeq", seq);
+            m.put("buffered", replay.size());
+        }
+        m.put("capacity", capacity);
+        m.put("coalesceMs", coalesceMs);
+        m.put("subscribers", subscribers.size());
+        m.put("published", published.get());
+        m.put("delivered", delivered.get());
+        return m;
+    }
+
+    private static List<ChangeEvent> select(List<ChangeEvent> events, ChangeFilter filter) {
+        List<ChangeEvent> out = new ArrayList<>();
+        for (ChangeEvent e : events) {
+            if (filter.matches(e)) out.add(e);
+        }
+        return out;
+    }
+}
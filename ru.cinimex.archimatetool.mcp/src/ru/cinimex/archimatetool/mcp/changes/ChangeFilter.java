@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.changes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+import ru.cinimex.archimatetool.mcp.http.QueryParams;
+
+/**
+ * Subscriber-side selection of change events. Empty sets match everything.
+ * <p>
+ * Filters are also addressed as resource URIs: {@code archi://changes} with
+ * optional {@code kinds}, {@code ops}, {@code ids} and {@code modelId} query
+ * parameters, or {@code archi://elements/{id}} (likewise relations, views,
+ * folders) for a single object.
+ */
+public final class ChangeFilter {
+
+    public static final String FEED_URI = "archi://changes";
+
+    private static final Set<String> KINDS = Set.of("element", "relation", "view", "folder", "model");
+    private static final Set<String> OPS = Set.of(ChangeEvent.CREATED, ChangeEvent.UPDATED, ChangeEvent.DELETED);
+    private static final Map<String, String> URI_KINDS = Map.of(
+            "elements", "element", "relations", "relation", "views", "view", "folders", "folder");
+
+    private final Set<String> kinds;
+    private final Set<String> ops;
+    private final Set<String> ids;
+    private final String modelId;
+
+    private ChangeFilter(Set<String> kinds, Set<String> ops, Set<String> ids, String modelId) {
+        this.kinds = kinds;
+        this.ops = ops;
+        this.ids = ids;
+        this.modelId = modelId;
+    }
+
+    public static ChangeFilter all() {
+        return new ChangeFilter(Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), null);
+    }
+
+    /**
+     * Build a filter from comma-separated lists; null or blank means any.
+     * @throws BadRequestException on an unknown kind or op
+     */
+    public static ChangeFilter of(String kinds, String ops, String ids, String modelId) {
+        return new ChangeFilter(checked(split(kinds), KINDS, "kind"), checked(split(ops), OPS, "op"),
+                split(ids), modelId == null || modelId.isBlank() ? null : modelId);
+    }
+
+    public static ChangeFilter from(QueryParams q) {
+        return of(q.first("kinds"), q.first("ops"), q.first("ids"), q.first("modelId"));
+    }
+
+    /**
+     * Filter addressed by a resource URI.
+     * @throws BadRequestException when the URI is not a change resource
+     */
+    public static ChangeFilter fromUri(String uri) {
+        if (uri == null) throw new BadRequestException("uri is required");
+        if (uri.equals(FEED_URI) || uri.startsWith(FEED_URI + "?")) {
+            int q = uri.indexOf('?');
+            return from(QueryParams.parse(q < 0 ? null : uri.substring(q + 1)));
+        }
+        if (uri.startsWith("archi://")) {
+            String[] parts = uri.substring("archi://".length()).split("/", 2);
+            String kind = URI_KINDS.get(parts[0]);
+            if (kind != null && parts.length == 2 && !parts[1].isEmpty()) {
+                return new ChangeFilter(Set.of(kind), Collections.emptySet(), Set.of(parts[1]), null);
+            }
+        }
+        throw new BadRequestException("unsupported resource uri: " + uri);
+    }
+
+    public boolean matches(ChangeEvent e) {
+        return (kinds.isEmpty() || kinds.contains(e.getKind()))
+                && (ops.isEmpty() || ops.contains(e.getOp()))
+                && (ids.isEmpty() || ids.contains(e.getId()))
+                && (modelId == null || modelId.equals(e.getModelId()));
+    }
+
+    private static Set<String> split(String csv) {
+        if (csv == null || csv.isBlank()) return Collections.emptySet();
+        Set<String> out = new LinkedHashSet<>();
+        for (String s : Arrays.asList(csv.split(","))) {
+            if (!s.isBlank()) out.add(s.trim());
+        }
+        return out;
+    }
+
+    private static Set<String> checked(Set<String> values, Set<String> allowed, String what) {
+        for (String v : values) {
+            if (!allowed.contains(v)) throw new BadRequestException("unknown " + what + ": " + v);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.changes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import ru.cinimex.archimatetool.mcp.Config;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
+import com.archimatetool.model.IFolder;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.INameable;
+
+/**
+ * Turns EMF notifications of one model into element/relation/view/folder
+ * created/updated/deleted events.
+ * <p>
+ * Changes inside a view (diagram objects, bounds, connections) count as an
+ * update of the view, property changes as an update of their owner. Events are
+ * merged per object over the feed's coalescing window, so a burst of edits on
+ * the UI thread reaches subscribers as one batch with one event per object.
+ * <p>
+ * Every recorded change also bumps the model version and goes into a bounded
+ * journal, so clients can ask for everything that changed since a version they
+ * have seen. Within one burst, a repeated update of an object replaces its
+ * previous update in the journal, so a batch that adds many objects to one
+ * folder takes one slot per object rather than two. Versions still count every
+ * change from 0 when tracking starts; the epoch tells
+ * versions of different tracking sessions apart. Each view also remembers the
+ * last version that changed how it looks: edits of the view itself and updates
+ * of concepts shown on it. Deleted views are forgotten.
+ */
+public class ChangeTracker extends EContentAdapter {
+
+    private final IArchimateModel model;
+    private final ChangeFeed feed;
+    private final Map<String, ChangeEvent> pending = new LinkedHashMap<>();
+    private final ArrayDeque<ChangeEvent> journal = new ArrayDeque<>();
+    private final int journalSize;
+    private final String epoch = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    private final Map<String, Long> viewVersions = new HashMap<>();
+    /** Updates journaled since the last flush, by kind:id. */
+    private final Map<String, ChangeEvent> burst = new HashMap<>();
+    private long version;
+    /** Version of the newest change dropped from the journal. */
+    private long trimmed;
+
+    private volatile boolean attached;
+    private boolean quiet;
+
+    /** Changes since a version, merged to one entry per object. */
+    public static final class Delta {
+        public final List<ChangeEvent> changes;
+        /** True when the journal no longer reaches back to the requested version. */
+        public final boolean resync;
+        public final long version;
+        public final String epoch;
+
+        Delta(List<ChangeEvent> changes, boolean resync, long version, String epoch) {
+            this.changes = changes;
+            this.resync = resync;
+            this.version = version;
+            this.epoch = epoch;
+        }
+    }
+
+    public ChangeTracker(IArchimateModel model, ChangeFeed feed) {
+        this(model, feed, Config.resolveChangeJournalSize());
+    }
+
+    public ChangeTracker(IArchimateModel model, ChangeFeed feed, int journalSize) {
+        this.model = model;
+        this.feed = feed;
+        this.journalSize = Math.max(1, journalSize);
+    }
+
+    /** Start tracking. Must run on the UI thread. */
+    public void attach() {
+        if (attached) return;
+        // adding the adapter visits all existing content, which is not a change
+        quiet = true;
+        try {
+            model.eAdapters().add(this);
+        } finally {
+            quiet = false;
+        }
+        attached = true;
+    }
+
+    /** Stop tracking; pending changes are dropped. Must run on the UI thread. */
+    public void detach() {
+        if (!attached) return;
+        attached = false;
+        quiet = true;
+        try {
+            model.eAdapters().remove(this);
+        } finally {
+            quiet = false;
+        }
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    public boolean isAttached() {
+        return attached;
+    }
+
+    public IArchimateModel getModel() {
+        return model;
+    }
+
+    /** Number of changes recorded since tracking started. */
+    public long getVersion() {
+        synchronized (journal) {
+            return version;
+        }
+    }
+
+    /** Random id of this tracker; versions are only comparable within one epoch. */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /** Epoch and version as one opaque token, e.g. for ETags. */
+    public String versionTag() {
+        return epoch + '-' + getVersion();
+    }
+
+    /** Last version that changed the view or a concept shown on it; 0 if none since tracking started. */
+    public long getViewVersion(String viewId) {
+        synchronized (journal) {
+            return viewVersions.getOrDefault(viewId, 0L);
+        }
+    }
+
+    /** Epoch and view version as one opaque token. */
+    public String viewVersionTag(String viewId) {
+        return epoch + '-' + getViewVersion(viewId);
+    }
+
+    /**
+     * Changes after the given version, one per object in order of first change.
+     * A version from another epoch, ahead of the tracker or older than the
+     * journal yields a resync marker instead of a partial delta.
+     */
+    public Delta changesSince(long since, String sinceEpoch) {
+        synchronized (journal) {
+            boolean resync = since < trimmed || since > version
+                    || (sinceEpoch != null && !sinceEpoch.isEmpty() && !sinceEpoch.equals(epoch));
+            if (resync) return new Delta(List.of(), true, version, epoch);
+            Map<String, ChangeEvent> merged = new LinkedHashMap<>();
+            for (ChangeEvent e : journal) {
+                if (e.getVersion() <= since) continue;
+                String key = e.getKind() + ':' + e.getId();
+                ChangeEvent m = merge(merged.get(key), e);
+                if (m == null) {
+                    merged.remove(key);
+                } else {
+                    merged.put(key, m);
+                }
+            }
+            return new Delta(new ArrayList<>(merged.values()), false, version, epoch);
+        }
+    }
+
+    @Override
+    protected void setTarget(EObject target) {
+        super.setTarget(target);
+        if (!quiet && kindOf(target) != null) record(target, ChangeEvent.CREATED);
+    }
+
+    @Override
+    protected void unsetTarget(EObject target) {
+        super.unsetTarget(target);
+        if (!quiet && kindOf(target) != null) record(target, ChangeEvent.DELETED);
+    }
+
+    @Override
+    public void notifyChanged(Notification n) {
+        // added and removed objects are reported through setTarget/unsetTarget
+        super.notifyChanged(n);
+        if (quiet || n.isTouch() || n.getEventType() == Notification.REMOVING_ADAPTER
+                || !(n.getNotifier() instanceof EObject)) return;
+        EObject subject = subjectOf((EObject) n.getNotifier());
+        if (subject != null) record(subject, ChangeEvent.UPDATED);
+    }
+
+    /** Publish the changes collected so far. Normally called by the feed after the coalescing window. */
+    public void flush() {
+        List<ChangeEvent> batch;
+        synchronized (journal) {
+            burst.clear();
+        }
+        synchronized (pending) {
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        feed.publish(batch);
+    }
+
+    private void record(EObject o, String op) {
+        String id = o instanceof IIdentifier ? ((IIdentifier) o).getId() : null;
+        if (id == null) return;
+        String kind = kindOf(o);
+        String name = o instanceof INameable ? ((INameable) o).getName() : null;
+        ChangeEvent next;
+        synchronized (journal) {
+            next = new ChangeEvent(model.getId(), kind, id, op, o.eClass().getName(), name, ++version);
+            String key = kind + ':' + id;
+            if (ChangeEvent.UPDATED.equals(op)) {
+                // the newer update covers the older one for every reader
+                ChangeEvent previous = burst.put(key, next);
+                if (previous != null) journal.removeLastOccurrence(previous);
+            } else {
+                burst.remove(key);
+            }
+            journal.addLast(next);
+            if (journal.size() > journalSize) trimmed = journal.removeFirst().getVersion();
+            touchViews(o, kind, id, op, version);
+        }
+        boolean schedule;
+        synchronized (pending) {
+            schedule = pending.isEmpty();
+            String key = kind + ':' + id;
+            ChangeEvent merged = merge(pending.get(key), next);
+            if (merged == null) {
+                pending.remove(key);
+            } else {
+                pending.put(key, merged);
+            }
+        }
+        if (schedule) feed.schedule(this::flush);
+    }
+
+    private void touchViews(EObject o, String kind, String id, String op, long v) {
+        if ("view".equals(kind)) {
+            if (ChangeEvent.DELETED.equals(op)) {
+                viewVersions.remove(id);
+            } else {
+                viewVersions.put(id, v);
+            }
+        } else if (ChangeEvent.UPDATED.equals(op) && o instanceof IArchimateConcept) {
+            // labels and relation lines of the concept are drawn on every view that shows it
+            for (IDiagramModelArchimateComponent c : ((IArchimateConcept) o).getReferencingDiagramComponents()) {
+                IDiagramModel d = c.getDiagramModel();
+                // a deleted view keeps its objects, but is no longer part of the model
+                if (d != null && d.getArchimateModel() == model) viewVersions.put(d.getId(), v);
+            }
+        }
+    }
+
+    /** Combine two changes of the same object; null when they cancel out. */
+    static ChangeEvent merge(ChangeEvent earlier, ChangeEvent later) {
+        if (earlier == null) return later;
+        String a = earlier.getOp();
+        String b = later.getOp();
+        if (ChangeEvent.CREATED.equals(a)) {
+            // an object that appeared and vanished within the window is not news
+            if (ChangeEvent.DELETED.equals(b)) return null;
+            return later.withOp(ChangeEvent.CREATED);
+        }
+        if (ChangeEvent.DELETED.equals(a) && ChangeEvent.CREATED.equals(b)) {
+            // removed and re-added, e.g. moved to another folder
+            return later.withOp(ChangeEvent.UPDATED);
+        }
+        return later;
+    }
+
+    /** Kind of object reported on its own, or null for parts of another object. */
+    static String kindOf(EObject o) {
+        if (o instanceof IArchimateRelationship) return "relation";
+        if (o instanceof IArchimateElement) return "element";
+        if (o instanceof IDiagramModel) return "view";
+        if (o instanceof IFolder) return "folder";
+        if (o instanceof IArchimateModel) return "model";
+        return null;
+    }
+
+    /** The object itself or the nearest container that is reported on its own. */
+    static EObject subjectOf(EObject o) {
+        while (o != null && kindOf(o) == null) {
+            o = o.eContainer();
+        }
+        return o;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.changes;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import ru.cinimex.archimatetool.mcp.UiExec;
+import ru.cinimex.archimatetool.mcp.service.ServiceRegistry;
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * Registry of {@link ChangeTracker} instances, one per tracked model.
+ * <p>
+ * Trackers are attached on first use, e.g. when a client subscribes to changes,
+ * and stay attached until the model is closed.
+ */
+public final class ChangeTrackers {
+
+    private static final Map<IArchimateModel, WeakReference<ChangeTracker>> TRACKERS = new WeakHashMap<>();
+
+    private ChangeTrackers() {}
+
+    /** Get the tracker for the model, attaching it on the UI thread if needed. */
+    public static ChangeTracker of(IArchimateModel model) {
+        ChangeTracker existing = peek(model);
+        if (existing != null) return existing;
+        ChangeTracker created = new ChangeTracker(model, ChangeFeed.get());
+        // never hold the registry lock while waiting for the UI thread
+        UiExec.sync(created::attach);
+        synchronized (TRACKERS) {
+            ChangeTracker raced = get(model);
+            if (raced == null) {
+                TRACKERS.put(model, new WeakReference<>(created));
+                return created;
+            }
+            existing = raced;
+        }
+        UiExec.sync(created::detach);
+        return existing;
+    }
+
+    /** Make sure the active model is tracked; returns its tracker, or null without an active model. */
+    public static ChangeTracker trackActive() {
+        IArchimateModel model = ServiceRegistry.activeModel().getActiveModel();
+        return model != null ? of(model) : null;
+    }
+
+    /** Version tag of the active model, or null without an active model. */
+    public static String activeVersionTag() {
+        ChangeTracker t = trackActive();
+        return t != null ? t.versionTag() : null;
+    }
+
+    /** Version tag of the active model if it is already tracked; never starts tracking. */
+    public static String peekActiveVersionTag() {
+        IArchimateModel model = ServiceRegistry.activeModel().getActiveModel();
+        ChangeTracker t = model != null ? peek(model) : null;
+        return t != null ? t.versionTag() : null;
+    }
+
+    /** Get the tracker for the model if it is already attached. */
+    public static ChangeTracker peek(IArchimateModel model) {
+        synchronized (TRACKERS) {
+            return get(model);
+        }
+    }
+
+    /** Detach and forget the tracker of the model. */
+    public static void dispose(IArchimateModel model) {
+        ChangeTracker t;
+        synchronized (TRACKERS) {
+            t = get(model);
+            TRACKERS.remove(model);
+        }
+        if (t != null) UiExec.sync(t::detach);
+    }
+
+    /** Detach and forget all trackers, e.g. when the server stops. */
+    public static void disposeAll() {
+        List<ChangeTracker> live = new ArrayList<>();
+        synchronized (TRACKERS) {
+            for (WeakReference<ChangeTracker> ref : TRACKERS.values()) {
+                ChangeTracker t = ref.get();
+                if (t != null) live.add(t);
+            }
+            TRACKERS.clear();
+        }
+        if (!live.isEmpty()) UiExec.sync(() -> live.forEach(ChangeTracker::detach));
+    }
+
+    public static int size() {
+        int n = 0;
+        synchronized (TRACKERS) {
+            for (WeakReference<ChangeTracker> ref : TRACKERS.values()) {
+                ChangeTracker t = ref.get();
+                if (t != null && t.isAttached()) n++;
+            }
+        }
+        return n;
+    }
+
+    private static ChangeTracker get(IArchimateModel model) {
+        WeakReference<ChangeTracker> ref = TRACKERS.get(model);
+        ChangeTracker t = ref != null ? ref.get() : null;
+        return t != null && t.isAttached() ? t : null;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.batch;
+
+import java.util.function.Supplier;
+
+import org.eclipse.gef.commands.Command;
+
+import com.archimatetool.model.IDiagramModelContainer;
+import com.archimatetool.model.IDiagramModelObject;
+
+/**
+ * Adds a diagram object to a view or container. The object is created on the
+ * first execution, on the UI thread, and reused on redo.
+ */
+public class AddDiagramObjectCommand extends Command {
+    private final IDiagramModelContainer parent;
+    private final Supplier<? extends IDiagramModelObject> factory;
+    private IDiagramModelObject object;
+
+    public AddDiagramObjectCommand(IDiagramModelContainer parent, Supplier<? extends IDiagramModelObject> factory) {
+        this.parent = parent;
+        this.factory = factory;
+    }
+
+    /** The added object, or null before the first execution. */
+    public IDiagramModelObject getObject() {
+        return object;
+    }
+
+    @Override
+    public void execute() {
+        if (object == null) object = factory.get();
+        parent.getChildren().add(object);
+    }
+
+    @Override
+    public void undo() {
+        parent.getChildren().remove(object);
+    }
+}
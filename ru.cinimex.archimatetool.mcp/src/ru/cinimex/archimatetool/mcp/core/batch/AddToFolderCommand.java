@@ -0,0 +1,54 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.batch;
+
+import org.eclipse.gef.commands.Command;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IFolder;
+
+/** Adds a new concept to a folder; undo removes it and disconnects relations again. */
+public class AddToFolderCommand extends Command {
+    private final IFolder folder;
+    private final IArchimateConcept concept;
+
+    public AddToFolderCommand(IFolder folder, IArchimateConcept concept) {
+        this.folder = folder;
+        this.concept = concept;
+    }
+
+    @Override
+    public void execute() {
+        folder.getElements().add(concept);
+    }
+
+    @Override
+    public void undo() {
+        folder.getElements().remove(concept);
+        if (concept instanceof IArchimateRelationship) {
+            ((IArchimateRelationship) concept).disconnect();
+        }
+    }
+
+    @Override
+    public void redo() {
+        if (concept instanceof IArchimateRelationship) {
+            ((IArchimateRelationship) concept).reconnect();
+        }
+        execute();
+    }
+}
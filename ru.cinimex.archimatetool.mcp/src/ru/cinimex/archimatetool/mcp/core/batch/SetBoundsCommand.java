@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.batch;
+
+import org.eclipse.gef.commands.Command;
+
+import com.archimatetool.model.IBounds;
+import com.archimatetool.model.IDiagramModelObject;
+
+/** Sets the bounds of a diagram object; undo restores the previous bounds. */
+public class SetBoundsCommand extends Command {
+    private final IDiagramModelObject object;
+    private final IBounds bounds;
+    private IBounds previous;
+
+    public SetBoundsCommand(IDiagramModelObject object, IBounds bounds) {
+        this.object = object;
+        this.bounds = bounds;
+    }
+
+    @Override
+    public void execute() {
+        previous = object.getBounds();
+        object.setBounds(bounds);
+    }
+
+    @Override
+    public void undo() {
+        object.setBounds(previous);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.batch;
+
+import org.eclipse.gef.commands.Command;
+
+import com.archimatetool.model.INameable;
+
+/** Renames a model object; undo restores the previous name. */
+public class SetNameCommand extends Command {
+    private final INameable object;
+    private final String name;
+    private String previous;
+
+    public SetNameCommand(INameable object, String name) {
+        this.object = object;
+        this.name = name;
+    }
+
+    @Override
+    public void execute() {
+        previous = object.getName();
+        object.setName(name);
+    }
+
+    @Override
+    public void undo() {
+        object.setName(previous);
+    }
+}
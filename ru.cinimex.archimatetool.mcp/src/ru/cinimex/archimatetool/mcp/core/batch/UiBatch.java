@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.batch;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.commands.CommandStack;
+import org.eclipse.gef.commands.CompoundCommand;
+
+import ru.cinimex.archimatetool.mcp.UiExec;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * Mutations of one batch call, collected after validation and applied on the
+ * UI thread in a single round trip.
+ * <p>
+ * The mutations are executed as one {@link CompoundCommand} on the command
+ * stack of the model, so the whole batch is a single undo step and the stack
+ * notifies its listeners once instead of once per item.
+ */
+public final class UiBatch {
+
+    private final CompoundCommand compound;
+    private long uiNanos;
+    private int roundTrips;
+    private boolean undoable;
+
+    public UiBatch(String label) {
+        this.compound = new CompoundCommand(label);
+    }
+
+    /** Queue a command. It runs on the UI thread in {@link #apply}. */
+    public void add(Command command) {
+        compound.add(command);
+    }
+
+    public int size() {
+        return compound.size();
+    }
+
+    /** Command stack of the model, or null when the model is not open in the editor. */
+    public static CommandStack commandStackOf(IArchimateModel model) {
+        Object stack = model != null ? model.getAdapter(CommandStack.class) : null;
+        return stack instanceof CommandStack ? (CommandStack) stack : null;
+    }
+
+    /** Execute the queued commands on the command stack of the model. */
+    public void apply(IArchimateModel model) {
+        apply(commandStackOf(model));
+    }
+
+    /**
+     * Execute the queued commands as one compound command in one UI round
+     * trip. Without a command stack the compound is executed directly and
+     * cannot be undone.
+     */
+    public void apply(CommandStack stack) {
+        if (compound.isEmpty()) return;
+        // last point a cancelled task can stop; the compound then runs as a whole
+        TaskContext.checkCancelled();
+        long[] spent = new long[1];
+        UiExec.sync(() -> {
+            long start = System.nanoTime();
+            if (stack != null) {
+                stack.execute(compound);
+            } else {
+                compound.execute();
+            }
+            spent[0] = System.nanoTime() - start;
+        });
+        uiNanos += spent[0];
+        roundTrips++;
+        undoable = stack != null;
+    }
+
+    /** Time spent on the UI thread by {@link #apply}, in nanoseconds. */
+    public long getUiNanos() {
+        return uiNanos;
+    }
+
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    /** Put the batch timings into a debug map; does nothing when the map is null. */
+    public void describe(Map<String, Object> debug) {
+        if (debug == null) return;
+        debug.put("mutations", compound.size());
+        debug.put("uiRoundTrips", roundTrips);
+        debug.put("uiThreadMs", uiNanos / 1_000_000.0);
+        debug.put("undoable", undoable);
+    }
+
+    /**
+     * Response body of a batch call: the plain item list, or an object with
+     * {@code items} and {@code debug} when debug info was requested.
+     */
+    public static Object withDebug(List<?> items, Map<String, Object> debug) {
+        if (debug == null) return items;
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("items", items);
+        resp.put("debug", debug);
+        return resp;
+    }
+}
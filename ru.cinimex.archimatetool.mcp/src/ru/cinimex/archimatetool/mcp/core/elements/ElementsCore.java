@@ -20,9 +20,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ru.cinimex.archimatetool.mcp.core.batch.AddToFolderCommand;
+import ru.cinimex.archimatetool.mcp.core.batch.SetNameCommand;
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
 import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
 import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
 import ru.cinimex.archimatetool.mcp.core.errors.NotFoundException;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
 import ru.cinimex.archimatetool.mcp.core.types.CreateElementItem;
 import ru.cinimex.archimatetool.mcp.core.types.CreateElementsCmd;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteElementItem;
@@ -32,6 +36,7 @@ import ru.cinimex.archimatetool.mcp.core.types.ListElementRelationsQuery;
 import ru.cinimex.archimatetool.mcp.core.types.UpdateElementItem;
 import ru.cinimex.archimatetool.mcp.core.types.UpdateElementsCmd;
 import ru.cinimex.archimatetool.mcp.core.validation.Validators;
+import ru.cinimex.archimatetool.mcp.index.ModelIndexes;
 import ru.cinimex.archimatetool.mcp.server.ModelApi;
 import ru.cinimex.archimatetool.mcp.service.ServiceRegistry;
 import ru.cinimex.archimatetool.mcp.util.StringCaseUtil;
@@ -53,26 +58,45 @@ public class ElementsCore {
 
     /** Create multiple elements in the active model. */
     public List<Map<String, Object>> createElements(CreateElementsCmd cmd) {
+        return createElements(cmd, null);
+    }
+
+    /**
+     * Create multiple elements. All items are validated before the first one is
+     * added, and the additions run as one undoable command.
+     * @param debug receives the UI-thread timing of the batch, may be null
+     */
+    public List<Map<String, Object>> createElements(CreateElementsCmd cmd, Map<String, Object> debug) {
         Validators.requireNonNull(cmd.items, "items");
         Validators.require(!cmd.items.isEmpty(), "items required");
-        List<Map<String, Object>> res = new ArrayList<>();
         for (CreateElementItem item : cmd.items) {
-            res.add(createElement(item));
+            Validators.requireNonEmpty(item.type, "type");
+            Validators.requireNonEmpty(item.name, "name");
         }
-        return res;
-    }
-
-    private Map<String, Object> createElement(CreateElementItem item) {
-        Validators.requireNonEmpty(item.type, "type");
-        Validators.requireNonEmpty(item.name, "name");
         var model = requireModel();
-        String camelType = StringCaseUtil.toCamelCase(item.type);
-        try {
-            var el = ServiceRegistry.elements().createElement(model, camelType, item.name, item.folderId);
-            return ModelApi.elementToDto(el);
-        } catch (IllegalArgumentException ex) {
-            throw new BadRequestException(ex.getMessage());
+        UiBatch batch = new UiBatch("Create elements");
+        List<IArchimateElement> created = new ArrayList<>();
+        for (CreateElementItem item : cmd.items) {
+            TaskContext.checkCancelled();
+            String camelType = StringCaseUtil.toCamelCase(item.type);
+            IArchimateElement el;
+            try {
+                el = ServiceRegistry.elements().newElement(camelType, item.name);
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException(ex.getMessage());
+            }
+            IFolder folder = ServiceRegistry.elements().resolveFolderFor(model, el, item.folderId);
+            batch.add(new AddToFolderCommand(folder, el));
+            created.add(el);
+            TaskContext.progress(created.size(), (long) cmd.items.size(), null);
+        }
+        batch.apply(model);
+        batch.describe(debug);
+        List<Map<String, Object>> res = new ArrayList<>();
+        for (IArchimateElement el : created) {
+            res.add(ModelApi.elementToDto(el));
         }
+        return res;
     }
 
     /** Get element by id with optional relation expansion. */
@@ -84,7 +108,7 @@ public class ElementsCore {
             throw new NotFoundException("not found");
         }
         IArchimateElement el = (IArchimateElement) o;
-        Map<String, Object> dto = new HashMap<>(ModelApi.elementToDto(el));
+        Map<String, Object> dto = ModelApi.elementToDto(el, q.fields);
         if (q.includeRelations) {
             List<Object> items = collectRelations(model, el, "both", q.includeElements);
             dto.put("relations", items);
@@ -94,28 +118,43 @@ public class ElementsCore {
 
     /** Update multiple elements. */
     public List<Map<String, Object>> updateElements(UpdateElementsCmd cmd) {
+        return updateElements(cmd, null);
+    }
+
+    /**
+     * Update multiple elements. All ids are resolved before the first change,
+     * and the changes run as one undoable command.
+     * @param debug receives the UI-thread timing of the batch, may be null
+     */
+    public List<Map<String, Object>> updateElements(UpdateElementsCmd cmd, Map<String, Object> debug) {
         Validators.requireNonNull(cmd.items, "items");
         Validators.require(!cmd.items.isEmpty(), "items required");
-        List<Map<String, Object>> res = new ArrayList<>();
         for (UpdateElementItem item : cmd.items) {
-            res.add(updateElement(item));
+            Validators.requireNonEmpty(item.id, "id");
         }
-        return res;
-    }
-
-    private Map<String, Object> updateElement(UpdateElementItem item) {
-        Validators.requireNonEmpty(item.id, "id");
         var model = requireModel();
-        Object o = ServiceRegistry.activeModel().findById(model, item.id);
-        if (!(o instanceof IArchimateElement)) {
-            throw new NotFoundException("not found");
+        UiBatch batch = new UiBatch("Update elements");
+        List<IArchimateElement> updated = new ArrayList<>();
+        for (UpdateElementItem item : cmd.items) {
+            TaskContext.checkCancelled();
+            Object o = ServiceRegistry.activeModel().findById(model, item.id);
+            if (!(o instanceof IArchimateElement)) {
+                throw new NotFoundException("not found");
+            }
+            IArchimateElement el = (IArchimateElement) o;
+            if (item.name != null) {
+                batch.add(new SetNameCommand(el, item.name));
+            }
+            updated.add(el);
+            TaskContext.progress(updated.size(), (long) cmd.items.size(), null);
         }
-        IArchimateElement el = (IArchimateElement) o;
-        if (item.name != null) {
-            final String n = item.name;
-            org.eclipse.swt.widgets.Display.getDefault().syncExec(() -> el.setName(n));
+        batch.apply(model);
+        batch.describe(debug);
+        List<Map<String, Object>> res = new ArrayList<>();
+        for (IArchimateElement el : updated) {
+            res.add(ModelApi.elementToDto(el));
         }
-        return ModelApi.elementToDto(el);
+        return res;
     }
 
     /** Delete multiple elements. */
@@ -164,31 +203,19 @@ public class ElementsCore {
 
     private List<Object> collectRelations(IArchimateModel model, IArchimateElement el, String direction, boolean includeElements) {
         List<Object> items = new ArrayList<>();
-        for (Object f : model.getFolders()) {
-            if (f instanceof IFolder folder) {
-                for (Object e : folder.getElements()) {
-                    if (e instanceof IArchimateRelationship r) {
-                        boolean isOut = r.getSource() == el;
-                        boolean isIn = r.getTarget() == el;
-                        boolean match = "both".equals(direction) || ("out".equals(direction) && isOut)
-                                || ("in".equals(direction) && isIn);
-                        if (match && (isOut || isIn)) {
-                            if (includeElements) {
-                                Map<String, Object> m = new HashMap<>();
-                                m.put("relation", ModelApi.relationToDto(r));
-                                if (r.getSource() instanceof IArchimateElement) {
-                                    m.put("source", ModelApi.elementToDto((IArchimateElement) r.getSource()));
-                                }
-                                if (r.getTarget() instanceof IArchimateElement) {
-                                    m.put("target", ModelApi.elementToDto((IArchimateElement) r.getTarget()));
-                                }
-                                items.add(m);
-                            } else {
-                                items.add(ModelApi.relationToDto(r));
-                            }
-                        }
-                    }
+        for (IArchimateRelationship r : ModelIndexes.of(model).getRelations(el, direction)) {
+            if (includeElements) {
+                Map<String, Object> m = new HashMap<>();
+                m.put("relation", ModelApi.relationToDto(r));
+                if (r.getSource() instanceof IArchimateElement) {
+                    m.put("source", ModelApi.elementToDto((IArchimateElement) r.getSource()));
+                }
+                if (r.getTarget() instanceof IArchimateElement) {
+                    m.put("target", ModelApi.elementToDto((IArchimateElement) r.getTarget()));
                 }
+                items.add(m);
+            } else {
+                items.add(ModelApi.relationToDto(r));
             }
         }
         return items;
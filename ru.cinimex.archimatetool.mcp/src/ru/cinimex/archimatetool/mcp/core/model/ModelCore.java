@@ -15,10 +15,17 @@
  */
 package ru.cinimex.archimatetool.mcp.core.model;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import ru.cinimex.archimatetool.mcp.changes.ChangeEvent;
+import ru.cinimex.archimatetool.mcp.changes.ChangeTracker;
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
 import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
+import ru.cinimex.archimatetool.mcp.core.validation.Validators;
 import ru.cinimex.archimatetool.mcp.service.ServiceRegistry;
 import com.archimatetool.model.IArchimateModel;
 
@@ -45,4 +52,30 @@ public class ModelCore {
         }
         return resp;
     }
+
+    /**
+     * Changes of the active model after the given version. Tracking starts on
+     * the first call, so a fresh client reads the model once and then polls
+     * with the returned version and epoch.
+     */
+    public Map<String,Object> getChanges(long sinceVersion, String epoch) {
+        Validators.require(sinceVersion >= 0, "since_version must be >= 0");
+        var model = requireModel();
+        ChangeTracker.Delta delta = ChangeTrackers.of(model).changesSince(sinceVersion, epoch);
+        List<Map<String,Object>> changes = new ArrayList<>(delta.changes.size());
+        for (ChangeEvent e : delta.changes) {
+            changes.add(e.toMap());
+        }
+        Map<String,Object> resp = new LinkedHashMap<>();
+        resp.put("modelId", model.getId());
+        resp.put("epoch", delta.epoch);
+        resp.put("version", delta.version);
+        resp.put("since", sinceVersion);
+        resp.put("resync", delta.resync);
+        if (delta.resync) {
+            resp.put("message", "changes since this version are no longer available; re-read the model");
+        }
+        resp.put("changes", changes);
+        return resp;
+    }
 }
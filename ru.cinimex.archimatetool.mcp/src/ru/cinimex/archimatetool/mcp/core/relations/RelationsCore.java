@@ -15,9 +15,13 @@
  */
 package ru.cinimex.archimatetool.mcp.core.relations;
 
+import ru.cinimex.archimatetool.mcp.core.batch.AddToFolderCommand;
+import ru.cinimex.archimatetool.mcp.core.batch.SetNameCommand;
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
 import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
 import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
 import ru.cinimex.archimatetool.mcp.core.errors.NotFoundException;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
 import ru.cinimex.archimatetool.mcp.core.types.CreateRelationItem;
 import ru.cinimex.archimatetool.mcp.core.types.CreateRelationsCmd;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteRelationItem;
@@ -32,6 +36,7 @@ import ru.cinimex.archimatetool.mcp.util.StringCaseUtil;
 import com.archimatetool.model.IArchimateElement;
 import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IFolder;
 
 /** Core operations for relations. */
 public class RelationsCore {
@@ -46,33 +51,52 @@ public class RelationsCore {
 
     /** Create multiple relations. */
     public java.util.List<java.util.Map<String, Object>> createRelations(CreateRelationsCmd cmd) {
+        return createRelations(cmd, null);
+    }
+
+    /**
+     * Create multiple relations. All items are validated before the first one is
+     * added, and the additions run as one undoable command.
+     * @param debug receives the UI-thread timing of the batch, may be null
+     */
+    public java.util.List<java.util.Map<String, Object>> createRelations(CreateRelationsCmd cmd, java.util.Map<String, Object> debug) {
         Validators.requireNonNull(cmd.items, "items");
         Validators.require(!cmd.items.isEmpty(), "items required");
-        java.util.List<java.util.Map<String, Object>> res = new java.util.ArrayList<>();
         for (CreateRelationItem item : cmd.items) {
-            res.add(createRelation(item));
+            Validators.requireNonEmpty(item.type, "type");
+            Validators.requireNonEmpty(item.sourceId, "sourceId");
+            Validators.requireNonEmpty(item.targetId, "targetId");
         }
-        return res;
-    }
-
-    private java.util.Map<String, Object> createRelation(CreateRelationItem item) {
-        Validators.requireNonEmpty(item.type, "type");
-        Validators.requireNonEmpty(item.sourceId, "sourceId");
-        Validators.requireNonEmpty(item.targetId, "targetId");
         var model = requireModel();
-        Object so = ServiceRegistry.activeModel().findById(model, item.sourceId);
-        Object to = ServiceRegistry.activeModel().findById(model, item.targetId);
-        if (!(so instanceof IArchimateElement) || !(to instanceof IArchimateElement)) {
-            throw new NotFoundException("source or target not found");
+        UiBatch batch = new UiBatch("Create relations");
+        java.util.List<IArchimateRelationship> created = new java.util.ArrayList<>();
+        for (CreateRelationItem item : cmd.items) {
+            TaskContext.checkCancelled();
+            Object so = ServiceRegistry.activeModel().findById(model, item.sourceId);
+            Object to = ServiceRegistry.activeModel().findById(model, item.targetId);
+            if (!(so instanceof IArchimateElement) || !(to instanceof IArchimateElement)) {
+                throw new NotFoundException("source or target not found");
+            }
+            String camelType = StringCaseUtil.toCamelCase(item.type);
+            IArchimateRelationship rel;
+            try {
+                rel = ServiceRegistry.relations().newRelation(camelType, item.name != null ? item.name : "",
+                        (IArchimateElement) so, (IArchimateElement) to);
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException(ex.getMessage());
+            }
+            IFolder folder = ServiceRegistry.relations().resolveFolderFor(model, rel, item.folderId);
+            batch.add(new AddToFolderCommand(folder, rel));
+            created.add(rel);
+            TaskContext.progress(created.size(), (long) cmd.items.size(), null);
         }
-        String camelType = StringCaseUtil.toCamelCase(item.type);
-        try {
-            var rel = ServiceRegistry.relations().createRelation(model, camelType, item.name != null ? item.name : "",
-                    (IArchimateElement) so, (IArchimateElement) to, item.folderId);
-            return ModelApi.relationToDto(rel);
-        } catch (IllegalArgumentException ex) {
-            throw new BadRequestException(ex.getMessage());
+        batch.apply(model);
+        batch.describe(debug);
+        java.util.List<java.util.Map<String, Object>> res = new java.util.ArrayList<>();
+        for (IArchimateRelationship rel : created) {
+            res.add(ModelApi.relationToDto(rel));
         }
+        return res;
     }
 
     /** Get relation by id. */
@@ -88,28 +112,43 @@ public class RelationsCore {
 
     /** Update multiple relations. */
     public java.util.List<java.util.Map<String, Object>> updateRelations(UpdateRelationsCmd cmd) {
+        return updateRelations(cmd, null);
+    }
+
+    /**
+     * Update multiple relations. All ids are resolved before the first change,
+     * and the changes run as one undoable command.
+     * @param debug receives the UI-thread timing of the batch, may be null
+     */
+    public java.util.List<java.util.Map<String, Object>> updateRelations(UpdateRelationsCmd cmd, java.util.Map<String, Object> debug) {
         Validators.requireNonNull(cmd.items, "items");
         Validators.require(!cmd.items.isEmpty(), "items required");
-        java.util.List<java.util.Map<String, Object>> res = new java.util.ArrayList<>();
         for (UpdateRelationItem item : cmd.items) {
-            res.add(updateRelation(item));
+            Validators.requireNonEmpty(item.id, "id");
         }
-        return res;
-    }
-
-    private java.util.Map<String, Object> updateRelation(UpdateRelationItem item) {
-        Validators.requireNonEmpty(item.id, "id");
         var model = requireModel();
-        Object o = ServiceRegistry.activeModel().findById(model, item.id);
-        if (!(o instanceof IArchimateRelationship)) {
-            throw new NotFoundException("not found");
+        UiBatch batch = new UiBatch("Update relations");
+        java.util.List<IArchimateRelationship> updated = new java.util.ArrayList<>();
+        for (UpdateRelationItem item : cmd.items) {
+            TaskContext.checkCancelled();
+            Object o = ServiceRegistry.activeModel().findById(model, item.id);
+            if (!(o instanceof IArchimateRelationship)) {
+                throw new NotFoundException("not found");
+            }
+            IArchimateRelationship r = (IArchimateRelationship) o;
+            if (item.name != null) {
+                batch.add(new SetNameCommand(r, item.name));
+            }
+            updated.add(r);
+            TaskContext.progress(updated.size(), (long) cmd.items.size(), null);
         }
-        IArchimateRelationship r = (IArchimateRelationship) o;
-        if (item.name != null) {
-            final String n = item.name;
-            org.eclipse.swt.widgets.Display.getDefault().syncExec(() -> r.setName(n));
+        batch.apply(model);
+        batch.describe(debug);
+        java.util.List<java.util.Map<String, Object>> res = new java.util.ArrayList<>();
+        for (IArchimateRelationship r : updated) {
+            res.add(ModelApi.relationToDto(r));
         }
-        return ModelApi.relationToDto(r);
+        return res;
     }
 
     /** Delete multiple relations. */
@@ -32,10 +32,12 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import ru.cinimex.archimatetool.mcp.Config;
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.errors.NotImplementedException;
 import ru.cinimex.archimatetool.mcp.core.errors.UnprocessableException;
 import ru.cinimex.archimatetool.mcp.core.errors.TimeoutException;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
 import ru.cinimex.archimatetool.mcp.core.validation.Validators;
 
 import org.eclipse.core.runtime.Platform;
@@ -46,6 +48,8 @@ public class ScriptingCore {
 
     /** Maximum number of characters captured for stdout/stderr. */
     private static final int MAX_LOG_CHARS = 10_000;
+    /** How often a running script reports elapsed milliseconds as task progress. */
+    private static final long PROGRESS_INTERVAL_MS = 1000;
 
     /** Determine whether a compatible scripting plugin is installed. */
     public boolean isPluginInstalled() {
@@ -117,7 +121,9 @@ public class ScriptingCore {
 
         Integer timeout = req.timeoutMs();
         if (timeout != null) {
-            Validators.require(timeout > 0 && timeout <= 60_000, "invalid timeoutMs");
+            // background tasks may run longer than a blocking HTTP call
+            int max = TaskContext.current() != null ? Config.resolveTaskScriptTimeoutMs() : 60_000;
+            Validators.require(timeout > 0 && timeout <= max, "invalid timeoutMs");
         }
 
         return new ScriptRequest(
@@ -226,15 +232,23 @@ public class ScriptingCore {
         ExecutorService exec = Executors.newSingleThreadExecutor();
         try {
             Future<ScriptResult> fut = exec.submit(task);
-            if (req.timeoutMs() != null && req.timeoutMs() > 0) {
-                try {
-                    return fut.get(req.timeoutMs(), TimeUnit.MILLISECONDS);
-                } catch (java.util.concurrent.TimeoutException e) {
+            Long total = req.timeoutMs() != null && req.timeoutMs() > 0 ? Long.valueOf(req.timeoutMs()) : null;
+            long start = System.currentTimeMillis();
+            // wait in slices so a task reports elapsed time and notices cancellation
+            while (true) {
+                TaskContext.checkCancelled();
+                long elapsed = System.currentTimeMillis() - start;
+                long wait = total != null ? Math.min(PROGRESS_INTERVAL_MS, total - elapsed) : PROGRESS_INTERVAL_MS;
+                if (wait <= 0) {
                     fut.cancel(true);
                     throw new TimeoutException("script timed out");
                 }
+                try {
+                    return fut.get(wait, TimeUnit.MILLISECONDS);
+                } catch (java.util.concurrent.TimeoutException e) {
+                    TaskContext.progress(System.currentTimeMillis() - start, total, "running script");
+                }
             }
-            return fut.get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new UnprocessableException("script interrupted", e);
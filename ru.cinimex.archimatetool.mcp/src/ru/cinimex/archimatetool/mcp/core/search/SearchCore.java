@@ -17,13 +17,20 @@ package ru.cinimex.archimatetool.mcp.core.search;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
 
 import ru.cinimex.archimatetool.mcp.Config;
 import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
 import ru.cinimex.archimatetool.mcp.core.types.SearchQuery;
 import ru.cinimex.archimatetool.mcp.core.validation.Validators;
+import ru.cinimex.archimatetool.mcp.index.ModelIndexes;
+import ru.cinimex.archimatetool.mcp.index.TextIndex;
 import ru.cinimex.archimatetool.mcp.server.ModelApi;
 import ru.cinimex.archimatetool.mcp.service.ServiceRegistry;
 import com.archimatetool.model.IArchimateElement;
@@ -56,107 +63,46 @@ public class SearchCore {
         }
 
         String qlc = q.q != null ? q.q.toLowerCase() : null;
-        List<Object> items = new ArrayList<>();
-
-        final int[] foldersScanned = new int[]{0};
-        final int[] elementsScanned = new int[]{0};
-        final int[] elementsMatched = new int[]{0};
-        final int[] relationsScanned = new int[]{0};
-        final int[] relationsMatched = new int[]{0};
-        final int[] viewsScanned = new int[]{0};
-        final int[] viewsMatched = new int[]{0};
-        final List<String> sampleMatches = new ArrayList<>();
-
-        final String fKind = q.kind;
-        final String fElementType = q.elementType;
-        final String fRelationType = q.relationType;
-        final boolean fIncludeDocs = q.includeDocs;
-        final boolean fIncludeProps = q.includeProps;
-        final String fQlc = qlc;
-        final Map<String,String> fPropEq = q.propertyFilters;
-
-        java.util.function.Consumer<IFolder> scanFolder = new java.util.function.Consumer<>() {
-            @Override public void accept(IFolder folder) {
-                foldersScanned[0]++;
-                for (Object e : folder.getElements()) {
-                    if (e instanceof IArchimateElement el) {
-                        elementsScanned[0]++;
-                        boolean ok = (fKind == null || "element".equalsIgnoreCase(fKind));
-                        if (ok && fQlc != null) ok &= (el.getName() != null && el.getName().toLowerCase().contains(fQlc))
-                                || (fIncludeDocs && el.getDocumentation() != null && el.getDocumentation().toLowerCase().contains(fQlc));
-                        if (ok && fElementType != null) ok &= el.eClass().getName().equalsIgnoreCase(fElementType) || el.eClass().getName().equals(fElementType);
-                        if (!fPropEq.isEmpty() || fIncludeProps) {
-                            Map<String,String> have = new HashMap<>();
-                            for (Object pr : el.getProperties()) {
-                                if (pr instanceof com.archimatetool.model.IProperty ip) {
-                                    have.put(ip.getKey(), ip.getValue());
-                                }
-                            }
-                            for (Map.Entry<String,String> en : fPropEq.entrySet()) {
-                                String hv = have.get(en.getKey());
-                                if (hv == null || !hv.equals(en.getValue())) { ok = false; break; }
-                            }
-                            if (fIncludeProps && fPropEq.isEmpty() && fQlc != null) {
-                                boolean any = false;
-                                for (Map.Entry<String,String> en : have.entrySet()) {
-                                    if ((en.getKey() != null && en.getKey().toLowerCase().contains(fQlc)) || (en.getValue() != null && en.getValue().toLowerCase().contains(fQlc))) { any = true; break; }
-                                }
-                                ok = ok || any;
-                            }
-                        }
-                        if (ok) {
-                            elementsMatched[0]++;
-                            if (sampleMatches.size() < 5) sampleMatches.add(el.getName());
-                            items.add(Map.of("kind","element","element", ModelApi.elementToDto(el)));
-                        }
-                    } else if (e instanceof IArchimateRelationship r) {
-                        relationsScanned[0]++;
-                        boolean ok = (fKind == null || "relation".equalsIgnoreCase(fKind));
-                        if (ok && fQlc != null) ok &= (r.getName() != null && r.getName().toLowerCase().contains(fQlc));
-                        if (ok && fRelationType != null) ok &= r.eClass().getName().equalsIgnoreCase(fRelationType) || r.eClass().getName().equals(fRelationType);
-                        if (ok) {
-                            relationsMatched[0]++;
-                            if (sampleMatches.size() < 5) sampleMatches.add(r.getName());
-                            items.add(Map.of("kind","relation","relation", ModelApi.relationToDto(r)));
-                        }
-                    } else if (e instanceof IDiagramModel v) {
-                        viewsScanned[0]++;
-                        boolean ok = (fKind == null || "view".equalsIgnoreCase(fKind));
-                        if (ok && fQlc != null) ok &= (v.getName() != null && v.getName().toLowerCase().contains(fQlc));
-                        if (ok) {
-                            viewsMatched[0]++;
-                            if (sampleMatches.size() < 5) sampleMatches.add(v.getName());
-                            items.add(Map.of("kind","view","view", ModelApi.viewToDto(v)));
-                        }
-                    }
-                }
-                for (Object sf : folder.getFolders()) if (sf instanceof IFolder) accept((IFolder) sf);
+        // without an exact total the scan stops once the page plus one lookahead match is found
+        int stopAt = !q.total && !q.countOnly ? (int) Math.min(Integer.MAX_VALUE, (long) offset + limit + 1) : Integer.MAX_VALUE;
+        Set<EObject> candidates = null;
+        if (qlc != null && Config.isSearchIndexEnabled()) {
+            candidates = candidates(ModelIndexes.of(model).getTextIndex(), q, qlc);
+        }
+        String path = candidates != null ? "index" : "scan";
+        // both paths walk the folders so pages come out in the same order; the index only skips non-candidates
+        Matcher matcher = new Matcher(q, qlc, candidates, !q.countOnly, stopAt);
+        for (Object f : model.getFolders()) if (f instanceof IFolder) matcher.scanFolder((IFolder) f);
+        List<EObject> hits = matcher.hits;
+        int total = q.countOnly ? matcher.matched() : hits.size();
+        boolean hasMore = hits.size() > (long) offset + limit;
+        // DTOs are only built for the returned page
+        List<Object> page = new ArrayList<>();
+        if (!q.countOnly) {
+            int from = Math.min(offset, hits.size());
+            int to = Math.min(from + limit, hits.size());
+            for (EObject o : hits.subList(from, to)) {
+                page.add(toItem(o, q.fields));
             }
-        };
-
-        for (Object f : model.getFolders()) if (f instanceof IFolder) scanFolder.accept((IFolder) f);
-
-        int total = items.size();
-        int from = Math.min(offset, total);
-        int to = Math.min(from + limit, total);
-        List<Object> page = items.subList(from, to);
+        }
 
         boolean doLog = Config.isDebugEnabled() || q.debug;
         if (doLog) {
             StringBuilder sb = new StringBuilder();
             sb.append("[Archi MCP][search] q='").append(q.q).append("' kind=").append(q.kind)
               .append(" includeDocs=").append(q.includeDocs).append(" includeProps=").append(q.includeProps)
-              .append(" limit=").append(limit).append(" offset=").append(offset).append('\n');
-            sb.append("  scanned: folders=").append(foldersScanned[0])
-              .append(" elements=").append(elementsScanned[0])
-              .append(" relations=").append(relationsScanned[0])
-              .append(" views=").append(viewsScanned[0]).append('\n');
-            sb.append("  matched: elements=").append(elementsMatched[0])
-              .append(" relations=").append(relationsMatched[0])
-              .append(" views=").append(viewsMatched[0])
+              .append(" limit=").append(limit).append(" offset=").append(offset)
+              .append(" path=").append(path).append('\n');
+            sb.append("  scanned: folders=").append(matcher.foldersScanned)
+              .append(" elements=").append(matcher.elementsScanned)
+              .append(" relations=").append(matcher.relationsScanned)
+              .append(" views=").append(matcher.viewsScanned).append('\n');
+            sb.append("  matched: elements=").append(matcher.elementsMatched)
+              .append(" relations=").append(matcher.relationsMatched)
+              .append(" views=").append(matcher.viewsMatched)
               .append(" total=").append(total).append('\n');
-            if (!sampleMatches.isEmpty()) {
-                sb.append("  samples: ").append(String.join(", ", sampleMatches));
+            if (!matcher.sampleMatches.isEmpty()) {
+                sb.append("  samples: ").append(String.join(", ", matcher.sampleMatches));
             }
             String msg = sb.toString();
             if ("script".equalsIgnoreCase(q.logTarget)) {
@@ -178,6 +124,16 @@ public class SearchCore {
         Map<String,Object> resp = new HashMap<>();
         resp.put("total", total);
         resp.put("items", page);
+        if (q.countOnly) {
+            Map<String,Object> counts = new HashMap<>();
+            counts.put("element", matcher.elementsMatched);
+            counts.put("relation", matcher.relationsMatched);
+            counts.put("view", matcher.viewsMatched);
+            resp.put("counts", counts);
+        } else if (!q.total) {
+            resp.put("hasMore", hasMore);
+            resp.put("totalExact", !hasMore);
+        }
         if (doLog) {
             Map<String,Object> dbg = new HashMap<>();
             dbg.put("query", q.q);
@@ -186,21 +142,154 @@ public class SearchCore {
             dbg.put("includeProps", q.includeProps);
             dbg.put("limit", limit);
             dbg.put("offset", offset);
+            dbg.put("path", path);
+            if (candidates != null) dbg.put("candidates", candidates.size());
             Map<String,Object> scanned = new HashMap<>();
-            scanned.put("folders", foldersScanned[0]);
-            scanned.put("elements", elementsScanned[0]);
-            scanned.put("relations", relationsScanned[0]);
-            scanned.put("views", viewsScanned[0]);
+            scanned.put("folders", matcher.foldersScanned);
+            scanned.put("elements", matcher.elementsScanned);
+            scanned.put("relations", matcher.relationsScanned);
+            scanned.put("views", matcher.viewsScanned);
             Map<String,Object> matched = new HashMap<>();
-            matched.put("elements", elementsMatched[0]);
-            matched.put("relations", relationsMatched[0]);
-            matched.put("views", viewsMatched[0]);
+            matched.put("elements", matcher.elementsMatched);
+            matched.put("relations", matcher.relationsMatched);
+            matched.put("views", matcher.viewsMatched);
             matched.put("total", total);
             dbg.put("scanned", scanned);
             dbg.put("matched", matched);
-            if (!sampleMatches.isEmpty()) dbg.put("samples", new ArrayList<>(sampleMatches));
+            if (!matcher.sampleMatches.isEmpty()) dbg.put("samples", new ArrayList<>(matcher.sampleMatches));
             resp.put("debug", dbg);
         }
         return resp;
     }
+
+    private static Map<String, Object> toItem(EObject o, Fields f) {
+        if (o instanceof IArchimateElement el) return Map.of("kind", "element", "element", ModelApi.elementToDto(el, f));
+        if (o instanceof IArchimateRelationship r) return Map.of("kind", "relation", "relation", ModelApi.relationToDto(r, f));
+        return Map.of("kind", "view", "view", ModelApi.viewToDto((IDiagramModel) o, f));
+    }
+
+    /**
+     * Union of the fields the query can match on. Returns null when there is
+     * no text index or the query has no indexable token.
+     */
+    private static Set<EObject> candidates(TextIndex text, SearchQuery q, String qlc) {
+        if (text == null) return null;
+        Set<EObject> names = text.candidates(qlc, TextIndex.Field.NAME);
+        if (names == null) return null;
+        Set<EObject> out = new HashSet<>(names);
+        if (q.includeDocs) out.addAll(text.candidates(qlc, TextIndex.Field.DOCUMENTATION));
+        if (q.includeProps && q.propertyFilters.isEmpty()) out.addAll(text.candidates(qlc, TextIndex.Field.PROPERTIES));
+        return out;
+    }
+
+    /** Match predicate shared by the scan and the index paths, with scan counters and collected hits in folder order. */
+    private static final class Matcher {
+        final String kind;
+        final String elementType;
+        final String relationType;
+        final boolean includeDocs;
+        final boolean includeProps;
+        final String qlc;
+        final Map<String,String> propEq;
+        /** Index candidates, or null to test every object. */
+        final Set<EObject> only;
+        final boolean collect;
+        final int stopAt;
+        final List<EObject> hits = new ArrayList<>();
+
+        int foldersScanned;
+        int elementsScanned;
+        int elementsMatched;
+        int relationsScanned;
+        int relationsMatched;
+        int viewsScanned;
+        int viewsMatched;
+        final List<String> sampleMatches = new ArrayList<>();
+
+        Matcher(SearchQuery q, String qlc, Set<EObject> only, boolean collect, int stopAt) {
+            this.kind = q.kind;
+            this.elementType = q.elementType;
+            this.relationType = q.relationType;
+            this.includeDocs = q.includeDocs;
+            this.includeProps = q.includeProps;
+            this.qlc = qlc;
+            this.propEq = q.propertyFilters;
+            this.only = only;
+            this.collect = collect;
+            this.stopAt = stopAt;
+        }
+
+        boolean isFull() {
+            return hits.size() >= stopAt;
+        }
+
+        int matched() {
+            return elementsMatched + relationsMatched + viewsMatched;
+        }
+
+        void scanFolder(IFolder folder) {
+            if (isFull()) return;
+            foldersScanned++;
+            for (Object e : folder.getElements()) {
+                if (isFull()) return;
+                if (only == null || only.contains(e)) accept(e);
+            }
+            for (Object sf : folder.getFolders()) if (sf instanceof IFolder) scanFolder((IFolder) sf);
+        }
+
+        private void hit(EObject o, String name) {
+            if (sampleMatches.size() < 5) sampleMatches.add(name);
+            if (collect) hits.add(o);
+        }
+
+        void accept(Object e) {
+            if (e instanceof IArchimateElement el) {
+                elementsScanned++;
+                boolean ok = (kind == null || "element".equalsIgnoreCase(kind));
+                if (ok && qlc != null) ok &= (el.getName() != null && el.getName().toLowerCase().contains(qlc))
+                        || (includeDocs && el.getDocumentation() != null && el.getDocumentation().toLowerCase().contains(qlc));
+                if (ok && elementType != null) ok &= el.eClass().getName().equalsIgnoreCase(elementType) || el.eClass().getName().equals(elementType);
+                if (!propEq.isEmpty() || includeProps) {
+                    Map<String,String> have = new HashMap<>();
+                    for (Object pr : el.getProperties()) {
+                        if (pr instanceof com.archimatetool.model.IProperty ip) {
+                            have.put(ip.getKey(), ip.getValue());
+                        }
+                    }
+                    for (Map.Entry<String,String> en : propEq.entrySet()) {
+                        String hv = have.get(en.getKey());
+                        if (hv == null || !hv.equals(en.getValue())) { ok = false; break; }
+                    }
+                    if (includeProps && propEq.isEmpty() && qlc != null) {
+                        boolean any = false;
+                        for (Map.Entry<String,String> en : have.entrySet()) {
+                            if ((en.getKey() != null && en.getKey().toLowerCase().contains(qlc)) || (en.getValue() != null && en.getValue().toLowerCase().contains(qlc))) { any = true; break; }
+                        }
+                        ok = ok || any;
+                    }
+                }
+                if (ok) {
+                    elementsMatched++;
+                    hit(el, el.getName());
+                }
+            } else if (e instanceof IArchimateRelationship r) {
+                relationsScanned++;
+                boolean ok = (kind == null || "relation".equalsIgnoreCase(kind));
+                if (ok && qlc != null) ok &= (r.getName() != null && r.getName().toLowerCase().contains(qlc));
+                if (ok && relationType != null) ok &= r.eClass().getName().equalsIgnoreCase(relationType) || r.eClass().getName().equals(relationType);
+                if (ok) {
+                    relationsMatched++;
+                    hit(r, r.getName());
+                }
+            } else if (e instanceof IDiagramModel v) {
+                viewsScanned++;
+                boolean ok = (kind == null || "view".equalsIgnoreCase(kind));
+                if (ok && qlc != null) ok &= (v.getName() != null && v.getName().toLowerCase().contains(qlc));
+                if (ok) {
+                    viewsMatched++;
+                    hit(v, v.getName());
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.tasks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
+
+/**
+ * A tool call running in the background, see {@link TaskManager}.
+ * <p>
+ * Fields written by the worker are volatile so pollers read them without locking.
+ */
+public final class Task {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public String id() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final String id;
+    private final String tool;
+    private final String owner;
+    private final Object requestId;
+    private final Object progressToken;
+    private final Consumer<Task> listener;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile State state = State.RUNNING;
+    private volatile long finishedAt;
+    private volatile long progress;
+    private volatile Long total;
+    private volatile String message;
+    private volatile Object result;
+    private volatile String errorType;
+    private volatile String errorMessage;
+    private volatile Throwable error;
+    private volatile Future<?> future;
+
+    Task(String id, String tool, String owner, Object requestId, Object progressToken, Consumer<Task> listener) {
+        this.id = id;
+        this.tool = tool;
+        this.owner = owner;
+        this.requestId = requestId;
+        this.progressToken = progressToken;
+        this.listener = listener;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTool() {
+        return tool;
+    }
+
+    /** MCP session that started the task, or null. */
+    public String getOwner() {
+        return owner;
+    }
+
+    /** JSON-RPC id of the request that started the task, or null. */
+    public Object getRequestId() {
+        return requestId;
+    }
+
+    /** MCP progress token supplied by the client, or null. */
+    public Object getProgressToken() {
+        return progressToken;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isDone() {
+        return state != State.RUNNING;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    /** Exception a failed task ended with, or null. */
+    public Throwable getError() {
+        return error;
+    }
+
+    /** Snapshot of the task; the result is only included when asked for. */
+    public Map<String, Object> toMap(boolean withResult) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("taskId", id);
+        m.put("tool", tool);
+        m.put("state", state.id());
+        m.put("progress", progress);
+        if (total != null) m.put("total", total);
+        if (message != null) m.put("message", message);
+        m.put("createdAt", createdAt);
+        if (finishedAt > 0) {
+            m.put("finishedAt", finishedAt);
+            m.put("durationMs", finishedAt - createdAt);
+        }
+        if (errorMessage != null) {
+            Map<String, Object> err = new LinkedHashMap<>();
+            err.put("type", errorType);
+            err.put("message", errorMessage);
+            m.put("error", err);
+        }
+        if (withResult && state == State.COMPLETED) m.put("result", result);
+        return m;
+    }
+
+    /** MCP notifications/progress message, or null when the client gave no token. */
+    public Map<String, Object> progressNotification() {
+        if (progressToken == null) return null;
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("progressToken", progressToken);
+        params.put("progress", progress);
+        if (total != null) params.put("total", total);
+        if (message != null) params.put("message", message);
+        Map<String, Object> n = new LinkedHashMap<>();
+        n.put("jsonrpc", "2.0");
+        n.put("method", "notifications/progress");
+        n.put("params", params);
+        return n;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    Consumer<Task> getListener() {
+        return listener;
+    }
+
+    void progress(long done, Long total, String message) {
+        this.progress = done;
+        if (total != null) this.total = total;
+        if (message != null) this.message = message;
+    }
+
+    synchronized boolean complete(Object value) {
+        if (isDone()) return false;
+        result = value;
+        if (total != null) progress = total;
+        finish(State.COMPLETED);
+        return true;
+    }
+
+    synchronized boolean fail(Throwable error) {
+        if (isDone()) return false;
+        this.error = error;
+        errorType = error instanceof CoreException ? error.getClass().getSimpleName() : "InternalError";
+        errorMessage = error instanceof CoreException || error.getMessage() == null
+                ? error.getMessage() : "internal error: " + error.getMessage();
+        finish(State.FAILED);
+        return true;
+    }
+
+    synchronized boolean cancel(String reason) {
+        if (isDone()) return false;
+        if (reason != null) message = reason;
+        finish(State.CANCELLED);
+        return true;
+    }
+
+    private void finish(State s) {
+        finishedAt = System.currentTimeMillis();
+        state = s;
+    }
+}
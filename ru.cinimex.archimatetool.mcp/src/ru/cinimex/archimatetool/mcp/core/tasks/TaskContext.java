@@ -0,0 +1,63 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.tasks;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Access to the task the current thread runs for. Outside of a task every call is a no-op,
+ * so core code can report progress and honour cancellation unconditionally.
+ */
+public final class TaskContext {
+
+    private static final ThreadLocal<Task> CURRENT = new ThreadLocal<>();
+
+    private TaskContext() {}
+
+    /** Task of the current thread, or null for a synchronous call. */
+    public static Task current() {
+        return CURRENT.get();
+    }
+
+    /** Report progress of the current task. */
+    public static void progress(long done, Long total, String message) {
+        Task t = CURRENT.get();
+        if (t != null && !t.isDone()) {
+            t.progress(done, total, message);
+            TaskManager.get().fireProgress(t);
+        }
+    }
+
+    public static boolean isCancelled() {
+        Task t = CURRENT.get();
+        return t != null && t.getState() == Task.State.CANCELLED;
+    }
+
+    /** Abort the current task when it has been cancelled. */
+    public static void checkCancelled() {
+        if (isCancelled() || (CURRENT.get() != null && Thread.currentThread().isInterrupted())) {
+            throw new CancellationException("task cancelled");
+        }
+    }
+
+    static void enter(Task task) {
+        CURRENT.set(task);
+    }
+
+    static void leave() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.tasks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import ru.cinimex.archimatetool.mcp.Config;
+import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
+import ru.cinimex.archimatetool.mcp.core.errors.NotFoundException;
+
+/**
+ * Runs tool calls in the background on a small worker pool.
+ * <p>
+ * The task table is bounded: finished tasks are evicted once their TTL has passed or
+ * when room is needed for a new one, and submitting fails while every slot holds a
+ * running task. Listeners are told about progress and completion so a transport can
+ * forward them to the client as MCP notifications.
+ */
+public final class TaskManager {
+
+    private static final class Holder {
+        static final TaskManager INSTANCE = new TaskManager(Config.resolveTaskWorkers(),
+                Config.resolveTaskMax(), Config.resolveTaskTtlSeconds() * 1000L);
+    }
+
+    private final int maxTasks;
+    private final long ttlMs;
+    private final ThreadPoolExecutor pool;
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final List<Consumer<Task>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public TaskManager(int workers, int maxTasks, long ttlMs) {
+        this.maxTasks = maxTasks;
+        this.ttlMs = ttlMs;
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "archi-mcp-task-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static TaskManager get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Start a task.
+     *
+     * @param requestId JSON-RPC id of the starting request, used by notifications/cancelled
+     * @param progressToken MCP progress token, or null
+     */
+    public Task submit(String tool, Object requestId, Object progressToken, Callable<Object> work) {
+        return submit(tool, null, requestId, progressToken, null, work);
+    }
+
+    /**
+     * Start a task with its own listener, registered before the task can run so
+     * no progress or completion event is missed.
+     *
+     * @param owner MCP session of the starting request; only that session can cancel it by request id
+     */
+    public Task submit(String tool, String owner, Object requestId, Object progressToken, Consumer<Task> listener,
+            Callable<Object> work) {
+        Task task = new Task(UUID.randomUUID().toString(), tool, owner, requestId, progressToken, listener);
+        synchronized (tasks) {
+            evictExpired(System.currentTimeMillis());
+            if (tasks.size() >= maxTasks && !evictOldestFinished()) {
+                rejected.incrementAndGet();
+                throw new ConflictException("too many running tasks, max " + maxTasks);
+            }
+            tasks.put(task.getId(), task);
+        }
+        submitted.incrementAndGet();
+        task.setFuture(pool.submit(() -> run(task, work)));
+        return task;
+    }
+
+    public Task find(String id) {
+        synchronized (tasks) {
+            evictExpired(System.currentTimeMillis());
+            Task t = tasks.get(id);
+            if (t == null) throw new NotFoundException("task not found");
+            return t;
+        }
+    }
+
+    /** Find a task and wait up to waitMs for it to finish. */
+    public Task await(String id, long waitMs) {
+        Task t = find(id);
+        Future<?> f = t.getFuture();
+        if (waitMs > 0 && !t.isDone() && f != null) {
+            try {
+                f.get(waitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (java.util.concurrent.TimeoutException | ExecutionException | CancellationException e) {
+                // still running, or the state already tells what happened
+            }
+        }
+        return t;
+    }
+
+    /** Cancel a task; returns it in its final state. */
+    public Task cancel(String id, String reason) {
+        Task t = find(id);
+        doCancel(t, reason);
+        return t;
+    }
+
+    /**
+     * Cancel the running tasks a session started with a JSON-RPC request; returns
+     * how many were cancelled. Request ids are only unique within a session, so
+     * without one nothing matches. A number never matches a string.
+     */
+    public int cancelByRequestId(String owner, Object requestId, String reason) {
+        if (owner == null || requestId == null) return 0;
+        List<Task> matches = new ArrayList<>();
+        synchronized (tasks) {
+            for (Task t : tasks.values()) {
+                if (!t.isDone() && owner.equals(t.getOwner()) && sameId(requestId, t.getRequestId())) {
+                    matches.add(t);
+                }
+            }
+        }
+        int n = 0;
+        for (Task t : matches) {
+            if (doCancel(t, reason)) n++;
+        }
+        return n;
+    }
+
+    public List<Task> list() {
+        synchronized (tasks) {
+            evictExpired(System.currentTimeMillis());
+            return new ArrayList<>(tasks.values());
+        }
+    }
+
+    public void addListener(Consumer<Task> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Task> listener) {
+        listeners.remove(listener);
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        int running = 0;
+        synchronized (tasks) {
+            size = tasks.size();
+            for (Task t : tasks.values()) {
+                if (!t.isDone()) running++;
+            }
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("workers", pool.getMaximumPoolSize());
+        m.put("maxTasks", maxTasks);
+        m.put("ttlSeconds", ttlMs / 1000);
+        m.put("size", size);
+        m.put("running", running);
+        m.put("submitted", submitted.get());
+        m.put("completed", completed.get());
+        m.put("failed", failed.get());
+        m.put("cancelled", cancelled.get());
+        m.put("evicted", evicted.get());
+        m.put("rejected", rejected.get());
+        return m;
+    }
+
+    /** Cancel everything and stop the workers, e.g. on plugin shutdown. */
+    public void shutdown() {
+        for (Task t : list()) {
+            doCancel(t, "shutdown");
+        }
+        pool.shutdownNow();
+    }
+
+    void fireProgress(Task task) {
+        Consumer<Task> own = task.getListener();
+        if (own != null) {
+            try {
+                own.accept(task);
+            } catch (RuntimeException ignore) {
+                // a broken listener must not fail the task
+            }
+        }
+        for (Consumer<Task> l : listeners) {
+            try {
+                l.accept(task);
+            } catch (RuntimeException ignore) {
+                // a broken listener must not fail the task
+            }
+        }
+    }
+
+    private void run(Task task, Callable<Object> work) {
+        if (task.isDone()) return;
+        TaskContext.enter(task);
+        try {
+            Object value = work.call();
+            if (task.complete(value)) completed.incrementAndGet();
+        } catch (CancellationException e) {
+            if (task.cancel(null)) cancelled.incrementAndGet();
+        } catch (Throwable ex) {
+            // a cancelled task usually ends with an interruption error; keep it cancelled
+            if (task.fail(ex)) failed.incrementAndGet();
+        } finally {
+            TaskContext.leave();
+            Thread.interrupted();
+            fireProgress(task);
+        }
+    }
+
+    private boolean doCancel(Task t, String reason) {
+        if (!t.cancel(reason)) return false;
+        cancelled.incrementAndGet();
+        Future<?> f = t.getFuture();
+        if (f != null) f.cancel(true);
+        fireProgress(t);
+        return true;
+    }
+
+    private static boolean sameId(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            // the same JSON number may bind to Integer or Long
+            return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString())) == 0;
+        }
+        return a != null && !(a instanceof Number) && !(b instanceof Number) && a.equals(b);
+    }
+
+    private void evictExpired(long now) {
+        for (Iterator<Task> it = tasks.values().iterator(); it.hasNext();) {
+            Task t = it.next();
+            if (t.isDone() && now - t.getFinishedAt() >= ttlMs) {
+                it.remove();
+                evicted.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean evictOldestFinished() {
+        for (Iterator<Task> it = tasks.values().iterator(); it.hasNext();) {
+            if (it.next().isDone()) {
+                it.remove();
+                evicted.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.types;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+
+/**
+ * Sparse fieldset: the DTO properties a caller asked for. Ids ({@code id},
+ * {@code objectId}) are always included so results stay addressable, and
+ * {@link #ALL} keeps every property.
+ */
+public final class Fields {
+
+    public static final Fields ALL = new Fields(null);
+
+    /** Every property name a DTO of this plugin can carry. */
+    public static final Set<String> KNOWN = Set.of("id", "objectId", "modelId", "type", "name", "documentation",
+            "folderId", "folderPath", "sourceId", "targetId", "parentObjectId", "elementId", "relationId", "bounds",
+            "sourceObjectId", "targetObjectId");
+
+    private final Set<String> names;
+
+    private Fields(Set<String> names) {
+        this.names = names;
+    }
+
+    /** Fields from a list of names; null or empty selects all. */
+    public static Fields of(Collection<String> names) {
+        if (names == null || names.isEmpty()) return ALL;
+        Set<String> set = new LinkedHashSet<>();
+        for (String n : names) {
+            String name = n == null ? "" : n.trim();
+            if (name.isEmpty()) continue;
+            if (!KNOWN.contains(name)) throw new BadRequestException("unknown field: " + name);
+            set.add(name);
+        }
+        return set.isEmpty() ? ALL : new Fields(set);
+    }
+
+    /** Fields from a comma-separated list such as {@code id,name,type}. */
+    public static Fields parse(String csv) {
+        return csv == null || csv.isBlank() ? ALL : of(Arrays.asList(csv.split(",")));
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    /** Whether the property should be built. */
+    public boolean has(String name) {
+        return names == null || names.contains(name) || "id".equals(name) || "objectId".equals(name);
+    }
+}
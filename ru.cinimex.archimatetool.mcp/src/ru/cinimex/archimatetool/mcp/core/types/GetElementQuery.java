@@ -20,10 +20,16 @@ public class GetElementQuery {
     public final String id;
     public final boolean includeRelations;
     public final boolean includeElements;
+    public final Fields fields;
 
     public GetElementQuery(String id, boolean includeRelations, boolean includeElements) {
+        this(id, includeRelations, includeElements, Fields.ALL);
+    }
+
+    public GetElementQuery(String id, boolean includeRelations, boolean includeElements, Fields fields) {
         this.id = id;
         this.includeRelations = includeRelations;
         this.includeElements = includeElements;
+        this.fields = fields != null ? fields : Fields.ALL;
     }
 }
@@ -18,8 +18,14 @@ package ru.cinimex.archimatetool.mcp.core.types;
 /** Query to fetch view content. */
 public class GetViewContentQuery {
     public final String viewId;
+    public final Fields fields;
 
     public GetViewContentQuery(String viewId) {
+        this(viewId, Fields.ALL);
+    }
+
+    public GetViewContentQuery(String viewId, Fields fields) {
         this.viewId = viewId;
+        this.fields = fields != null ? fields : Fields.ALL;
     }
 }
@@ -23,9 +23,15 @@ public class GetViewImageQuery {
     public final Integer dpi;
     public final String bg;
     public final Integer margin;
-    public final String responseFormat; // base64 or url
+    public final String responseFormat; // image, link, url or base64
+    public final ImageRegion region; // null renders the whole view
 
     public GetViewImageQuery(String viewId, String format, Float scale, Integer dpi, String bg, Integer margin, String responseFormat) {
+        this(viewId, format, scale, dpi, bg, margin, responseFormat, null);
+    }
+
+    public GetViewImageQuery(String viewId, String format, Float scale, Integer dpi, String bg, Integer margin,
+            String responseFormat, ImageRegion region) {
         this.viewId = viewId;
         this.format = format;
         this.scale = scale;
@@ -33,5 +39,6 @@ public class GetViewImageQuery {
         this.bg = bg;
         this.margin = margin;
         this.responseFormat = responseFormat;
+        this.region = region;
     }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.types;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+
+/**
+ * Part of a view to render instead of the whole diagram: a viewport rectangle
+ * in diagram coordinates, one tile of a grid at the requested zoom, or a
+ * thumbnail that fits a pixel budget.
+ */
+public final class ImageRegion {
+
+    public static final int DEFAULT_TILE_SIZE = 512;
+    public static final int MIN_TILE_SIZE = 64;
+    public static final int MAX_TILE_SIZE = 4096;
+    public static final int DEFAULT_THUMBNAIL_PIXELS = 512 * 512;
+    public static final long MAX_PIXELS = 40_000_000L;
+    public static final float MAX_ZOOM = 8f;
+
+    public enum Mode { VIEWPORT, TILE, THUMBNAIL }
+
+    /**
+     * Diagram area and output size resolved against the view's extents. A
+     * renderer translates by the pixel offset, then scales by the zoom, then
+     * translates to the origin in diagram coordinates; x, y, width and height
+     * describe the covered diagram area.
+     */
+    public static final class Plan {
+        public final int x, y, width, height;
+        public final float zoom;
+        public final int originX, originY;
+        public final int pixelX, pixelY;
+        public final int pixelWidth, pixelHeight;
+        public final int cols, rows;
+        private final int[] extents;
+        private final ImageRegion region;
+
+        Plan(ImageRegion region, int[] extents, int x, int y, int width, int height, float zoom, int cols, int rows) {
+            this(region, extents, x, y, 0, 0, Math.max(1, (int) Math.ceil(width * zoom)),
+                    Math.max(1, (int) Math.ceil(height * zoom)), zoom, cols, rows);
+        }
+
+        /** Area given in pixels of the whole view rendered at the zoom, as tiles are. */
+        Plan(ImageRegion region, int[] extents, int originX, int originY, int pixelX, int pixelY, int pixelWidth,
+                int pixelHeight, float zoom, int cols, int rows) {
+            this.region = region;
+            this.extents = extents;
+            this.originX = originX;
+            this.originY = originY;
+            this.pixelX = pixelX;
+            this.pixelY = pixelY;
+            this.pixelWidth = pixelWidth;
+            this.pixelHeight = pixelHeight;
+            this.zoom = zoom;
+            this.x = originX + (int) Math.floor(pixelX / zoom);
+            this.y = originY + (int) Math.floor(pixelY / zoom);
+            this.width = originX + (int) Math.ceil((pixelX + pixelWidth) / zoom) - x;
+            this.height = originY + (int) Math.ceil((pixelY + pixelHeight) / zoom) - y;
+            this.cols = cols;
+            this.rows = rows;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("mode", region.mode.name().toLowerCase());
+            m.put("x", x);
+            m.put("y", y);
+            m.put("width", width);
+            m.put("height", height);
+            m.put("zoom", zoom);
+            m.put("pixelWidth", pixelWidth);
+            m.put("pixelHeight", pixelHeight);
+            m.put("extents", Map.of("x", extents[0], "y", extents[1], "width", extents[2], "height", extents[3]));
+            if (region.mode == Mode.TILE) {
+                m.put("tileSize", region.tileSize);
+                m.put("pixelX", pixelX);
+                m.put("pixelY", pixelY);
+                m.put("col", region.col);
+                m.put("row", region.row);
+                m.put("cols", cols);
+                m.put("rows", rows);
+            }
+            return m;
+        }
+    }
+
+    private final Mode mode;
+    private final int x, y, width, height;
+    private final int col, row, tileSize;
+    private final int maxPixels;
+
+    private ImageRegion(Mode mode, int x, int y, int width, int height, int col, int row, int tileSize, int maxPixels) {
+        this.mode = mode;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.col = col;
+        this.row = row;
+        this.tileSize = tileSize;
+        this.maxPixels = maxPixels;
+    }
+
+    public static ImageRegion viewport(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) throw new BadRequestException("viewport width and height must be positive");
+        return new ImageRegion(Mode.VIEWPORT, x, y, width, height, 0, 0, 0, 0);
+    }
+
+    public static ImageRegion tile(int col, int row, int tileSize) {
+        if (col < 0 || row < 0) throw new BadRequestException("tile col and row must be >= 0");
+        if (tileSize < MIN_TILE_SIZE || tileSize > MAX_TILE_SIZE) {
+            throw new BadRequestException("tile size must be between " + MIN_TILE_SIZE + " and " + MAX_TILE_SIZE);
+        }
+        return new ImageRegion(Mode.TILE, 0, 0, 0, 0, col, row, tileSize, 0);
+    }
+
+    public static ImageRegion thumbnail(int maxPixels) {
+        if (maxPixels < 1024 || maxPixels > MAX_PIXELS) {
+            throw new BadRequestException("max pixels must be between 1024 and " + MAX_PIXELS);
+        }
+        return new ImageRegion(Mode.THUMBNAIL, 0, 0, 0, 0, 0, 0, 0, maxPixels);
+    }
+
+    /**
+     * Region from request parameters, or null to render the whole view.
+     * @param viewport "x,y,width,height" in diagram coordinates
+     * @param tile "col,row" of the tile grid
+     */
+    public static ImageRegion of(String viewport, String tile, Integer tileSize, boolean thumbnail, Integer maxPixels) {
+        boolean hasViewport = viewport != null && !viewport.isBlank();
+        boolean hasTile = tile != null && !tile.isBlank();
+        if ((hasViewport ? 1 : 0) + (hasTile ? 1 : 0) + (thumbnail ? 1 : 0) > 1) {
+            throw new BadRequestException("use only one of viewport, tile and thumbnail");
+        }
+        if (hasViewport) {
+            int[] v = ints(viewport, 4, "viewport");
+            return viewport(v[0], v[1], v[2], v[3]);
+        }
+        if (hasTile) {
+            int[] t = ints(tile, 2, "tile");
+            return tile(t[0], t[1], tileSize != null ? tileSize : DEFAULT_TILE_SIZE);
+        }
+        if (thumbnail) return thumbnail(maxPixels != null ? maxPixels : DEFAULT_THUMBNAIL_PIXELS);
+        return null;
+    }
+
+    private static int[] ints(String spec, int count, String name) {
+        String[] parts = spec.split(",");
+        if (parts.length != count) throw new BadRequestException(name + " must have " + count + " comma-separated integers");
+        int[] out = new int[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                out[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must have " + count + " comma-separated integers");
+        }
+        return out;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** Part of the image cache key; tiles are cached one by one. */
+    public String cacheKey() {
+        switch (mode) {
+            case VIEWPORT: return "viewport:" + x + ',' + y + ',' + width + ',' + height;
+            case TILE: return "tile:" + col + ',' + row + '@' + tileSize;
+            default: return "thumbnail:" + maxPixels;
+        }
+    }
+
+    /**
+     * Resolve against the extents of the diagram (x, y, width, height, margin
+     * already applied). The zoom is ignored for thumbnails.
+     */
+    public Plan plan(int ex, int ey, int ew, int eh, float zoom) {
+        int[] extents = { ex, ey, ew, eh };
+        ew = Math.max(1, ew);
+        eh = Math.max(1, eh);
+        if (mode != Mode.THUMBNAIL && (zoom <= 0 || zoom > MAX_ZOOM)) {
+            throw new BadRequestException("scale must be > 0 and <= " + MAX_ZOOM);
+        }
+        Plan plan;
+        switch (mode) {
+            case VIEWPORT:
+                plan = new Plan(this, extents, x, y, width, height, zoom, 0, 0);
+                break;
+            case TILE: {
+                // the grid is laid over the pixels of the whole view, so tiles meet exactly at col * tileSize
+                int fullWidth = Math.max(1, (int) Math.ceil(ew * zoom));
+                int fullHeight = Math.max(1, (int) Math.ceil(eh * zoom));
+                int cols = (fullWidth + tileSize - 1) / tileSize;
+                int rows = (fullHeight + tileSize - 1) / tileSize;
+                if (col >= cols || row >= rows) {
+                    throw new BadRequestException("tile out of range, grid is " + cols + "x" + rows);
+                }
+                int px = col * tileSize;
+                int py = row * tileSize;
+                plan = new Plan(this, extents, ex, ey, px, py, Math.min(tileSize, fullWidth - px),
+                        Math.min(tileSize, fullHeight - py), zoom, cols, rows);
+                break;
+            }
+            default: {
+                float z = (float) Math.min(1.0, Math.sqrt(maxPixels / ((double) ew * eh)));
+                plan = new Plan(this, extents, ex, ey, ew, eh, z, 0, 0);
+                break;
+            }
+        }
+        if ((long) plan.pixelWidth * plan.pixelHeight > MAX_PIXELS) {
+            throw new BadRequestException("region too large: " + plan.pixelWidth + "x" + plan.pixelHeight
+                    + " pixels, max " + MAX_PIXELS);
+        }
+        return plan;
+    }
+}
@@ -30,6 +30,12 @@ public class SearchQuery {
     public int limit = 100;
     public int offset = 0;
     public boolean debug;
+    /** When false, stop scanning once the requested page is filled; total becomes a lower bound. */
+    public boolean total = true;
+    /** Return per-kind match counts without items. */
+    public boolean countOnly;
     public String logTarget;
+    /** Properties of the returned elements, relations and views. */
+    public Fields fields = Fields.ALL;
     public Map<String,String> propertyFilters = new HashMap<>();
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.views;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ru.cinimex.archimatetool.mcp.Config;
+import ru.cinimex.archimatetool.mcp.util.McpLogger;
+
+/**
+ * Archives written by export_views, kept in a temporary directory the server
+ * owns and handed out through short-lived download tokens.
+ * <p>
+ * Callers never name a path: every file is created here, and a file is
+ * deleted when its token expires or when the newest {@link #MAX_FILES} no
+ * longer include it. Tokens live as long as image links.
+ */
+public final class ExportFiles {
+
+    public static final int MAX_FILES = 16;
+
+    private static final class Holder {
+        static final ExportFiles INSTANCE = new ExportFiles(null, Config.resolveImageLinkTtlSeconds() * 1000L, MAX_FILES);
+    }
+
+    private static final class Entry {
+        final Path file;
+        final long expiresAt;
+
+        Entry(Path file, long expiresAt) {
+            this.file = file;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlMs;
+    private final int maxFiles;
+    private final LinkedHashMap<String, Entry> files = new LinkedHashMap<>();
+    private Path dir;
+    private long issued;
+    private long served;
+    private long expired;
+
+    /** Files go to {@code dir}, or to a fresh temporary directory when it is null. */
+    public ExportFiles(Path dir, long ttlMs, int maxFiles) {
+        this.dir = dir;
+        this.ttlMs = ttlMs;
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+
+    public static ExportFiles get() {
+        return Holder.INSTANCE;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    /** A new empty file for an archive; pass it to {@link #issue} or {@link #discard}. */
+    public synchronized Path create() throws IOException {
+        if (dir == null) {
+            dir = Files.createTempDirectory("archi-mcp-exports-");
+        }
+        return Files.createTempFile(dir, "views-", ".zip");
+    }
+
+    /** Register a finished archive and return its token. */
+    public synchronized String issue(Path file) {
+        long now = System.currentTimeMillis();
+        purge(now);
+        while (files.size() >= maxFiles) {
+            Iterator<Entry> it = files.values().iterator();
+            delete(it.next().file);
+            it.remove();
+            expired++;
+        }
+        byte[] raw = new byte[18];
+        random.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        files.put(token, new Entry(file, now + ttlMs));
+        issued++;
+        return token;
+    }
+
+    /** Archive of a valid token, or null when unknown or expired. */
+    public synchronized Path resolve(String token) {
+        if (token == null) return null;
+        purge(System.currentTimeMillis());
+        Entry e = files.get(token);
+        if (e == null || !Files.isRegularFile(e.file)) return null;
+        served++;
+        return e.file;
+    }
+
+    /** Delete a file that will not be issued, e.g. after a failed export. */
+    public void discard(Path file) {
+        delete(file);
+    }
+
+    public synchronized Map<String, Object> stats() {
+        purge(System.currentTimeMillis());
+        long bytes = 0;
+        for (Entry e : files.values()) {
+            try {
+                bytes += Files.size(e.file);
+            } catch (IOException ignore) {
+                // deleted behind our back; resolve reports it as gone
+            }
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ttlSeconds", ttlMs / 1000);
+        m.put("files", files.size());
+        m.put("bytes", bytes);
+        m.put("issued", issued);
+        m.put("served", served);
+        m.put("expired", expired);
+        return m;
+    }
+
+    private void purge(long now) {
+        // files are issued with one TTL, so insertion order is expiry order
+        for (Iterator<Entry> it = files.values().iterator(); it.hasNext();) {
+            Entry e = it.next();
+            if (e.expiresAt > now) break;
+            delete(e.file);
+            it.remove();
+            expired++;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            McpLogger.logOperationWarning("export_views", "could not delete " + file + ": " + ex.getMessage());
+        }
+    }
+}
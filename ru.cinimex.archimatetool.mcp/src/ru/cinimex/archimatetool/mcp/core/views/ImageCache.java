@@ -0,0 +1,136 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.views;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ru.cinimex.archimatetool.mcp.Config;
+
+/**
+ * Bounded cache of encoded view images.
+ * <p>
+ * Entries are keyed by view id, view version and render parameters, so an edit
+ * of the view makes its old renderings unreachable; they are dropped as soon as
+ * a newer rendering of the same view is stored. The cache is bounded by the
+ * total size of the image bytes and evicts least recently used entries first.
+ */
+public final class ImageCache {
+
+    private static final class Holder {
+        static final ImageCache INSTANCE = new ImageCache(Config.resolveImageCacheMaxBytes());
+    }
+
+    private static final class Entry {
+        final String viewId;
+        final String version;
+        final ViewsCore.ImageData image;
+
+        Entry(String viewId, String version, ViewsCore.ImageData image) {
+            this.viewId = viewId;
+            this.version = version;
+            this.image = image;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ImageCache(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    public static ImageCache get() {
+        return Holder.INSTANCE;
+    }
+
+    /** Cache key of one rendering; the version comes from the view's change tracker. */
+    public static String key(String viewId, String version, String format, float scale, Integer dpi, String bg, int margin) {
+        return viewId + '|' + version + '|' + format + '|' + scale + '|' + dpi + '|' + margin + '|' + bg;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /** Cached image for the key, or null. */
+    public synchronized ViewsCore.ImageData lookup(String key) {
+        Entry e = entries.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.image;
+    }
+
+    /**
+     * Store a rendering and drop those of other versions of the same view.
+     * Images larger than a quarter of the cache are not kept.
+     */
+    public synchronized void put(String viewId, String version, String key, ViewsCore.ImageData image) {
+        if (image.data.length > maxBytes / 4) return;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            Entry e = it.next();
+            if (e.viewId.equals(viewId) && !e.version.equals(version)) {
+                bytes -= e.image.data.length;
+                it.remove();
+            }
+        }
+        Entry old = entries.put(key, new Entry(viewId, version, image));
+        if (old != null) bytes -= old.image.data.length;
+        bytes += image.data.length;
+        for (Iterator<Entry> it = entries.values().iterator(); bytes > maxBytes && it.hasNext();) {
+            bytes -= it.next().image.data.length;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /** Drop all renderings of a view. */
+    public synchronized void invalidate(String viewId) {
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            Entry e = it.next();
+            if (e.viewId.equals(viewId)) {
+                bytes -= e.image.data.length;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        long lookups = hits + misses;
+        m.put("entries", entries.size());
+        m.put("bytes", bytes);
+        m.put("maxBytes", maxBytes);
+        m.put("hits", hits);
+        m.put("misses", misses);
+        m.put("evictions", evictions);
+        m.put("hitRate", lookups == 0 ? 0.0 : Math.round(hits * 1000.0 / lookups) / 1000.0);
+        return m;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.views;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ru.cinimex.archimatetool.mcp.Config;
+
+/**
+ * Short-lived tokens for rendered images, so a tool result can link to bytes
+ * the server already holds instead of embedding them.
+ * <p>
+ * A token refers to the same {@link ViewsCore.ImageData} the image cache keeps,
+ * so serving it neither renders nor copies. Tokens expire after a TTL. Only the
+ * newest {@link #MAX_LINKS} are kept, and older tokens are dropped while the
+ * images behind them add up to more than the byte limit; the newest link is
+ * always kept, so one image larger than the limit can still be linked.
+ */
+public final class ImageLinks {
+
+    public static final int MAX_LINKS = 256;
+
+    private static final class Holder {
+        static final ImageLinks INSTANCE = new ImageLinks(Config.resolveImageLinkTtlSeconds() * 1000L, MAX_LINKS,
+                Config.resolveImageLinkMaxBytes());
+    }
+
+    private static final class Link {
+        final ViewsCore.ImageData image;
+        final long expiresAt;
+
+        Link(ViewsCore.ImageData image, long expiresAt) {
+            this.image = image;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final long ttlMs;
+    private final int maxLinks;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Link> links = new LinkedHashMap<>();
+    private long bytes;
+    private long issued;
+    private long served;
+    private long expired;
+
+    public ImageLinks(long ttlMs, int maxLinks, long maxBytes) {
+        this.ttlMs = ttlMs;
+        this.maxLinks = Math.max(1, maxLinks);
+        this.maxBytes = Math.max(1, maxBytes);
+    }
+
+    public static ImageLinks get() {
+        return Holder.INSTANCE;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    /** Register an image and return its token. */
+    public synchronized String issue(ViewsCore.ImageData image) {
+        long now = System.currentTimeMillis();
+        purge(now);
+        Iterator<Link> old = links.values().iterator();
+        while (old.hasNext() && (links.size() >= maxLinks || bytes + image.data.length > maxBytes)) {
+            bytes -= old.next().image.data.length;
+            old.remove();
+            expired++;
+        }
+        byte[] raw = new byte[18];
+        random.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        links.put(token, new Link(image, now + ttlMs));
+        bytes += image.data.length;
+        issued++;
+        return token;
+    }
+
+    /** Image of a valid token, or null when unknown or expired. */
+    public synchronized ViewsCore.ImageData resolve(String token) {
+        if (token == null) return null;
+        long now = System.currentTimeMillis();
+        purge(now);
+        Link l = links.get(token);
+        if (l == null) return null;
+        served++;
+        return l.image;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        purge(System.currentTimeMillis());
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ttlSeconds", ttlMs / 1000);
+        m.put("links", links.size());
+        m.put("bytes", bytes);
+        m.put("maxBytes", maxBytes);
+        m.put("issued", issued);
+        m.put("served", served);
+        m.put("expired", expired);
+        return m;
+    }
+
+    private void purge(long now) {
+        // links are issued with one TTL, so insertion order is expiry order
+        for (Iterator<Link> it = links.values().iterator(); it.hasNext();) {
+            Link l = it.next();
+            if (l.expiresAt > now) break;
+            bytes -= l.image.data.length;
+            it.remove();
+            expired++;
+        }
+    }
+}
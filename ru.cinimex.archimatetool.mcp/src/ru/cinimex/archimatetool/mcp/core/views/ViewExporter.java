@@ -0,0 +1,323 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.core.views;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
+import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
+import ru.cinimex.archimatetool.mcp.core.errors.NotFoundException;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
+import ru.cinimex.archimatetool.mcp.core.types.ExportViewsQuery;
+import ru.cinimex.archimatetool.mcp.core.types.GetViewImageQuery;
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import ru.cinimex.archimatetool.mcp.server.ModelApi;
+import ru.cinimex.archimatetool.mcp.server.RenderPipeline;
+import ru.cinimex.archimatetool.mcp.service.ServiceRegistry;
+import com.archimatetool.model.FolderType;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.IFolder;
+
+/**
+ * Renders a set of views into one ZIP archive.
+ * <p>
+ * Views render on as many workers as the render pipeline admits. Entries are
+ * written in view order, each as soon as it and the views before it are done,
+ * so the archive streams while later views still render. Unchanged views come from the image cache. A view
+ * that fails to render is listed in {@value #MANIFEST} instead of failing the
+ * whole export.
+ */
+public class ViewExporter {
+
+    public static final String MANIFEST = "manifest.json";
+
+    private static final AtomicLong EXPORTS = new AtomicLong();
+    private static final AtomicInteger RUNNING = new AtomicInteger();
+    private static final AtomicLong VIEWS = new AtomicLong();
+    private static final AtomicLong RENDERED = new AtomicLong();
+    private static final AtomicLong CACHED = new AtomicLong();
+    private static final AtomicLong FAILED = new AtomicLong();
+
+    private final ViewsCore viewsCore = new ViewsCore();
+
+    /** Renders one view; {@code onRender} runs when the image was not cached. */
+    @FunctionalInterface
+    public interface Renderer {
+        ViewsCore.ImageData render(IArchimateModel model, IDiagramModel view, GetViewImageQuery q, Runnable onRender);
+    }
+
+    /** Views resolved up front, so bad arguments fail before any byte is sent. */
+    public static final class Job {
+        private final Renderer renderer;
+        private final IArchimateModel model;
+        private final List<IDiagramModel> views;
+        private final List<String> files;
+        private final ExportViewsQuery query;
+        private final String format;
+
+        public Job(Renderer renderer, IArchimateModel model, List<IDiagramModel> views, ExportViewsQuery query, String format) {
+            this.renderer = renderer;
+            this.model = model;
+            this.views = views;
+            this.query = query;
+            this.format = format;
+            this.files = fileNames(views, format);
+        }
+
+        public int size() {
+            return views.size();
+        }
+
+        /**
+         * Render every view and write the archive, ending with the manifest.
+         * Finishes the ZIP but leaves the stream open. Returns the summary.
+         */
+        public Map<String, Object> writeTo(OutputStream out) throws IOException {
+            int n = views.size();
+            int workers = Math.max(1, Math.min(n, RenderPipeline.get().getMaxConcurrent()));
+            AtomicInteger seq = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+                Thread t = new Thread(r, "archi-mcp-export-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            CompletionService<Result> done = new ExecutorCompletionService<>(pool);
+            List<Map<String, Object>> entries = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                entries.add(null);
+            }
+            int rendered = 0, cached = 0, failed = 0;
+            long bytes = 0;
+            EXPORTS.incrementAndGet();
+            RUNNING.incrementAndGet();
+            try {
+                ZipOutputStream zip = new ZipOutputStream(out);
+                int next = 0;
+                // a couple of views ahead keeps the workers busy without holding every image in memory
+                for (; next < n && next < workers * 2; next++) {
+                    submit(done, next);
+                }
+                Map<Integer, Result> ready = new HashMap<>();
+                for (int written = 0; written < n; written++) {
+                    TaskContext.checkCancelled();
+                    Result r = ready.remove(written);
+                    while (r == null) {
+                        Result t = take(done);
+                        if (t.index == written) r = t; else ready.put(t.index, t);
+                    }
+                    if (next < n) submit(done, next++);
+                    IDiagramModel view = views.get(r.index);
+                    Map<String, Object> e = new LinkedHashMap<>();
+                    e.put("id", view.getId());
+                    e.put("name", view.getName());
+                    if (r.image != null) {
+                        e.put("file", files.get(r.index));
+                        e.put("cached", !r.rendered);
+                        e.put("bytes", r.image.data.length);
+                        write(zip, files.get(r.index), r.image.data, "png".equals(format));
+                        bytes += r.image.data.length;
+                        if (r.rendered) rendered++; else cached++;
+                    } else {
+                        e.put("error", r.error);
+                        failed++;
+                    }
+                    entries.set(r.index, e);
+                    TaskContext.progress(written + 1, (long) n, view.getName());
+                }
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("modelId", model.getId());
+                summary.put("format", format);
+                summary.put("views", n);
+                summary.put("rendered", rendered);
+                summary.put("cached", cached);
+                summary.put("failed", failed);
+                summary.put("bytes", bytes);
+                Map<String, Object> manifest = new LinkedHashMap<>(summary);
+                manifest.put("entries", entries);
+                write(zip, MANIFEST, JacksonJson.writeBytes(manifest), false);
+                zip.finish();
+                List<Map<String, Object>> errors = new ArrayList<>();
+                for (Map<String, Object> e : entries) {
+                    if (e.containsKey("error")) errors.add(e);
+                }
+                if (!errors.isEmpty()) summary.put("errors", errors);
+                return summary;
+            } finally {
+                pool.shutdownNow();
+                RUNNING.decrementAndGet();
+                VIEWS.addAndGet(rendered + cached + failed);
+                RENDERED.addAndGet(rendered);
+                CACHED.addAndGet(cached);
+                FAILED.addAndGet(failed);
+            }
+        }
+
+        private void submit(CompletionService<Result> done, int index) {
+            IDiagramModel view = views.get(index);
+            GetViewImageQuery q = new GetViewImageQuery(view.getId(), format, query.scale, query.dpi, query.bg,
+                    query.margin, null);
+            done.submit(() -> {
+                AtomicBoolean rendered = new AtomicBoolean();
+                try {
+                    return new Result(index, renderer.render(model, view, q, () -> rendered.set(true)), rendered.get(), null);
+                } catch (RuntimeException ex) {
+                    String msg = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+                    return new Result(index, null, rendered.get(), msg);
+                }
+            });
+        }
+
+        private static Result take(CompletionService<Result> done) {
+            try {
+                return done.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("export interrupted");
+            } catch (java.util.concurrent.ExecutionException e) {
+                // the worker catches everything it expects
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private static final class Result {
+        final int index;
+        final ViewsCore.ImageData image;
+        final boolean rendered;
+        final String error;
+
+        Result(int index, ViewsCore.ImageData image, boolean rendered, String error) {
+            this.index = index;
+            this.image = image;
+            this.rendered = rendered;
+            this.error = error;
+        }
+    }
+
+    /** Resolve the views of a query against the active model. */
+    public Job prepare(ExportViewsQuery q) throws CoreException {
+        var model = ServiceRegistry.activeModel().getActiveModel();
+        if (model == null) throw new ConflictException("no active model");
+        String format = q.format != null ? q.format.toLowerCase() : "png";
+        if (!"png".equals(format) && !"svg".equals(format)) throw new BadRequestException("format must be png or svg");
+        boolean byIds = q.viewIds != null && !q.viewIds.isEmpty();
+        boolean byFolder = q.folderId != null && !q.folderId.isBlank();
+        if (byIds && byFolder) throw new BadRequestException("use view ids or a folder, not both");
+        List<IDiagramModel> views;
+        if (byIds) {
+            views = new ArrayList<>();
+            for (String id : new LinkedHashSet<>(q.viewIds)) {
+                Object o = ServiceRegistry.activeModel().findById(model, id);
+                if (!(o instanceof IDiagramModel)) throw new NotFoundException("view not found: " + id);
+                views.add((IDiagramModel) o);
+            }
+        } else if (byFolder) {
+            Object f = ServiceRegistry.activeModel().findById(model, q.folderId);
+            if (!(f instanceof IFolder)) throw new NotFoundException("folder not found");
+            views = ModelApi.listViews((IFolder) f);
+        } else {
+            views = ModelApi.listViews(model);
+        }
+        return new Job(viewsCore::image, model, views, q, format);
+    }
+
+    public static Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("exports", EXPORTS.get());
+        m.put("running", RUNNING.get());
+        m.put("views", VIEWS.get());
+        m.put("rendered", RENDERED.get());
+        m.put("cached", CACHED.get());
+        m.put("failed", FAILED.get());
+        return m;
+    }
+
+    /** Entry names that mirror the view folders, unique within the archive. */
+    static List<String> fileNames(List<IDiagramModel> views, String format) {
+        List<String> out = new ArrayList<>();
+        Set<String> taken = new HashSet<>();
+        for (IDiagramModel v : views) {
+            String dir = folderPath(v);
+            String base = dir + fileName(v.getName(), v.getId());
+            String name = base + '.' + format;
+            if (!taken.add(name.toLowerCase())) {
+                name = base + " (" + v.getId() + ")." + format;
+                taken.add(name.toLowerCase());
+            }
+            out.add(name);
+        }
+        return out;
+    }
+
+    private static String folderPath(IDiagramModel v) {
+        StringBuilder sb = new StringBuilder();
+        Object c = v.eContainer();
+        while (c instanceof IFolder && ((IFolder) c).getType() != FolderType.DIAGRAMS) {
+            IFolder f = (IFolder) c;
+            sb.insert(0, fileName(f.getName(), f.getId()) + '/');
+            c = f.eContainer();
+        }
+        return sb.toString();
+    }
+
+    /** Name without characters that are unsafe in file names; the id when nothing is left. */
+    public static String fileName(String name, String fallback) {
+        String s = name == null ? "" : name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        while (s.startsWith(".")) {
+            s = s.substring(1);
+        }
+        return s.isEmpty() ? fallback : s;
+    }
+
+    private static void write(ZipOutputStream zip, String name, byte[] data, boolean stored) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            // PNG is already deflated, a second pass only costs time
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        zip.putNextEntry(entry);
+        zip.write(data);
+        zip.closeEntry();
+        zip.flush();
+    }
+}
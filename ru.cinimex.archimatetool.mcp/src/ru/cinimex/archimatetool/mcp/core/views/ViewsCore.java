@@ -20,11 +20,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
+import ru.cinimex.archimatetool.mcp.core.batch.AddDiagramObjectCommand;
+import ru.cinimex.archimatetool.mcp.core.batch.SetBoundsCommand;
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
 import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
 import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.errors.NotFoundException;
 import ru.cinimex.archimatetool.mcp.core.errors.UnprocessableException;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
 import ru.cinimex.archimatetool.mcp.core.types.AddElementToViewItem;
 import ru.cinimex.archimatetool.mcp.core.types.AddElementsToViewCmd;
 import ru.cinimex.archimatetool.mcp.core.types.AddRelationToViewItem;
@@ -34,8 +39,10 @@ import ru.cinimex.archimatetool.mcp.core.types.DeleteViewCmd;
 import ru.cinimex.archimatetool.mcp.core.types.GetViewContentQuery;
 import ru.cinimex.archimatetool.mcp.core.types.GetViewImageQuery;
 import ru.cinimex.archimatetool.mcp.core.types.GetViewQuery;
+import ru.cinimex.archimatetool.mcp.core.types.ImageRegion;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteViewObjectItem;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteViewObjectsCmd;
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
 import ru.cinimex.archimatetool.mcp.core.types.MoveViewObjectItem;
 import ru.cinimex.archimatetool.mcp.core.types.MoveViewObjectsCmd;
 import ru.cinimex.archimatetool.mcp.core.types.UpdateViewObjectBoundsItem;
@@ -44,6 +51,8 @@ import ru.cinimex.archimatetool.mcp.core.validation.Validators;
 import ru.cinimex.archimatetool.mcp.server.ModelApi;
 import ru.cinimex.archimatetool.mcp.service.ServiceRegistry;
 import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelArchimateObject;
 import com.archimatetool.model.IDiagramModelContainer;
@@ -53,9 +62,14 @@ import com.archimatetool.model.IDiagramModelObject;
 public class ViewsCore {
     /** List all views in the active model. */
     public List<Map<String, Object>> listViews() throws CoreException {
+        return listViews(Fields.ALL);
+    }
+
+    /** List all views in the active model with only the given fields. */
+    public List<Map<String, Object>> listViews(Fields fields) throws CoreException {
         var model = ServiceRegistry.activeModel().getActiveModel();
         if (model == null) throw new ConflictException("no active model");
-        return ModelApi.listViews(model).stream().map(ModelApi::viewToDto).collect(Collectors.toList());
+        return ModelApi.listViews(model).stream().map(v -> ModelApi.viewToDto(v, fields)).collect(Collectors.toList());
     }
 
     /** Create a new view. Currently only Archimate views are supported. */
@@ -99,40 +113,65 @@ public class ViewsCore {
         if (model == null) throw new ConflictException("no active model");
         Object obj = ServiceRegistry.activeModel().findById(model, q.viewId);
         if (!(obj instanceof IDiagramModel)) throw new NotFoundException("view not found");
-        return ModelApi.viewContentToDto((IDiagramModel) obj);
+        return ModelApi.viewContentToDto((IDiagramModel) obj, q.fields);
     }
 
     /** Add multiple elements to a view. */
     public List<Map<String, Object>> addElements(AddElementsToViewCmd cmd) throws CoreException {
+        return addElements(cmd, null);
+    }
+
+    /**
+     * Add multiple elements to a view. All items are resolved before the first
+     * one is added, and the additions run as one undoable command.
+     * @param debug receives the UI-thread timing of the batch, may be null
+     */
+    public List<Map<String, Object>> addElements(AddElementsToViewCmd cmd, Map<String, Object> debug) throws CoreException {
         Validators.requireNonEmpty(cmd.viewId, "viewId");
         Validators.requireNonNull(cmd.items, "items");
         Validators.require(!cmd.items.isEmpty(), "items required");
-        List<Map<String, Object>> res = new java.util.ArrayList<>();
         for (AddElementToViewItem item : cmd.items) {
-            res.add(addElement(cmd.viewId, item));
+            Validators.requireNonEmpty(item.elementId, "elementId");
+        }
+        var model = ServiceRegistry.activeModel().getActiveModel();
+        if (model == null) throw new ConflictException("no active model");
+        Object vo = ServiceRegistry.activeModel().findById(model, cmd.viewId);
+        if (!(vo instanceof IDiagramModel)) {
+            throw new NotFoundException("view or element not found");
+        }
+        IDiagramModel view = (IDiagramModel) vo;
+        UiBatch batch = new UiBatch("Add elements to view");
+        List<AddDiagramObjectCommand> added = new java.util.ArrayList<>();
+        for (AddElementToViewItem item : cmd.items) {
+            TaskContext.checkCancelled();
+            AddDiagramObjectCommand c = addElement(model, view, item);
+            batch.add(c);
+            added.add(c);
+            TaskContext.progress(added.size(), (long) cmd.items.size(), null);
+        }
+        batch.apply(model);
+        batch.describe(debug);
+        List<Map<String, Object>> res = new java.util.ArrayList<>();
+        for (AddDiagramObjectCommand c : added) {
+            res.add(Map.of("objectId", c.getObject().getId()));
         }
         return res;
     }
 
-    private Map<String, Object> addElement(String viewId, AddElementToViewItem item) throws CoreException {
-        Validators.requireNonEmpty(viewId, "viewId");
-        Validators.requireNonEmpty(item.elementId, "elementId");
-        var model = ServiceRegistry.activeModel().getActiveModel();
-        if (model == null) throw new ConflictException("no active model");
-        Object vo = ServiceRegistry.activeModel().findById(model, viewId);
+    private AddDiagramObjectCommand addElement(IArchimateModel model, IDiagramModel view, AddElementToViewItem item) throws CoreException {
         Object eo = ServiceRegistry.activeModel().findById(model, item.elementId);
-        if (!(vo instanceof IDiagramModel) || !(eo instanceof IArchimateElement)) {
+        if (!(eo instanceof IArchimateElement)) {
             throw new NotFoundException("view or element not found");
         }
-        IDiagramModel view = (IDiagramModel) vo;
         IArchimateElement el = (IArchimateElement) eo;
-        IDiagramModelObject parentObj = null;
+        IDiagramModelContainer container = view;
         if (item.parentObjectId != null && !item.parentObjectId.isEmpty()) {
-            parentObj = ModelApi.findDiagramObjectById(view, item.parentObjectId);
+            IDiagramModelObject parentObj = ModelApi.findDiagramObjectById(view, item.parentObjectId);
             if (parentObj == null) throw new NotFoundException("parentObjectId not found in view");
             if (!(parentObj instanceof IDiagramModelContainer)) {
                 throw new BadRequestException("parent object is not a container");
             }
+            container = (IDiagramModelContainer) parentObj;
         }
         if (item.x != null) Validators.requireNonNegative(item.x, "x");
         if (item.y != null) Validators.requireNonNegative(item.y, "y");
@@ -142,61 +181,60 @@ public class ViewsCore {
         int y = item.y != null ? item.y.intValue() : 100;
         int w = item.w != null ? item.w.intValue() : 120;
         int h = item.h != null ? item.h.intValue() : 80;
-        IDiagramModelArchimateObject dmo;
-        if (parentObj instanceof IDiagramModelContainer) {
-            dmo = ServiceRegistry.views().addElementToContainer((IDiagramModelContainer) parentObj, el, x, y, w, h);
-        } else {
-            dmo = ServiceRegistry.views().addElementToView(view, el, x, y, w, h);
-        }
-        
-        // Apply styles if provided
-        if (item.style != null && !item.style.isEmpty()) {
-            for (Map.Entry<String, String> styleEntry : item.style.entrySet()) {
-                String key = styleEntry.getKey();
-                String value = styleEntry.getValue();
-                try {
-                    if ("fillColor".equals(key)) {
-                        dmo.setFillColor(value);
-                    } else if ("fontColor".equals(key)) {
-                        dmo.setFontColor(value);
-                    } else if ("lineColor".equals(key)) {
-                        dmo.setLineColor(value);
-                    } else if ("fontName".equals(key)) {
-                        dmo.setFont(value);
-                    } else if ("fontSize".equals(key)) {
-                        // For fontSize, we need to get the current font and modify it
-                        try {
-                            int fontSize = Integer.parseInt(value);
-                            String currentFont = dmo.getFont();
-                            if (currentFont == null || currentFont.isEmpty()) {
-                                // Use system default font with new size
-                                dmo.setFont("1|Arial|" + fontSize + "|0|WINDOWS|1|-13|0|0|0|400|0|0|0|1|0|0|0|0|Arial");
-                            } else {
-                                // Parse existing font string and update size
-                                String[] fontParts = currentFont.split("\\|");
-                                if (fontParts.length > 2) {
-                                    fontParts[2] = String.valueOf(fontSize);
-                                    dmo.setFont(String.join("|", fontParts));
-                                }
+        Map<String, String> style = item.style;
+        return new AddDiagramObjectCommand(container, () -> {
+            IDiagramModelArchimateObject dmo = ServiceRegistry.views().newDiagramObject(el, x, y, w, h);
+            applyStyle(dmo, style);
+            return dmo;
+        });
+    }
+
+    /** Apply optional style attributes to a new diagram object; invalid values are ignored. */
+    private static void applyStyle(IDiagramModelArchimateObject dmo, Map<String, String> style) {
+        if (style == null || style.isEmpty()) return;
+        for (Map.Entry<String, String> styleEntry : style.entrySet()) {
+            String key = styleEntry.getKey();
+            String value = styleEntry.getValue();
+            try {
+                if ("fillColor".equals(key)) {
+                    dmo.setFillColor(value);
+                } else if ("fontColor".equals(key)) {
+                    dmo.setFontColor(value);
+                } else if ("lineColor".equals(key)) {
+                    dmo.setLineColor(value);
+                } else if ("fontName".equals(key)) {
+                    dmo.setFont(value);
+                } else if ("fontSize".equals(key)) {
+                    // For fontSize, we need to get the current font and modify it
+                    try {
+                        int fontSize = Integer.parseInt(value);
+                        String currentFont = dmo.getFont();
+                        if (currentFont == null || currentFont.isEmpty()) {
+                            // Use system default font with new size
+                            dmo.setFont("1|Arial|" + fontSize + "|0|WINDOWS|1|-13|0|0|0|400|0|0|0|1|0|0|0|0|Arial");
+                        } else {
+                            // Parse existing font string and update size
+                            String[] fontParts = currentFont.split("\\|");
+                            if (fontParts.length > 2) {
+                                fontParts[2] = String.valueOf(fontSize);
+                                dmo.setFont(String.join("|", fontParts));
                             }
-                        } catch (NumberFormatException e) {
-                            // Ignore invalid font size
-                        }
-                    } else if ("opacity".equals(key) || "alpha".equals(key)) {
-                        try {
-                            int opacity = Integer.parseInt(value);
-                            dmo.setAlpha(opacity);
-                        } catch (NumberFormatException e) {
-                            // Ignore invalid opacity
                         }
+                    } catch (NumberFormatException e) {
+                        // Ignore invalid font size
+                    }
+                } else if ("opacity".equals(key) || "alpha".equals(key)) {
+                    try {
+                        int opacity = Integer.parseInt(value);
+                        dmo.setAlpha(opacity);
+                    } catch (NumberFormatException e) {
+                        // Ignore invalid opacity
                     }
-                } catch (Exception e) {
-                    // Ignore any style application errors to prevent breaking the element creation
                 }
+            } catch (Exception e) {
+                // Ignore any style application errors to prevent breaking the element creation
             }
         }
-        
-        return Map.of("objectId", dmo.getId());
     }
 
     /** Add multiple relations to a view. */
@@ -266,34 +304,47 @@ public class ViewsCore {
 
     /** Update bounds of multiple diagram objects. */
     public List<Map<String, Object>> updateBounds(UpdateViewObjectsBoundsCmd cmd) throws CoreException {
+        return updateBounds(cmd, null);
+    }
+
+    /**
+     * Update bounds of multiple diagram objects. All objects are resolved before
+     * the first change, and the changes run as one undoable command.
+     * @param debug receives the UI-thread timing of the batch, may be null
+     */
+    public List<Map<String, Object>> updateBounds(UpdateViewObjectsBoundsCmd cmd, Map<String, Object> debug) throws CoreException {
         Validators.requireNonEmpty(cmd.viewId, "viewId");
         Validators.requireNonNull(cmd.items, "items");
         Validators.require(!cmd.items.isEmpty(), "items required");
-        List<Map<String, Object>> res = new java.util.ArrayList<>();
         for (UpdateViewObjectBoundsItem item : cmd.items) {
-            res.add(updateBounds(cmd.viewId, item));
+            Validators.requireNonEmpty(item.objectId, "objectId");
         }
-        return res;
-    }
-
-    private Map<String, Object> updateBounds(String viewId, UpdateViewObjectBoundsItem item) throws CoreException {
-        Validators.requireNonEmpty(viewId, "viewId");
-        Validators.requireNonEmpty(item.objectId, "objectId");
         var model = ServiceRegistry.activeModel().getActiveModel();
         if (model == null) throw new ConflictException("no active model");
-        Object vo = ServiceRegistry.activeModel().findById(model, viewId);
+        Object vo = ServiceRegistry.activeModel().findById(model, cmd.viewId);
         if (!(vo instanceof IDiagramModel)) throw new NotFoundException("view not found");
         IDiagramModel view = (IDiagramModel) vo;
-        com.archimatetool.model.IDiagramModelObject dmo = ModelApi.findDiagramObjectById(view, item.objectId);
-        if (dmo == null) throw new NotFoundException("object not found");
-        int x = item.x != null ? item.x : dmo.getBounds().getX();
-        int y = item.y != null ? item.y : dmo.getBounds().getY();
-        int w = item.w != null ? item.w : dmo.getBounds().getWidth();
-        int h = item.h != null ? item.h : dmo.getBounds().getHeight();
-        com.archimatetool.model.IBounds b = com.archimatetool.model.IArchimateFactory.eINSTANCE.createBounds(x, y, w, h);
-        final com.archimatetool.model.IBounds fb = b;
-        org.eclipse.swt.widgets.Display.getDefault().syncExec(() -> dmo.setBounds(fb));
-        return ModelApi.viewObjectToDto(dmo);
+        UiBatch batch = new UiBatch("Update bounds");
+        List<IDiagramModelObject> updated = new java.util.ArrayList<>();
+        for (UpdateViewObjectBoundsItem item : cmd.items) {
+            TaskContext.checkCancelled();
+            IDiagramModelObject dmo = ModelApi.findDiagramObjectById(view, item.objectId);
+            if (dmo == null) throw new NotFoundException("object not found");
+            int x = item.x != null ? item.x : dmo.getBounds().getX();
+            int y = item.y != null ? item.y : dmo.getBounds().getY();
+            int w = item.w != null ? item.w : dmo.getBounds().getWidth();
+            int h = item.h != null ? item.h : dmo.getBounds().getHeight();
+            batch.add(new SetBoundsCommand(dmo, IArchimateFactory.eINSTANCE.createBounds(x, y, w, h)));
+            updated.add(dmo);
+            TaskContext.progress(updated.size(), (long) cmd.items.size(), null);
+        }
+        batch.apply(model);
+        batch.describe(debug);
+        List<Map<String, Object>> res = new java.util.ArrayList<>();
+        for (IDiagramModelObject dmo : updated) {
+            res.add(ModelApi.viewObjectToDto(dmo));
+        }
+        return res;
     }
 
     /** Delete multiple diagram objects. */
@@ -404,11 +455,45 @@ public class ViewsCore {
         if (model == null) throw new ConflictException("no active model");
         Object vo = ServiceRegistry.activeModel().findById(model, q.viewId);
         if (!(vo instanceof IDiagramModel)) throw new NotFoundException("view not found");
-        IDiagramModel view = (IDiagramModel) vo;
+        return image(model, (IDiagramModel) vo, q, null);
+    }
+
+    /**
+     * Image of a resolved view, from the cache when the view is unchanged.
+     * @param onRender called when the image had to be rendered, may be null
+     */
+    ImageData image(IArchimateModel model, IDiagramModel view, GetViewImageQuery q, Runnable onRender) {
         String format = q.format != null ? q.format : "png";
         float scale = q.scale != null ? q.scale.floatValue() : 1.0f;
         int margin = q.margin != null ? q.margin.intValue() : 0;
         String bg = q.bg != null ? q.bg : "transparent";
+        if (q.region != null && !"png".equalsIgnoreCase(format)) {
+            throw new BadRequestException("viewport, tiles and thumbnails are PNG only");
+        }
+        ImageCache cache = ImageCache.get();
+        if (!cache.isEnabled()) {
+            if (onRender != null) onRender.run();
+            return render(view, format, scale, q.dpi, bg, margin, q.region);
+        }
+        String version = ChangeTrackers.of(model).viewVersionTag(view.getId());
+        String key = ImageCache.key(view.getId(), version, format.toLowerCase(), scale, q.dpi, bg, margin);
+        // every tile is an entry of its own, so panning only renders the tiles not seen yet
+        if (q.region != null) key += '|' + q.region.cacheKey();
+        ImageData cached = cache.lookup(key);
+        if (cached != null) return cached;
+        if (onRender != null) onRender.run();
+        ImageData img = render(view, format, scale, q.dpi, bg, margin, q.region);
+        cache.put(view.getId(), version, key, img);
+        return img;
+    }
+
+    private ImageData render(IDiagramModel view, String format, float scale, Integer dpi, String bg, int margin,
+            ImageRegion region) {
+        if (region != null) {
+            ModelApi.RegionImage part = ModelApi.renderViewRegionToPNG(view, region, scale, dpi, margin);
+            if (part.data == null || part.data.length == 0) throw new BadRequestException("render failed");
+            return new ImageData(part.data, "image/png", part.plan.toMap());
+        }
         if ("svg".equalsIgnoreCase(format)) {
             byte[] svg = ModelApi.renderViewToSVG(view, scale, bg, margin);
             if (svg == null || svg.length == 0) throw new BadRequestException("render failed");
@@ -424,7 +509,7 @@ public class ViewsCore {
                 bgc = new Color(r,g,b);
             }
         }
-        byte[] png = ModelApi.renderViewToPNG(view, scale, q.dpi, bgc, margin);
+        byte[] png = ModelApi.renderViewToPNG(view, scale, dpi, bgc, margin);
         if (png == null || png.length == 0) throw new BadRequestException("render failed");
         return new ImageData(png, "image/png");
     }
@@ -433,9 +518,15 @@ public class ViewsCore {
     public static class ImageData {
         public final byte[] data;
         public final String contentType;
+        /** Area and tile grid of a partial render; null for the whole view. */
+        public final Map<String, Object> region;
         public ImageData(byte[] data, String contentType) {
+            this(data, contentType, null);
+        }
+        public ImageData(byte[] data, String contentType, Map<String, Object> region) {
             this.data = data;
             this.contentType = contentType;
+            this.region = region;
         }
     }
 }
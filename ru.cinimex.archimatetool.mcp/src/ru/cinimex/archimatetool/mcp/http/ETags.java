@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.http;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Weak ETags and If-None-Match handling for read endpoints.
+ * <p>
+ * Model-backed responses are tagged with the version of the active model, so
+ * a handler can answer 304 before it builds any DTO. Static responses are
+ * tagged with a hash of their content. Tags are weak because one tag covers
+ * the gzip, deflate and identity encodings of a response.
+ */
+public final class ETags {
+
+    public static final String HEADER = "ETag";
+
+    private ETags() {}
+
+    /**
+     * ETag for the current version of the active model, or null when the model
+     * is not tracked. A plain read never attaches a tracker to the model.
+     */
+    public static String ofActiveModel() {
+        String tag = ChangeTrackers.peekActiveVersionTag();
+        return tag != null ? weak(tag) : null;
+    }
+
+    /** ETag derived from the bytes of a response that never changes at runtime. */
+    public static String ofBytes(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder sb = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                sb.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return weak(sb.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Answer 304 Not Modified if the request's If-None-Match matches the ETag.
+     * Returns true when the response has been sent.
+     */
+    public static boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        if (etag == null || !matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) return false;
+        exchange.getResponseHeaders().set(HEADER, etag);
+        exchange.sendResponseHeaders(304, -1);
+        return true;
+    }
+
+    /** Weak comparison as required for If-None-Match: W/ prefixes are ignored. */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        String want = strip(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || strip(c).equals(want)) return true;
+        }
+        return false;
+    }
+
+    private static String strip(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static String weak(String tag) {
+        return "W/\"" + tag + '"';
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.http;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ru.cinimex.archimatetool.mcp.server.sse.McpSessions;
+import ru.cinimex.archimatetool.mcp.server.sse.SseStream;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Caps the number of requests handled at once.
+ * <p>
+ * Requests over the limit wait for a slot while fewer than {@code maxQueued}
+ * others are waiting; anything beyond that, or a wait that times out, is
+ * answered with 503 and {@code Retry-After} instead of piling up threads.
+ * Long-lived event streams (GET with Accept: text/event-stream on /mcp or
+ * /changes) bypass the limiter; {@link McpSessions} caps them on its own.
+ * Other routes are limited whatever the client accepts.
+ */
+public final class RequestLimiter extends Filter {
+
+    public static final long DEFAULT_WAIT_MS = 30_000;
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long waitMs;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong served = new AtomicLong();
+
+    /** Set while an exchange the executor had no room for is being turned away. */
+    private static final ThreadLocal<Boolean> SHEDDING = new ThreadLocal<>();
+
+    public RequestLimiter(int maxConcurrent, int maxQueued) {
+        this(maxConcurrent, maxQueued, DEFAULT_WAIT_MS);
+    }
+
+    public RequestLimiter(int maxConcurrent, int maxQueued, long waitMs) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be positive");
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = Math.max(0, maxQueued);
+        this.waitMs = waitMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Run an exchange that the server executor could not queue. Every limiter
+     * it passes answers 503 at once, so the overload is reported to the client
+     * instead of the connection being dropped.
+     */
+    public static void shed(Runnable exchange) {
+        SHEDDING.set(Boolean.TRUE);
+        try {
+            exchange.run();
+        } finally {
+            SHEDDING.remove();
+        }
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (SHEDDING.get() != null) {
+            reject(exchange);
+            return;
+        }
+        if (isEventStream(exchange)) {
+            chain.doFilter(exchange);
+            return;
+        }
+        if (!acquire()) {
+            reject(exchange);
+            return;
+        }
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            permits.release();
+            served.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Concurrent request limiter";
+    }
+
+    /** GET of a stream route whose handler takes its own stream slot. */
+    private static boolean isEventStream(HttpExchange exchange) {
+        if (!"GET".equals(exchange.getRequestMethod()) || !SseStream.accepts(exchange)) return false;
+        String path = exchange.getRequestURI().getPath();
+        return "/mcp".equals(path) || "/changes".equals(path);
+    }
+
+    private void reject(HttpExchange exchange) throws IOException {
+        rejected.incrementAndGet();
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        ResponseUtil.json(exchange, 503, Map.of("error", "server busy"));
+    }
+
+    /** Take a slot, waiting in the bounded queue if needed. */
+    private boolean acquire() {
+        if (permits.tryAcquire()) return true;
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("maxConcurrent", maxConcurrent);
+        m.put("maxQueued", maxQueued);
+        m.put("active", getActive());
+        m.put("queued", queued.get());
+        m.put("rejected", rejected.get());
+        m.put("served", served.get());
+        return m;
+    }
+}
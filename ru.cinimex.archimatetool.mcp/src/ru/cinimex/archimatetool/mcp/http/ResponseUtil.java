@@ -33,6 +33,12 @@ public final class ResponseUtil {
         json(exchange, 200, body);
     }
 
+    /** 200 with an ETag header, if one is given. */
+    public static void ok(HttpExchange exchange, Object body, String etag) throws IOException {
+        if (etag != null) exchange.getResponseHeaders().set(ETags.HEADER, etag);
+        json(exchange, 200, body);
+    }
+
     public static void created(HttpExchange exchange, Object body) throws IOException {
         json(exchange, 201, body);
     }
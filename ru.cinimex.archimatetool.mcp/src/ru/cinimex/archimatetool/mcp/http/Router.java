@@ -15,6 +15,9 @@
  */
 package ru.cinimex.archimatetool.mcp.http;
 
+import java.util.Map;
+import java.util.function.Supplier;
+
 import ru.cinimex.archimatetool.mcp.http.handlers.StatusHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.OpenApiHttpHandler;
 import ru.cinimex.archimatetool.mcp.core.script.ScriptingCore;
@@ -27,11 +30,18 @@ import ru.cinimex.archimatetool.mcp.http.handlers.ElementsHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.RelationsHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.ViewsHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.ViewItemHttpHandler;
+import ru.cinimex.archimatetool.mcp.http.handlers.ViewExportHttpHandler;
+import ru.cinimex.archimatetool.mcp.http.handlers.ImageLinkHttpHandler;
+import ru.cinimex.archimatetool.mcp.http.handlers.ExportFileHttpHandler;
+import ru.cinimex.archimatetool.mcp.http.handlers.ModelChangesHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.ModelSaveHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.LegacyViewContentHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.LegacyViewAddElementHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.SearchHttpHandler;
 import ru.cinimex.archimatetool.mcp.http.handlers.JsonRpcHttpHandler;
+import ru.cinimex.archimatetool.mcp.http.handlers.ChangesHttpHandler;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
 /**
@@ -41,25 +51,41 @@ public final class Router {
     private Router() {}
 
     public static void registerAll(HttpServer server) {
-        server.createContext("/status", new StatusHttpHandler());
-        server.createContext("/openapi.json", new OpenApiHttpHandler());
+        registerAll(server, null, Map::of);
+    }
+
+    /**
+     * Register all contexts; every context except /status goes through the
+     * limiter so the server stays observable while saturated.
+     */
+    public static void registerAll(HttpServer server, RequestLimiter limiter, Supplier<Map<String, Object>> httpStats) {
+        server.createContext("/status", new StatusHttpHandler(httpStats));
+        register(server, limiter, "/openapi.json", new OpenApiHttpHandler());
         ScriptingCore scriptingCore = new ScriptingCore();
-        server.createContext("/script/engines", new ScriptEnginesHttpHandler(scriptingCore));
-        server.createContext("/script/run", new ScriptRunHttpHandler(scriptingCore));
-        server.createContext("/types", new TypesHttpHandler());
-        server.createContext("/folders", new FoldersHttpHandler());
-        server.createContext("/folder/ensure", new FolderEnsureHttpHandler());
-        server.createContext("/elements", new ElementsHttpHandler());
-        server.createContext("/relations", new RelationsHttpHandler());
-        server.createContext("/views", new ViewsHttpHandler());
-        server.createContext("/views/", new ViewItemHttpHandler());
-        server.createContext("/search", new SearchHttpHandler());
-        server.createContext("/views/content", new LegacyViewContentHttpHandler());
-        server.createContext("/views/add-element", new LegacyViewAddElementHttpHandler());
-        server.createContext("/model/save", new ModelSaveHttpHandler());
-        server.createContext("/mcp", new JsonRpcHttpHandler());
+        register(server, limiter, "/script/engines", new ScriptEnginesHttpHandler(scriptingCore));
+        register(server, limiter, "/script/run", new ScriptRunHttpHandler(scriptingCore));
+        register(server, limiter, "/types", new TypesHttpHandler());
+        register(server, limiter, "/folders", new FoldersHttpHandler());
+        register(server, limiter, "/folder/ensure", new FolderEnsureHttpHandler());
+        register(server, limiter, "/elements", new ElementsHttpHandler());
+        register(server, limiter, "/relations", new RelationsHttpHandler());
+        register(server, limiter, "/views", new ViewsHttpHandler());
+        register(server, limiter, "/views/", new ViewItemHttpHandler());
+        register(server, limiter, "/views/export", new ViewExportHttpHandler());
+        register(server, limiter, "/images/", new ImageLinkHttpHandler());
+        register(server, limiter, "/exports/", new ExportFileHttpHandler());
+        register(server, limiter, "/search", new SearchHttpHandler());
+        register(server, limiter, "/views/content", new LegacyViewContentHttpHandler());
+        register(server, limiter, "/views/add-element", new LegacyViewAddElementHttpHandler());
+        register(server, limiter, "/model/save", new ModelSaveHttpHandler());
+        register(server, limiter, "/model/changes", new ModelChangesHttpHandler());
+        register(server, limiter, "/changes", new ChangesHttpHandler());
+        register(server, limiter, "/mcp", new JsonRpcHttpHandler());
         // Остальные хендлеры будут добавляться по мере рефакторинга
     }
-}
-
 
+    private static void register(HttpServer server, RequestLimiter limiter, String path, HttpHandler handler) {
+        HttpContext ctx = server.createContext(path, handler);
+        if (limiter != null) ctx.getFilters().add(limiter);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.http.handlers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import ru.cinimex.archimatetool.mcp.Config;
+import ru.cinimex.archimatetool.mcp.changes.ChangeEvent;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFeed;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFilter;
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
+import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
+import ru.cinimex.archimatetool.mcp.http.QueryParams;
+import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
+import ru.cinimex.archimatetool.mcp.server.sse.McpSessions;
+import ru.cinimex.archimatetool.mcp.server.sse.SseStream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * GET /changes: model changes as an event stream of {@code change} events, or the
+ * buffered events as JSON when the client does not accept text/event-stream.
+ * <p>
+ * Filters: kinds, ops, ids, modelId. A stream resumes after {@code since} or the
+ * Last-Event-ID header; when the replay buffer no longer reaches back that far, or
+ * the client reads too slowly to keep up, a {@code resync} event is sent instead.
+ */
+public class ChangesHttpHandler implements HttpHandler {
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) { ResponseUtil.methodNotAllowed(exchange); return; }
+        QueryParams q = QueryParams.from(exchange);
+        ChangeFilter filter;
+        try {
+            filter = ChangeFilter.from(q);
+            ChangeTrackers.trackActive();
+        } catch (CoreException ex) {
+            ResponseUtil.handleCoreException(exchange, ex);
+            return;
+        }
+        long since = parseSeq(q.first("since"), parseSeq(exchange.getRequestHeaders().getFirst("Last-Event-ID"), -1));
+        if (!SseStream.accepts(exchange)) {
+            ChangeFeed.Replay r = ChangeFeed.get().since(Math.max(since, 0), filter);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("lastSeq", r.lastSeq);
+            body.put("resync", r.resync);
+            body.put("events", toMaps(r.events));
+            ResponseUtil.ok(exchange, body);
+            return;
+        }
+        McpSessions sessions = McpSessions.get();
+        if (!sessions.acquireStream()) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            ResponseUtil.json(exchange, 503, Map.of("error", "too many streams"));
+            return;
+        }
+        try {
+            stream(exchange, filter, since);
+        } finally {
+            sessions.releaseStream();
+        }
+    }
+
+    private void stream(HttpExchange exchange, ChangeFilter filter, long since) throws IOException {
+        ChangeFeed feed = ChangeFeed.get();
+        BlockingQueue<ChangeEvent> queue = new LinkedBlockingQueue<>(Config.resolveSseQueueSize());
+        AtomicBoolean overflow = new AtomicBoolean();
+        // subscribe before replaying so nothing published in between is lost
+        try (ChangeFeed.Subscription sub = feed.subscribe(filter, events -> {
+            for (ChangeEvent e : events) {
+                if (!queue.offer(e)) overflow.set(true);
+            }
+        })) {
+            SseStream sse = SseStream.open(exchange);
+            long last = since;
+            if (since >= 0) {
+                ChangeFeed.Replay r = feed.since(since, filter);
+                if (r.resync) sse.event(null, "resync", Map.of("lastSeq", r.lastSeq));
+                for (ChangeEvent e : r.events) {
+                    sse.event(Long.toString(e.getSeq()), "change", e.toMap());
+                    last = e.getSeq();
+                }
+            }
+            long heartbeatMs = Config.resolveSseHeartbeatMs();
+            while (true) {
+                if (overflow.get()) {
+                    // the reader fell behind the bounded queue; it must resume or resync
+                    sse.event(null, "resync", Map.of("lastSeq", feed.lastSeq()));
+                    break;
+                }
+                ChangeEvent e = queue.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                if (e == null) {
+                    sse.heartbeat();
+                } else if (e.getSeq() > last) {
+                    sse.event(Long.toString(e.getSeq()), "change", e.toMap());
+                    last = e.getSeq();
+                }
+            }
+            sse.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            // client went away
+        }
+    }
+
+    static List<Map<String, Object>> toMaps(List<ChangeEvent> events) {
+        List<Map<String, Object>> out = new ArrayList<>(events.size());
+        for (ChangeEvent e : events) {
+            out.add(e.toMap());
+        }
+        return out;
+    }
+
+    private static long parseSeq(String v, long def) {
+        if (v == null || v.isBlank()) return def;
+        try {
+            return Long.parseLong(v.trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
@@ -22,11 +22,13 @@ import java.util.List;
 import java.util.Map;
 
 import ru.cinimex.archimatetool.mcp.core.elements.ElementsCore;
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.types.CreateElementItem;
 import ru.cinimex.archimatetool.mcp.core.types.CreateElementsCmd;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteElementItem;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteElementsCmd;
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
 import ru.cinimex.archimatetool.mcp.core.types.GetElementQuery;
 import ru.cinimex.archimatetool.mcp.core.types.UpdateElementItem;
 import ru.cinimex.archimatetool.mcp.core.types.UpdateElementsCmd;
@@ -89,9 +91,16 @@ public class ElementsHttpHandler implements HttpHandler {
         );
         McpLogger.logApiOperationInput("GET /elements", inputParams);
         
+        Fields fields;
+        try {
+            fields = Fields.parse(qp.first("fields"));
+        } catch (CoreException ex) {
+            ResponseUtil.handleCoreException(exchange, ex);
+            return;
+        }
         List<Map<String, Object>> res = new ArrayList<>();
         for (String id : ids) {
-            GetElementQuery q = new GetElementQuery(id, includeRelations, includeElements);
+            GetElementQuery q = new GetElementQuery(id, includeRelations, includeElements, fields);
             try {
                 res.add(core.getElement(q));
             } catch (CoreException ex) {
@@ -122,9 +131,10 @@ public class ElementsHttpHandler implements HttpHandler {
         
         CreateElementsCmd cmd = new CreateElementsCmd(items);
         try {
-            var dto = core.createElements(cmd);
+            Map<String, Object> debug = QueryParams.from(exchange).getBool("debug", false) ? new HashMap<>() : null;
+            var dto = core.createElements(cmd, debug);
             McpLogger.logApiOperationOutput("POST /elements", Map.of("createdCount", dto.size()));
-            ResponseUtil.created(exchange, dto);
+            ResponseUtil.created(exchange, UiBatch.withDebug(dto, debug));
         } catch (CoreException ex) {
             McpLogger.logApiOperationError("POST /elements", ex);
             ResponseUtil.handleCoreException(exchange, ex);
@@ -143,8 +153,9 @@ public class ElementsHttpHandler implements HttpHandler {
         }
         UpdateElementsCmd cmd = new UpdateElementsCmd(items);
         try {
-            var dto = core.updateElements(cmd);
-            ResponseUtil.ok(exchange, dto);
+            Map<String, Object> debug = QueryParams.from(exchange).getBool("debug", false) ? new HashMap<>() : null;
+            var dto = core.updateElements(cmd, debug);
+            ResponseUtil.ok(exchange, UiBatch.withDebug(dto, debug));
         } catch (CoreException ex) {
             ResponseUtil.handleCoreException(exchange, ex);
         }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.http.handlers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import ru.cinimex.archimatetool.mcp.core.views.ExportFiles;
+import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** HTTP handler serving the archives behind the download links of export_views. */
+public class ExportFileHttpHandler implements HttpHandler {
+    private static final String PREFIX = "/exports/";
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) { ResponseUtil.methodNotAllowed(exchange); return; }
+        String path = exchange.getRequestURI().getPath();
+        String token = path.startsWith(PREFIX) ? path.substring(PREFIX.length()) : null;
+        Path file = ExportFiles.get().resolve(token);
+        if (file == null) {
+            ResponseUtil.notFound(exchange, "export link not found or expired");
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/zip");
+        exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"views.zip\"");
+        exchange.getResponseHeaders().set("Cache-Control", "private, max-age=" + ExportFiles.get().getTtlMs() / 1000 + ", immutable");
+        // PNG entries are stored already deflated, so the archive goes out as is
+        exchange.sendResponseHeaders(200, Files.size(file));
+        try (OutputStream os = exchange.getResponseBody()) {
+            Files.copy(file, os);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Map;
 
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.folders.FoldersCore;
+import ru.cinimex.archimatetool.mcp.http.ETags;
 import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -33,8 +34,10 @@ public class FoldersHttpHandler implements HttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) { ResponseUtil.methodNotAllowed(exchange); return; }
         try {
+            String etag = ETags.ofActiveModel();
+            if (ETags.notModified(exchange, etag)) return;
             List<Map<String,Object>> roots = core.listFolders();
-            ResponseUtil.ok(exchange, roots);
+            ResponseUtil.ok(exchange, roots, etag);
         } catch (CoreException ex) {
             ResponseUtil.handleCoreException(exchange, ex);
         }
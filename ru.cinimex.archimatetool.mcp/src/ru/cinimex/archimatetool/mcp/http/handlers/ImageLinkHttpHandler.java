@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.http.handlers;
+
+import java.io.IOException;
+
+import ru.cinimex.archimatetool.mcp.core.views.ImageLinks;
+import ru.cinimex.archimatetool.mcp.core.views.ViewsCore;
+import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
+import ru.cinimex.archimatetool.mcp.server.HttpCompression;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** HTTP handler serving images behind the short-lived links of get_view_image. */
+public class ImageLinkHttpHandler implements HttpHandler {
+    private static final String PREFIX = "/images/";
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) { ResponseUtil.methodNotAllowed(exchange); return; }
+        String path = exchange.getRequestURI().getPath();
+        String token = path.startsWith(PREFIX) ? path.substring(PREFIX.length()) : null;
+        ViewsCore.ImageData img = ImageLinks.get().resolve(token);
+        if (img == null) {
+            ResponseUtil.notFound(exchange, "image link not found or expired");
+            return;
+        }
+        // the bytes behind a token never change
+        exchange.getResponseHeaders().set("Cache-Control", "private, max-age=" + ImageLinks.get().getTtlMs() / 1000 + ", immutable");
+        HttpCompression.send(exchange, 200, img.contentType, img.data);
+    }
+}
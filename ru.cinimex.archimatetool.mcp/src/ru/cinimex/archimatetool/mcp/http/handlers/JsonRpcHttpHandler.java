@@ -20,15 +20,33 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+import ru.cinimex.archimatetool.mcp.Config;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFeed;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFilter;
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
 import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
 import ru.cinimex.archimatetool.mcp.server.JacksonJson;
 import ru.cinimex.archimatetool.mcp.server.JsonUtil;
+import ru.cinimex.archimatetool.mcp.server.sse.McpSession;
+import ru.cinimex.archimatetool.mcp.server.sse.McpSessions;
+import ru.cinimex.archimatetool.mcp.server.sse.SseStream;
 import ru.cinimex.archimatetool.mcp.server.tools.Tool;
-import ru.cinimex.archimatetool.mcp.server.tools.ToolParam;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolArgs;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolParamException;
 import ru.cinimex.archimatetool.mcp.server.tools.ToolRegistry;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolResult;
 import ru.cinimex.archimatetool.mcp.util.McpLogger;
 import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
 import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
@@ -36,6 +54,8 @@ import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.errors.NotFoundException;
 import ru.cinimex.archimatetool.mcp.core.errors.NotImplementedException;
 import ru.cinimex.archimatetool.mcp.core.errors.UnprocessableException;
+import ru.cinimex.archimatetool.mcp.core.tasks.Task;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskManager;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -43,9 +63,37 @@ import com.sun.net.httpserver.HttpHandler;
 /**
  * Minimal JSON-RPC 2.0 handler supporting single and batch requests,
  * dispatching calls via the tool registry.
+ * <p>
+ * Batch entries calling read-only tools run in parallel on a small shared pool.
+ * Any other entry waits for everything before it and runs alone, so mutations
+ * keep their submission order and reads never overtake a preceding write.
+ * <p>
+ * Streamable HTTP: initialize hands out an {@value #SESSION_HEADER}, GET opens the
+ * session's event stream for server-initiated messages, DELETE ends the session,
+ * and a tools/call carrying a progress token is answered as an event stream when
+ * the client accepts one.
  */
 public class JsonRpcHttpHandler implements HttpHandler {
 
+    public static final String SESSION_HEADER = "Mcp-Session-Id";
+
+    private static final class BatchPool {
+        static final ExecutorService INSTANCE = create();
+
+        private static ExecutorService create() {
+            int threads = Config.resolveBatchParallelism();
+            AtomicInteger seq = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "archi-mcp-batch-" + seq.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         // Log incoming request at debug level only
@@ -60,10 +108,29 @@ public class JsonRpcHttpHandler implements HttpHandler {
                 ", headers=[" + headerDetails.toString() + "]");
         }
             
-        if (!"POST".equals(exchange.getRequestMethod())) {
+        String httpMethod = exchange.getRequestMethod();
+        if ("GET".equals(httpMethod)) {
+            openStream(exchange);
+            return;
+        }
+        if ("DELETE".equals(httpMethod)) {
+            closeSession(exchange);
+            return;
+        }
+        if (!"POST".equals(httpMethod)) {
             ResponseUtil.methodNotAllowed(exchange);
             return;
         }
+        McpSession session = null;
+        String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        if (sessionId != null) {
+            session = McpSessions.get().find(sessionId);
+            if (session == null) {
+                ResponseUtil.notFound(exchange, "session not found");
+                return;
+            }
+        }
+
         
         // Read request body
         String requestBody;
@@ -103,13 +170,7 @@ public class JsonRpcHttpHandler implements HttpHandler {
         }
         if (root.isArray()) {
             McpLogger.logOperationCall("JsonRPC", "batch request (" + root.size() + " items)");
-            List<Object> responses = new ArrayList<>();
-            for (JsonNode node : root) {
-                Object resp = process(node);
-                if (resp != null) {
-                    responses.add(resp);
-                }
-            }
+            List<Object> responses = processBatch(root, session);
             if (responses.isEmpty()) {
                 // MCP 2025-06-18: for batches consisting only of notifications/responses return 202 Accepted with no body
                 exchange.sendResponseHeaders(202, -1);
@@ -117,7 +178,14 @@ public class JsonRpcHttpHandler implements HttpHandler {
                 JsonUtil.writeJson(exchange, 200, responses);
             }
         } else {
-            Object resp = process(root);
+            if (isStreamableCall(exchange, root)) {
+                streamCall(exchange, root, session);
+                return;
+            }
+            if (session == null && "initialize".equals(root.path("method").asText()) && root.hasNonNull("id")) {
+                exchange.getResponseHeaders().set(SESSION_HEADER, McpSessions.get().create().getId());
+            }
+            Object resp = process(root, session);
             if (resp == null) {
                 if (McpLogger.isDebugEnabled()) {
                     McpLogger.logOperationOutput("JsonRpcHttpHandler", "empty response");
@@ -134,7 +202,46 @@ public class JsonRpcHttpHandler implements HttpHandler {
         }
     }
 
-    private Object process(JsonNode node) {
+    /** Process batch entries, preserving response order. */
+    private List<Object> processBatch(JsonNode root, McpSession session) {
+        boolean parallel = Config.resolveBatchParallelism() > 1;
+        List<CompletableFuture<Object>> pending = new ArrayList<>();
+        int barrier = 0;
+        for (JsonNode node : root) {
+            if (parallel && isReadOnlyCall(node)) {
+                pending.add(CompletableFuture.supplyAsync(() -> process(node, session), BatchPool.INSTANCE));
+            } else {
+                // wait for earlier reads before running an entry that may modify the model
+                CompletableFuture.allOf(pending.subList(barrier, pending.size()).toArray(new CompletableFuture[0]))
+                        .exceptionally(ex -> null).join();
+                pending.add(CompletableFuture.completedFuture(process(node, session)));
+                barrier = pending.size();
+            }
+        }
+        List<Object> responses = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            Object resp;
+            try {
+                resp = pending.get(i).join();
+            } catch (Exception ex) {
+                McpLogger.logOperationError("JsonRpcHttpHandler", ex);
+                JsonNode idNode = root.get(i).get("id");
+                resp = idNode == null ? null : error(idNode, -32603, "internal error", null);
+            }
+            if (resp != null) {
+                responses.add(resp);
+            }
+        }
+        return responses;
+    }
+
+    private static boolean isReadOnlyCall(JsonNode node) {
+        if (node == null || !node.isObject() || !"tools/call".equals(node.path("method").asText())) return false;
+        Tool tool = ToolRegistry.get(node.path("params").path("name").asText());
+        return tool != null && tool.isReadOnly();
+    }
+
+    private Object process(JsonNode node, McpSession session) {
         if (node == null || !node.isObject()) {
             return error(null, -32600, "invalid request", null);
         }
@@ -149,10 +256,7 @@ public class JsonRpcHttpHandler implements HttpHandler {
             return isNotification ? null : error(idNode, -32600, "invalid request", null);
         }
         String method = node.path("method").asText();
-        JsonNode paramsNode = node.get("params");
-        Map<String, Object> params = paramsNode != null && paramsNode.isObject()
-                ? JacksonJson.mapper().convertValue(paramsNode, Map.class)
-                : Collections.emptyMap();
+        JsonNode params = node.path("params");
         switch (method) {
             case "initialize":
                 Map<String, Object> result = Map.of(
@@ -162,7 +266,7 @@ public class JsonRpcHttpHandler implements HttpHandler {
                         "tools", Map.of("listChanged", Boolean.FALSE),
                         // Cursor ожидает объекты для prompts/resources, а не boolean
                         "prompts", Map.of(),
-                        "resources", Map.of(),
+                        "resources", Map.of("subscribe", Boolean.TRUE, "listChanged", Boolean.FALSE),
                         "logging", Map.of("levels", Arrays.asList("info", "warn", "error"))
                     )
                 );
@@ -178,34 +282,42 @@ public class JsonRpcHttpHandler implements HttpHandler {
                     "Request example:",
                     "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"list_views\",\"arguments\":{}}}",
                     "Do not include a 'result' field in requests (it appears only in responses).",
-                    "Parameters use strict types and snake_case names shown in inputSchema."));
+                    "Parameters use strict types and snake_case names shown in inputSchema.",
+                    "Add \"_meta\":{\"async\":true} to params to run a call as a task; poll it with get_task."));
                 return isNotification ? null : success(idNode, payload);
             }
             case "tools/call": {
-                Object nameObj = params.get("name");
-                if (!(nameObj instanceof String)) {
+                JsonNode nameNode = params.get("name");
+                if (nameNode == null || !nameNode.isTextual()) {
                     return isNotification ? null : error(idNode, -32602, "invalid params", Map.of("error", "missing name"));
                 }
-                String name = (String) nameObj;
+                String name = nameNode.textValue();
                 // Support both "arguments" (MCP default) and legacy "args"
-                @SuppressWarnings("unchecked") Map<String, Object> args =
-                        params.get("arguments") instanceof Map ? (Map<String, Object>) params.get("arguments") :
-                        (params.get("args") instanceof Map ? (Map<String, Object>) params.get("args") : Collections.emptyMap());
+                JsonNode argsNode = params.get("arguments") != null && params.get("arguments").isObject()
+                        ? params.get("arguments")
+                        : (params.get("args") != null && params.get("args").isObject() ? params.get("args") : null);
                 Tool tool = ToolRegistry.get(name);
                 if (tool == null || tool.getInvoker() == null) {
                     return isNotification ? null : error(idNode, -32601, "method '" + name + "' not found", null);
                 }
+                JsonNode meta = params.path("_meta");
+                if (meta.path("async").asBoolean(false)) {
+                    Object resp = startAsync(idNode, name, argsNode, meta.get("progressToken"), session);
+                    return isNotification ? null : resp;
+                }
+                ToolArgs args;
                 try {
-                    args = validateParams(tool, args);
-                } catch (ParamException pe) {
+                    args = tool.bind(argsNode);
+                } catch (ToolParamException pe) {
                     McpLogger.logOperationError(name, pe);
-                    return isNotification ? null
-                            : error(idNode, -32602, "invalid params", Map.of("error", pe.getMessage()));
+                    return isNotification ? null : invalidParams(idNode, pe);
                 }
                 try {
                     // Log input data at debug level
                     if (McpLogger.isDebugEnabled()) {
-                        McpLogger.logOperationInput(name, args);
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> input = JacksonJson.mapper().convertValue(args.node(), Map.class);
+                        McpLogger.logOperationInput(name, input);
                     }
                     
                     Object callResult = tool.getInvoker().invoke(args);
@@ -215,17 +327,13 @@ public class JsonRpcHttpHandler implements HttpHandler {
                         McpLogger.logOperationOutput(name, callResult);
                     }
                     
-                    // Wrap result in MCP tool response format
-                    Map<String, Object> mcpResult = Map.of(
-                        "content", java.util.List.of(
-                            Map.of(
-                                "type", "text",
-                                "text", JacksonJson.mapper().writeValueAsString(callResult)
-                            )
-                        )
-                    );
+                    // Wrap result in MCP tool response format, serializing it only once
+                    Map<String, Object> mcpResult = ToolResult.wrap(callResult);
                     
                     return isNotification ? null : success(idNode, mcpResult);
+                } catch (ToolParamException pe) {
+                    McpLogger.logOperationError(name, pe);
+                    return isNotification ? null : invalidParams(idNode, pe);
                 } catch (CoreException ce) {
                     McpLogger.logOperationError(name, ce);
                     return isNotification ? null : error(idNode, mapCoreException(ce), ce.getMessage(), null);
@@ -234,18 +342,50 @@ public class JsonRpcHttpHandler implements HttpHandler {
                     return isNotification ? null : error(idNode, -32603, "internal error", null);
                 }
             }
+            case "notifications/cancelled": {
+                // the client gave up on a request; stop the task it started, if any
+                JsonNode requestId = params.get("requestId");
+                if (requestId != null && !requestId.isNull()) {
+                    JsonNode reason = params.get("reason");
+                    TaskManager.get().cancelByRequestId(session != null ? session.getId() : null, toJava(requestId),
+                            reason != null && reason.isTextual() ? reason.textValue() : "cancelled by client");
+                }
+                return isNotification ? null : success(idNode, Collections.emptyMap());
+            }
             case "prompts/list": {
                 Map<String, Object> payload = Map.of("prompts", Collections.emptyList());
                 return isNotification ? null : success(idNode, payload);
             }
             case "resources/list": {
-                Map<String, Object> payload = Map.of("resources", Collections.emptyList());
+                Map<String, Object> feed = new HashMap<>();
+                feed.put("uri", ChangeFilter.FEED_URI);
+                feed.put("name", "Model changes");
+                feed.put("description", "Coalesced element/relation/view/folder changes; subscribe to receive "
+                        + "notifications/resources/updated. Query parameters kinds, ops, ids and modelId filter it; "
+                        + "archi://elements/{id} (relations, views, folders) watches a single object.");
+                feed.put("mimeType", "application/json");
+                Map<String, Object> payload = Map.of("resources", List.of(feed));
                 return isNotification ? null : success(idNode, payload);
             }
+            case "resources/read":
+            case "resources/subscribe":
+            case "resources/unsubscribe": {
+                JsonNode uriNode = params.get("uri");
+                if (uriNode == null || !uriNode.isTextual()) {
+                    return isNotification ? null : error(idNode, -32602, "invalid params", Map.of("error", "missing uri"));
+                }
+                try {
+                    Object resource = changeResource(method, uriNode.textValue(), session);
+                    return isNotification ? null : success(idNode, resource);
+                } catch (CoreException ce) {
+                    McpLogger.logOperationError(method, ce);
+                    return isNotification ? null : error(idNode, mapCoreException(ce), ce.getMessage(), null);
+                }
+            }
             case "logging/setLevel": {
                 // Accept and configure logging level
-                Object lvl = params.get("level");
-                String level = lvl instanceof String ? (String) lvl : "info";
+                JsonNode lvl = params.get("level");
+                String level = lvl != null && lvl.isTextual() ? lvl.textValue() : "info";
                 
                 // Configure logging levels based on the requested level
                 switch (level.toLowerCase()) {
@@ -281,13 +421,204 @@ public class JsonRpcHttpHandler implements HttpHandler {
         }
     }
 
+    /** Start a tools/call as a background task and answer with its id right away. */
+    private Map<String, Object> startAsync(JsonNode idNode, String name, JsonNode argsNode, JsonNode progressToken,
+            McpSession session) {
+        try {
+            Task task = ToolRegistry.startTask(name, argsNode, session != null ? session.getId() : null,
+                    toJava(idNode), toJava(progressToken), progressTo(session));
+            return success(idNode, ToolResult.wrap(task.toMap(false)));
+        } catch (ToolParamException pe) {
+            McpLogger.logOperationError(name, pe);
+            return invalidParams(idNode, pe);
+        } catch (CoreException ce) {
+            McpLogger.logOperationError(name, ce);
+            return error(idNode, mapCoreException(ce), ce.getMessage(), null);
+        } catch (IOException ex) {
+            McpLogger.logOperationError(name, ex);
+            return error(idNode, -32603, "internal error", null);
+        }
+    }
+
+    /** resources/read, subscribe and unsubscribe on change feed URIs. */
+    private Object changeResource(String method, String uri, McpSession session) {
+        ChangeFilter filter = ChangeFilter.fromUri(uri);
+        if ("resources/read".equals(method)) {
+            ChangeFeed.Replay r = ChangeFeed.get().since(0, filter);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("lastSeq", r.lastSeq);
+            body.put("events", ChangesHttpHandler.toMaps(r.events));
+            Map<String, Object> content = new LinkedHashMap<>();
+            content.put("uri", uri);
+            content.put("mimeType", "application/json");
+            try {
+                content.put("text", JacksonJson.mapper().writeValueAsString(body));
+            } catch (IOException e) {
+                throw new UnprocessableException("cannot serialize changes");
+            }
+            return Map.of("contents", List.of(content));
+        }
+        if (session == null) {
+            throw new BadRequestException(method + " requires a session; send the " + SESSION_HEADER + " from initialize");
+        }
+        if ("resources/unsubscribe".equals(method)) {
+            session.unsubscribe(uri);
+            return Collections.emptyMap();
+        }
+        ChangeTrackers.trackActive();
+        boolean feed = uri.startsWith(ChangeFilter.FEED_URI);
+        session.subscribe(uri, ChangeFeed.get().subscribe(filter,
+                events -> session.offerResourceUpdate(uri, feed ? ChangesHttpHandler.toMaps(events) : null)));
+        return Collections.emptyMap();
+    }
+
+    /** Forward progress of a task to the session's stream, if the client has one. */
+    private static Consumer<Task> progressTo(McpSession session) {
+        if (session == null) return null;
+        return t -> {
+            Map<String, Object> note = t.progressNotification();
+            if (note != null && !t.isDone()) session.offer(note, true);
+        };
+    }
+
+    /** GET /mcp: server-to-client event stream of a session. */
+    private void openStream(HttpExchange exchange) throws IOException {
+        if (!SseStream.accepts(exchange)) {
+            ResponseUtil.methodNotAllowed(exchange);
+            return;
+        }
+        String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        if (sessionId == null) {
+            ResponseUtil.badRequest(exchange, SESSION_HEADER + " header required");
+            return;
+        }
+        McpSession session = McpSessions.get().find(sessionId);
+        if (session == null) {
+            ResponseUtil.notFound(exchange, "session not found");
+            return;
+        }
+        McpSessions sessions = McpSessions.get();
+        if (!sessions.acquireStream()) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            ResponseUtil.json(exchange, 503, Map.of("error", "too many streams"));
+            return;
+        }
+        try {
+            SseStream sse = SseStream.open(exchange);
+            session.pump(sse, Config.resolveSseHeartbeatMs());
+            try {
+                sse.close();
+            } catch (IOException ignore) {
+                // client already gone
+            }
+        } finally {
+            sessions.releaseStream();
+        }
+    }
+
+    /** DELETE /mcp: the client ends its session. */
+    private void closeSession(HttpExchange exchange) throws IOException {
+        String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        if (sessionId == null) {
+            ResponseUtil.badRequest(exchange, SESSION_HEADER + " header required");
+        } else if (McpSessions.get().remove(sessionId)) {
+            ResponseUtil.noContent(exchange);
+        } else {
+            ResponseUtil.notFound(exchange, "session not found");
+        }
+    }
+
+    /**
+     * A tools/call with a progress token from a client accepting SSE is answered as a
+     * stream. Tools that cannot run as a task, like get_task, are answered inline.
+     */
+    private static boolean isStreamableCall(HttpExchange exchange, JsonNode root) {
+        if (!root.isObject() || !root.hasNonNull("id") || !"tools/call".equals(root.path("method").asText())) return false;
+        JsonNode meta = root.path("params").path("_meta");
+        if (!meta.hasNonNull("progressToken") || meta.path("async").asBoolean(false)) return false;
+        return ToolRegistry.canRunAsTask(root.path("params").path("name").asText()) && SseStream.accepts(exchange);
+    }
+
+    /**
+     * Run a tools/call as a task and answer with an event stream carrying its
+     * progress notifications followed by the response. If the client disconnects
+     * the task is cancelled.
+     */
+    private void streamCall(HttpExchange exchange, JsonNode root, McpSession session) throws IOException {
+        JsonNode idNode = root.get("id");
+        JsonNode params = root.path("params");
+        String name = params.path("name").asText();
+        JsonNode argsNode = params.get("arguments") != null && params.get("arguments").isObject()
+                ? params.get("arguments")
+                : (params.get("args") != null && params.get("args").isObject() ? params.get("args") : null);
+        BlockingQueue<Map<String, Object>> events = new LinkedBlockingQueue<>(Config.resolveSseQueueSize());
+        Map<String, Object> done = new HashMap<>();
+        Task task;
+        try {
+            task = ToolRegistry.startTask(name, argsNode, session != null ? session.getId() : null, toJava(idNode),
+                    toJava(params.path("_meta").get("progressToken")), t -> {
+                if (t.isDone()) {
+                    // the final marker must not be lost to a full queue
+                    events.clear();
+                    events.offer(done);
+                } else {
+                    Map<String, Object> note = t.progressNotification();
+                    // progress is lossy: a reader that falls behind skips intermediate steps
+                    if (note != null) events.offer(note);
+                }
+            });
+        } catch (ToolParamException pe) {
+            McpLogger.logOperationError(name, pe);
+            JsonUtil.writeJson(exchange, 200, invalidParams(idNode, pe));
+            return;
+        } catch (CoreException ce) {
+            McpLogger.logOperationError(name, ce);
+            JsonUtil.writeJson(exchange, 200, error(idNode, mapCoreException(ce), ce.getMessage(), null));
+            return;
+        }
+        long heartbeatMs = Config.resolveSseHeartbeatMs();
+        SseStream sse = SseStream.open(exchange);
+        try {
+            while (true) {
+                Map<String, Object> next = events.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                if (next == done) break;
+                if (next == null) {
+                    sse.heartbeat();
+                } else {
+                    sse.event(null, next);
+                }
+            }
+            sse.event(null, taskResponse(idNode, task));
+            sse.close();
+        } catch (IOException | InterruptedException ex) {
+            if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+            TaskManager.get().cancel(task.getId(), "client disconnected");
+        }
+    }
+
+    private Map<String, Object> taskResponse(JsonNode idNode, Task task) throws IOException {
+        switch (task.getState()) {
+            case COMPLETED:
+                return success(idNode, ToolResult.wrap(task.getResult()));
+            case FAILED:
+                Throwable ex = task.getError();
+                if (ex instanceof ToolParamException) return invalidParams(idNode, (ToolParamException) ex);
+                if (ex instanceof CoreException) return error(idNode, mapCoreException((CoreException) ex), ex.getMessage(), null);
+                return error(idNode, -32603, "internal error", null);
+            default:
+                return error(idNode, -32800, "request cancelled", null);
+        }
+    }
+
+    private static Object toJava(JsonNode node) {
+        return node != null && !node.isNull() ? JacksonJson.mapper().convertValue(node, Object.class) : null;
+    }
+
     private Map<String, Object> success(JsonNode idNode, Object result) {
         Map<String, Object> resp = new HashMap<>();
         resp.put("jsonrpc", "2.0");
         resp.put("result", result);
-        resp.put("id", idNode != null && !idNode.isNull()
-                ? JacksonJson.mapper().convertValue(idNode, Object.class)
-                : null);
+        resp.put("id", toJava(idNode));
         return resp;
     }
 
@@ -307,37 +638,11 @@ public class JsonRpcHttpHandler implements HttpHandler {
         return resp;
     }
 
-    private Map<String, Object> validateParams(Tool tool, Map<String, Object> params) throws ParamException {
-        Map<String, Object> validated = new HashMap<>(params);
-        for (ToolParam tp : tool.getParams()) {
-            Object value = validated.get(tp.getName());
-            if (value == null) {
-                if (tp.isRequired()) {
-                    throw new ParamException("missing required param '" + tp.getName() + "'");
-                }
-                if (tp.getDefaultValue() != null) {
-                    validated.put(tp.getName(), tp.getDefaultValue());
-                }
-            } else if (!isTypeValid(tp.getType(), value)) {
-                throw new ParamException("param '" + tp.getName() + "' must be " + tp.getType());
-            }
-        }
-        return validated;
-    }
-
-    private boolean isTypeValid(String type, Object value) {
-        switch (type) {
-            case "string":
-                return value instanceof String;
-            case "integer":
-                return value instanceof Integer || value instanceof Long;
-            case "number":
-                return value instanceof Number;
-            case "boolean":
-                return value instanceof Boolean;
-            default:
-                return true;
-        }
+    private Map<String, Object> invalidParams(JsonNode idNode, ToolParamException pe) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("error", pe.getMessage());
+        data.put("path", pe.getPath());
+        return error(idNode, -32602, "invalid params", data);
     }
 
     private int mapCoreException(CoreException ex) {
@@ -354,11 +659,5 @@ public class JsonRpcHttpHandler implements HttpHandler {
         }
         return -32603;
     }
-
-    private static class ParamException extends Exception {
-        ParamException(String msg) {
-            super(msg);
-        }
-    }
 }
 
@@ -17,6 +17,7 @@ package ru.cinimex.archimatetool.mcp.http.handlers;
 
 import java.io.IOException;
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
 import ru.cinimex.archimatetool.mcp.core.types.GetViewContentQuery;
 import ru.cinimex.archimatetool.mcp.core.views.ViewsCore;
 import ru.cinimex.archimatetool.mcp.http.QueryParams;
@@ -32,8 +33,8 @@ public class LegacyViewContentHttpHandler implements HttpHandler {
         if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) { ResponseUtil.methodNotAllowed(exchange); return; }
         QueryParams qp = QueryParams.from(exchange);
         String id = qp.first("id");
-        GetViewContentQuery q = new GetViewContentQuery(id);
         try {
+            GetViewContentQuery q = new GetViewContentQuery(id, Fields.parse(qp.first("fields")));
             var dto = core.getViewContent(q);
             ResponseUtil.ok(exchange, dto);
         } catch (CoreException ex) {
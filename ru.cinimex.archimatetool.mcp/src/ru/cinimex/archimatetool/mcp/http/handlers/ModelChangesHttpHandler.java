@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.http.handlers;
+
+import java.io.IOException;
+import java.util.Map;
+
+import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
+import ru.cinimex.archimatetool.mcp.core.model.ModelCore;
+import ru.cinimex.archimatetool.mcp.http.QueryParams;
+import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** HTTP handler returning the changes of the active model since a version. */
+public class ModelChangesHttpHandler implements HttpHandler {
+    private final ModelCore core = new ModelCore();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) { ResponseUtil.methodNotAllowed(exchange); return; }
+        QueryParams qp = QueryParams.from(exchange);
+        long since;
+        try {
+            String v = qp.first("sinceVersion");
+            since = v != null ? Long.parseLong(v) : 0;
+        } catch (NumberFormatException ex) {
+            ResponseUtil.badRequest(exchange, "sinceVersion must be an integer");
+            return;
+        }
+        try {
+            Map<String,Object> resp = core.getChanges(since, qp.first("epoch"));
+            ResponseUtil.ok(exchange, resp);
+        } catch (CoreException ex) {
+            ResponseUtil.handleCoreException(exchange, ex);
+        }
+    }
+}
@@ -17,31 +17,43 @@ package ru.cinimex.archimatetool.mcp.http.handlers;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 
+import ru.cinimex.archimatetool.mcp.http.ETags;
+import ru.cinimex.archimatetool.mcp.server.HttpCompression;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 public class OpenApiHttpHandler implements HttpHandler {
+
+    private volatile byte[] spec;
+    private volatile String etag;
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
             exchange.sendResponseHeaders(405, -1);
             return;
         }
+        byte[] bytes = load();
+        if (bytes == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        if (ETags.notModified(exchange, etag)) return;
+        exchange.getResponseHeaders().set(ETags.HEADER, etag);
+        HttpCompression.send(exchange, 200, "application/json; charset=utf-8", bytes);
+    }
+
+    /** The bundled spec never changes while the plugin runs, so it is read once. */
+    private byte[] load() throws IOException {
+        byte[] bytes = spec;
+        if (bytes != null) return bytes;
         try (InputStream is = getClass().getClassLoader().getResourceAsStream("resources/openapi.json")) {
-            if (is == null) {
-                exchange.sendResponseHeaders(404, -1);
-                return;
-            }
-            byte[] bytes = is.readAllBytes();
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-            exchange.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = exchange.getResponseBody()) {
-                os.write(bytes);
-            }
+            if (is == null) return null;
+            bytes = is.readAllBytes();
         }
+        etag = ETags.ofBytes(bytes);
+        spec = bytes;
+        return bytes;
     }
 }
-
-
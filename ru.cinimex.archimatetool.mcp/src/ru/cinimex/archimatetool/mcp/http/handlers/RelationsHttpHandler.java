@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.relations.RelationsCore;
 import ru.cinimex.archimatetool.mcp.core.types.CreateRelationItem;
@@ -91,8 +92,9 @@ public class RelationsHttpHandler implements HttpHandler {
         }
         CreateRelationsCmd cmd = new CreateRelationsCmd(items);
         try {
-            var dto = core.createRelations(cmd);
-            ResponseUtil.created(exchange, dto);
+            Map<String, Object> debug = QueryParams.from(exchange).getBool("debug", false) ? new HashMap<>() : null;
+            var dto = core.createRelations(cmd, debug);
+            ResponseUtil.created(exchange, UiBatch.withDebug(dto, debug));
         } catch (CoreException ex) {
             ResponseUtil.handleCoreException(exchange, ex);
         }
@@ -110,8 +112,9 @@ public class RelationsHttpHandler implements HttpHandler {
         }
         UpdateRelationsCmd cmd = new UpdateRelationsCmd(items);
         try {
-            var dto = core.updateRelations(cmd);
-            ResponseUtil.ok(exchange, dto);
+            Map<String, Object> debug = QueryParams.from(exchange).getBool("debug", false) ? new HashMap<>() : null;
+            var dto = core.updateRelations(cmd, debug);
+            ResponseUtil.ok(exchange, UiBatch.withDebug(dto, debug));
         } catch (CoreException ex) {
             ResponseUtil.handleCoreException(exchange, ex);
         }
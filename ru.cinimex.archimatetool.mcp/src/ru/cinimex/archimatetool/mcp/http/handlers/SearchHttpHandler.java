@@ -20,7 +20,9 @@ import java.util.Map;
 
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.search.SearchCore;
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
 import ru.cinimex.archimatetool.mcp.core.types.SearchQuery;
+import ru.cinimex.archimatetool.mcp.http.ETags;
 import ru.cinimex.archimatetool.mcp.http.QueryParams;
 import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
 import com.sun.net.httpserver.HttpExchange;
@@ -45,6 +47,8 @@ public class SearchHttpHandler implements HttpHandler {
         q.limit = qp.getInt("limit", 100);
         q.offset = qp.getInt("offset", 0);
         q.debug = qp.getBool("debug", false);
+        q.total = qp.getBool("total", true);
+        q.countOnly = qp.getBool("countOnly", false);
         String logTarget = qp.first("log") != null ? qp.first("log") : qp.first("logTarget");
         q.logTarget = logTarget != null ? logTarget : "stdout";
         for (String v : qp.all("property")) {
@@ -56,8 +60,11 @@ public class SearchHttpHandler implements HttpHandler {
             }
         }
         try {
+            q.fields = Fields.parse(qp.first("fields"));
+            String etag = ETags.ofActiveModel();
+            if (ETags.notModified(exchange, etag)) return;
             Map<String,Object> resp = core.search(q);
-            ResponseUtil.ok(exchange, resp);
+            ResponseUtil.ok(exchange, resp, etag);
         } catch (CoreException ex) {
             ResponseUtil.handleCoreException(exchange, ex);
         }
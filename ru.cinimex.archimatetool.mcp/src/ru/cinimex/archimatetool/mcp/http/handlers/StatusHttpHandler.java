@@ -18,12 +18,35 @@ package ru.cinimex.archimatetool.mcp.http.handlers;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import ru.cinimex.archimatetool.mcp.changes.ChangeFeed;
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskManager;
+import ru.cinimex.archimatetool.mcp.core.views.ExportFiles;
+import ru.cinimex.archimatetool.mcp.core.views.ImageCache;
+import ru.cinimex.archimatetool.mcp.core.views.ImageLinks;
+import ru.cinimex.archimatetool.mcp.core.views.ViewExporter;
+import ru.cinimex.archimatetool.mcp.index.ModelIndexes;
+import ru.cinimex.archimatetool.mcp.server.HttpCompression;
 import ru.cinimex.archimatetool.mcp.server.JsonUtil;
+import ru.cinimex.archimatetool.mcp.server.RenderPipeline;
+import ru.cinimex.archimatetool.mcp.server.sse.McpSessions;
+import ru.cinimex.archimatetool.mcp.service.ActiveModelTracker;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 public class StatusHttpHandler implements HttpHandler {
+    private final Supplier<Map<String, Object>> httpStats;
+
+    public StatusHttpHandler() {
+        this(Map::of);
+    }
+
+    public StatusHttpHandler(Supplier<Map<String, Object>> httpStats) {
+        this.httpStats = httpStats;
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
@@ -34,6 +57,21 @@ public class StatusHttpHandler implements HttpHandler {
         resp.put("ok", Boolean.TRUE);
         resp.put("service", "archi-mcp");
         resp.put("version", "0.1.0");
+        resp.put("indexes", ModelIndexes.stats());
+        resp.put("activeModel", ActiveModelTracker.get().stats());
+        resp.put("http", httpStats.get());
+        resp.put("compression", HttpCompression.stats());
+        resp.put("tasks", TaskManager.get().stats());
+        resp.put("sessions", McpSessions.get().stats());
+        Map<String, Object> changes = ChangeFeed.get().stats();
+        changes.put("trackedModels", ChangeTrackers.size());
+        resp.put("changes", changes);
+        resp.put("imageCache", ImageCache.get().stats());
+        resp.put("imageLinks", ImageLinks.get().stats());
+        resp.put("render", RenderPipeline.get().stats());
+        Map<String, Object> export = ViewExporter.stats();
+        export.put("files", ExportFiles.get().stats());
+        resp.put("export", export);
         JsonUtil.writeJson(exchange, 200, resp);
     }
 }
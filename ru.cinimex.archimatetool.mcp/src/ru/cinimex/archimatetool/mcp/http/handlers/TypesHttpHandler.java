@@ -17,26 +17,47 @@ package ru.cinimex.archimatetool.mcp.http.handlers;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import ru.cinimex.archimatetool.mcp.http.ETags;
 import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 public class TypesHttpHandler implements HttpHandler {
+
+    /** The metamodel does not change at runtime, so the body and its ETag are built once. */
+    private static final class Types {
+        static final Map<String, Object> BODY = build();
+        static final String ETAG = etag(BODY);
+
+        private static Map<String, Object> build() {
+            var out = new HashMap<String, Object>();
+            out.put("elementTypes", com.archimatetool.model.IArchimatePackage.eINSTANCE.getEClassifiers().stream()
+                .filter(c -> c instanceof org.eclipse.emf.ecore.EClass && com.archimatetool.model.IArchimatePackage.eINSTANCE.getArchimateElement().isSuperTypeOf((org.eclipse.emf.ecore.EClass)c))
+                .map(c -> ((org.eclipse.emf.ecore.EClass)c).getName()).collect(Collectors.toList()));
+            out.put("relationTypes", com.archimatetool.model.IArchimatePackage.eINSTANCE.getEClassifiers().stream()
+                .filter(c -> c instanceof org.eclipse.emf.ecore.EClass && com.archimatetool.model.IArchimatePackage.eINSTANCE.getArchimateRelationship().isSuperTypeOf((org.eclipse.emf.ecore.EClass)c))
+                .map(c -> ((org.eclipse.emf.ecore.EClass)c).getName()).collect(Collectors.toList()));
+            out.put("viewTypes", java.util.List.of("ArchimateDiagramModel"));
+            return java.util.Collections.unmodifiableMap(out);
+        }
+
+        private static String etag(Map<String, Object> body) {
+            try {
+                return ETags.ofBytes(JacksonJson.writeBytes(body));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) { ResponseUtil.methodNotAllowed(exchange); return; }
-        var out = new HashMap<String, Object>();
-        out.put("elementTypes", com.archimatetool.model.IArchimatePackage.eINSTANCE.getEClassifiers().stream()
-            .filter(c -> c instanceof org.eclipse.emf.ecore.EClass && com.archimatetool.model.IArchimatePackage.eINSTANCE.getArchimateElement().isSuperTypeOf((org.eclipse.emf.ecore.EClass)c))
-            .map(c -> ((org.eclipse.emf.ecore.EClass)c).getName()).collect(Collectors.toList()));
-        out.put("relationTypes", com.archimatetool.model.IArchimatePackage.eINSTANCE.getEClassifiers().stream()
-            .filter(c -> c instanceof org.eclipse.emf.ecore.EClass && com.archimatetool.model.IArchimatePackage.eINSTANCE.getArchimateRelationship().isSuperTypeOf((org.eclipse.emf.ecore.EClass)c))
-            .map(c -> ((org.eclipse.emf.ecore.EClass)c).getName()).collect(Collectors.toList()));
-        out.put("viewTypes", java.util.List.of("ArchimateDiagramModel"));
-        ResponseUtil.ok(exchange, out);
+        if (ETags.notModified(exchange, Types.ETAG)) return;
+        ResponseUtil.ok(exchange, Types.BODY, Types.ETAG);
     }
 }
-
-
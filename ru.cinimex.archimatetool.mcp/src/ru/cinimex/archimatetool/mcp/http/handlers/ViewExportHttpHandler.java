@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.http.handlers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
+import ru.cinimex.archimatetool.mcp.core.types.ExportViewsQuery;
+import ru.cinimex.archimatetool.mcp.core.views.ViewExporter;
+import ru.cinimex.archimatetool.mcp.http.QueryParams;
+import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
+import ru.cinimex.archimatetool.mcp.server.HttpCompression;
+import ru.cinimex.archimatetool.mcp.util.McpLogger;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/** HTTP handler streaming rendered views as a ZIP archive. */
+public class ViewExportHttpHandler implements HttpHandler {
+    private final ViewExporter exporter = new ViewExporter();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) { ResponseUtil.methodNotAllowed(exchange); return; }
+        QueryParams qp = QueryParams.from(exchange);
+        List<String> ids = new ArrayList<>();
+        for (String v : qp.all("ids")) {
+            for (String id : v.split(",")) {
+                if (!id.isBlank()) ids.add(id.trim());
+            }
+        }
+        ExportViewsQuery q = new ExportViewsQuery(ids, qp.first("folderId"), qp.first("format"),
+                qp.getFloat("scale", 1.0f), qp.getInt("dpi", (Integer) null), qp.first("bg"), qp.getInt("margin", 0));
+        ViewExporter.Job job;
+        try {
+            job = exporter.prepare(q);
+        } catch (CoreException ex) {
+            ResponseUtil.handleCoreException(exchange, ex);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"views.zip\"");
+        exchange.getResponseHeaders().set("X-Export-Views", String.valueOf(job.size()));
+        // the status is already out once entries stream, so failures after this point just cut the archive short
+        try (OutputStream os = HttpCompression.open(exchange, 200, "application/zip")) {
+            job.writeTo(os);
+        } catch (RuntimeException ex) {
+            McpLogger.logApiOperationError("GET /views/export", ex);
+        }
+    }
+}
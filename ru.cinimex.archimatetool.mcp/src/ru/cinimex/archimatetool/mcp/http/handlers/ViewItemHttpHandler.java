@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.types.AddElementToViewItem;
 import ru.cinimex.archimatetool.mcp.core.types.AddElementsToViewCmd;
@@ -29,17 +30,21 @@ import ru.cinimex.archimatetool.mcp.core.types.AddRelationsToViewCmd;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteViewCmd;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteViewObjectItem;
 import ru.cinimex.archimatetool.mcp.core.types.DeleteViewObjectsCmd;
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
 import ru.cinimex.archimatetool.mcp.core.types.GetViewContentQuery;
 import ru.cinimex.archimatetool.mcp.core.types.GetViewImageQuery;
 import ru.cinimex.archimatetool.mcp.core.types.GetViewQuery;
+import ru.cinimex.archimatetool.mcp.core.types.ImageRegion;
 import ru.cinimex.archimatetool.mcp.core.types.MoveViewObjectItem;
 import ru.cinimex.archimatetool.mcp.core.types.MoveViewObjectsCmd;
 import ru.cinimex.archimatetool.mcp.core.types.UpdateViewObjectBoundsItem;
 import ru.cinimex.archimatetool.mcp.core.types.UpdateViewObjectsBoundsCmd;
 import ru.cinimex.archimatetool.mcp.core.views.ViewsCore;
+import ru.cinimex.archimatetool.mcp.http.ETags;
 import ru.cinimex.archimatetool.mcp.http.QueryParams;
 import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
 import ru.cinimex.archimatetool.mcp.json.JsonReader;
+import ru.cinimex.archimatetool.mcp.server.HttpCompression;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -62,8 +67,10 @@ public class ViewItemHttpHandler implements HttpHandler {
             if ("GET".equalsIgnoreCase(method)) {
                 GetViewQuery q = new GetViewQuery(id);
                 try {
+                    String etag = ETags.ofActiveModel();
+                    if (ETags.notModified(exchange, etag)) return;
                     var dto = core.getView(q);
-                    ResponseUtil.ok(exchange, dto);
+                    ResponseUtil.ok(exchange, dto, etag);
                 } catch (CoreException ex) {
                     ResponseUtil.handleCoreException(exchange, ex);
                 }
@@ -83,10 +90,12 @@ public class ViewItemHttpHandler implements HttpHandler {
         }
 
         if ("content".equals(subpath) && "GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-            GetViewContentQuery q = new GetViewContentQuery(id);
             try {
+                GetViewContentQuery q = new GetViewContentQuery(id, Fields.parse(QueryParams.from(exchange).first("fields")));
+                String etag = ETags.ofActiveModel();
+                if (ETags.notModified(exchange, etag)) return;
                 var dto = core.getViewContent(q);
-                ResponseUtil.ok(exchange, dto);
+                ResponseUtil.ok(exchange, dto, etag);
             } catch (CoreException ex) {
                 ResponseUtil.handleCoreException(exchange, ex);
             }
@@ -100,12 +109,22 @@ public class ViewItemHttpHandler implements HttpHandler {
             Integer dpi = qp.getInt("dpi", (Integer) null);
             String bg = qp.first("bg");
             Integer margin = qp.getInt("margin", 0);
-            GetViewImageQuery q = new GetViewImageQuery(id, format, scale, dpi, bg, margin, null);
             try {
+                ImageRegion region = ImageRegion.of(qp.first("viewport"), qp.first("tile"),
+                        qp.getInt("tileSize", ImageRegion.DEFAULT_TILE_SIZE), qp.getBool("thumbnail", false),
+                        qp.getInt("maxPixels", ImageRegion.DEFAULT_THUMBNAIL_PIXELS));
+                GetViewImageQuery q = new GetViewImageQuery(id, format, scale, dpi, bg, margin, null, region);
                 var img = core.getViewImage(q);
-                exchange.getResponseHeaders().set("Content-Type", img.contentType);
-                exchange.sendResponseHeaders(200, img.data.length);
-                try (java.io.OutputStream os = exchange.getResponseBody()) { os.write(img.data); }
+                if (img.region != null) {
+                    // lets a viewer place the part and size its tile grid without a JSON round trip
+                    var r = img.region;
+                    exchange.getResponseHeaders().set("X-Image-Region",
+                            r.get("x") + "," + r.get("y") + "," + r.get("width") + "," + r.get("height") + "@" + r.get("zoom"));
+                    if (r.containsKey("cols")) {
+                        exchange.getResponseHeaders().set("X-Tile-Grid", r.get("cols") + "x" + r.get("rows"));
+                    }
+                }
+                HttpCompression.send(exchange, 200, img.contentType, img.data);
             } catch (CoreException ex) {
                 ResponseUtil.handleCoreException(exchange, ex);
             }
@@ -132,8 +151,9 @@ public class ViewItemHttpHandler implements HttpHandler {
             }
             AddElementsToViewCmd cmd = new AddElementsToViewCmd(id, items);
             try {
-                var res = core.addElements(cmd);
-                ResponseUtil.ok(exchange, res);
+                Map<String, Object> debug = QueryParams.from(exchange).getBool("debug", false) ? new HashMap<>() : null;
+                var res = core.addElements(cmd, debug);
+                ResponseUtil.ok(exchange, UiBatch.withDebug(res, debug));
             } catch (CoreException ex) {
                 ResponseUtil.handleCoreException(exchange, ex);
             }
@@ -172,8 +192,9 @@ public class ViewItemHttpHandler implements HttpHandler {
             }
             UpdateViewObjectsBoundsCmd cmd = new UpdateViewObjectsBoundsCmd(id, items);
             try {
-                var dto = core.updateBounds(cmd);
-                ResponseUtil.ok(exchange, dto);
+                Map<String, Object> debug = QueryParams.from(exchange).getBool("debug", false) ? new HashMap<>() : null;
+                var dto = core.updateBounds(cmd, debug);
+                ResponseUtil.ok(exchange, UiBatch.withDebug(dto, debug));
             } catch (CoreException ex) {
                 ResponseUtil.handleCoreException(exchange, ex);
             }
@@ -19,7 +19,9 @@ import java.io.IOException;
 
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
 import ru.cinimex.archimatetool.mcp.core.types.CreateViewCmd;
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
 import ru.cinimex.archimatetool.mcp.core.views.ViewsCore;
+import ru.cinimex.archimatetool.mcp.http.QueryParams;
 import ru.cinimex.archimatetool.mcp.http.ResponseUtil;
 import ru.cinimex.archimatetool.mcp.json.JsonReader;
 import ru.cinimex.archimatetool.mcp.util.McpLogger;
@@ -36,7 +38,7 @@ public class ViewsHttpHandler implements HttpHandler {
         if ("GET".equalsIgnoreCase(method)) {
             McpLogger.logApiOperationCall("GET /views");
             try {
-                var views = core.listViews();
+                var views = core.listViews(Fields.parse(QueryParams.from(exchange).first("fields")));
                 McpLogger.logApiOperationOutput("GET /views", 
                     java.util.Map.of("viewCount", views.size()));
                 ResponseUtil.ok(exchange, views);
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import com.archimatetool.model.IArchimateConcept;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimatePackage;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModelArchimateComponent;
+import com.archimatetool.model.IIdentifier;
+import com.archimatetool.model.IProperty;
+import com.archimatetool.model.util.ArchimateModelUtils;
+
+/**
+ * Lookup tables for a single model kept current by EMF notifications.
+ * <p>
+ * The adapter is attached once to the model root; {@link EContentAdapter}
+ * then follows containment so every added or removed object passes through
+ * {@link #setTarget(EObject)} / {@link #unsetTarget(EObject)}. Mutations happen
+ * on the UI thread, reads may come from any thread.
+ */
+public class ModelIndex extends EContentAdapter {
+
+    private final IArchimateModel model;
+    private final Map<String, EObject> byId = new ConcurrentHashMap<>();
+    private final Map<IArchimateConcept, List<IArchimateRelationship>> outgoing = new ConcurrentHashMap<>();
+    private final Map<IArchimateConcept, List<IArchimateRelationship>> incoming = new ConcurrentHashMap<>();
+    private final Map<IArchimateConcept, List<IDiagramModelArchimateComponent>> references = new ConcurrentHashMap<>();
+    private final TextIndex text;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+
+    private volatile boolean attached;
+
+    public ModelIndex(IArchimateModel model) {
+        this(model, false);
+    }
+
+    /**
+     * @param model indexed model
+     * @param withText also maintain the full-text {@link TextIndex}
+     */
+    public ModelIndex(IArchimateModel model, boolean withText) {
+        this.model = model;
+        this.text = withText ? new TextIndex() : null;
+    }
+
+    /** Attach to the model and index its current content. Must run on the UI thread. */
+    public void attach() {
+        if (attached) return;
+        model.eAdapters().add(this);
+        attached = true;
+    }
+
+    /** Detach from the model and drop all entries. Must run on the UI thread. */
+    public void detach() {
+        if (!attached) return;
+        attached = false;
+        model.eAdapters().remove(this);
+        byId.clear();
+        outgoing.clear();
+        incoming.clear();
+        references.clear();
+        if (text != null) text.clear();
+    }
+
+    public boolean isAttached() {
+        return attached;
+    }
+
+    public IArchimateModel getModel() {
+        return model;
+    }
+
+    /** Full-text index, or null when the index was built without it. */
+    public TextIndex getTextIndex() {
+        return text;
+    }
+
+    /** Resolve an object by id; returns null when the id is unknown. */
+    public EObject get(String id) {
+        if (id == null || id.isEmpty()) return null;
+        EObject o = byId.get(id);
+        if (o == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (!isLive(o, id)) {
+            // should not happen while attached; recover with a one-off scan
+            stale.incrementAndGet();
+            byId.remove(id, o);
+            EObject found = ArchimateModelUtils.getObjectByID(model, id);
+            if (found != null) byId.put(id, found);
+            return found;
+        }
+        hits.incrementAndGet();
+        return o;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /** Relationships whose source is the concept. */
+    public List<IArchimateRelationship> getOutgoing(IArchimateConcept concept) {
+        return view(outgoing, concept);
+    }
+
+    /** Relationships whose target is the concept. */
+    public List<IArchimateRelationship> getIncoming(IArchimateConcept concept) {
+        return view(incoming, concept);
+    }
+
+    /**
+     * Relationships attached to the concept.
+     * @param direction "in", "out" or "both"
+     */
+    public List<IArchimateRelationship> getRelations(IArchimateConcept concept, String direction) {
+        if ("out".equals(direction)) return getOutgoing(concept);
+        if ("in".equals(direction)) return getIncoming(concept);
+        // a self-relationship is both incoming and outgoing but must be listed once
+        Set<IArchimateRelationship> both = new LinkedHashSet<>(getOutgoing(concept));
+        both.addAll(getIncoming(concept));
+        return new ArrayList<>(both);
+    }
+
+    /** Diagram objects and connections in any view that reference the concept. */
+    public List<IDiagramModelArchimateComponent> getReferences(IArchimateConcept concept) {
+        return view(references, concept);
+    }
+
+    /**
+     * Compare the index with a full walk of the model.
+     * @return human readable discrepancies, empty when consistent
+     */
+    public List<String> verify() {
+        List<String> problems = new ArrayList<>();
+        Map<String, EObject> expected = new HashMap<>();
+        collectIds(model, expected);
+        for (Iterator<EObject> it = model.eAllContents(); it.hasNext();) {
+            collectIds(it.next(), expected);
+        }
+        for (Map.Entry<String, EObject> e : expected.entrySet()) {
+            EObject actual = byId.get(e.getKey());
+            if (actual == null) {
+                problems.add("missing id " + e.getKey());
+            } else if (actual != e.getValue()) {
+                problems.add("mismatched id " + e.getKey());
+            }
+        }
+        for (String id : byId.keySet()) {
+            if (!expected.containsKey(id)) {
+                problems.add("stale id " + id);
+            }
+        }
+        for (EObject o : expected.values()) {
+            if (o instanceof IArchimateRelationship) {
+                IArchimateRelationship r = (IArchimateRelationship) o;
+                if (r.getSource() != null && !getOutgoing(r.getSource()).contains(r)) {
+                    problems.add("missing outgoing " + r.getId());
+                }
+                if (r.getTarget() != null && !getIncoming(r.getTarget()).contains(r)) {
+                    problems.add("missing incoming " + r.getId());
+                }
+            }
+        }
+        verifyAdjacency(outgoing, true, expected, problems);
+        verifyAdjacency(incoming, false, expected, problems);
+        for (EObject o : expected.values()) {
+            if (o instanceof IDiagramModelArchimateComponent) {
+                IDiagramModelArchimateComponent dmc = (IDiagramModelArchimateComponent) o;
+                if (dmc.getArchimateConcept() != null && !getReferences(dmc.getArchimateConcept()).contains(dmc)) {
+                    problems.add("missing reference " + dmc.getId());
+                }
+            }
+        }
+        for (Map.Entry<IArchimateConcept, List<IDiagramModelArchimateComponent>> e : references.entrySet()) {
+            for (IDiagramModelArchimateComponent dmc : e.getValue()) {
+                if (dmc.getArchimateConcept() != e.getKey() || expected.get(dmc.getId()) != dmc) {
+                    problems.add("stale reference " + dmc.getId());
+                }
+            }
+        }
+        return problems;
+    }
+
+    /** Counters for diagnostics. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new HashMap<>();
+        m.put("modelId", model.getId());
+        m.put("ids", byId.size());
+        m.put("adjacency", outgoing.size() + incoming.size());
+        m.put("references", references.size());
+        if (text != null) m.put("tokens", text.tokenCount(TextIndex.Field.NAME));
+        m.put("hits", hits.get());
+        m.put("misses", misses.get());
+        m.put("stale", stale.get());
+        return m;
+    }
+
+    @Override
+    protected void setTarget(EObject target) {
+        super.setTarget(target);
+        index(target);
+    }
+
+    @Override
+    protected void unsetTarget(EObject target) {
+        super.unsetTarget(target);
+        unindex(target);
+    }
+
+    @Override
+    public void notifyChanged(Notification n) {
+        // containment changes are dispatched to setTarget/unsetTarget by the superclass
+        super.notifyChanged(n);
+        if (n.isTouch() || !(n.getNotifier() instanceof EObject)) return;
+        EObject notifier = (EObject) n.getNotifier();
+        if (n.getFeature() == IArchimatePackage.Literals.IDENTIFIER__ID) {
+            if (n.getOldValue() instanceof String) {
+                byId.remove((String) n.getOldValue(), notifier);
+            }
+            if (n.getNewValue() instanceof String && !((String) n.getNewValue()).isEmpty()) {
+                byId.put((String) n.getNewValue(), notifier);
+            }
+        } else if (n.getFeature() == IArchimatePackage.Literals.ARCHIMATE_RELATIONSHIP__SOURCE) {
+            relink(outgoing, (IArchimateRelationship) notifier, n.getOldValue(), n.getNewValue());
+        } else if (n.getFeature() == IArchimatePackage.Literals.ARCHIMATE_RELATIONSHIP__TARGET) {
+            relink(incoming, (IArchimateRelationship) notifier, n.getOldValue(), n.getNewValue());
+        } else if (n.getFeature() == IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_OBJECT__ARCHIMATE_ELEMENT
+                || n.getFeature() == IArchimatePackage.Literals.DIAGRAM_MODEL_ARCHIMATE_CONNECTION__ARCHIMATE_RELATIONSHIP) {
+            relink(references, (IDiagramModelArchimateComponent) notifier, n.getOldValue(), n.getNewValue());
+        }
+        if (text != null) updateText(notifier, n);
+    }
+
+    private void index(EObject o) {
+        if (o instanceof IIdentifier) {
+            String id = ((IIdentifier) o).getId();
+            if (id != null && !id.isEmpty()) byId.put(id, o);
+        }
+        if (o instanceof IArchimateRelationship) {
+            IArchimateRelationship r = (IArchimateRelationship) o;
+            link(outgoing, r.getSource(), r);
+            link(incoming, r.getTarget(), r);
+        }
+        if (o instanceof IDiagramModelArchimateComponent) {
+            IDiagramModelArchimateComponent dmc = (IDiagramModelArchimateComponent) o;
+            link(references, dmc.getArchimateConcept(), dmc);
+        }
+        if (text != null) text.add(o);
+    }
+
+    private void unindex(EObject o) {
+        if (o instanceof IIdentifier) {
+            String id = ((IIdentifier) o).getId();
+            if (id != null) byId.remove(id, o);
+        }
+        if (o instanceof IArchimateRelationship) {
+            IArchimateRelationship r = (IArchimateRelationship) o;
+            unlink(outgoing, r.getSource(), r);
+            unlink(incoming, r.getTarget(), r);
+        }
+        if (o instanceof IDiagramModelArchimateComponent) {
+            IDiagramModelArchimateComponent dmc = (IDiagramModelArchimateComponent) o;
+            unlink(references, dmc.getArchimateConcept(), dmc);
+        }
+        if (text != null) text.remove(o);
+    }
+
+    private void updateText(EObject notifier, Notification n) {
+        Object f = n.getFeature();
+        if (f == IArchimatePackage.Literals.NAMEABLE__NAME) {
+            text.update(notifier, TextIndex.Field.NAME);
+        } else if (f == IArchimatePackage.Literals.DOCUMENTABLE__DOCUMENTATION) {
+            text.update(notifier, TextIndex.Field.DOCUMENTATION);
+        } else if (f == IArchimatePackage.Literals.PROPERTIES__PROPERTIES) {
+            text.update(notifier, TextIndex.Field.PROPERTIES);
+        } else if ((f == IArchimatePackage.Literals.PROPERTY__KEY || f == IArchimatePackage.Literals.PROPERTY__VALUE)
+                && notifier instanceof IProperty && notifier.eContainer() != null) {
+            text.update(notifier.eContainer(), TextIndex.Field.PROPERTIES);
+        }
+    }
+
+    private static <T> void relink(Map<IArchimateConcept, List<T>> map, T value, Object oldKey, Object newKey) {
+        if (oldKey instanceof IArchimateConcept) unlink(map, (IArchimateConcept) oldKey, value);
+        if (newKey instanceof IArchimateConcept) link(map, (IArchimateConcept) newKey, value);
+    }
+
+    // writers are serialized on the UI thread, readers get copy-on-write snapshots
+    private static <T> void link(Map<IArchimateConcept, List<T>> map, IArchimateConcept key, T value) {
+        if (key == null) return;
+        ((CopyOnWriteArrayList<T>) map.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>())).addIfAbsent(value);
+    }
+
+    private static <T> void unlink(Map<IArchimateConcept, List<T>> map, IArchimateConcept key, T value) {
+        if (key == null) return;
+        map.computeIfPresent(key, (k, list) -> {
+            list.remove(value);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static <T> List<T> view(Map<IArchimateConcept, List<T>> map, IArchimateConcept key) {
+        List<T> list = key != null ? map.get(key) : null;
+        return list != null ? Collections.unmodifiableList(list) : Collections.emptyList();
+    }
+
+    private static void verifyAdjacency(Map<IArchimateConcept, List<IArchimateRelationship>> map, boolean out,
+                                        Map<String, EObject> expected, List<String> problems) {
+        for (Map.Entry<IArchimateConcept, List<IArchimateRelationship>> e : map.entrySet()) {
+            for (IArchimateRelationship r : e.getValue()) {
+                IArchimateConcept end = out ? r.getSource() : r.getTarget();
+                if (end != e.getKey() || expected.get(r.getId()) != r) {
+                    problems.add("stale " + (out ? "outgoing " : "incoming ") + r.getId());
+                }
+            }
+        }
+    }
+
+    private boolean isLive(EObject o, String id) {
+        if (!(o instanceof IIdentifier) || !id.equals(((IIdentifier) o).getId())) return false;
+        EObject root = o;
+        while (root.eContainer() != null) {
+            root = root.eContainer();
+        }
+        return root == model;
+    }
+
+    private static void collectIds(EObject o, Map<String, EObject> out) {
+        if (o instanceof IIdentifier) {
+            String id = ((IIdentifier) o).getId();
+            if (id != null && !id.isEmpty()) out.put(id, o);
+        }
+    }
+}
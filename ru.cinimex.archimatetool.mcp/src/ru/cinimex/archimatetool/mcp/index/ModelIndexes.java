@@ -0,0 +1,111 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.index;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import ru.cinimex.archimatetool.mcp.Config;
+import ru.cinimex.archimatetool.mcp.UiExec;
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * Registry of {@link ModelIndex} instances, one per open model.
+ * <p>
+ * Indexes are built lazily on first use. The model holds the index through its
+ * adapter list, the registry only keeps weak references so closed models can be
+ * collected together with their index.
+ */
+public final class ModelIndexes {
+
+    private static final Map<IArchimateModel, WeakReference<ModelIndex>> INDEXES = new WeakHashMap<>();
+
+    private ModelIndexes() {}
+
+    /** Get the index for the model, building it on the UI thread if needed. */
+    public static ModelIndex of(IArchimateModel model) {
+        ModelIndex existing = peek(model);
+        if (existing != null) return existing;
+        ModelIndex created = new ModelIndex(model, Config.isSearchIndexEnabled());
+        // never hold the registry lock while waiting for the UI thread
+        UiExec.sync(created::attach);
+        synchronized (INDEXES) {
+            ModelIndex raced = get(model);
+            if (raced == null) {
+                INDEXES.put(model, new WeakReference<>(created));
+                return created;
+            }
+            existing = raced;
+        }
+        UiExec.sync(created::detach);
+        return existing;
+    }
+
+    /** Get the index for the model if it has already been built. */
+    public static ModelIndex peek(IArchimateModel model) {
+        synchronized (INDEXES) {
+            return get(model);
+        }
+    }
+
+    /** Detach and forget the index of the model. */
+    public static void dispose(IArchimateModel model) {
+        ModelIndex idx;
+        synchronized (INDEXES) {
+            idx = get(model);
+            INDEXES.remove(model);
+        }
+        if (idx != null) UiExec.sync(idx::detach);
+    }
+
+    /** Detach and forget all indexes, e.g. when the server stops. */
+    public static void disposeAll() {
+        List<ModelIndex> live = new ArrayList<>();
+        synchronized (INDEXES) {
+            for (WeakReference<ModelIndex> ref : INDEXES.values()) {
+                ModelIndex idx = ref.get();
+                if (idx != null) live.add(idx);
+            }
+            INDEXES.clear();
+        }
+        if (!live.isEmpty()) UiExec.sync(() -> live.forEach(ModelIndex::detach));
+    }
+
+    /** Counters of all live indexes. */
+    public static List<Map<String, Object>> stats() {
+        List<ModelIndex> live = new ArrayList<>();
+        synchronized (INDEXES) {
+            for (WeakReference<ModelIndex> ref : INDEXES.values()) {
+                ModelIndex idx = ref.get();
+                if (idx != null && idx.isAttached()) live.add(idx);
+            }
+        }
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (ModelIndex idx : live) {
+            out.add(idx.stats());
+        }
+        return out;
+    }
+
+    private static ModelIndex get(IArchimateModel model) {
+        WeakReference<ModelIndex> ref = INDEXES.get(model);
+        ModelIndex idx = ref != null ? ref.get() : null;
+        return idx != null && idx.isAttached() ? idx : null;
+    }
+}
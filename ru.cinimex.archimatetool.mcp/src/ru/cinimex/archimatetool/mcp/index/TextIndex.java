@@ -0,0 +1,218 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.index;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.eclipse.emf.ecore.EObject;
+
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModel;
+import com.archimatetool.model.INameable;
+import com.archimatetool.model.IProperty;
+
+/**
+ * Inverted index over names, documentation and properties, used by search to
+ * narrow substring queries to a candidate set.
+ * <p>
+ * Text is lowercased and split into tokens of letters and digits. Each token
+ * has a posting set, and every suffix of a token points back to it, so the
+ * tokens containing a query fragment are a prefix range in the suffix map. A
+ * lowercased query occurring in a text means each of its tokens occurs inside
+ * some text token, so the candidates are a superset of the real matches and
+ * the caller still applies the exact predicate.
+ */
+public class TextIndex {
+
+    /** Indexed text fields. */
+    public enum Field { NAME, DOCUMENTATION, PROPERTIES }
+
+    /** Tokens longer than this are not split into suffixes; their owners are always candidates. */
+    static final int MAX_TOKEN = 64;
+
+    private final Map<Field, Postings> fields = new HashMap<>();
+
+    public TextIndex() {
+        for (Field f : Field.values()) {
+            fields.put(f, new Postings());
+        }
+    }
+
+    /** Whether the object kind is covered by the index. */
+    public static boolean isIndexed(Object o) {
+        return o instanceof IArchimateElement || o instanceof IArchimateRelationship || o instanceof IDiagramModel;
+    }
+
+    /** Index all fields of the object. Must run on the UI thread. */
+    public void add(EObject o) {
+        if (!isIndexed(o)) return;
+        for (Field f : Field.values()) {
+            update(o, f);
+        }
+    }
+
+    /** Drop the object from all fields. Must run on the UI thread. */
+    public void remove(EObject o) {
+        for (Postings p : fields.values()) {
+            p.remove(o);
+        }
+    }
+
+    /** Re-read one field of the object after a change. Must run on the UI thread. */
+    public void update(EObject o, Field f) {
+        if (!isIndexed(o)) return;
+        String text = textOf(o, f);
+        Postings p = fields.get(f);
+        if (text == null || text.isEmpty()) {
+            p.remove(o);
+        } else {
+            p.put(o, text);
+        }
+    }
+
+    /**
+     * Objects whose field may contain the query.
+     * @param query lowercased query
+     * @return candidates, or null when the query has no token and cannot be served by the index
+     */
+    public Set<EObject> candidates(String query, Field f) {
+        String longest = null;
+        for (String t : tokenize(query)) {
+            if (longest == null || t.length() > longest.length()) longest = t;
+        }
+        if (longest == null) return null;
+        return fields.get(f).lookup(longest);
+    }
+
+    /** Number of distinct tokens in the field. */
+    public int tokenCount(Field f) {
+        return fields.get(f).byToken.size();
+    }
+
+    public void clear() {
+        for (Postings p : fields.values()) {
+            p.clear();
+        }
+    }
+
+    static String textOf(EObject o, Field f) {
+        switch (f) {
+            case NAME:
+                return o instanceof INameable ? ((INameable) o).getName() : null;
+            case DOCUMENTATION:
+                // search only matches documentation of elements
+                return o instanceof IArchimateElement ? ((IArchimateElement) o).getDocumentation() : null;
+            case PROPERTIES:
+                if (!(o instanceof IArchimateElement)) return null;
+                StringBuilder sb = new StringBuilder();
+                for (IProperty p : ((IArchimateElement) o).getProperties()) {
+                    if (p.getKey() != null) sb.append(p.getKey()).append('\n');
+                    if (p.getValue() != null) sb.append(p.getValue()).append('\n');
+                }
+                return sb.toString();
+            default:
+                return null;
+        }
+    }
+
+    static Set<String> tokenize(String lower) {
+        Set<String> out = new LinkedHashSet<>();
+        if (lower == null) return out;
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    /** Postings of a single field. Written on the UI thread, read from any thread. */
+    private static final class Postings {
+        final Map<String, Set<EObject>> byToken = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<String, Set<String>> bySuffix = new ConcurrentSkipListMap<>();
+        final Map<EObject, Set<String>> tokensOf = new ConcurrentHashMap<>();
+        final Set<EObject> overlong = ConcurrentHashMap.newKeySet();
+
+        void put(EObject o, String text) {
+            remove(o);
+            Set<String> tokens = tokenize(text.toLowerCase());
+            if (tokens.isEmpty()) return;
+            tokensOf.put(o, tokens);
+            for (String t : tokens) {
+                if (t.length() > MAX_TOKEN) {
+                    overlong.add(o);
+                    continue;
+                }
+                byToken.computeIfAbsent(t, k -> {
+                    for (int i = 0; i < k.length(); i++) {
+                        bySuffix.computeIfAbsent(k.substring(i), s -> ConcurrentHashMap.newKeySet()).add(k);
+                    }
+                    return ConcurrentHashMap.newKeySet();
+                }).add(o);
+            }
+        }
+
+        void remove(EObject o) {
+            Set<String> tokens = tokensOf.remove(o);
+            if (tokens == null) return;
+            overlong.remove(o);
+            for (String t : tokens) {
+                Set<EObject> posting = byToken.get(t);
+                if (posting == null) continue;
+                posting.remove(o);
+                if (posting.isEmpty()) {
+                    byToken.remove(t);
+                    for (int i = 0; i < t.length(); i++) {
+                        bySuffix.computeIfPresent(t.substring(i), (s, owners) -> {
+                            owners.remove(t);
+                            return owners.isEmpty() ? null : owners;
+                        });
+                    }
+                }
+            }
+        }
+
+        Set<EObject> lookup(String fragment) {
+            Set<EObject> out = new HashSet<>(overlong);
+            for (Set<String> tokens : bySuffix.subMap(fragment, true, fragment + Character.MAX_VALUE, true).values()) {
+                for (String t : tokens) {
+                    Set<EObject> posting = byToken.get(t);
+                    if (posting != null) out.addAll(posting);
+                }
+            }
+            return out;
+        }
+
+        void clear() {
+            byToken.clear();
+            bySuffix.clear();
+            tokensOf.clear();
+            overlong.clear();
+        }
+    }
+}
@@ -28,6 +28,8 @@ public class MCPPreferenceInitializer extends AbstractPreferenceInitializer {
     public void initializeDefaultPreferences() {
         // Set default host and port
         MCPPreferences.setDefaultHostAndPort(Config.DEFAULT_HOST, Config.DEFAULT_PORT);
+        MCPPreferences.setDefaultHttpLimits(Config.DEFAULT_HTTP_EXECUTOR,
+                Config.DEFAULT_HTTP_MAX_CONCURRENT, Config.DEFAULT_HTTP_MAX_QUEUED);
         
         // Set default logging preferences using the same graceful approach as MCPPreferences
         setDefaultLoggingPreferences();
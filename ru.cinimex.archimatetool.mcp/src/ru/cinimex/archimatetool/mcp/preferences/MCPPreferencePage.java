@@ -17,6 +17,7 @@ package ru.cinimex.archimatetool.mcp.preferences;
 
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.ComboFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
 import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.StringFieldEditor;
@@ -72,6 +73,7 @@ public class MCPPreferencePage extends FieldEditorPreferencePage implements IWor
         String precedenceTip = "Effective precedence: System Property → Env → Preferences → Default";
 
         createServerControls(mainGroup, precedenceTip);
+        createConcurrencyControls(mainGroup, precedenceTip);
         createLoggingControls(mainGroup);
     }
 
@@ -150,6 +152,38 @@ public class MCPPreferencePage extends FieldEditorPreferencePage implements IWor
         separator2.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
     }
 
+    private void createConcurrencyControls(Composite parent, String precedenceTip) {
+        ComboFieldEditor executorEditor = new ComboFieldEditor(MCPPreferences.PREF_HTTP_EXECUTOR, "HTTP Executor:",
+                new String[][] {
+                    { "Auto (virtual threads if available)", "auto" },
+                    { "Virtual threads", "virtual" },
+                    { "Bounded thread pool", "pool" }
+                }, parent);
+        addField(executorEditor);
+
+        IntegerFieldEditor concurrentEditor = new IntegerFieldEditor(MCPPreferences.PREF_HTTP_MAX_CONCURRENT,
+                "Max Concurrent Requests:", parent);
+        concurrentEditor.setValidRange(1, 1024);
+        concurrentEditor.getTextControl(parent).setToolTipText(precedenceTip);
+        addField(concurrentEditor);
+
+        IntegerFieldEditor queuedEditor = new IntegerFieldEditor(MCPPreferences.PREF_HTTP_MAX_QUEUED,
+                "Max Queued Requests:", parent);
+        queuedEditor.setValidRange(0, 10000);
+        queuedEditor.getTextControl(parent).setToolTipText(precedenceTip);
+        addField(queuedEditor);
+
+        // Concurrency description (spans both columns)
+        Label concurrencyDesc = new Label(parent, SWT.WRAP);
+        concurrencyDesc.setText("Requests beyond the queue get 503; applied when the server is (re)started");
+        concurrencyDesc.setLayoutData(new GridData(SWT.FILL, SWT.TOP, true, false, 2, 1));
+        concurrencyDesc.setForeground(parent.getDisplay().getSystemColor(SWT.COLOR_DARK_GRAY));
+
+        // Separator
+        Label separator = new Label(parent, SWT.SEPARATOR | SWT.HORIZONTAL);
+        separator.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+    }
+
     private void createLoggingControls(Composite parent) {
         // Info logging checkbox
         BooleanFieldEditor infoLoggingEditor = new BooleanFieldEditor(
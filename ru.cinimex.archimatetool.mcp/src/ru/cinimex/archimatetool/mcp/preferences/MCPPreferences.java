@@ -39,6 +39,9 @@ public final class MCPPreferences {
     public static final String PREF_LOG_LEVEL = "logLevel";
     public static final String PREF_LOG_INFO = "logInfo";
     public static final String PREF_LOG_DEBUG = "logDebug";
+    public static final String PREF_HTTP_EXECUTOR = "httpExecutor";
+    public static final String PREF_HTTP_MAX_CONCURRENT = "httpMaxConcurrent";
+    public static final String PREF_HTTP_MAX_QUEUED = "httpMaxQueued";
 
     private static final Map<String, String> FALLBACK = new HashMap<>();
     private static final Map<String, String> FALLBACK_DEFAULTS = new HashMap<>();
@@ -59,12 +62,15 @@ public final class MCPPreferences {
         }
     }
 
-    /** Clear stored host/port preferences. */
+    /** Clear stored host/port and HTTP limit preferences. */
     public static void clear() {
         IEclipsePreferences node = instanceNode();
         if (node != null) {
             node.remove(PREF_HOST);
             node.remove(PREF_PORT);
+            node.remove(PREF_HTTP_EXECUTOR);
+            node.remove(PREF_HTTP_MAX_CONCURRENT);
+            node.remove(PREF_HTTP_MAX_QUEUED);
             try {
                 node.flush();
             } catch (BackingStoreException ignore) {}
@@ -232,4 +238,89 @@ public final class MCPPreferences {
         String val = FALLBACK.get(PREF_LOG_DEBUG);
         return val != null ? Boolean.parseBoolean(val) : false;
     }
+
+    /** Set default HTTP executor and concurrency limits. */
+    public static void setDefaultHttpLimits(String executor, int maxConcurrent, int maxQueued) {
+        IEclipsePreferences node = defaultNode();
+        if (node != null) {
+            node.put(PREF_HTTP_EXECUTOR, executor);
+            node.putInt(PREF_HTTP_MAX_CONCURRENT, maxConcurrent);
+            node.putInt(PREF_HTTP_MAX_QUEUED, maxQueued);
+            try {
+                node.flush();
+            } catch (BackingStoreException ignore) {}
+        } else {
+            FALLBACK_DEFAULTS.put(PREF_HTTP_EXECUTOR, executor);
+            FALLBACK_DEFAULTS.put(PREF_HTTP_MAX_CONCURRENT, Integer.toString(maxConcurrent));
+            FALLBACK_DEFAULTS.put(PREF_HTTP_MAX_QUEUED, Integer.toString(maxQueued));
+        }
+    }
+
+    /** Set the HTTP executor mode preference (auto, virtual or pool). */
+    public static void setHttpExecutor(String executor) {
+        IEclipsePreferences node = instanceNode();
+        if (node != null) {
+            node.put(PREF_HTTP_EXECUTOR, executor);
+            try {
+                node.flush();
+            } catch (BackingStoreException ignore) {}
+        } else {
+            FALLBACK.put(PREF_HTTP_EXECUTOR, executor);
+        }
+    }
+
+    /** Retrieve the HTTP executor mode preference or the default if unset. */
+    public static String getHttpExecutor() {
+        IEclipsePreferences node = instanceNode();
+        if (node != null) {
+            return node.get(PREF_HTTP_EXECUTOR, Config.DEFAULT_HTTP_EXECUTOR);
+        }
+        return FALLBACK.getOrDefault(PREF_HTTP_EXECUTOR, Config.DEFAULT_HTTP_EXECUTOR);
+    }
+
+    /** Set the maximum number of concurrently handled requests. */
+    public static void setHttpMaxConcurrent(int maxConcurrent) {
+        IEclipsePreferences node = instanceNode();
+        if (node != null) {
+            node.putInt(PREF_HTTP_MAX_CONCURRENT, maxConcurrent);
+            try {
+                node.flush();
+            } catch (BackingStoreException ignore) {}
+        } else {
+            FALLBACK.put(PREF_HTTP_MAX_CONCURRENT, Integer.toString(maxConcurrent));
+        }
+    }
+
+    /** Retrieve the maximum number of concurrently handled requests or the default if unset. */
+    public static int getHttpMaxConcurrent() {
+        IEclipsePreferences node = instanceNode();
+        if (node != null) {
+            return node.getInt(PREF_HTTP_MAX_CONCURRENT, Config.DEFAULT_HTTP_MAX_CONCURRENT);
+        }
+        String val = FALLBACK.get(PREF_HTTP_MAX_CONCURRENT);
+        return val != null ? Integer.parseInt(val) : Config.DEFAULT_HTTP_MAX_CONCURRENT;
+    }
+
+    /** Set the maximum number of requests waiting for a slot. */
+    public static void setHttpMaxQueued(int maxQueued) {
+        IEclipsePreferences node = instanceNode();
+        if (node != null) {
+            node.putInt(PREF_HTTP_MAX_QUEUED, maxQueued);
+            try {
+                node.flush();
+            } catch (BackingStoreException ignore) {}
+        } else {
+            FALLBACK.put(PREF_HTTP_MAX_QUEUED, Integer.toString(maxQueued));
+        }
+    }
+
+    /** Retrieve the maximum number of requests waiting for a slot or the default if unset. */
+    public static int getHttpMaxQueued() {
+        IEclipsePreferences node = instanceNode();
+        if (node != null) {
+            return node.getInt(PREF_HTTP_MAX_QUEUED, Config.DEFAULT_HTTP_MAX_QUEUED);
+        }
+        String val = FALLBACK.get(PREF_HTTP_MAX_QUEUED);
+        return val != null ? Integer.parseInt(val) : Config.DEFAULT_HTTP_MAX_QUEUED;
+    }
 }
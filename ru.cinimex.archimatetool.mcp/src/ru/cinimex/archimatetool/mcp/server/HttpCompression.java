@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import ru.cinimex.archimatetool.mcp.Config;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Writes response bodies with gzip or deflate when the client accepts it.
+ * <p>
+ * Bodies below {@link Config#resolveCompressionMinBytes()} and binary image
+ * formats are sent as is. Counters show how many bytes compression saved.
+ */
+public final class HttpCompression {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final AtomicLong COMPRESSED = new AtomicLong();
+    private static final AtomicLong UNCOMPRESSED = new AtomicLong();
+    private static final AtomicLong BYTES_IN = new AtomicLong();
+    private static final AtomicLong BYTES_OUT = new AtomicLong();
+
+    private HttpCompression() {}
+
+    /** Send the body with the given status and content type, compressed if negotiated. */
+    public static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        byte[] out = body;
+        int min = Config.resolveCompressionMinBytes();
+        if (min >= 0 && isCompressible(contentType)) {
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            String encoding = body.length >= min ? negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding")) : null;
+            byte[] packed = encoding != null ? compress(body, encoding) : null;
+            if (packed != null && packed.length < body.length) {
+                exchange.getResponseHeaders().set("Content-Encoding", encoding);
+                out = packed;
+                COMPRESSED.incrementAndGet();
+                BYTES_IN.addAndGet(body.length);
+                BYTES_OUT.addAndGet(packed.length);
+            } else {
+                UNCOMPRESSED.incrementAndGet();
+            }
+        }
+        exchange.sendResponseHeaders(status, out.length == 0 ? -1 : out.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(out);
+        }
+    }
+
+    /**
+     * Send headers for a chunked response of unknown length and return the body
+     * stream, compressing when negotiated. The caller must close the stream.
+     */
+    public static OutputStream open(HttpExchange exchange, int status, String contentType) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        String encoding = null;
+        if (Config.resolveCompressionMinBytes() >= 0 && isCompressible(contentType)) {
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            encoding = negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        }
+        if (encoding != null) exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(status, 0);
+        OutputStream body = exchange.getResponseBody();
+        if (encoding == null) {
+            if (isCompressible(contentType)) UNCOMPRESSED.incrementAndGet();
+            return body;
+        }
+        COMPRESSED.incrementAndGet();
+        Counting wire = new Counting(body, BYTES_OUT);
+        OutputStream zip = GZIP.equals(encoding) ? new GZIPOutputStream(wire) : new DeflaterOutputStream(wire);
+        return new Counting(zip, BYTES_IN);
+    }
+
+    /**
+     * Pick gzip or deflate from an Accept-Encoding header, honouring q-values;
+     * gzip wins ties. Returns null when neither is acceptable.
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return null;
+        double gzip = -1, deflate = -1, any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String p = tokens[i].trim();
+                if (p.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(p.substring(2));
+                    } catch (NumberFormatException ex) {
+                        q = 0;
+                    }
+                }
+            }
+            if (GZIP.equals(coding) || "x-gzip".equals(coding)) gzip = q;
+            else if (DEFLATE.equals(coding)) deflate = q;
+            else if ("*".equals(coding)) any = q;
+        }
+        if (gzip < 0) gzip = any;
+        if (deflate < 0) deflate = any;
+        if (gzip > 0 && gzip >= deflate) return GZIP;
+        if (deflate > 0) return DEFLATE;
+        return null;
+    }
+
+    /** Text, JSON and SVG compress well; PNG and other binary formats do not. */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null) return false;
+        String ct = contentType.toLowerCase(Locale.ROOT);
+        return ct.startsWith("text/") || ct.contains("json") || ct.contains("xml") || ct.contains("javascript");
+    }
+
+    static byte[] compress(byte[] body, String encoding) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (OutputStream zip = GZIP.equals(encoding) ? new GZIPOutputStream(bos) : new DeflaterOutputStream(bos)) {
+            zip.write(body);
+        }
+        return bos.toByteArray();
+    }
+
+    /** Adds the number of bytes written to a counter. */
+    private static final class Counting extends FilterOutputStream {
+        private final AtomicLong counter;
+
+        Counting(OutputStream out, AtomicLong counter) {
+            super(out);
+            this.counter = counter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            counter.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            counter.addAndGet(len);
+        }
+    }
+
+    /** Compression counters; ratio is compressed bytes over original bytes. */
+    public static Map<String, Object> stats() {
+        long in = BYTES_IN.get();
+        long out = BYTES_OUT.get();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("minBytes", Config.resolveCompressionMinBytes());
+        m.put("compressed", COMPRESSED.get());
+        m.put("uncompressed", UNCOMPRESSED.get());
+        m.put("bytesIn", in);
+        m.put("bytesOut", out);
+        m.put("ratio", in > 0 ? Math.round(out * 1000.0 / in) / 1000.0 : null);
+        m.put("bytesSaved", in - out);
+        return m;
+    }
+}
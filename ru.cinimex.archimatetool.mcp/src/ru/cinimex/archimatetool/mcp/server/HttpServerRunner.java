@@ -16,18 +16,40 @@
 package ru.cinimex.archimatetool.mcp.server;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import ru.cinimex.archimatetool.mcp.Config;
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
+import ru.cinimex.archimatetool.mcp.http.RequestLimiter;
 import ru.cinimex.archimatetool.mcp.http.Router;
+import ru.cinimex.archimatetool.mcp.index.ModelIndexes;
+import ru.cinimex.archimatetool.mcp.server.sse.McpSessions;
 import ru.cinimex.archimatetool.mcp.util.McpLogger;
 import com.sun.net.httpserver.HttpServer;
 
 public class HttpServerRunner {
+    /** Extra pool threads so requests over the queue cap still reach the limiter and get a quick 503. */
+    private static final int POOL_HEADROOM = 4;
+    /** Exchanges the shedding thread may hold; beyond that the connection is closed without an answer. */
+    private static final int SHED_QUEUE = 64;
+
     private String host = null;
 
     private HttpServer server;
     private int port = -1;
+    private ExecutorService executor;
+    private ExecutorService shedder;
+    private volatile String executorKind;
+    private volatile RequestLimiter limiter;
 
     public synchronized void start() throws IOException {
         McpLogger.logOperationCall("HTTP Server Start");
@@ -50,12 +72,18 @@ public class HttpServerRunner {
             throw new IOException("Port in use: " + p, ex);
         }
 
-        Router.registerAll(server);
-        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        int maxConcurrent = Config.resolveHttpMaxConcurrent();
+        int maxQueued = Config.resolveHttpMaxQueued();
+        limiter = new RequestLimiter(maxConcurrent, maxQueued);
+        executor = createExecutor(Config.resolveHttpExecutor(),
+                maxConcurrent + maxQueued + Config.resolveSseMaxStreams() + POOL_HEADROOM,
+                Math.max(POOL_HEADROOM, maxQueued));
+        Router.registerAll(server, limiter, this::httpStats);
+        server.setExecutor(executor);
         server.start();
         
         McpLogger.logOperationOutput("HTTP Server Start", 
-            java.util.Map.of("status", "started", "host", host, "port", port));
+            java.util.Map.of("status", "started", "host", host, "port", port, "executor", executorKind));
         System.out.println("[Archi MCP] Listening at http://" + host + ":" + port);
     }
 
@@ -72,9 +100,18 @@ public class HttpServerRunner {
             java.util.Map.of("host", host, "port", currentPort));
         
         try {
+            McpSessions.get().closeAll();
             server.stop(0);
             server = null;
             port = -1;
+            executor.shutdown();
+            executor = null;
+            if (shedder != null) {
+                shedder.shutdown();
+                shedder = null;
+            }
+            limiter = null;
+            releaseModelState();
             
             McpLogger.logOperationOutput("HTTP Server Stop", 
                 java.util.Map.of("status", "stopped", "host", host, "port", currentPort));
@@ -110,5 +147,73 @@ public class HttpServerRunner {
     public synchronized String getHost() {
         return host;
     }
-}
 
+    /** Executor kind and limiter counters of the running server, empty when stopped. */
+    public Map<String, Object> httpStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        RequestLimiter current = limiter;
+        if (current == null) return m;
+        m.put("executor", executorKind);
+        m.putAll(current.stats());
+        return m;
+    }
+
+    /**
+     * Virtual threads for "auto"/"virtual" when the runtime provides them,
+     * otherwise a fixed pool of daemon threads with a bounded queue. Exchanges
+     * that find the queue full are handed to a single shedding thread that
+     * answers them with 503 through the limiter.
+     */
+    private ExecutorService createExecutor(String mode, int poolSize, int queueCapacity) {
+        if (!"pool".equals(mode)) {
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (virtual != null) {
+                executorKind = "virtual";
+                return virtual;
+            }
+            if ("virtual".equals(mode)) {
+                McpLogger.logOperationWarning("HTTP Server Start", "Virtual threads unavailable, using a bounded pool");
+            }
+        }
+        executorKind = "pool";
+        shedder = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(SHED_QUEUE), daemonThreads("archi-mcp-http-shed-"));
+        ExecutorService shed = shedder;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("archi-mcp-http-"),
+                // the HTTP server closes the connection if the shedding queue is full as well
+                (r, ex) -> shed.execute(() -> RequestLimiter.shed(r)));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** Indexes and change trackers only serve clients, so detach them from the models once nobody can connect. */
+    private static void releaseModelState() {
+        try {
+            ModelIndexes.disposeAll();
+            ChangeTrackers.disposeAll();
+        } catch (RuntimeException ex) {
+            // workbench already gone
+            McpLogger.logOperationWarning("HTTP Server Stop", "Could not detach model listeners: " + ex.getMessage());
+        }
+    }
+
+    /** The plugin targets Java 17, so the Java 21 factory is looked up reflectively. */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method m = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+}
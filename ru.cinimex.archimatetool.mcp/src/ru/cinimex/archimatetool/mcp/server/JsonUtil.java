@@ -15,23 +15,101 @@
  */
 package ru.cinimex.archimatetool.mcp.server;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import ru.cinimex.archimatetool.mcp.Config;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.sun.net.httpserver.HttpExchange;
 
 /**
- * JSON response helper backed by Jackson.
+ * JSON response helper backed by Jackson, compressed when the client accepts it.
+ * <p>
+ * Bodies are serialized into a buffer of {@link Config#resolveStreamMinBytes()}
+ * bytes. Small ones are sent with a Content-Length; once the buffer would
+ * overflow the response switches to chunked encoding and the generator writes
+ * straight to the exchange, so large payloads are never held serialized in full.
+ * If serialization fails after that point the response is left unterminated
+ * and the error propagates, so the HTTP server drops the connection and the
+ * client sees a broken transfer instead of a clean end.
  */
 public final class JsonUtil {
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
     private JsonUtil() {}
 
     public static void writeJson(HttpExchange exchange, int status, Object body) throws IOException {
-        byte[] bytes = JacksonJson.writeBytes(body);
-        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-        exchange.sendResponseHeaders(status, bytes.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(bytes);
+        SpillingOutput out = new SpillingOutput(exchange, status, Config.resolveStreamMinBytes());
+        JsonGenerator gen = JacksonJson.mapper().getFactory().createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            JacksonJson.mapper().writeValue(gen, body);
+            gen.close();
+        } catch (IOException | RuntimeException ex) {
+            // closing the generator would otherwise complete the half-written document
+            out.abort();
+            gen.close();
+            throw ex;
+        }
+        out.finish();
+    }
+
+    /** Buffers up to a limit, then sends chunked headers and passes writes through. */
+    private static final class SpillingOutput extends OutputStream {
+        private final HttpExchange exchange;
+        private final int status;
+        private final int limit;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        private OutputStream target;
+        private boolean aborted;
+
+        SpillingOutput(HttpExchange exchange, int status, int limit) {
+            this.exchange = exchange;
+            this.status = status;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (aborted) return;
+            if (target == null && buffer.size() + 1 > limit) spill();
+            if (target != null) {
+                target.write(b);
+            } else {
+                buffer.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (aborted) return;
+            if (target == null && buffer.size() + len > limit) spill();
+            if (target != null) {
+                target.write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+            }
+        }
+
+        private void spill() throws IOException {
+            target = HttpCompression.open(exchange, status, CONTENT_TYPE);
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+        /** Drop further writes; a spilled response is deliberately never closed. */
+        void abort() {
+            aborted = true;
+            buffer = null;
+        }
+
+        void finish() throws IOException {
+            if (target == null) {
+                HttpCompression.send(exchange, status, CONTENT_TYPE, buffer.toByteArray());
+            } else {
+                target.close();
+            }
         }
     }
 }
@@ -21,13 +21,25 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.ScaledGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gef.LayerConstants;
+import org.eclipse.gef.editparts.LayerManager;
+import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 
 import com.archimatetool.editor.diagram.ArchimateDiagramModelFactory;
+import com.archimatetool.editor.diagram.util.DiagramUtils;
 import com.archimatetool.editor.model.IArchiveManager;
 import com.archimatetool.editor.model.IEditorModelManager;
 import com.archimatetool.model.FolderType;
@@ -40,6 +52,7 @@ import com.archimatetool.model.IArchimateModelObject;
 import com.archimatetool.model.IArchimatePackage;
 import com.archimatetool.model.IArchimateRelationship;
 import com.archimatetool.model.IBounds;
+import com.archimatetool.model.IConnectable;
 import com.archimatetool.model.IDiagramModel;
 import com.archimatetool.model.IDiagramModelArchimateComponent;
 import com.archimatetool.model.IDiagramModelArchimateObject;
@@ -48,81 +61,107 @@ import com.archimatetool.model.IDiagramModelConnection;
 import com.archimatetool.model.IDiagramModelContainer;
 import com.archimatetool.model.IDiagramModelObject;
 import com.archimatetool.model.IFolder;
-import com.archimatetool.model.util.ArchimateModelUtils;
+
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
+import ru.cinimex.archimatetool.mcp.core.types.ImageRegion;
+import ru.cinimex.archimatetool.mcp.index.ModelIndexes;
+import ru.cinimex.archimatetool.mcp.service.ServiceRegistry;
 
 public class ModelApi {
 
     public static Object findById(IArchimateModel model, String id) {
-        return ArchimateModelUtils.getObjectByID(model, id);
+        return ServiceRegistry.activeModel().findById(model, id);
     }
 
     public static Map<String, Object> elementToDto(IArchimateElement e) {
+        return elementToDto(e, Fields.ALL);
+    }
+
+    /** Element DTO with only the requested fields; excluded fields are not read at all. */
+    public static Map<String, Object> elementToDto(IArchimateElement e, Fields f) {
         Map<String, Object> m = new HashMap<>();
         m.put("id", e.getId());
-        m.put("modelId", e.getArchimateModel().getId());
-        m.put("type", e.eClass().getName());
-        m.put("name", e.getName());
+        if (f.has("modelId")) m.put("modelId", e.getArchimateModel().getId());
+        if (f.has("type")) m.put("type", e.eClass().getName());
+        if (f.has("name")) m.put("name", e.getName());
         // Include documentation by default so agents can understand purpose/usage
-        try {
-            String doc = e.getDocumentation();
-            if (doc != null && !doc.isEmpty()) {
-                m.put("documentation", doc);
+        if (f.has("documentation")) {
+            try {
+                String doc = e.getDocumentation();
+                if (doc != null && !doc.isEmpty()) {
+                    m.put("documentation", doc);
+                }
+            } catch (Exception ex) {
+                // older Archi versions may not expose documentation on all objects; ignore
             }
-        } catch (Exception ex) {
-            // older Archi versions may not expose documentation on all objects; ignore
         }
-        IFolder folder = (IFolder) e.eContainer();
-        m.put("folderId", folder != null ? folder.getId() : null);
+        if (f.has("folderId")) {
+            IFolder folder = (IFolder) e.eContainer();
+            m.put("folderId", folder != null ? folder.getId() : null);
+        }
         return m;
     }
 
     public static Map<String, Object> relationToDto(IArchimateRelationship r) {
+        return relationToDto(r, Fields.ALL);
+    }
+
+    public static Map<String, Object> relationToDto(IArchimateRelationship r, Fields f) {
         Map<String, Object> m = new HashMap<>();
         m.put("id", r.getId());
-        m.put("modelId", r.getArchimateModel().getId());
-        m.put("type", r.eClass().getName());
-        m.put("name", r.getName());
-        m.put("sourceId", r.getSource() != null ? r.getSource().getId() : null);
-        m.put("targetId", r.getTarget() != null ? r.getTarget().getId() : null);
+        if (f.has("modelId")) m.put("modelId", r.getArchimateModel().getId());
+        if (f.has("type")) m.put("type", r.eClass().getName());
+        if (f.has("name")) m.put("name", r.getName());
+        if (f.has("sourceId")) m.put("sourceId", r.getSource() != null ? r.getSource().getId() : null);
+        if (f.has("targetId")) m.put("targetId", r.getTarget() != null ? r.getTarget().getId() : null);
         return m;
     }
 
     public static Map<String, Object> viewToDto(IDiagramModel v) {
+        return viewToDto(v, Fields.ALL);
+    }
+
+    public static Map<String, Object> viewToDto(IDiagramModel v, Fields f) {
         Map<String, Object> m = new HashMap<>();
         m.put("id", v.getId());
-        m.put("modelId", v.getArchimateModel().getId());
-        m.put("type", v.eClass().getName());
-        m.put("name", v.getName());
+        if (f.has("modelId")) m.put("modelId", v.getArchimateModel().getId());
+        if (f.has("type")) m.put("type", v.eClass().getName());
+        if (f.has("name")) m.put("name", v.getName());
         if (v.eContainer() instanceof IFolder) {
             IFolder folder = (IFolder) v.eContainer();
-            m.put("folderId", folder.getId());
-            m.put("folderPath", buildFolderPath(folder));
+            if (f.has("folderId")) m.put("folderId", folder.getId());
+            // walks up to the diagrams folder, so only when asked for
+            if (f.has("folderPath")) m.put("folderPath", buildFolderPath(folder));
         }
         return m;
     }
 
     public static Map<String, Object> viewObjectToDto(IDiagramModelObject obj) {
+        return viewObjectToDto(obj, Fields.ALL);
+    }
+
+    public static Map<String, Object> viewObjectToDto(IDiagramModelObject obj, Fields f) {
         Map<String, Object> m = new HashMap<>();
         m.put("objectId", obj.getId());
-        m.put("type", obj.eClass().getName());
+        if (f.has("type")) m.put("type", obj.eClass().getName());
         // expose parentObjectId when parent is a diagram object
         Object parent = obj.eContainer();
-        if (parent instanceof IDiagramModelObject) {
+        if (f.has("parentObjectId") && parent instanceof IDiagramModelObject) {
             m.put("parentObjectId", ((IDiagramModelObject) parent).getId());
         }
-        if (obj instanceof IDiagramModelArchimateObject) {
+        if ((f.has("elementId") || f.has("relationId")) && obj instanceof IDiagramModelArchimateObject) {
             IDiagramModelArchimateObject ao = (IDiagramModelArchimateObject) obj;
             IArchimateConcept c = ao.getArchimateConcept();
-            if (c instanceof IArchimateElement) {
+            if (f.has("elementId") && c instanceof IArchimateElement) {
                 IArchimateElement e = (IArchimateElement) c;
                 m.put("elementId", e.getId());
             }
-            if (c instanceof IArchimateRelationship) {
+            if (f.has("relationId") && c instanceof IArchimateRelationship) {
                 IArchimateRelationship r = (IArchimateRelationship) c;
                 m.put("relationId", r.getId());
             }
         }
-        IBounds b = obj.getBounds();
+        IBounds b = f.has("bounds") ? obj.getBounds() : null;
         if (b != null) {
             Map<String, Object> bounds = new HashMap<>();
             bounds.put("x", b.getX());
@@ -135,13 +174,18 @@ public class ModelApi {
     }
 
     public static Map<String, Object> viewContentToDto(IDiagramModel v) {
+        return viewContentToDto(v, Fields.ALL);
+    }
+
+    /** View content; the fields apply to every object and connection. */
+    public static Map<String, Object> viewContentToDto(IDiagramModel v, Fields f) {
         Map<String, Object> content = new HashMap<>();
         List<Object> objects = new ArrayList<>();
         // collect all objects recursively to include nested ones
         List<IDiagramModelObject> allObjects = new ArrayList<>();
         collectAllObjects(v, allObjects);
         for (IDiagramModelObject dmo : allObjects) {
-            objects.add(viewObjectToDto(dmo));
+            objects.add(viewObjectToDto(dmo, f));
         }
         // collect connections attached to all objects
         List<Object> conns = new ArrayList<>();
@@ -149,7 +193,7 @@ public class ModelApi {
             for (Object co : obj.getSourceConnections()) {
                 if (co instanceof IDiagramModelConnection) {
                     IDiagramModelConnection c = (IDiagramModelConnection) co;
-                    conns.add(connectionToDto(c));
+                    conns.add(connectionToDto(c, f));
                 }
             }
         }
@@ -175,6 +219,13 @@ public class ModelApi {
         return list;
     }
 
+    /** Views of a folder and its subfolders. */
+    public static List<IDiagramModel> listViews(IFolder folder) {
+        List<IDiagramModel> list = new ArrayList<>();
+        collectViewsRecursive(folder, list);
+        return list;
+    }
+
     private static void collectViewsRecursive(IFolder folder, List<IDiagramModel> out) {
         for (Object o : folder.getElements()) {
             if (o instanceof IDiagramModel) out.add((IDiagramModel) o);
@@ -211,101 +262,175 @@ public class ModelApi {
         return s == null ? "" : s;
     }
 
+    /** Render a view to PNG; only drawing the image holds the UI thread, encoding runs on the caller. */
     public static byte[] renderViewToPNG(IDiagramModel view, float scale, Integer dpi, java.awt.Color bg, int margin) {
-        final byte[][] out = new byte[1][1];
-        Display.getDefault().syncExec(() -> {
+        return RenderPipeline.get().render(() -> {
             org.eclipse.swt.graphics.Image image = null;
             try {
                 int intScale = Math.max(1, Math.round(scale));
                 // Direct use of Archi's DiagramUtils and ImageFactory as в scripting‑plugin
                 image = com.archimatetool.editor.diagram.util.DiagramUtils.createImage(view, intScale, margin);
-                org.eclipse.swt.graphics.ImageData data = image.getImageData(com.archimatetool.editor.ui.ImageFactory.getImageDeviceZoom());
-                if (dpi != null && dpi > 0) {
-                    try {
-                        java.lang.reflect.Field fxdpi = data.getClass().getField("xdpi");
-                        java.lang.reflect.Field fydpi = data.getClass().getField("ydpi");
-                        fxdpi.setInt(data, dpi.intValue());
-                        fydpi.setInt(data, dpi.intValue());
-                    } catch (Throwable ignoreDpi) { /* ignore */ }
-                }
-                org.eclipse.swt.graphics.ImageLoader loader = new org.eclipse.swt.graphics.ImageLoader();
-                loader.data = new org.eclipse.swt.graphics.ImageData[] { data };
-                java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-                loader.save(baos, org.eclipse.swt.SWT.IMAGE_PNG);
-                out[0] = baos.toByteArray();
+                return image.getImageData(com.archimatetool.editor.ui.ImageFactory.getImageDeviceZoom());
             } catch (Throwable t) {
-                out[0] = new byte[0];
+                return null;
             } finally {
                 if (image != null && !image.isDisposed()) image.dispose();
             }
-        });
-        return out[0];
+        }, data -> encodePNG(data, dpi));
+    }
+
+    private static byte[] encodePNG(org.eclipse.swt.graphics.ImageData data, Integer dpi) {
+        if (data == null) return new byte[0];
+        try {
+            if (dpi != null && dpi > 0) {
+                try {
+                    java.lang.reflect.Field fxdpi = data.getClass().getField("xdpi");
+                    java.lang.reflect.Field fydpi = data.getClass().getField("ydpi");
+                    fxdpi.setInt(data, dpi.intValue());
+                    fydpi.setInt(data, dpi.intValue());
+                } catch (Throwable ignoreDpi) { /* ignore */ }
+            }
+            org.eclipse.swt.graphics.ImageLoader loader = new org.eclipse.swt.graphics.ImageLoader();
+            loader.data = new org.eclipse.swt.graphics.ImageData[] { data };
+            java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
+            loader.save(baos, org.eclipse.swt.SWT.IMAGE_PNG);
+            return baos.toByteArray();
+        } catch (Throwable t) {
+            return new byte[0];
+        }
+    }
+
+    /** A rendered part of a view together with the resolved area. */
+    public static final class RegionImage {
+        public final byte[] data;
+        public final ImageRegion.Plan plan;
+
+        RegionImage(byte[] data, ImageRegion.Plan plan) {
+            this.data = data;
+            this.plan = plan;
+        }
     }
 
+    private static final class RegionSnapshot {
+        final org.eclipse.swt.graphics.ImageData data;
+        final ImageRegion.Plan plan;
+
+        RegionSnapshot(org.eclipse.swt.graphics.ImageData data, ImageRegion.Plan plan) {
+            this.data = data;
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Render part of a view to PNG. The figures are laid out once, but only those
+     * inside the planned area are painted, into an image of just that size.
+     */
+    public static RegionImage renderViewRegionToPNG(IDiagramModel view, ImageRegion region, float zoom, Integer dpi, int margin) {
+        return RenderPipeline.get().render(() -> {
+            Shell shell = new Shell();
+            try {
+                GraphicalViewerImpl viewer = DiagramUtils.createViewer(view, shell);
+                LayerManager layers = (LayerManager) viewer.getEditPartRegistry().get(LayerManager.ID);
+                IFigure root = layers.getLayer(LayerConstants.PRINTABLE_LAYERS);
+                Rectangle extents = DiagramUtils.getMinimumBounds(root);
+                if (extents == null) extents = new Rectangle(0, 0, 100, 100);
+                extents = extents.getExpanded(margin, margin);
+                ImageRegion.Plan plan = region.plan(extents.x, extents.y, extents.width, extents.height, zoom);
+                Image image = new Image(Display.getDefault(), plan.pixelWidth, plan.pixelHeight);
+                try {
+                    GC gc = new GC(image);
+                    SWTGraphics swt = new SWTGraphics(gc);
+                    Graphics graphics = swt;
+                    try {
+                        // a pixel offset is applied before scaling, so tiles start at whole pixels
+                        swt.translate(-plan.pixelX, -plan.pixelY);
+                        if (plan.zoom != 1f) {
+                            graphics = new ScaledGraphics(swt);
+                            graphics.scale(plan.zoom);
+                        }
+                        // the clip now covers just the area, so other figures are skipped
+                        graphics.translate(-plan.originX, -plan.originY);
+                        root.paint(graphics);
+                    } finally {
+                        if (graphics != swt) graphics.dispose();
+                        swt.dispose();
+                        gc.dispose();
+                    }
+                    return new RegionSnapshot(image.getImageData(), plan);
+                } finally {
+                    image.dispose();
+                }
+            } finally {
+                shell.dispose();
+            }
+        }, snap -> new RegionImage(encodePNG(snap.data, dpi), snap.plan));
+    }
+
+    /** Render a view to SVG; only the export holds the UI thread, margin/scale/bg are applied on the caller. */
     public static byte[] renderViewToSVG(IDiagramModel view, float scale, String bg, int margin) {
-        final byte[][] out = new byte[1][1];
-        Display.getDefault().syncExec(() -> {
+        return RenderPipeline.get().render(() -> {
             try {
                 // Archi 5 uses the export plugin for SVG output
                 com.archimatetool.export.svg.SVGExportProvider exporter =
                         new com.archimatetool.export.svg.SVGExportProvider();
-                String svg = exporter.getSVGString(view, true);
-                if (svg == null) { out[0] = new byte[0]; return; }
-
-                try {
-                    javax.xml.parsers.DocumentBuilderFactory dbf = javax.xml.parsers.DocumentBuilderFactory.newInstance();
-                    dbf.setNamespaceAware(true);
-                    org.w3c.dom.Document doc = dbf.newDocumentBuilder().parse(
-                            new org.xml.sax.InputSource(new java.io.StringReader(svg)));
-                    org.w3c.dom.Element root = doc.getDocumentElement();
-
-                    String viewBox = root.getAttribute("viewBox");
-                    float vbX = 0, vbY = 0, vbW = 0, vbH = 0;
-                    if (viewBox != null && !viewBox.isEmpty()) {
-                        String[] parts = viewBox.trim().split("\\s+");
-                        if (parts.length == 4) {
-                            vbX = Float.parseFloat(parts[0]);
-                            vbY = Float.parseFloat(parts[1]);
-                            vbW = Float.parseFloat(parts[2]);
-                            vbH = Float.parseFloat(parts[3]);
-                        }
-                    }
-                    if (vbW == 0 || vbH == 0) {
-                        vbW = Float.parseFloat(root.getAttribute("width"));
-                        vbH = Float.parseFloat(root.getAttribute("height"));
-                    }
+                return exporter.getSVGString(view, true);
+            } catch (Throwable t) {
+                return null;
+            }
+        }, svg -> fitSVG(svg, scale, bg, margin));
+    }
 
-                    // apply margin
-                    vbX -= margin;
-                    vbY -= margin;
-                    vbW += margin * 2;
-                    vbH += margin * 2;
+    private static byte[] fitSVG(String svg, float scale, String bg, int margin) {
+        if (svg == null) return new byte[0];
+        try {
+            javax.xml.parsers.DocumentBuilderFactory dbf = javax.xml.parsers.DocumentBuilderFactory.newInstance();
+            dbf.setNamespaceAware(true);
+            org.w3c.dom.Document doc = dbf.newDocumentBuilder().parse(
+                    new org.xml.sax.InputSource(new java.io.StringReader(svg)));
+            org.w3c.dom.Element root = doc.getDocumentElement();
+
+            String viewBox = root.getAttribute("viewBox");
+            float vbX = 0, vbY = 0, vbW = 0, vbH = 0;
+            if (viewBox != null && !viewBox.isEmpty()) {
+                String[] parts = viewBox.trim().split("\\s+");
+                if (parts.length == 4) {
+                    vbX = Float.parseFloat(parts[0]);
+                    vbY = Float.parseFloat(parts[1]);
+                    vbW = Float.parseFloat(parts[2]);
+                    vbH = Float.parseFloat(parts[3]);
+                }
+            }
+            if (vbW == 0 || vbH == 0) {
+                vbW = Float.parseFloat(root.getAttribute("width"));
+                vbH = Float.parseFloat(root.getAttribute("height"));
+            }
 
-                    // apply scale by adjusting width/height
-                    root.setAttribute("viewBox", vbX + " " + vbY + " " + vbW + " " + vbH);
-                    root.setAttribute("width", Float.toString(vbW * scale));
-                    root.setAttribute("height", Float.toString(vbH * scale));
+            // apply margin
+            vbX -= margin;
+            vbY -= margin;
+            vbW += margin * 2;
+            vbH += margin * 2;
 
-                    // background color if requested
-                    if (bg != null && !"transparent".equalsIgnoreCase(bg)) {
-                        root.setAttribute("style", "background-color:" + bg);
-                    }
+            // apply scale by adjusting width/height
+            root.setAttribute("viewBox", vbX + " " + vbY + " " + vbW + " " + vbH);
+            root.setAttribute("width", Float.toString(vbW * scale));
+            root.setAttribute("height", Float.toString(vbH * scale));
 
-                    javax.xml.transform.Transformer tf = javax.xml.transform.TransformerFactory.newInstance().newTransformer();
-                    tf.setOutputProperty(javax.xml.transform.OutputKeys.ENCODING, "UTF-8");
-                    java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-                    tf.transform(new javax.xml.transform.dom.DOMSource(doc),
-                            new javax.xml.transform.stream.StreamResult(baos));
-                    out[0] = baos.toByteArray();
-                } catch (Exception e) {
-                    // fallback to the original string
-                    out[0] = svg.getBytes(java.nio.charset.StandardCharsets.UTF_8);
-                }
-            } catch (Throwable t) {
-                out[0] = new byte[0];
+            // background color if requested
+            if (bg != null && !"transparent".equalsIgnoreCase(bg)) {
+                root.setAttribute("style", "background-color:" + bg);
             }
-        });
-        return out[0];
+
+            javax.xml.transform.Transformer tf = javax.xml.transform.TransformerFactory.newInstance().newTransformer();
+            tf.setOutputProperty(javax.xml.transform.OutputKeys.ENCODING, "UTF-8");
+            java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
+            tf.transform(new javax.xml.transform.dom.DOMSource(doc),
+                    new javax.xml.transform.stream.StreamResult(baos));
+            return baos.toByteArray();
+        } catch (Exception e) {
+            // fallback to the original string
+            return svg.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        }
     }
 
 
@@ -361,11 +486,15 @@ public class ModelApi {
     }
 
     public static Map<String, Object> connectionToDto(IDiagramModelConnection c) {
+        return connectionToDto(c, Fields.ALL);
+    }
+
+    public static Map<String, Object> connectionToDto(IDiagramModelConnection c, Fields f) {
         Map<String, Object> m = new HashMap<>();
         m.put("objectId", c.getId());
-        if (c.getSource() != null) m.put("sourceObjectId", c.getSource().getId());
-        if (c.getTarget() != null) m.put("targetObjectId", c.getTarget().getId());
-        if (c instanceof IDiagramModelArchimateConnection) {
+        if (f.has("sourceObjectId") && c.getSource() != null) m.put("sourceObjectId", c.getSource().getId());
+        if (f.has("targetObjectId") && c.getTarget() != null) m.put("targetObjectId", c.getTarget().getId());
+        if (f.has("relationId") && c instanceof IDiagramModelArchimateConnection) {
             IDiagramModelArchimateConnection ac = (IDiagramModelArchimateConnection) c;
             if (ac.getArchimateRelationship() != null) {
                 m.put("relationId", ac.getArchimateRelationship().getId());
@@ -427,72 +556,60 @@ public class ModelApi {
     }
 
     public static int removeElementOccurrences(IArchimateModel model, IArchimateElement element) {
-        int removed = 0;
-        List<IDiagramModel> views = listViews(model);
-        for (IDiagramModel v : views) {
-            List<IDiagramModelObject> all = new ArrayList<>();
-            collectAllObjects(v, all);
-            for (IDiagramModelObject obj : all) {
-                if (obj instanceof IDiagramModelArchimateObject) {
-                    IDiagramModelArchimateObject ao = (IDiagramModelArchimateObject) obj;
-                    IArchimateConcept c = ao.getArchimateConcept();
-                    if (c == element) {
-                        // remove connections first
-                        List<Object> toDel = new ArrayList<>();
-                        for (Object co : obj.getSourceConnections()) {
-                            if (co instanceof IDiagramModelConnection) toDel.add(co);
-                        }
-                        for (Object co : obj.getTargetConnections()) {
-                            if (co instanceof IDiagramModelConnection) toDel.add(co);
-                        }
-                        final List<Object> del = toDel;
-                        Display.getDefault().syncExec(() -> {
-                            for (Object dc : del) {
-                                org.eclipse.emf.ecore.util.EcoreUtil.delete((org.eclipse.emf.ecore.EObject) dc);
-                            }
-                        });
-                        // remove object
-                        removed += deleteViewObject(obj) ? 1 : 0;
-                    }
+        List<IDiagramModelObject> objects = new ArrayList<>();
+        for (IDiagramModelArchimateComponent ref : ModelIndexes.of(model).getReferences(element)) {
+            if (ref instanceof IDiagramModelObject) objects.add((IDiagramModelObject) ref);
+        }
+        if (objects.isEmpty()) return 0;
+        final int[] removed = new int[1];
+        Display.getDefault().syncExec(() -> {
+            for (IDiagramModelObject obj : objects) {
+                // remove connections of the object and its nested children first
+                detachConnections(obj);
+                Object parent = obj.eContainer();
+                if (parent instanceof IDiagramModelContainer
+                        && ((IDiagramModelContainer) parent).getChildren().remove(obj)) {
+                    removed[0]++;
                 }
             }
-        }
-        return removed;
+        });
+        return removed[0];
     }
 
     public static int removeRelationOccurrences(IArchimateModel model, IArchimateRelationship relation) {
-        int removed = 0;
-        List<IDiagramModel> views = listViews(model);
-        for (IDiagramModel v : views) {
-            List<IDiagramModelObject> all = new ArrayList<>();
-            collectAllObjects(v, all);
-            // connections are attached to objects
-            List<Object> toDel = new ArrayList<>();
-            for (IDiagramModelObject obj : all) {
-                for (Object co : obj.getSourceConnections()) {
-                    if (co instanceof IDiagramModelArchimateConnection) {
-                        IDiagramModelArchimateConnection ac = (IDiagramModelArchimateConnection) co;
-                        if (ac.getArchimateRelationship() == relation) toDel.add(ac);
-                    }
-                }
-                for (Object co : obj.getTargetConnections()) {
-                    if (co instanceof IDiagramModelArchimateConnection) {
-                        IDiagramModelArchimateConnection ac = (IDiagramModelArchimateConnection) co;
-                        if (ac.getArchimateRelationship() == relation) toDel.add(ac);
-                    }
-                }
+        List<IDiagramModelConnection> conns = new ArrayList<>();
+        for (IDiagramModelArchimateComponent ref : ModelIndexes.of(model).getReferences(relation)) {
+            if (ref instanceof IDiagramModelConnection) conns.add((IDiagramModelConnection) ref);
+        }
+        if (conns.isEmpty()) return 0;
+        Display.getDefault().syncExec(() -> {
+            for (IDiagramModelConnection c : conns) {
+                detachConnections(c);
             }
-            final List<Object> del = toDel;
-            if (!del.isEmpty()) {
-                Display.getDefault().syncExec(() -> {
-                    for (Object dc : del) {
-                        org.eclipse.emf.ecore.util.EcoreUtil.delete((org.eclipse.emf.ecore.EObject) dc);
-                    }
-                });
-                removed += del.size();
+        });
+        return conns.size();
+    }
+
+    /**
+     * Disconnect a diagram component from everything attached to it. Unlike
+     * EcoreUtil.delete this does not cross-reference the whole model.
+     */
+    private static void detachConnections(IConnectable node) {
+        List<IDiagramModelConnection> attached = new ArrayList<>();
+        attached.addAll(node.getSourceConnections());
+        attached.addAll(node.getTargetConnections());
+        for (IDiagramModelConnection c : attached) {
+            // connections may be attached to connections
+            detachConnections(c);
+        }
+        if (node instanceof IDiagramModelConnection) {
+            ((IDiagramModelConnection) node).disconnect();
+        }
+        if (node instanceof IDiagramModelContainer) {
+            for (Object child : ((IDiagramModelContainer) node).getChildren()) {
+                if (child instanceof IConnectable) detachConnections((IConnectable) child);
             }
         }
-        return removed;
     }
 
     // Moved to ActiveModelService
@@ -506,7 +623,7 @@ public class ModelApi {
     private static IFolder resolveFolderFor(IArchimateModel model, IArchimateModelObject object, String folderId) {
         IFolder folder = null;
         if (folderId != null) {
-            Object o = ArchimateModelUtils.getObjectByID(model, folderId);
+            Object o = findById(model, folderId);
             if (o instanceof IFolder) {
                 folder = (IFolder) o;
             }
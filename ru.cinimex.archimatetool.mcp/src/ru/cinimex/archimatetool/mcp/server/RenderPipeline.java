@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import ru.cinimex.archimatetool.mcp.Config;
+import ru.cinimex.archimatetool.mcp.UiExec;
+import ru.cinimex.archimatetool.mcp.core.errors.TimeoutException;
+
+/**
+ * Two-phase rendering of view images with a cap on concurrent renders.
+ * <p>
+ * Only the part that needs SWT (building the figures and drawing them into an
+ * SVG string or image data) runs on the UI thread. Encoding and post-processing
+ * run on the calling worker thread afterwards, so the UI is held just for the
+ * snapshot. At most {@code maxConcurrent} renders are in flight; others wait
+ * up to {@code waitMs} for a slot, so a burst of exports cannot queue up
+ * behind each other on the UI thread and starve it.
+ */
+public final class RenderPipeline {
+
+    public static final long DEFAULT_WAIT_MS = 60_000;
+
+    private static final class Holder {
+        static final RenderPipeline INSTANCE = new RenderPipeline(Config.resolveRenderMaxConcurrent(), DEFAULT_WAIT_MS);
+    }
+
+    private final int maxConcurrent;
+    private final long waitMs;
+    private final Semaphore slots;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong uiNanos = new AtomicLong();
+    private final AtomicLong workerNanos = new AtomicLong();
+
+    public RenderPipeline(int maxConcurrent, long waitMs) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be positive");
+        this.maxConcurrent = maxConcurrent;
+        this.waitMs = waitMs;
+        this.slots = new Semaphore(maxConcurrent, true);
+    }
+
+    public static RenderPipeline get() {
+        return Holder.INSTANCE;
+    }
+
+    /** Render on the SWT UI thread, then finish on the calling thread. */
+    public <T, R> R render(Supplier<T> onUi, Function<T, R> offUi) {
+        return render(onUi, offUi, UiExec::sync);
+    }
+
+    /**
+     * Render with the given UI executor; {@code onUi} produces a snapshot that
+     * {@code offUi} turns into the result without touching the model or SWT
+     * widgets. Exceptions of {@code onUi} are rethrown on the calling thread.
+     */
+    public <T, R> R render(Supplier<T> onUi, Function<T, R> offUi, Consumer<Runnable> uiExecutor) {
+        acquire();
+        try {
+            long start = System.nanoTime();
+            Object[] snapshot = new Object[1];
+            RuntimeException[] failure = new RuntimeException[1];
+            uiExecutor.accept(() -> {
+                try {
+                    snapshot[0] = onUi.get();
+                } catch (RuntimeException ex) {
+                    failure[0] = ex;
+                }
+            });
+            long drawn = System.nanoTime();
+            uiNanos.addAndGet(drawn - start);
+            if (failure[0] != null) throw failure[0];
+            @SuppressWarnings("unchecked")
+            R out = offUi.apply((T) snapshot[0]);
+            workerNanos.addAndGet(System.nanoTime() - drawn);
+            rendered.incrementAndGet();
+            return out;
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void acquire() {
+        if (slots.tryAcquire()) return;
+        waiting.incrementAndGet();
+        try {
+            if (!slots.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new TimeoutException("timed out waiting for a render slot");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("interrupted while waiting for a render slot");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActive() {
+        return maxConcurrent - slots.availablePermits();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("maxConcurrent", maxConcurrent);
+        m.put("active", getActive());
+        m.put("waiting", waiting.get());
+        m.put("rendered", rendered.get());
+        m.put("timeouts", timeouts.get());
+        m.put("uiMs", TimeUnit.NANOSECONDS.toMillis(uiNanos.get()));
+        m.put("workerMs", TimeUnit.NANOSECONDS.toMillis(workerNanos.get()));
+        return m;
+    }
+}
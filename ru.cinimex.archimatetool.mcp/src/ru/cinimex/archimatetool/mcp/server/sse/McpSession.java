@@ -0,0 +1,238 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server.sse;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An MCP session created by initialize and addressed by the Mcp-Session-Id header.
+ * <p>
+ * Server-initiated messages go through a bounded queue drained by the session's
+ * GET stream. A slow reader blocks the stream writer, the queue fills up and
+ * producers feel it: droppable messages (progress, resource updates) are
+ * discarded, other messages wait briefly and then the session is closed as
+ * stalled.
+ */
+public final class McpSession {
+
+    static final long SEND_WAIT_MS = 5_000;
+
+    private final String id;
+    private final long createdAt = System.currentTimeMillis();
+    private final LinkedBlockingDeque<Map<String, Object>> queue;
+    private final AtomicInteger streamGeneration = new AtomicInteger();
+    private final AtomicLong eventSeq = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong heartbeats = new AtomicLong();
+    private final Map<String, AutoCloseable> subscriptions = new ConcurrentHashMap<>();
+    /** Subscribed uris whose last update notification was dropped. */
+    private final Set<String> missedUpdates = ConcurrentHashMap.newKeySet();
+    private volatile long lastSeen = createdAt;
+    private volatile boolean streaming;
+    private volatile boolean closed;
+    private volatile boolean stalled;
+
+    McpSession(String id, int queueSize) {
+        this.id = id;
+        this.queue = new LinkedBlockingDeque<>(queueSize);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    void touch() {
+        lastSeen = System.currentTimeMillis();
+    }
+
+    /**
+     * Queue a message for the stream. Returns false when it was dropped.
+     *
+     * @param droppable true for messages a client can live without, e.g. progress
+     */
+    public boolean offer(Map<String, Object> message, boolean droppable) {
+        if (closed) return false;
+        boolean queued;
+        if (droppable) {
+            queued = queue.offerLast(message);
+        } else {
+            try {
+                queued = queue.offerLast(message, SEND_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+            if (!queued) {
+                stalled = true;
+                close();
+            }
+        }
+        if (!queued) dropped.incrementAndGet();
+        return queued;
+    }
+
+    /**
+     * Queue notifications/resources/updated for a subscribed uri. Called from the
+     * shared change feed thread, so it never waits for room: a notification that
+     * does not fit is dropped and counted, and the next one for the uri carries
+     * {@code resync: true} so the client re-reads the resource.
+     *
+     * @param changes changes to include in the params, or null
+     */
+    public boolean offerResourceUpdate(String uri, Object changes) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        p.put("uri", uri);
+        if (changes != null) p.put("changes", changes);
+        boolean resync = missedUpdates.remove(uri);
+        if (resync) p.put("resync", true);
+        Map<String, Object> note = new LinkedHashMap<>();
+        note.put("jsonrpc", "2.0");
+        note.put("method", "notifications/resources/updated");
+        note.put("params", p);
+        boolean queued = offer(note, true);
+        if (!queued && !closed) missedUpdates.add(uri);
+        return queued;
+    }
+
+    /**
+     * Drain the queue into the stream until the session closes, the client goes
+     * away or a newer stream takes over. Blocks the calling thread.
+     */
+    public void pump(SseStream stream, long heartbeatMs) {
+        int generation = streamGeneration.incrementAndGet();
+        streaming = true;
+        try {
+            while (!closed && generation == streamGeneration.get()) {
+                Map<String, Object> message;
+                try {
+                    message = queue.pollFirst(heartbeatMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (message != null && generation != streamGeneration.get()) {
+                    // replaced while waiting; leave the message to the new stream
+                    queue.offerFirst(message);
+                    return;
+                }
+                try {
+                    if (message == null) {
+                        stream.heartbeat();
+                        heartbeats.incrementAndGet();
+                    } else {
+                        stream.event(Long.toString(eventSeq.incrementAndGet()), message);
+                        sent.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    // client went away; keep the message for the next stream
+                    if (message != null) queue.offerFirst(message);
+                    return;
+                }
+                touch();
+            }
+        } finally {
+            if (closed || generation == streamGeneration.get()) streaming = false;
+        }
+    }
+
+    /** Keep a resource subscription until it is replaced, unsubscribed or the session ends. */
+    public void subscribe(String uri, AutoCloseable subscription) {
+        AutoCloseable previous = subscriptions.put(uri, subscription);
+        closeQuietly(previous);
+        if (closed) unsubscribe(uri);
+    }
+
+    /** Returns false when there was no subscription for the uri. */
+    public boolean unsubscribe(String uri) {
+        missedUpdates.remove(uri);
+        AutoCloseable sub = subscriptions.remove(uri);
+        closeQuietly(sub);
+        return sub != null;
+    }
+
+    /** Close the session; an attached stream ends at its next wake-up. */
+    public void close() {
+        closed = true;
+        streamGeneration.incrementAndGet();
+        for (String uri : subscriptions.keySet()) {
+            unsubscribe(uri);
+        }
+        queue.clear();
+    }
+
+    private static void closeQuietly(AutoCloseable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (Exception ignore) {
+            // nothing to recover
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", id);
+        m.put("streaming", streaming);
+        m.put("queued", queue.size());
+        m.put("sent", sent.get());
+        m.put("dropped", dropped.get());
+        m.put("heartbeats", heartbeats.get());
+        m.put("stalled", stalled);
+        m.put("subscriptions", subscriptions.size());
+        return m;
+    }
+
+    long getSent() {
+        return sent.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    long getHeartbeats() {
+        return heartbeats.get();
+    }
+
+    int getQueued() {
+        return queue.size();
+    }
+
+    boolean isStalled() {
+        return stalled;
+    }
+}
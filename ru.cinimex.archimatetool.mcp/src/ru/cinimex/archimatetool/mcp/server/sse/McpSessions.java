@@ -0,0 +1,184 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server.sse;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ru.cinimex.archimatetool.mcp.Config;
+
+/**
+ * Registry of MCP sessions for the Streamable HTTP transport.
+ * <p>
+ * The number of sessions is bounded; idle sessions without a stream are dropped
+ * after {@link #IDLE_MS} or when room is needed. Open GET streams are capped
+ * separately since each one holds a server thread for its lifetime.
+ */
+public final class McpSessions {
+
+    public static final int MAX_SESSIONS = 64;
+    public static final long IDLE_MS = 30 * 60_000L;
+
+    private static final class Holder {
+        static final McpSessions INSTANCE = new McpSessions(Config.resolveSseQueueSize(), Config.resolveSseMaxStreams());
+    }
+
+    private final int queueSize;
+    private final int maxStreams;
+    private final Map<String, McpSession> sessions = new LinkedHashMap<>();
+    private final AtomicInteger streams = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong rejectedStreams = new AtomicLong();
+
+    public McpSessions(int queueSize, int maxStreams) {
+        this.queueSize = queueSize;
+        this.maxStreams = maxStreams;
+    }
+
+    public static McpSessions get() {
+        return Holder.INSTANCE;
+    }
+
+    public McpSession create() {
+        McpSession s = new McpSession(UUID.randomUUID().toString(), queueSize);
+        synchronized (sessions) {
+            evictIdle(System.currentTimeMillis());
+            if (sessions.size() >= MAX_SESSIONS) evictLeastRecent();
+            sessions.put(s.getId(), s);
+        }
+        created.incrementAndGet();
+        return s;
+    }
+
+    /** Live session with this id, or null. Marks the session as used. */
+    public McpSession find(String id) {
+        if (id == null) return null;
+        McpSession s;
+        synchronized (sessions) {
+            evictIdle(System.currentTimeMillis());
+            s = sessions.get(id);
+        }
+        if (s == null || s.isClosed()) return null;
+        s.touch();
+        return s;
+    }
+
+    /** Close and forget a session; false when it did not exist. */
+    public boolean remove(String id) {
+        McpSession s;
+        synchronized (sessions) {
+            s = sessions.remove(id);
+        }
+        if (s == null) return false;
+        s.close();
+        return true;
+    }
+
+    /** Queue a message on every session. */
+    public void broadcast(Map<String, Object> message, boolean droppable) {
+        for (McpSession s : list()) {
+            s.offer(message, droppable);
+        }
+    }
+
+    public List<McpSession> list() {
+        synchronized (sessions) {
+            return new ArrayList<>(sessions.values());
+        }
+    }
+
+    /** Reserve a stream slot; false when the cap is reached. */
+    public boolean acquireStream() {
+        if (streams.incrementAndGet() > maxStreams) {
+            streams.decrementAndGet();
+            rejectedStreams.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void releaseStream() {
+        streams.decrementAndGet();
+    }
+
+    /** Close every session, e.g. when the server stops. */
+    public void closeAll() {
+        List<McpSession> all;
+        synchronized (sessions) {
+            all = new ArrayList<>(sessions.values());
+            sessions.clear();
+        }
+        for (McpSession s : all) {
+            s.close();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long sent = 0, dropped = 0, heartbeats = 0;
+        int queued = 0, stalled = 0;
+        List<McpSession> all = list();
+        for (McpSession s : all) {
+            sent += s.getSent();
+            dropped += s.getDropped();
+            heartbeats += s.getHeartbeats();
+            queued += s.getQueued();
+            if (s.isStalled()) stalled++;
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("sessions", all.size());
+        m.put("created", created.get());
+        m.put("expired", expired.get());
+        m.put("streams", streams.get());
+        m.put("maxStreams", maxStreams);
+        m.put("rejectedStreams", rejectedStreams.get());
+        m.put("queued", queued);
+        m.put("sent", sent);
+        m.put("dropped", dropped);
+        m.put("heartbeats", heartbeats);
+        m.put("stalled", stalled);
+        return m;
+    }
+
+    private void evictIdle(long now) {
+        for (Iterator<McpSession> it = sessions.values().iterator(); it.hasNext();) {
+            McpSession s = it.next();
+            if (s.isClosed() || (!s.isStreaming() && now - s.getLastSeen() >= IDLE_MS)) {
+                it.remove();
+                s.close();
+                expired.incrementAndGet();
+            }
+        }
+    }
+
+    private void evictLeastRecent() {
+        McpSession oldest = null;
+        for (McpSession s : sessions.values()) {
+            if (oldest == null || s.getLastSeen() < oldest.getLastSeen()) oldest = s;
+        }
+        if (oldest != null) {
+            sessions.remove(oldest.getId());
+            oldest.close();
+            expired.incrementAndGet();
+        }
+    }
+}
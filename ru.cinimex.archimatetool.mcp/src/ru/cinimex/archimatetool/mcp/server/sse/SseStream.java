@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server.sse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * A text/event-stream response. Every MCP message is one {@code message} event
+ * with the JSON on a single data line; idle streams get comment heartbeats.
+ * Bodies are never compressed so each event reaches the client as it is written.
+ */
+public final class SseStream implements Closeable {
+
+    public static final String CONTENT_TYPE = "text/event-stream";
+
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+
+    private SseStream(OutputStream out) {
+        this.out = out;
+    }
+
+    /** Whether the client listed text/event-stream in Accept. */
+    public static boolean accepts(HttpExchange exchange) {
+        List<String> accept = exchange.getRequestHeaders().get("Accept");
+        if (accept == null) return false;
+        for (String value : accept) {
+            if (value != null && value.toLowerCase().contains(CONTENT_TYPE)) return true;
+        }
+        return false;
+    }
+
+    /** Send the 200 headers and start the stream. */
+    public static SseStream open(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE + "; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+        exchange.sendResponseHeaders(200, 0);
+        return new SseStream(exchange.getResponseBody());
+    }
+
+    /** Write one message event; id may be null. */
+    public void event(String id, Object message) throws IOException {
+        event(id, "message", message);
+    }
+
+    /** Write one event of the given type with a JSON payload; id may be null. */
+    public void event(String id, String type, Object data) throws IOException {
+        StringBuilder head = new StringBuilder();
+        if (id != null) head.append("id: ").append(id).append('\n');
+        head.append("event: ").append(type).append("\ndata: ");
+        out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+        // compact JSON never contains raw line breaks, so one data line is enough
+        out.write(JacksonJson.mapper().writeValueAsBytes(data));
+        out.write('\n');
+        out.write('\n');
+        out.flush();
+    }
+
+    public void heartbeat() throws IOException {
+        out.write(HEARTBEAT);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
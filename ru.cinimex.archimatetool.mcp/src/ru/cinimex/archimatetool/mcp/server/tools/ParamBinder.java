@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server.tools;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Argument binder compiled once per tool from its {@link ToolParam} list.
+ * Checks presence and JSON types of the declared parameters and hands the
+ * arguments to the invoker as a {@link ToolArgs} view over the request node,
+ * without converting them to maps first.
+ */
+public final class ParamBinder {
+
+    private final List<ToolParam> params;
+    private final Map<String, Object> defaults = new LinkedHashMap<>();
+
+    public ParamBinder(List<ToolParam> params) {
+        this.params = List.copyOf(params);
+        for (ToolParam tp : params) {
+            if (tp.getDefaultValue() != null) {
+                defaults.put(tp.getName(), tp.getDefaultValue());
+            }
+        }
+    }
+
+    /** Validate the arguments object; null or missing arguments count as empty. */
+    public ToolArgs bind(JsonNode args) {
+        if (args == null || args.isMissingNode() || args.isNull()) {
+            args = JsonNodeFactory.instance.objectNode();
+        } else if (!args.isObject()) {
+            throw new ToolParamException("", "arguments must be an object");
+        }
+        for (ToolParam tp : params) {
+            JsonNode value = args.get(tp.getName());
+            if (value == null || value.isNull()) {
+                if (tp.isRequired()) {
+                    throw new ToolParamException(tp.getName(), "missing required param '" + tp.getName() + "'");
+                }
+            } else if (!matches(tp.getType(), value)) {
+                throw ToolArgs.mismatch(tp.getName(), tp.getType());
+            }
+        }
+        return new ToolArgs(args, defaults, "");
+    }
+
+    static boolean matches(String type, JsonNode value) {
+        switch (type) {
+            case "string":
+                return value.isTextual();
+            case "integer":
+                return isWhole(value) && value.canConvertToLong();
+            case "number":
+                return value.isNumber();
+            case "boolean":
+                return value.isBoolean();
+            case "array":
+                return value.isArray();
+            case "object":
+                return value.isObject();
+            default:
+                return true;
+        }
+    }
+
+    /** An integral number, or a decimal without a fraction such as 10.0. */
+    static boolean isWhole(JsonNode v) {
+        if (v.isIntegralNumber()) return true;
+        if (!v.isFloatingPointNumber()) return false;
+        double d = v.doubleValue();
+        return !Double.isInfinite(d) && d == Math.rint(d);
+    }
+}
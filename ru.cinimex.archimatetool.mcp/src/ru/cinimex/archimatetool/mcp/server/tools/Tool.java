@@ -21,6 +21,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 /**
  * Declarative description of an MCP method (tool).
  */
@@ -29,12 +31,29 @@ public class Tool {
     private final String description;
     private final List<ToolParam> params;
     private final ToolInvoker invoker;
+    private final boolean readOnly;
+    private final ParamBinder binder;
 
     public Tool(String name, String description, List<ToolParam> params, ToolInvoker invoker) {
+        this(name, description, params, invoker, false);
+    }
+
+    /**
+     * @param readOnly true if the tool never modifies the model, so calls may run
+     *                 concurrently with other read-only calls
+     */
+    public Tool(String name, String description, List<ToolParam> params, ToolInvoker invoker, boolean readOnly) {
         this.name = name;
         this.description = description;
         this.params = params != null ? params : new ArrayList<>();
         this.invoker = invoker;
+        this.readOnly = readOnly;
+        this.binder = new ParamBinder(this.params);
+    }
+
+    /** Copy of this tool tagged as read-only. */
+    public Tool asReadOnly() {
+        return readOnly ? this : new Tool(name, description, params, invoker, true);
     }
 
     public String getName() {
@@ -53,6 +72,15 @@ public class Tool {
         return invoker;
     }
 
+    /** Validate the arguments object against the declared params. */
+    public ToolArgs bind(JsonNode args) {
+        return binder.bind(args);
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     public Map<String, Object> toMap() {
         Map<String, Object> m = new HashMap<>();
         m.put("name", name);
@@ -94,6 +122,7 @@ public class Tool {
         }
         schema.put("additionalProperties", Boolean.FALSE);
         m.put("inputSchema", schema);
+        m.put("annotations", Map.of("readOnlyHint", readOnly));
         // Minimal inline usage hint to help MCP agents that don't read external docs
         String exampleArgs = "{";
         for (int i = 0; i < params.size(); i++) {
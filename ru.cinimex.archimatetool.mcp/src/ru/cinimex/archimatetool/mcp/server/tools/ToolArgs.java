@@ -0,0 +1,177 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server.tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Typed read access to tool arguments straight from the JSON request.
+ * Absent or null values yield the declared default (or null); values of the
+ * wrong type fail with a {@link ToolParamException} naming their full path.
+ */
+public final class ToolArgs {
+
+    private final JsonNode node;
+    private final Map<String, Object> defaults;
+    private final String path;
+
+    ToolArgs(JsonNode node, Map<String, Object> defaults, String path) {
+        this.node = node;
+        this.defaults = defaults;
+        this.path = path;
+    }
+
+    /** The underlying arguments object. */
+    public JsonNode node() {
+        return node;
+    }
+
+    public boolean has(String name) {
+        return value(name) != null;
+    }
+
+    public String str(String name) {
+        JsonNode v = value(name);
+        if (v == null) return (String) defaults.get(name);
+        if (!v.isTextual()) throw mismatch(pathOf(name), "string");
+        return v.textValue();
+    }
+
+    /** Integer value; whole numbers written as decimals, e.g. 120.0, are accepted as well. */
+    public Integer integer(String name) {
+        JsonNode v = value(name);
+        if (v == null) {
+            Object d = defaults.get(name);
+            return d instanceof Number ? ((Number) d).intValue() : null;
+        }
+        if (!ParamBinder.isWhole(v) || !v.canConvertToInt()) throw mismatch(pathOf(name), "integer");
+        return v.intValue();
+    }
+
+    public Double number(String name) {
+        JsonNode v = value(name);
+        if (v == null) {
+            Object d = defaults.get(name);
+            return d instanceof Number ? ((Number) d).doubleValue() : null;
+        }
+        if (!v.isNumber()) throw mismatch(pathOf(name), "number");
+        return v.doubleValue();
+    }
+
+    public Boolean bool(String name) {
+        JsonNode v = value(name);
+        if (v == null) return (Boolean) defaults.get(name);
+        if (!v.isBoolean()) throw mismatch(pathOf(name), "boolean");
+        return v.booleanValue();
+    }
+
+    /** True only if the value (or its default) is true. */
+    public boolean flag(String name) {
+        return Boolean.TRUE.equals(bool(name));
+    }
+
+    /** Array of strings with at most {@code max} entries, or null if absent. */
+    public List<String> strings(String name, int max) {
+        JsonNode v = array(name, max);
+        if (v == null) return null;
+        List<String> out = new ArrayList<>(v.size());
+        for (int i = 0; i < v.size(); i++) {
+            JsonNode e = v.get(i);
+            if (!e.isTextual()) throw mismatch(pathOf(name) + "[" + i + "]", "string");
+            out.add(e.textValue());
+        }
+        return out;
+    }
+
+    /**
+     * Array of objects with at most {@code max} entries, or null if absent.
+     * Entries may also be JSON strings holding an object, as some clients send them.
+     */
+    public List<ToolArgs> items(String name, int max) {
+        JsonNode v = array(name, max);
+        if (v == null) return null;
+        List<ToolArgs> out = new ArrayList<>(v.size());
+        for (int i = 0; i < v.size(); i++) {
+            String itemPath = pathOf(name) + "[" + i + "]";
+            JsonNode e = v.get(i);
+            if (e.isTextual()) {
+                try {
+                    e = JacksonJson.mapper().readTree(e.textValue());
+                } catch (JsonProcessingException ex) {
+                    throw new ToolParamException(itemPath, "param '" + itemPath + "' is not valid JSON: " + ex.getOriginalMessage());
+                }
+            }
+            if (e == null || !e.isObject()) throw mismatch(itemPath, "object");
+            out.add(new ToolArgs(e, Collections.emptyMap(), itemPath));
+        }
+        return out;
+    }
+
+    /** Object whose scalar values are read as strings, or null if absent. */
+    public Map<String, String> stringMap(String name) {
+        JsonNode v = value(name);
+        if (v == null) return null;
+        if (!v.isObject()) throw mismatch(pathOf(name), "object");
+        Map<String, String> out = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = v.fields(); it.hasNext();) {
+            Map.Entry<String, JsonNode> f = it.next();
+            JsonNode fv = f.getValue();
+            if (fv.isContainerNode()) throw mismatch(pathOf(name) + "." + f.getKey(), "string");
+            out.put(f.getKey(), fv.isNull() ? null : fv.asText());
+        }
+        return out;
+    }
+
+    /** Free-form object converted to a map, or null if absent. */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> object(String name) {
+        JsonNode v = value(name);
+        if (v == null) return null;
+        if (!v.isObject()) throw mismatch(pathOf(name), "object");
+        return JacksonJson.mapper().convertValue(v, Map.class);
+    }
+
+    private JsonNode array(String name, int max) {
+        JsonNode v = value(name);
+        if (v == null) return null;
+        if (!v.isArray()) throw mismatch(pathOf(name), "array");
+        if (v.size() > max) throw new BadRequestException("too many items, max " + max);
+        return v;
+    }
+
+    private JsonNode value(String name) {
+        JsonNode v = node.get(name);
+        return v == null || v.isNull() ? null : v;
+    }
+
+    private String pathOf(String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+
+    static ToolParamException mismatch(String path, String type) {
+        return new ToolParamException(path, "param '" + path + "' must be " + type);
+    }
+}
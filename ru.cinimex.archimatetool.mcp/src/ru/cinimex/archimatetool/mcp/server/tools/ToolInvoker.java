@@ -15,12 +15,10 @@
  */
 package ru.cinimex.archimatetool.mcp.server.tools;
 
-import java.util.Map;
-
 /**
- * Functional interface to invoke a tool with parameters.
+ * Functional interface to invoke a tool with arguments bound by its {@link ParamBinder}.
  */
 @FunctionalInterface
 public interface ToolInvoker {
-    Object invoke(Map<String, Object> params) throws Exception;
+    Object invoke(ToolArgs params) throws Exception;
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server.tools;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+
+/**
+ * Invalid tool argument, carrying the path of the offending value
+ * (e.g. {@code items[2].x}).
+ */
+public class ToolParamException extends BadRequestException {
+    private final String path;
+
+    public ToolParamException(String path, String message) {
+        super(message);
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
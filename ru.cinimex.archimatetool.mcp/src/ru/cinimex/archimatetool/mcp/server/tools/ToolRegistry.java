@@ -15,20 +15,34 @@
  */
 package ru.cinimex.archimatetool.mcp.server.tools;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
 import ru.cinimex.archimatetool.mcp.core.elements.ElementsCore;
 import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+import ru.cinimex.archimatetool.mcp.core.errors.NotFoundException;
 import ru.cinimex.archimatetool.mcp.core.folders.FoldersCore;
 import ru.cinimex.archimatetool.mcp.core.model.ModelCore;
 import ru.cinimex.archimatetool.mcp.core.relations.RelationsCore;
@@ -36,15 +50,23 @@ import ru.cinimex.archimatetool.mcp.core.script.ScriptRequest;
 import ru.cinimex.archimatetool.mcp.core.script.ScriptResult;
 import ru.cinimex.archimatetool.mcp.core.script.ScriptingCore;
 import ru.cinimex.archimatetool.mcp.core.search.SearchCore;
+import ru.cinimex.archimatetool.mcp.core.tasks.Task;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskManager;
 import ru.cinimex.archimatetool.mcp.core.types.*;
+import ru.cinimex.archimatetool.mcp.core.views.ExportFiles;
+import ru.cinimex.archimatetool.mcp.core.views.ImageLinks;
+import ru.cinimex.archimatetool.mcp.core.views.ViewExporter;
 import ru.cinimex.archimatetool.mcp.core.views.ViewsCore;
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Registry of MCP tools and their metadata.
  */
 public class ToolRegistry {
     private static final Map<String, Tool> TOOLS = new LinkedHashMap<>();
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final ElementsCore elementsCore = new ElementsCore();
     private static final RelationsCore relationsCore = new RelationsCore();
     private static final ViewsCore viewsCore = new ViewsCore();
@@ -52,17 +74,21 @@ public class ToolRegistry {
     private static final SearchCore searchCore = new SearchCore();
     private static final ModelCore modelCore = new ModelCore();
     private static ScriptingCore scriptingCore = new ScriptingCore();
+    private static final Set<String> TASK_TOOLS = Set.of("start_task", "get_task", "cancel_task", "list_tasks");
+    private static final int MAX_TASK_WAIT_MS = 30_000;
+    private static final int MAX_EXPORT_VIEWS = 5000;
+    private static final List<String> IMAGE_RESPONSE_FORMATS = List.of("image", "link", "url", "base64");
 
     static {
         // status
-        register(new Tool(
+        registerReadOnly(new Tool(
             "status",
             "Service status",
             Collections.emptyList(),
             params -> Map.of("ok", Boolean.TRUE, "service", "Archi MCP")
         ));
         // list_script_engines
-        register(new Tool(
+        registerReadOnly(new Tool(
             "list_script_engines",
             "List available scripting engines",
             Collections.emptyList(),
@@ -84,24 +110,17 @@ public class ToolRegistry {
             Arrays.asList(
                 new ToolParam("engine", "string", false, "Script engine id (default: ajs)", null),
                 new ToolParam("code", "string", true, "Script source code", null),
-                new ToolParam("timeout_ms", "integer", false, "Timeout in milliseconds (max 60000)", null),
+                new ToolParam("timeout_ms", "integer", false, "Timeout in milliseconds (max 60000, longer when run as a task)", null),
                 new ToolParam("bindings", "object", false, "Variable bindings map", null),
                 new ToolParam("model_id", "string", false, "Target model id", null)
             ),
             params -> {
-                Object bindingsObj = params.get("bindings");
-                @SuppressWarnings("unchecked") Map<String, Object> bindings = null;
-                if (bindingsObj instanceof Map) {
-                    bindings = (Map<String, Object>) bindingsObj;
-                } else if (bindingsObj != null) {
-                    throw new BadRequestException("bindings must be an object");
-                }
                 ScriptResult result = scriptingCore.run(new ScriptRequest(
-                    (String) params.get("engine"),
-                    (String) params.get("code"),
-                    asInt(params.get("timeout_ms")),
-                    bindings,
-                    (String) params.get("model_id")
+                    params.str("engine"),
+                    params.str("code"),
+                    params.integer("timeout_ms"),
+                    params.object("bindings"),
+                    params.str("model_id")
                 ));
                 Map<String, Object> resp = new LinkedHashMap<>();
                 resp.put("ok", result.ok());
@@ -113,11 +132,11 @@ public class ToolRegistry {
             }
         ));
         // list_views
-        register(new Tool(
+        registerReadOnly(new Tool(
             "list_views",
             "List views",
-            Collections.emptyList(),
-            params -> viewsCore.listViews()
+            Arrays.asList(fieldsParam()),
+            params -> viewsCore.listViews(fields(params))
         ));
         // create_view
         register(new Tool(
@@ -129,20 +148,20 @@ public class ToolRegistry {
             ),
             params -> {
                 CreateViewCmd cmd = new CreateViewCmd(
-                    (String) params.get("type"),
-                    (String) params.get("name")
+                    params.str("type"),
+                    params.str("name")
                 );
                 return viewsCore.createView(cmd);
             }
         ));
         // get_view
-        register(new Tool(
+        registerVersioned(new Tool(
             "get_view",
             "Get view",
             Arrays.asList(
                 new ToolParam("view_id", "string", true, "View id", null)
             ),
-            params -> viewsCore.getView(new GetViewQuery((String) params.get("view_id")))
+            params -> viewsCore.getView(new GetViewQuery(params.str("view_id")))
         ));
         // delete_view
         register(new Tool(
@@ -152,21 +171,22 @@ public class ToolRegistry {
                 new ToolParam("view_id", "string", true, "View id", null)
             ),
             params -> {
-                viewsCore.deleteView(new DeleteViewCmd((String) params.get("view_id")));
+                viewsCore.deleteView(new DeleteViewCmd(params.str("view_id")));
                 return Map.of("deleted", Boolean.TRUE);
             }
         ));
         // get_view_content
-        register(new Tool(
+        registerVersioned(new Tool(
             "get_view_content",
             "Get view content",
             Arrays.asList(
-                new ToolParam("view_id", "string", true, "View id", null)
+                new ToolParam("view_id", "string", true, "View id", null),
+                fieldsParam()
             ),
-            params -> viewsCore.getViewContent(new GetViewContentQuery((String) params.get("view_id")))
+            params -> viewsCore.getViewContent(new GetViewContentQuery(params.str("view_id"), fields(params)))
         ));
         // get_view_image
-        register(new Tool(
+        registerReadOnly(new Tool(
             "get_view_image",
             "Get view image",
             Arrays.asList(
@@ -176,20 +196,32 @@ public class ToolRegistry {
                 new ToolParam("dpi", "integer", false, "DPI for png", null),
                 new ToolParam("bg", "string", false, "Background color", null),
                 new ToolParam("margin", "integer", false, "Margin in pixels", 0),
-                new ToolParam("response_format", "string", false, "base64 or url", "base64")
+                new ToolParam("response_format", "string", false,
+                    "base64 (data_base64 in the JSON text), image (MCP image content), link (resource link to the rendered bytes, valid for a few minutes) or url", "base64"),
+                new ToolParam("viewport", "string", false, "Render only the area \"x,y,width,height\" in diagram coordinates, png only", null),
+                new ToolParam("tile", "string", false, "Render only tile \"col,row\" of a grid over the view at the given scale, png only", null),
+                new ToolParam("tile_size", "integer", false, "Tile edge in pixels", ImageRegion.DEFAULT_TILE_SIZE),
+                new ToolParam("thumbnail", "boolean", false, "Render the whole view scaled down to max_pixels, png only", Boolean.FALSE),
+                new ToolParam("max_pixels", "integer", false, "Pixel budget of a thumbnail", ImageRegion.DEFAULT_THUMBNAIL_PIXELS)
             ),
             params -> {
-                Double scaleD = params.get("scale") instanceof Number ? ((Number) params.get("scale")).doubleValue() : null;
-                Integer marginI = params.get("margin") instanceof Number ? ((Number) params.get("margin")).intValue() : null;
+                Double scaleD = params.number("scale");
+                ImageRegion region = ImageRegion.of(params.str("viewport"), params.str("tile"),
+                    params.integer("tile_size"), params.flag("thumbnail"), params.integer("max_pixels"));
                 GetViewImageQuery q = new GetViewImageQuery(
-                    (String) params.get("view_id"),
-                    (String) params.get("format"),
+                    params.str("view_id"),
+                    params.str("format"),
                     scaleD == null ? null : scaleD.floatValue(),
-                    (Integer) params.get("dpi"),
-                    (String) params.get("bg"),
-                    marginI,
-                    (String) params.get("response_format")
+                    params.integer("dpi"),
+                    params.str("bg"),
+                    params.integer("margin"),
+                    params.str("response_format"),
+                    region
                 );
+                String responseFormat = q.responseFormat != null ? q.responseFormat : "base64";
+                if (!IMAGE_RESPONSE_FORMATS.contains(responseFormat)) {
+                    throw new BadRequestException("response_format must be one of " + IMAGE_RESPONSE_FORMATS);
+                }
                 ViewsCore.ImageData img = viewsCore.getViewImage(q);
                 
                 // Строим URL для прямого скачивания
@@ -206,6 +238,10 @@ public class ToolRegistry {
                 if (q.dpi != null) queryParams.add("dpi=" + q.dpi);
                 if (q.bg != null) queryParams.add("bg=" + q.bg);
                 if (q.margin != null) queryParams.add("margin=" + q.margin);
+                if (params.str("viewport") != null) queryParams.add("viewport=" + params.str("viewport").replace(" ", ""));
+                if (params.str("tile") != null) queryParams.add("tile=" + params.str("tile").replace(" ", ""));
+                if (region != null && region.getMode() == ImageRegion.Mode.TILE) queryParams.add("tileSize=" + params.integer("tile_size"));
+                if (params.flag("thumbnail")) queryParams.add("thumbnail=true&maxPixels=" + params.integer("max_pixels"));
                 
                 if (!queryParams.isEmpty()) {
                     urlBuilder.append("?").append(String.join("&", queryParams));
@@ -214,41 +250,85 @@ public class ToolRegistry {
                 String downloadUrl = urlBuilder.toString();
                 
                 // Выбираем формат ответа
-                if ("url".equals(q.responseFormat)) {
-                    return Map.of(
-                        "download_url", downloadUrl,
-                        "content_type", img.contentType,
-                        "length", img.data.length
-                    );
-                } else {
-                    // По умолчанию "base64"
-                    String b64 = Base64.getEncoder().encodeToString(img.data);
-                    return Map.of(
-                        "data_base64", b64,
-                        "content_type", img.contentType,
-                        "length", img.data.length,
-                        "download_url", downloadUrl
-                    );
+                Map<String, Object> out = new LinkedHashMap<>();
+                if ("base64".equals(responseFormat)) {
+                    out.put("data_base64", Base64.getEncoder().encodeToString(img.data));
+                }
+                out.put("content_type", img.contentType);
+                out.put("length", img.data.length);
+                out.put("download_url", downloadUrl);
+                if (img.region != null) out.put("region", img.region);
+                String mimeType = img.contentType.split(";")[0].trim();
+                if ("image".equals(responseFormat)) {
+                    return ToolResult.Media.image(img.data, mimeType, out);
                 }
+                if ("link".equals(responseFormat)) {
+                    // the link serves the bytes already rendered, the download URL would render again on a cache miss
+                    String link = "http://" + host + ":" + port + "/images/" + ImageLinks.get().issue(img);
+                    out.put("link", link);
+                    out.put("expires_in_seconds", ImageLinks.get().getTtlMs() / 1000);
+                    String name = q.viewId + ("image/svg+xml".equals(mimeType) ? ".svg" : ".png");
+                    return ToolResult.Media.link(link, name, mimeType, out);
+                }
+                return out;
             }
         ));
-        // get_elements
+        // export_views
         register(new Tool(
+            "export_views",
+            "Render views into a ZIP archive and return a short-lived download URL; run it with start_task to follow progress",
+            Arrays.asList(
+                new ToolParam("view_ids", "array", false, "View ids; all views of the model when neither ids nor folder are given", null),
+                new ToolParam("folder_id", "string", false, "Export the views of this folder and its subfolders", null),
+                new ToolParam("format", "string", false, "png or svg", "png"),
+                new ToolParam("scale", "number", false, "Scale factor", 1.0),
+                new ToolParam("dpi", "integer", false, "DPI for png", null),
+                new ToolParam("bg", "string", false, "Background color", null),
+                new ToolParam("margin", "integer", false, "Margin in pixels", 0)
+            ),
+            params -> {
+                Double scaleD = params.number("scale");
+                List<String> ids = params.strings("view_ids", MAX_EXPORT_VIEWS);
+                ExportViewsQuery q = new ExportViewsQuery(ids, params.str("folder_id"), params.str("format"),
+                    scaleD == null ? null : scaleD.floatValue(), params.integer("dpi"), params.str("bg"),
+                    params.integer("margin"));
+                ViewExporter.Job job = new ViewExporter().prepare(q);
+                // the archive lands in a directory the server owns and is fetched through a token
+                Path file = ExportFiles.get().create();
+                Map<String, Object> out;
+                try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file))) {
+                    out = job.writeTo(os);
+                } catch (IOException | RuntimeException ex) {
+                    ExportFiles.get().discard(file);
+                    throw ex;
+                }
+                String host = ru.cinimex.archimatetool.mcp.Config.resolveHost();
+                int port = ru.cinimex.archimatetool.mcp.Config.resolvePort();
+                out.put("download_url", "http://" + host + ":" + port + "/exports/" + ExportFiles.get().issue(file));
+                out.put("expires_in_seconds", ExportFiles.get().getTtlMs() / 1000);
+                return out;
+            }
+        ));
+        // get_elements
+        registerReadOnly(new Tool(
             "get_elements",
             "Get elements",
             Arrays.asList(
                 new ToolParam("ids", "array", true, "Element ids", null),
                 new ToolParam("include_relations", "boolean", false, "Include relations", Boolean.FALSE),
-                new ToolParam("include_elements", "boolean", false, "Include relation endpoints", Boolean.FALSE)
+                new ToolParam("include_elements", "boolean", false, "Include relation endpoints", Boolean.FALSE),
+                fieldsParam()
             ),
             params -> {
-                @SuppressWarnings("unchecked") List<String> ids = (List<String>) params.get("ids");
-                validateArraySize(ids, 50);
-                boolean incRel = Boolean.TRUE.equals(params.get("include_relations"));
-                boolean incEl = Boolean.TRUE.equals(params.get("include_elements"));
+                List<String> ids = params.strings("ids", 50);
+                boolean incRel = params.flag("include_relations");
+                boolean incEl = params.flag("include_elements");
+                Fields fields = fields(params);
                 List<Map<String, Object>> res = new ArrayList<>();
-                for (String id : ids) {
-                    res.add(elementsCore.getElement(new GetElementQuery(id, incRel, incEl)));
+                for (int i = 0; i < ids.size(); i++) {
+                    TaskContext.checkCancelled();
+                    res.add(elementsCore.getElement(new GetElementQuery(ids.get(i), incRel, incEl, fields)));
+                    TaskContext.progress(i + 1, (long) ids.size(), null);
                 }
                 return res;
             }
@@ -258,26 +338,23 @@ public class ToolRegistry {
             "create_elements",
             "Create elements",
             Arrays.asList(
-                new ToolParam("items", "array", true, "Items to create", null)
+                new ToolParam("items", "array", true, "Items to create", null),
+                new ToolParam("debug", "boolean", false, "Include UI-thread timing of the batch", Boolean.FALSE)
             ),
             params -> {
-                List<?> rawItems = (List<?>) params.get("items");
-                List<Map<String, Object>> items = parseItemsArray(rawItems);
-                validateArraySize(items, 50);
                 List<CreateElementItem> list = new ArrayList<>();
-                for (Map<String, Object> i : items) {
-                    @SuppressWarnings("unchecked") Map<String,String> props =
-                        (Map<String,String>) i.get("properties");
+                for (ToolArgs i : params.items("items", 50)) {
                     list.add(new CreateElementItem(
-                        (String) i.get("modelId"),
-                        (String) i.get("type"),
-                        (String) i.get("name"),
-                        (String) i.get("folderId"),
-                        props,
-                        (String) i.get("documentation")
+                        i.str("modelId"),
+                        i.str("type"),
+                        i.str("name"),
+                        i.str("folderId"),
+                        i.stringMap("properties"),
+                        i.str("documentation")
                     ));
                 }
-                return elementsCore.createElements(new CreateElementsCmd(list));
+                Map<String, Object> debug = params.flag("debug") ? new HashMap<>() : null;
+                return UiBatch.withDebug(elementsCore.createElements(new CreateElementsCmd(list), debug), debug);
             }
         ));
         // update_elements
@@ -285,26 +362,23 @@ public class ToolRegistry {
             "update_elements",
             "Update elements",
             Arrays.asList(
-                new ToolParam("items", "array", true, "Items to update", null)
+                new ToolParam("items", "array", true, "Items to update", null),
+                new ToolParam("debug", "boolean", false, "Include UI-thread timing of the batch", Boolean.FALSE)
             ),
             params -> {
-                List<?> rawItems = (List<?>) params.get("items");
-                List<Map<String, Object>> items = parseItemsArray(rawItems);
-                validateArraySize(items, 50);
                 List<UpdateElementItem> list = new ArrayList<>();
-                for (Map<String, Object> i : items) {
-                    @SuppressWarnings("unchecked") Map<String,String> props =
-                        (Map<String,String>) i.get("properties");
+                for (ToolArgs i : params.items("items", 50)) {
                     list.add(new UpdateElementItem(
-                        (String) i.get("id"),
-                        (String) i.get("name"),
-                        (String) i.get("type"),
-                        (String) i.get("folderId"),
-                        props,
-                        (String) i.get("documentation")
+                        i.str("id"),
+                        i.str("name"),
+                        i.str("type"),
+                        i.str("folderId"),
+                        i.stringMap("properties"),
+                        i.str("documentation")
                     ));
                 }
-                return elementsCore.updateElements(new UpdateElementsCmd(list));
+                Map<String, Object> debug = params.flag("debug") ? new HashMap<>() : null;
+                return UiBatch.withDebug(elementsCore.updateElements(new UpdateElementsCmd(list), debug), debug);
             }
         ));
         // delete_elements
@@ -315,8 +389,7 @@ public class ToolRegistry {
                 new ToolParam("ids", "array", true, "Element ids", null)
             ),
             params -> {
-                @SuppressWarnings("unchecked") List<String> ids = (List<String>) params.get("ids");
-                validateArraySize(ids, 50);
+                List<String> ids = params.strings("ids", 50);
                 List<DeleteElementItem> list = ids.stream()
                     .map(DeleteElementItem::new)
                     .collect(Collectors.toList());
@@ -324,18 +397,19 @@ public class ToolRegistry {
             }
         ));
         // get_relations
-        register(new Tool(
+        registerReadOnly(new Tool(
             "get_relations",
             "Get relations",
             Arrays.asList(
                 new ToolParam("ids", "array", true, "Relation ids", null)
             ),
             params -> {
-                @SuppressWarnings("unchecked") List<String> ids = (List<String>) params.get("ids");
-                validateArraySize(ids, 50);
+                List<String> ids = params.strings("ids", 50);
                 List<Map<String, Object>> res = new ArrayList<>();
-                for (String id : ids) {
-                    res.add(relationsCore.getRelation(new GetRelationQuery(id)));
+                for (int i = 0; i < ids.size(); i++) {
+                    TaskContext.checkCancelled();
+                    res.add(relationsCore.getRelation(new GetRelationQuery(ids.get(i))));
+                    TaskContext.progress(i + 1, (long) ids.size(), null);
                 }
                 return res;
             }
@@ -345,27 +419,24 @@ public class ToolRegistry {
             "create_relations",
             "Create relations",
             Arrays.asList(
-                new ToolParam("items", "array", true, "Items to create", null)
+                new ToolParam("items", "array", true, "Items to create", null),
+                new ToolParam("debug", "boolean", false, "Include UI-thread timing of the batch", Boolean.FALSE)
             ),
             params -> {
-                List<?> rawItems = (List<?>) params.get("items");
-                List<Map<String, Object>> items = parseItemsArray(rawItems);
-                validateArraySize(items, 50);
                 List<CreateRelationItem> list = new ArrayList<>();
-                for (Map<String, Object> i : items) {
-                    @SuppressWarnings("unchecked") Map<String,String> props =
-                        (Map<String,String>) i.get("properties");
+                for (ToolArgs i : params.items("items", 50)) {
                     list.add(new CreateRelationItem(
-                        (String) i.get("type"),
-                        (String) i.get("name"),
-                        (String) i.get("sourceId"),
-                        (String) i.get("targetId"),
-                        (String) i.get("folderId"),
-                        props,
-                        (String) i.get("documentation")
+                        i.str("type"),
+                        i.str("name"),
+                        i.str("sourceId"),
+                        i.str("targetId"),
+                        i.str("folderId"),
+                        i.stringMap("properties"),
+                        i.str("documentation")
                     ));
                 }
-                return relationsCore.createRelations(new CreateRelationsCmd(list));
+                Map<String, Object> debug = params.flag("debug") ? new HashMap<>() : null;
+                return UiBatch.withDebug(relationsCore.createRelations(new CreateRelationsCmd(list), debug), debug);
             }
         ));
         // update_relations
@@ -373,25 +444,22 @@ public class ToolRegistry {
             "update_relations",
             "Update relations",
             Arrays.asList(
-                new ToolParam("items", "array", true, "Items to update", null)
+                new ToolParam("items", "array", true, "Items to update", null),
+                new ToolParam("debug", "boolean", false, "Include UI-thread timing of the batch", Boolean.FALSE)
             ),
             params -> {
-                List<?> rawItems = (List<?>) params.get("items");
-                List<Map<String, Object>> items = parseItemsArray(rawItems);
-                validateArraySize(items, 50);
                 List<UpdateRelationItem> list = new ArrayList<>();
-                for (Map<String, Object> i : items) {
-                    @SuppressWarnings("unchecked") Map<String,String> props =
-                        (Map<String,String>) i.get("properties");
+                for (ToolArgs i : params.items("items", 50)) {
                     list.add(new UpdateRelationItem(
-                        (String) i.get("id"),
-                        (String) i.get("name"),
-                        (String) i.get("type"),
-                        props,
-                        (String) i.get("documentation")
+                        i.str("id"),
+                        i.str("name"),
+                        i.str("type"),
+                        i.stringMap("properties"),
+                        i.str("documentation")
                     ));
                 }
-                return relationsCore.updateRelations(new UpdateRelationsCmd(list));
+                Map<String, Object> debug = params.flag("debug") ? new HashMap<>() : null;
+                return UiBatch.withDebug(relationsCore.updateRelations(new UpdateRelationsCmd(list), debug), debug);
             }
         ));
         // delete_relations
@@ -402,8 +470,7 @@ public class ToolRegistry {
                 new ToolParam("ids", "array", true, "Relation ids", null)
             ),
             params -> {
-                @SuppressWarnings("unchecked") List<String> ids = (List<String>) params.get("ids");
-                validateArraySize(ids, 50);
+                List<String> ids = params.strings("ids", 50);
                 List<DeleteRelationItem> list = ids.stream()
                     .map(DeleteRelationItem::new)
                     .collect(Collectors.toList());
@@ -416,30 +483,23 @@ public class ToolRegistry {
             "Add elements to view",
             Arrays.asList(
                 new ToolParam("view_id", "string", true, "View id", null),
-                new ToolParam("items", "array", true, "Items to add", null)
+                new ToolParam("items", "array", true, "Items to add", null),
+                new ToolParam("debug", "boolean", false, "Include UI-thread timing of the batch", Boolean.FALSE)
             ),
             params -> {
-                String viewId = (String) params.get("view_id");
-                List<?> rawItems = (List<?>) params.get("items");
-                List<Map<String, Object>> items = parseItemsArray(rawItems);
-                validateArraySize(items, 50);
+                String viewId = params.str("view_id");
                 List<AddElementToViewItem> list = new ArrayList<>();
-                for (Map<String, Object> i : items) {
-                    Integer x = asInt(i.get("x"));
-                    Integer y = asInt(i.get("y"));
-                    Integer w = asInt(i.get("w"));
-                    Integer h = asInt(i.get("h"));
-                    @SuppressWarnings("unchecked") Map<String,String> style =
-                        (Map<String,String>) i.get("style");
+                for (ToolArgs i : params.items("items", 50)) {
                     list.add(new AddElementToViewItem(
-                        (String) i.get("elementId"),
-                        (String) i.get("parentObjectId"),
-                        x, y, w, h,
-                        style
+                        i.str("elementId"),
+                        i.str("parentObjectId"),
+                        i.integer("x"), i.integer("y"), i.integer("w"), i.integer("h"),
+                        i.stringMap("style")
                     ));
                 }
                 AddElementsToViewCmd cmd = new AddElementsToViewCmd(viewId, list);
-                return viewsCore.addElements(cmd);
+                Map<String, Object> debug = params.flag("debug") ? new HashMap<>() : null;
+                return UiBatch.withDebug(viewsCore.addElements(cmd, debug), debug);
             }
         ));
         // add_relations_to_view
@@ -451,18 +511,15 @@ public class ToolRegistry {
                 new ToolParam("items", "array", true, "Items to add", null)
             ),
             params -> {
-                String viewId = (String) params.get("view_id");
-                List<?> rawItems = (List<?>) params.get("items");
-                List<Map<String, Object>> items = parseItemsArray(rawItems);
-                validateArraySize(items, 50);
+                String viewId = params.str("view_id");
                 List<AddRelationToViewItem> list = new ArrayList<>();
-                for (Map<String, Object> i : items) {
+                for (ToolArgs i : params.items("items", 50)) {
                     list.add(new AddRelationToViewItem(
-                        (String) i.get("relationId"),
-                        (String) i.get("sourceObjectId"),
-                        (String) i.get("targetObjectId"),
-                        (String) i.get("policy"),
-                        (Boolean) i.get("suppressWhenNested")
+                        i.str("relationId"),
+                        i.str("sourceObjectId"),
+                        i.str("targetObjectId"),
+                        i.str("policy"),
+                        i.bool("suppressWhenNested")
                     ));
                 }
                 AddRelationsToViewCmd cmd = new AddRelationsToViewCmd(viewId, list);
@@ -475,25 +532,24 @@ public class ToolRegistry {
             "Update view objects bounds",
             Arrays.asList(
                 new ToolParam("view_id", "string", true, "View id", null),
-                new ToolParam("items", "array", true, "Items to update", null)
+                new ToolParam("items", "array", true, "Items to update", null),
+                new ToolParam("debug", "boolean", false, "Include UI-thread timing of the batch", Boolean.FALSE)
             ),
             params -> {
-                String viewId = (String) params.get("view_id");
-                List<?> rawItems = (List<?>) params.get("items");
-                List<Map<String, Object>> items = parseItemsArray(rawItems);
-                validateArraySize(items, 50);
+                String viewId = params.str("view_id");
                 List<UpdateViewObjectBoundsItem> list = new ArrayList<>();
-                for (Map<String, Object> i : items) {
+                for (ToolArgs i : params.items("items", 50)) {
                     list.add(new UpdateViewObjectBoundsItem(
-                        (String) i.get("objectId"),
-                        asInt(i.get("x")),
-                        asInt(i.get("y")),
-                        asInt(i.get("w")),
-                        asInt(i.get("h"))
+                        i.str("objectId"),
+                        i.integer("x"),
+                        i.integer("y"),
+                        i.integer("w"),
+                        i.integer("h")
                     ));
                 }
                 UpdateViewObjectsBoundsCmd cmd = new UpdateViewObjectsBoundsCmd(viewId, list);
-                return viewsCore.updateBounds(cmd);
+                Map<String, Object> debug = params.flag("debug") ? new HashMap<>() : null;
+                return UiBatch.withDebug(viewsCore.updateBounds(cmd, debug), debug);
             }
         ));
         // move_objects_to_container
@@ -505,20 +561,17 @@ public class ToolRegistry {
                 new ToolParam("items", "array", true, "Items to move", null)
             ),
             params -> {
-                String viewId = (String) params.get("view_id");
-                List<?> rawItems = (List<?>) params.get("items");
-                List<Map<String, Object>> items = parseItemsArray(rawItems);
-                validateArraySize(items, 50);
+                String viewId = params.str("view_id");
                 List<MoveViewObjectItem> list = new ArrayList<>();
-                for (Map<String, Object> i : items) {
+                for (ToolArgs i : params.items("items", 50)) {
                     list.add(new MoveViewObjectItem(
-                        (String) i.get("objectId"),
-                        (String) i.get("parentObjectId"),
-                        asInt(i.get("x")),
-                        asInt(i.get("y")),
-                        asInt(i.get("w")),
-                        asInt(i.get("h")),
-                        (Boolean) i.get("keepExistingConnection")
+                        i.str("objectId"),
+                        i.str("parentObjectId"),
+                        i.integer("x"),
+                        i.integer("y"),
+                        i.integer("w"),
+                        i.integer("h"),
+                        i.bool("keepExistingConnection")
                     ));
                 }
                 MoveViewObjectsCmd cmd = new MoveViewObjectsCmd(viewId, list);
@@ -534,10 +587,8 @@ public class ToolRegistry {
                 new ToolParam("object_ids", "array", true, "Object ids", null)
             ),
             params -> {
-                String viewId = (String) params.get("view_id");
-                @SuppressWarnings("unchecked") List<String> ids =
-                    (List<String>) params.get("object_ids");
-                validateArraySize(ids, 50);
+                String viewId = params.str("view_id");
+                List<String> ids = params.strings("object_ids", 50);
                 List<DeleteViewObjectItem> list = ids.stream()
                     .map(DeleteViewObjectItem::new)
                     .collect(Collectors.toList());
@@ -555,8 +606,18 @@ public class ToolRegistry {
             ),
             params -> modelCore.saveModel()
         ));
+        // get_changes
+        registerReadOnly(new Tool(
+            "get_changes",
+            "Changes of the active model since a version; resync=true means re-read the model",
+            Arrays.asList(
+                new ToolParam("since_version", "integer", false, "Last version seen; 0 on first call", 0),
+                new ToolParam("epoch", "string", false, "Epoch returned with that version", null)
+            ),
+            params -> modelCore.getChanges(params.integer("since_version"), params.str("epoch"))
+        ));
         // search
-        register(new Tool(
+        registerVersioned(new Tool(
             "search",
             "Search elements, relations, views",
             Arrays.asList(
@@ -570,29 +631,35 @@ public class ToolRegistry {
                 new ToolParam("include_props", "boolean", false, "Search in properties", Boolean.FALSE),
                 new ToolParam("limit", "integer", false, "Limit results", null),
                 new ToolParam("offset", "integer", false, "Offset results", null),
+                new ToolParam("total", "boolean", false, "Compute exact total; false stops after the requested page", Boolean.TRUE),
+                new ToolParam("count_only", "boolean", false, "Return per-kind counts without items", Boolean.FALSE),
                 new ToolParam("debug", "boolean", false, "Include debug info", Boolean.FALSE),
-                new ToolParam("log", "boolean", false, "Log search query", Boolean.FALSE)
+                new ToolParam("log", "boolean", false, "Log search query", Boolean.FALSE),
+                fieldsParam()
             ),
             params -> {
                 SearchQuery q = new SearchQuery();
-                q.q = (String) params.get("q");
-                q.kind = (String) params.get("kind");
-                q.elementType = (String) params.get("element_type");
-                q.relationType = (String) params.get("relation_type");
-                q.modelId = (String) params.get("model_id");
-                q.includeDocs = Boolean.TRUE.equals(params.get("include_docs"));
-                q.includeProps = Boolean.TRUE.equals(params.get("include_props"));
-                if (params.get("limit") instanceof Number) {
-                    q.limit = ((Number) params.get("limit")).intValue();
+                q.q = params.str("q");
+                q.kind = params.str("kind");
+                q.elementType = params.str("element_type");
+                q.relationType = params.str("relation_type");
+                q.modelId = params.str("model_id");
+                q.includeDocs = params.flag("include_docs");
+                q.includeProps = params.flag("include_props");
+                if (params.has("limit")) {
+                    q.limit = params.integer("limit");
                 }
-                if (params.get("offset") instanceof Number) {
-                    q.offset = ((Number) params.get("offset")).intValue();
+                if (params.has("offset")) {
+                    q.offset = params.integer("offset");
                 }
-                q.debug = Boolean.TRUE.equals(params.get("debug"));
-                if (Boolean.TRUE.equals(params.get("log"))) {
+                q.debug = params.flag("debug");
+                q.total = !Boolean.FALSE.equals(params.bool("total"));
+                q.countOnly = params.flag("count_only");
+                q.fields = fields(params);
+                if (params.flag("log")) {
                     q.logTarget = "stdout";
                 }
-                @SuppressWarnings("unchecked") List<String> props = (List<String>) params.get("property");
+                List<String> props = params.strings("property", Integer.MAX_VALUE);
                 if (props != null) {
                     for (String v : props) {
                         int eq = v.indexOf('=');
@@ -607,7 +674,7 @@ public class ToolRegistry {
             }
         ));
         // types
-        register(new Tool(
+        registerReadOnly(new Tool(
             "types",
             "List model types",
             Collections.emptyList(),
@@ -629,7 +696,7 @@ public class ToolRegistry {
             }
         ));
         // folders
-        register(new Tool(
+        registerVersioned(new Tool(
             "folders",
             "List top-level folders",
             Collections.emptyList(),
@@ -642,14 +709,170 @@ public class ToolRegistry {
             Arrays.asList(
                 new ToolParam("path", "string", true, "Slash-delimited folder path", null)
             ),
-            params -> foldersCore.ensureFolder(new EnsureFolderCmd((String) params.get("path")))
+            params -> foldersCore.ensureFolder(new EnsureFolderCmd(params.str("path")))
         ));
+        // start_task
+        register(new Tool(
+            "start_task",
+            "Run another tool in the background and return a task id",
+            Arrays.asList(
+                new ToolParam("name", "string", true, "Tool name", null),
+                new ToolParam("arguments", "object", false, "Tool arguments", null)
+            ),
+            params -> startTask(params.str("name"), params.node().get("arguments"), null, null).toMap(false)
+        ));
+        // get_task
+        registerReadOnly(new Tool(
+            "get_task",
+            "Get state, progress and result of a task",
+            Arrays.asList(
+                new ToolParam("task_id", "string", true, "Task id", null),
+                new ToolParam("wait_ms", "integer", false, "Wait up to this long for the task to finish (max 30000)", 0)
+            ),
+            params -> {
+                int waitMs = params.integer("wait_ms");
+                if (waitMs < 0 || waitMs > MAX_TASK_WAIT_MS) {
+                    throw new BadRequestException("wait_ms must be between 0 and " + MAX_TASK_WAIT_MS);
+                }
+                return taskResult(TaskManager.get().await(params.str("task_id"), waitMs));
+            }
+        ));
+        // cancel_task
+        register(new Tool(
+            "cancel_task",
+            "Cancel a running task",
+            Arrays.asList(
+                new ToolParam("task_id", "string", true, "Task id", null)
+            ),
+            params -> TaskManager.get().cancel(params.str("task_id"), "cancelled by client").toMap(false)
+        ));
+        // list_tasks
+        registerReadOnly(new Tool(
+            "list_tasks",
+            "List known tasks",
+            Collections.emptyList(),
+            params -> {
+                List<Map<String, Object>> res = new ArrayList<>();
+                for (Task t : TaskManager.get().list()) {
+                    res.add(t.toMap(false));
+                }
+                return res;
+            }
+        ));
+    }
+
+    /** Whether a tool can run as a task; the task tools themselves always run inline. */
+    public static boolean canRunAsTask(String name) {
+        Tool tool = TOOLS.get(name);
+        return tool != null && tool.getInvoker() != null && !TASK_TOOLS.contains(name);
+    }
+
+    /**
+     * Bind the arguments and run the tool as a background task. Binding happens
+     * up front so invalid arguments fail the call instead of the task.
+     */
+    public static Task startTask(String name, JsonNode arguments, Object requestId, Object progressToken) {
+        return startTask(name, arguments, null, requestId, progressToken, null);
+    }
+
+    /**
+     * Same as {@link #startTask(String, JsonNode, Object, Object)} for the MCP session
+     * {@code owner}, with a listener for this task only.
+     */
+    public static Task startTask(String name, JsonNode arguments, String owner, Object requestId, Object progressToken,
+            Consumer<Task> listener) {
+        Tool tool = TOOLS.get(name);
+        if (tool == null || tool.getInvoker() == null) {
+            throw new NotFoundException("tool not found: " + name);
+        }
+        if (TASK_TOOLS.contains(name)) {
+            throw new BadRequestException("tool cannot run as a task: " + name);
+        }
+        ToolArgs args = tool.bind(arguments);
+        return TaskManager.get().submit(name, owner, requestId, progressToken, listener, () -> tool.getInvoker().invoke(args));
+    }
+
+    /**
+     * Snapshot of a task for get_task. An image or link result stays a content
+     * block; the task snapshot carries only its description.
+     */
+    private static Object taskResult(Task task) {
+        Map<String, Object> m = task.toMap(true);
+        if (!(m.get("result") instanceof ToolResult.Media)) return m;
+        ToolResult.Media media = (ToolResult.Media) m.get("result");
+        m.put("result", media.meta);
+        return media.withMeta(m);
+    }
+
+    private static ToolParam fieldsParam() {
+        return new ToolParam("fields", "array", false,
+            "Only these properties, e.g. [\"id\",\"name\"]; ids are always included", null);
+    }
+
+    private static Fields fields(ToolArgs params) {
+        return Fields.of(params.strings("fields", Fields.KNOWN.size()));
     }
 
     private static void register(Tool tool) {
         TOOLS.put(tool.getName(), tool);
     }
 
+    private static void registerReadOnly(Tool tool) {
+        register(tool.asReadOnly());
+    }
+
+    /** Register a read-only tool whose result only depends on the active model and its arguments. */
+    private static void registerVersioned(Tool tool) {
+        registerReadOnly(versioned(tool, ChangeTrackers::activeVersionTag));
+    }
+
+    /**
+     * Add {@code if_version} to a tool. With it the result is wrapped as
+     * {notModified, version, result}, and a call repeating the current version
+     * skips building it. The version covers the model version and the other
+     * arguments, so a version reused with other arguments never matches.
+     */
+    public static Tool versioned(Tool tool, Supplier<String> modelVersion) {
+        List<ToolParam> params = new ArrayList<>(tool.getParams());
+        params.add(new ToolParam("if_version", "string", false,
+            "Version from an earlier call with the same arguments (\"\" on the first); returns notModified while the model is unchanged", null));
+        ToolInvoker invoker = tool.getInvoker();
+        return new Tool(tool.getName(), tool.getDescription(), params, args -> {
+            String ifVersion = args.str("if_version");
+            if (ifVersion == null) return invoker.invoke(args);
+            String model = modelVersion.get();
+            if (model == null) return invoker.invoke(args);
+            String version = model + '.' + argumentsHash(tool.getName(), args);
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("notModified", version.equals(ifVersion));
+            out.put("version", version);
+            if (!version.equals(ifVersion)) out.put("result", invoker.invoke(args));
+            return out;
+        }, tool.isReadOnly());
+    }
+
+    /** Short hash of the tool name and its arguments other than if_version, in key order. */
+    private static String argumentsHash(String name, ToolArgs args) {
+        try {
+            Map<String, Object> key = new TreeMap<>();
+            JsonNode node = args.node();
+            for (Iterator<String> it = node.fieldNames(); it.hasNext();) {
+                String field = it.next();
+                if (!"if_version".equals(field)) key.put(field, node.get(field));
+            }
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(name.getBytes(StandardCharsets.UTF_8));
+            byte[] digest = md.digest(JacksonJson.writeBytes(key));
+            StringBuilder sb = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                sb.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public static Tool get(String name) {
         return TOOLS.get(name);
     }
@@ -665,40 +888,5 @@ public class ToolRegistry {
         }
         return out;
     }
-
-    /**
-     * Parse JSON strings in items array to Map objects.
-     * Handles both String JSON items and already parsed Map items.
-     */
-    @SuppressWarnings("unchecked")
-    private static List<Map<String, Object>> parseItemsArray(List<?> items) {
-        if (items == null) return null;
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Object item : items) {
-            if (item instanceof String) {
-                try {
-                    Map<String, Object> parsed = objectMapper.readValue((String) item, 
-                        new TypeReference<Map<String, Object>>() {});
-                    result.add(parsed);
-                } catch (Exception e) {
-                    throw new BadRequestException("Invalid JSON in items array: " + e.getMessage());
-                }
-            } else if (item instanceof Map) {
-                result.add((Map<String, Object>) item);
-            } else {
-                throw new BadRequestException("Items must be JSON strings or objects");
-            }
-        }
-        return result;
-    }
-
-    private static void validateArraySize(List<?> list, int max) {
-        if (list == null) throw new BadRequestException("array required");
-        if (list.size() > max) throw new BadRequestException("too many items, max " + max);
-    }
-
-    private static Integer asInt(Object o) {
-        return o instanceof Number ? ((Number) o).intValue() : null;
-    }
 }
 
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.server.tools;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.cinimex.archimatetool.mcp.Config;
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+/**
+ * Wraps a tool result into the MCP {@code tools/call} result shape.
+ * <p>
+ * The result DTOs are serialized exactly once, into a writer that produces the
+ * quoted and escaped {@code text} literal on the fly (and the plain JSON when
+ * {@code structuredContent} is wanted). Both are embedded as raw values, so the
+ * response writer copies them verbatim instead of escaping a JSON string again.
+ * The format is chosen by {@link Config#resolveToolResultFormat()}:
+ * <ul>
+ * <li>{@code text}: JSON only in {@code content[0].text} (default)</li>
+ * <li>{@code both}: object results also in {@code structuredContent}</li>
+ * <li>{@code structured}: object results only in {@code structuredContent};
+ * the text block carries a short note</li>
+ * </ul>
+ * Non-object results (lists, scalars) are always returned as text, since
+ * {@code structuredContent} must be an object. A {@link Media} result adds an
+ * {@code image} or {@code resource_link} block in front of the text block that
+ * describes it.
+ */
+public final class ToolResult {
+
+    public static final String TEXT = "text";
+    public static final String BOTH = "both";
+    public static final String STRUCTURED = "structured";
+
+    private ToolResult() {}
+
+    /**
+     * Image returned as binary content. The bytes are kept as they are and
+     * written as base64 by the response generator, without an intermediate
+     * string; with a URI only a link to them is sent.
+     */
+    public static final class Media {
+        public final byte[] data;
+        public final String uri;
+        public final String name;
+        public final String mimeType;
+        /** Described in the text block, e.g. size and download URL. */
+        public final Object meta;
+
+        private Media(byte[] data, String uri, String name, String mimeType, Object meta) {
+            this.data = data;
+            this.uri = uri;
+            this.name = name;
+            this.mimeType = mimeType;
+            this.meta = meta;
+        }
+
+        public static Media image(byte[] data, String mimeType, Object meta) {
+            return new Media(data, null, null, mimeType, meta);
+        }
+
+        public static Media link(String uri, String name, String mimeType, Object meta) {
+            return new Media(null, uri, name, mimeType, meta);
+        }
+
+        /** The same image or link, described by other data. */
+        public Media withMeta(Object meta) {
+            return new Media(data, uri, name, mimeType, meta);
+        }
+
+        Map<String, Object> toContent() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            if (uri != null) {
+                m.put("type", "resource_link");
+                m.put("uri", uri);
+                m.put("name", name);
+            } else {
+                m.put("type", "image");
+                m.put("data", data);
+            }
+            m.put("mimeType", mimeType);
+            return m;
+        }
+    }
+
+    public static Map<String, Object> wrap(Object callResult) throws IOException {
+        return wrap(callResult, Config.resolveToolResultFormat());
+    }
+
+    public static Map<String, Object> wrap(Object callResult, String format) throws IOException {
+        if (callResult instanceof Media) {
+            Media media = (Media) callResult;
+            Map<String, Object> result = wrap(media.meta, format);
+            List<Object> content = new ArrayList<>();
+            content.add(media.toContent());
+            content.addAll((List<?>) result.get("content"));
+            result.put("content", content);
+            return result;
+        }
+        boolean wantStructured = !TEXT.equals(format) && !(callResult instanceof Iterable)
+                && (callResult == null || !callResult.getClass().isArray());
+        EscapingWriter out = new EscapingWriter(wantStructured);
+        JacksonJson.mapper().writeValue(out, callResult);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        String json = wantStructured ? out.plain.toString() : null;
+        boolean structured = json != null && json.startsWith("{");
+        Object text;
+        if (structured && STRUCTURED.equals(format)) {
+            text = "Result is in structuredContent (" + json.length() + " chars of JSON)";
+        } else {
+            text = new RawValue(out.literal());
+        }
+        result.put("content", List.of(Map.of("type", "text", "text", text)));
+        if (structured) {
+            result.put("structuredContent", new RawValue(json));
+        }
+        return result;
+    }
+
+    /** Collects JSON as an escaped string literal, optionally keeping the plain JSON too. */
+    private static final class EscapingWriter extends Writer {
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final StringBuilder escaped = new StringBuilder(256).append('"');
+        private final StringBuilder plain;
+
+        EscapingWriter(boolean keepPlain) {
+            this.plain = keepPlain ? new StringBuilder(256) : null;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            if (plain != null) plain.append(cbuf, off, len);
+            for (int i = off, end = off + len; i < end; i++) {
+                char c = cbuf[i];
+                switch (c) {
+                    case '"': escaped.append("\\\""); break;
+                    case '\\': escaped.append("\\\\"); break;
+                    case '\n': escaped.append("\\n"); break;
+                    case '\r': escaped.append("\\r"); break;
+                    case '\t': escaped.append("\\t"); break;
+                    case '\b': escaped.append("\\b"); break;
+                    case '\f': escaped.append("\\f"); break;
+                    default:
+                        if (c < 0x20) {
+                            escaped.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                        } else {
+                            escaped.append(c);
+                        }
+                }
+            }
+        }
+
+        String literal() {
+            return escaped.append('"').toString();
+        }
+
+        @Override
+        public void flush() throws IOException {}
+
+        @Override
+        public void close() throws IOException {}
+    }
+}
@@ -24,42 +24,54 @@ import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 
+import ru.cinimex.archimatetool.mcp.index.ModelIndexes;
 import com.archimatetool.editor.model.IEditorModelManager;
 import com.archimatetool.model.IArchimateModel;
-import com.archimatetool.model.util.ArchimateModelUtils;
 
 public class ActiveModelService implements IActiveModelService {
 
     @Override
     public IArchimateModel getActiveModel() {
+        List<IArchimateModel> models = IEditorModelManager.INSTANCE.getModels();
+        ActiveModelTracker tracker = ActiveModelTracker.get();
+        if (tracker.ensureInstalled()) {
+            IArchimateModel tracked = tracker.getActiveModel();
+            // the listener may not have seen a model being closed yet
+            if (tracked != null && models.contains(tracked)) return tracked;
+        } else if (PlatformUI.isWorkbenchRunning()) {
+            // tracker is being installed by another thread
+            IArchimateModel active = lookupOnUiThread();
+            if (active != null) return active;
+        }
+        return models.isEmpty() ? null : models.get(0);
+    }
+
+    private IArchimateModel lookupOnUiThread() {
         final IArchimateModel[] active = new IArchimateModel[1];
-        if (PlatformUI.isWorkbenchRunning()) {
-            Display.getDefault().syncExec(new Runnable() {
-                public void run() {
-                    IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
-                    if (window != null) {
-                        IWorkbenchPage page = window.getActivePage();
-                        if (page != null) {
-                            IWorkbenchPart part = page.getActivePart();
-                            if (part != null) {
-                                Object adapted = part.getAdapter(IArchimateModel.class);
-                                if (adapted instanceof IArchimateModel) {
-                                    active[0] = (IArchimateModel) adapted;
-                                }
+        Display.getDefault().syncExec(new Runnable() {
+            public void run() {
+                IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+                if (window != null) {
+                    IWorkbenchPage page = window.getActivePage();
+                    if (page != null) {
+                        IWorkbenchPart part = page.getActivePart();
+                        if (part != null) {
+                            Object adapted = part.getAdapter(IArchimateModel.class);
+                            if (adapted instanceof IArchimateModel) {
+                                active[0] = (IArchimateModel) adapted;
                             }
                         }
                     }
                 }
-            });
-            if (active[0] != null) return active[0];
-        }
-        List<IArchimateModel> models = IEditorModelManager.INSTANCE.getModels();
-        return models.isEmpty() ? null : models.get(0);
+            }
+        });
+        return active[0];
     }
 
     @Override
     public Object findById(IArchimateModel model, String id) {
-        return ArchimateModelUtils.getObjectByID(model, id);
+        if (model == null) return null;
+        return ModelIndexes.of(model).get(id);
     }
 
     @Override
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.service;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.ui.IPartListener;
+import org.eclipse.ui.ISelectionListener;
+import org.eclipse.ui.IWindowListener;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+
+import ru.cinimex.archimatetool.mcp.UiExec;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFeed;
+import ru.cinimex.archimatetool.mcp.changes.ChangeTrackers;
+import ru.cinimex.archimatetool.mcp.index.ModelIndexes;
+import com.archimatetool.editor.model.IEditorModelManager;
+import com.archimatetool.model.IArchimateModel;
+
+/**
+ * Tracks the model of the active workbench part from UI events into a volatile
+ * field, so HTTP threads never wait for the UI thread to find the active model.
+ */
+public final class ActiveModelTracker implements IPartListener, ISelectionListener, IWindowListener, PropertyChangeListener {
+
+    private static final ActiveModelTracker INSTANCE = new ActiveModelTracker();
+
+    private volatile IArchimateModel active;
+    private volatile boolean installed;
+    private final AtomicBoolean installing = new AtomicBoolean();
+    private final AtomicLong changes = new AtomicLong();
+
+    private ActiveModelTracker() {}
+
+    public static ActiveModelTracker get() {
+        return INSTANCE;
+    }
+
+    public boolean isInstalled() {
+        return installed;
+    }
+
+    /** Last model seen in an active part, or null. */
+    public IArchimateModel getActiveModel() {
+        return active;
+    }
+
+    /** Number of times the tracked model changed. */
+    public long getChangeCount() {
+        return changes.get();
+    }
+
+    /**
+     * Register the listeners once. Returns false while the workbench is not
+     * running or another thread is still installing.
+     */
+    public boolean ensureInstalled() {
+        if (installed) return true;
+        if (!PlatformUI.isWorkbenchRunning() || !installing.compareAndSet(false, true)) return false;
+        try {
+            UiExec.sync(() -> {
+                IWorkbench wb = PlatformUI.getWorkbench();
+                wb.addWindowListener(this);
+                for (IWorkbenchWindow w : wb.getWorkbenchWindows()) {
+                    hook(w);
+                }
+                IEditorModelManager.INSTANCE.addPropertyChangeListener(this);
+                refresh(wb.getActiveWorkbenchWindow());
+            });
+            installed = true;
+        } finally {
+            installing.set(false);
+        }
+        return installed;
+    }
+
+    /** Remove the listeners, e.g. on plugin shutdown. */
+    public void uninstall() {
+        if (!installed) return;
+        installed = false;
+        active = null;
+        try {
+            UiExec.sync(() -> {
+                IWorkbench wb = PlatformUI.getWorkbench();
+                wb.removeWindowListener(this);
+                for (IWorkbenchWindow w : wb.getWorkbenchWindows()) {
+                    unhook(w);
+                }
+                IEditorModelManager.INSTANCE.removePropertyChangeListener(this);
+            });
+        } catch (Exception ignore) {
+            // workbench already gone
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new HashMap<>();
+        IArchimateModel current = active;
+        m.put("tracked", installed);
+        m.put("modelId", current != null ? current.getId() : null);
+        m.put("changes", changes.get());
+        return m;
+    }
+
+    private void hook(IWorkbenchWindow w) {
+        w.getPartService().addPartListener(this);
+        w.getSelectionService().addPostSelectionListener(this);
+    }
+
+    private void unhook(IWorkbenchWindow w) {
+        w.getPartService().removePartListener(this);
+        w.getSelectionService().removePostSelectionListener(this);
+    }
+
+    private void refresh(IWorkbenchWindow window) {
+        if (window == null) return;
+        IWorkbenchPage page = window.getActivePage();
+        if (page != null) track(page.getActivePart());
+    }
+
+    private void track(IWorkbenchPart part) {
+        if (part == null) return;
+        Object adapted = part.getAdapter(IArchimateModel.class);
+        if (adapted instanceof IArchimateModel) setActive((IArchimateModel) adapted);
+    }
+
+    private void setActive(IArchimateModel model) {
+        if (model != active) {
+            active = model;
+            changes.incrementAndGet();
+            // subscribers follow the active model, so start tracking the new one
+            if (model != null && ChangeFeed.get().hasSubscribers()) ChangeTrackers.of(model);
+        }
+    }
+
+    @Override
+    public void partActivated(IWorkbenchPart part) {
+        track(part);
+    }
+
+    @Override
+    public void selectionChanged(IWorkbenchPart part, ISelection selection) {
+        // the model tree adapts to the model of its current selection
+        track(part);
+    }
+
+    @Override
+    public void partBroughtToTop(IWorkbenchPart part) {}
+
+    @Override
+    public void partClosed(IWorkbenchPart part) {}
+
+    @Override
+    public void partDeactivated(IWorkbenchPart part) {}
+
+    @Override
+    public void partOpened(IWorkbenchPart part) {}
+
+    @Override
+    public void windowOpened(IWorkbenchWindow window) {
+        hook(window);
+    }
+
+    @Override
+    public void windowClosed(IWorkbenchWindow window) {
+        unhook(window);
+    }
+
+    @Override
+    public void windowActivated(IWorkbenchWindow window) {
+        refresh(window);
+    }
+
+    @Override
+    public void windowDeactivated(IWorkbenchWindow window) {}
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        if (IEditorModelManager.PROPERTY_MODEL_REMOVED.equals(evt.getPropertyName())) {
+            if (evt.getNewValue() instanceof IArchimateModel) {
+                // a closed model no longer needs its index or change journal
+                IArchimateModel closed = (IArchimateModel) evt.getNewValue();
+                ModelIndexes.dispose(closed);
+                ChangeTrackers.dispose(closed);
+            }
+            if (evt.getNewValue() == active) {
+                setActive(null);
+                refresh(PlatformUI.getWorkbench().getActiveWorkbenchWindow());
+            }
+        } else if (IEditorModelManager.PROPERTY_MODEL_OPENED.equals(evt.getPropertyName())
+                || IEditorModelManager.PROPERTY_MODEL_CREATED.equals(evt.getPropertyName())) {
+            refresh(PlatformUI.getWorkbench().getActiveWorkbenchWindow());
+        }
+    }
+}
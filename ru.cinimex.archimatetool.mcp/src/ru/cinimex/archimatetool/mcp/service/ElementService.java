@@ -27,15 +27,21 @@ import com.archimatetool.model.IArchimatePackage;
 public class ElementService {
 
     public IArchimateElement createElement(IArchimateModel model, String camelCaseType, String name, String folderId) {
+        IArchimateElement el = newElement(camelCaseType, name);
+        IFolder folder = resolveFolderFor(model, el, folderId);
+        final IFolder f = folder;
+        Display.getDefault().syncExec(() -> f.getElements().add(el));
+        return el;
+    }
+
+    /** Create a detached element of the given type; it is not added to any model. */
+    public IArchimateElement newElement(String camelCaseType, String name) {
         Object cls = IArchimatePackage.eINSTANCE.getEClassifier(camelCaseType);
         if (cls == null || !IArchimatePackage.eINSTANCE.getArchimateElement().isSuperTypeOf((org.eclipse.emf.ecore.EClass) cls)) {
             throw new IllegalArgumentException("Unknown element type: " + camelCaseType);
         }
         IArchimateElement el = (IArchimateElement) IArchimateFactory.eINSTANCE.create((org.eclipse.emf.ecore.EClass) cls);
         el.setName(name);
-        IFolder folder = resolveFolderFor(model, el, folderId);
-        final IFolder f = folder;
-        Display.getDefault().syncExec(() -> f.getElements().add(el));
         return el;
     }
 
@@ -52,10 +58,11 @@ public class ElementService {
         return res[0];
     }
 
-    private IFolder resolveFolderFor(IArchimateModel model, IArchimateModelObject object, String folderId) {
+    /** Folder with the given id, or the default folder for the object. */
+    public IFolder resolveFolderFor(IArchimateModel model, IArchimateModelObject object, String folderId) {
         IFolder folder = null;
         if (folderId != null) {
-            Object o = com.archimatetool.model.util.ArchimateModelUtils.getObjectByID(model, folderId);
+            Object o = ServiceRegistry.activeModel().findById(model, folderId);
             if (o instanceof IFolder) {
                 folder = (IFolder) o;
             }
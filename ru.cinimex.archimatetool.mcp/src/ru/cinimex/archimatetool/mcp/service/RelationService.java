@@ -27,6 +27,15 @@ import com.archimatetool.model.IArchimatePackage;
 public class RelationService {
 
     public IArchimateRelationship createRelation(IArchimateModel model, String camelCaseType, String name, IArchimateElement source, IArchimateElement target, String folderId) {
+        IArchimateRelationship rel = newRelation(camelCaseType, name, source, target);
+        IFolder folder = resolveFolderFor(model, rel, folderId);
+        final IFolder f = folder;
+        Display.getDefault().syncExec(() -> f.getElements().add(rel));
+        return rel;
+    }
+
+    /** Create a detached relation between two elements; it is not added to any model. */
+    public IArchimateRelationship newRelation(String camelCaseType, String name, IArchimateElement source, IArchimateElement target) {
         Object cls = IArchimatePackage.eINSTANCE.getEClassifier(camelCaseType);
         if (cls == null || !IArchimatePackage.eINSTANCE.getArchimateRelationship().isSuperTypeOf((org.eclipse.emf.ecore.EClass) cls)) {
             throw new IllegalArgumentException("Unknown relation type: " + camelCaseType);
@@ -35,9 +44,6 @@ public class RelationService {
         rel.setName(name);
         rel.setSource(source);
         rel.setTarget(target);
-        IFolder folder = resolveFolderFor(model, rel, folderId);
-        final IFolder f = folder;
-        Display.getDefault().syncExec(() -> f.getElements().add(rel));
         return rel;
     }
 
@@ -53,10 +59,11 @@ public class RelationService {
         return res[0];
     }
 
-    private IFolder resolveFolderFor(IArchimateModel model, com.archimatetool.model.IArchimateModelObject object, String folderId) {
+    /** Folder with the given id, or the default folder for the object. */
+    public IFolder resolveFolderFor(IArchimateModel model, com.archimatetool.model.IArchimateModelObject object, String folderId) {
         IFolder folder = null;
         if (folderId != null) {
-            Object o = com.archimatetool.model.util.ArchimateModelUtils.getObjectByID(model, folderId);
+            Object o = ServiceRegistry.activeModel().findById(model, folderId);
             if (o instanceof IFolder) {
                 folder = (IFolder) o;
             }
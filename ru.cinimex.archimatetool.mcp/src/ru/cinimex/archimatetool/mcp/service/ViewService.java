@@ -48,9 +48,7 @@ public class ViewService {
         final IDiagramModelContainer target = container;
         Display.getDefault().syncExec(new Runnable() {
             public void run() {
-                IDiagramModelArchimateObject dmo = ArchimateDiagramModelFactory.createDiagramModelArchimateObject(element);
-                IBounds b = IArchimateFactory.eINSTANCE.createBounds(x, y, w, h);
-                dmo.setBounds(b);
+                IDiagramModelArchimateObject dmo = newDiagramObject(element, x, y, w, h);
                 target.getChildren().add(dmo);
                 result[0] = dmo;
             }
@@ -58,6 +56,14 @@ public class ViewService {
         return result[0];
     }
 
+    /** Create a detached diagram object for the element. Must run on the UI thread. */
+    public IDiagramModelArchimateObject newDiagramObject(IArchimateElement element, int x, int y, int w, int h) {
+        IDiagramModelArchimateObject dmo = ArchimateDiagramModelFactory.createDiagramModelArchimateObject(element);
+        IBounds b = IArchimateFactory.eINSTANCE.createBounds(x, y, w, h);
+        dmo.setBounds(b);
+        return dmo;
+    }
+
     public boolean deleteViewObject(IDiagramModelObject obj) {
         IDiagramModelContainer parent = (IDiagramModelContainer) obj.eContainer();
         if (parent == null) return false;
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.gef.commands.CommandStack;
+import org.junit.Before;
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.batch.AddToFolderCommand;
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IFolder;
+
+/**
+ * Compares per-item command execution, as batch tools used to mutate the
+ * model, with one compound command per batch. Command stack change events are
+ * what the editor refreshes its dirty state, undo actions and property views
+ * on, so they are counted as refreshes; model notifications are counted too.
+ */
+public class BatchCommandBenchmarkTest {
+
+    private static final int ITEMS = 500;
+
+    private IArchimateModel model;
+    private CommandStack stack;
+    private int refreshes;
+    private int notifications;
+
+    @Before
+    public void setUp() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        stack = new CommandStack();
+        stack.addCommandStackEventListener(e -> {
+            if (e.isPostChangeEvent()) refreshes++;
+        });
+        model.eAdapters().add(new EContentAdapter() {
+            @Override
+            public void notifyChanged(Notification n) {
+                super.notifyChanged(n);
+                notifications++;
+            }
+        });
+    }
+
+    private IArchimateElement newActor(int i) {
+        IArchimateElement el = IArchimateFactory.eINSTANCE.createBusinessActor();
+        el.setName("Actor " + i);
+        return el;
+    }
+
+    @Test
+    public void compoundCommandRefreshesOncePerBatch() {
+        IFolder folder = model.getDefaultFolderForObject(newActor(0));
+
+        for (int i = 0; i < ITEMS; i++) {
+            stack.execute(new AddToFolderCommand(folder, newActor(i)));
+        }
+        int perItemRefreshes = refreshes;
+        int perItemNotifications = notifications;
+
+        refreshes = 0;
+        notifications = 0;
+        UiBatch batch = new UiBatch("Create elements");
+        for (int i = 0; i < ITEMS; i++) {
+            batch.add(new AddToFolderCommand(folder, newActor(i)));
+        }
+        batch.apply(stack);
+
+        assertEquals(ITEMS, perItemRefreshes);
+        assertEquals(1, refreshes);
+        // the model itself still sees one change per added element
+        assertEquals(ITEMS, perItemNotifications);
+        assertEquals(ITEMS, notifications);
+        assertEquals(2 * ITEMS, folder.getElements().size());
+
+        // the whole batch is a single undo step
+        stack.undo();
+        assertEquals(ITEMS, folder.getElements().size());
+    }
+}
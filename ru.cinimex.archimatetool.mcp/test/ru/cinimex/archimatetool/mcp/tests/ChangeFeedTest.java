@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.changes.ChangeEvent;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFeed;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFilter;
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+
+public class ChangeFeedTest {
+
+    private static ChangeEvent event(String kind, String id, String op) {
+        return new ChangeEvent("m1", kind, id, op, null, null);
+    }
+
+    @Test
+    public void deliversMatchingEventsInOrder() {
+        ChangeFeed feed = new ChangeFeed(10, 0);
+        List<ChangeEvent> views = new ArrayList<>();
+        try (ChangeFeed.Subscription sub = feed.subscribe(ChangeFilter.of("view", null, null, null), views::addAll)) {
+            feed.publish(List.of(event("element", "e1", ChangeEvent.CREATED), event("view", "v1", ChangeEvent.UPDATED)));
+        }
+        feed.publish(List.of(event("view", "v2", ChangeEvent.UPDATED)));
+        assertEquals(1, views.size());
+        assertEquals("v1", views.get(0).getId());
+        assertEquals(2L, views.get(0).getSeq());
+        assertFalse(feed.hasSubscribers());
+    }
+
+    @Test
+    public void replayReportsResyncWhenWrapped() {
+        ChangeFeed feed = new ChangeFeed(2, 0);
+        for (int i = 0; i < 4; i++) {
+            feed.publish(List.of(event("element", "e" + i, ChangeEvent.UPDATED)));
+        }
+        ChangeFeed.Replay recent = feed.since(2, ChangeFilter.all());
+        assertFalse(recent.resync);
+        assertEquals(2, recent.events.size());
+        assertEquals(4L, recent.lastSeq);
+
+        ChangeFeed.Replay old = feed.since(1, ChangeFilter.all());
+        assertTrue(old.resync);
+        // a position from before a restart is ahead of the feed
+        assertTrue(feed.since(99, ChangeFilter.all()).resync);
+    }
+
+    @Test
+    public void filtersFromUris() {
+        ChangeFilter single = ChangeFilter.fromUri("archi://elements/e1");
+        assertTrue(single.matches(event("element", "e1", ChangeEvent.DELETED)));
+        assertFalse(single.matches(event("element", "e2", ChangeEvent.DELETED)));
+        assertFalse(single.matches(event("view", "e1", ChangeEvent.DELETED)));
+
+        ChangeFilter feed = ChangeFilter.fromUri("archi://changes?ops=created,deleted&modelId=m1");
+        assertTrue(feed.matches(event("folder", "f", ChangeEvent.CREATED)));
+        assertFalse(feed.matches(event("folder", "f", ChangeEvent.UPDATED)));
+        assertTrue(ChangeFilter.fromUri("archi://changes").matches(event("model", "m1", ChangeEvent.UPDATED)));
+
+        try {
+            ChangeFilter.fromUri("archi://changes?kinds=widget");
+            fail("unknown kind");
+        } catch (BadRequestException expected) {}
+        try {
+            ChangeFilter.fromUri("file:///etc/passwd");
+            fail("foreign uri");
+        } catch (BadRequestException expected) {}
+    }
+}
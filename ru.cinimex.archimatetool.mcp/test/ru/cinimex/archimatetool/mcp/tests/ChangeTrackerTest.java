@@ -0,0 +1,210 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.changes.ChangeEvent;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFeed;
+import ru.cinimex.archimatetool.mcp.changes.ChangeFilter;
+import ru.cinimex.archimatetool.mcp.changes.ChangeTracker;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.IFolder;
+
+public class ChangeTrackerTest {
+
+    private IArchimateModel model;
+    private ChangeFeed feed;
+    private ChangeTracker tracker;
+    private final List<ChangeEvent> received = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        // a long window: the test flushes by hand
+        feed = new ChangeFeed(100, 60_000);
+        feed.subscribe(ChangeFilter.all(), received::addAll);
+        tracker = new ChangeTracker(model, feed);
+    }
+
+    @After
+    public void tearDown() {
+        tracker.detach();
+    }
+
+    private IArchimateElement addActor(String name) {
+        IArchimateElement el = IArchimateFactory.eINSTANCE.createBusinessActor();
+        el.setName(name);
+        model.getDefaultFolderForObject(el).getElements().add(el);
+        return el;
+    }
+
+    private ChangeEvent find(String id) {
+        for (ChangeEvent e : received) {
+            if (e.getId().equals(id)) return e;
+        }
+        return null;
+    }
+
+    @Test
+    public void existingContentIsNotReported() {
+        addActor("A");
+        tracker.attach();
+        tracker.flush();
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void coalescesEditsPerObject() {
+        tracker.attach();
+        IArchimateElement a = addActor("A");
+        a.setName("B");
+        a.setDocumentation("doc");
+        tracker.flush();
+        ChangeEvent e = find(a.getId());
+        assertEquals(ChangeEvent.CREATED, e.getOp());
+        assertEquals("element", e.getKind());
+        assertEquals("B", e.toMap().get("name"));
+        assertEquals(1, received.stream().filter(x -> x.getId().equals(a.getId())).count());
+        // the folder that received the element changed as well
+        assertEquals("folder", find(((IFolder) a.eContainer()).getId()).getKind());
+    }
+
+    @Test
+    public void createdAndDeletedWithinWindowCancelOut() {
+        tracker.attach();
+        IArchimateElement a = addActor("A");
+        ((IFolder) a.eContainer()).getElements().remove(a);
+        tracker.flush();
+        assertNull(find(a.getId()));
+    }
+
+    @Test
+    public void diagramEditsUpdateTheView() {
+        IArchimateElement a = addActor("A");
+        IArchimateDiagramModel view = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        model.getDefaultFolderForObject(view).getElements().add(view);
+        tracker.attach();
+        IDiagramModelArchimateObject dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateConcept(a);
+        view.getChildren().add(dmo);
+        tracker.flush();
+        ChangeEvent e = find(view.getId());
+        assertEquals("view", e.getKind());
+        assertEquals(ChangeEvent.UPDATED, e.getOp());
+        assertNull(find(dmo.getId()));
+    }
+
+    @Test
+    public void changesSinceVersion() {
+        tracker.attach();
+        assertEquals(0, tracker.getVersion());
+        IArchimateElement a = addActor("A");
+        long seen = tracker.getVersion();
+        assertTrue(seen > 0);
+        a.setName("B");
+        ChangeTracker.Delta d = tracker.changesSince(seen, tracker.getEpoch());
+        assertFalse(d.resync);
+        assertEquals(1, d.changes.size());
+        assertEquals(ChangeEvent.UPDATED, d.changes.get(0).getOp());
+        assertEquals(d.version, d.changes.get(0).getVersion());
+        // from the start the element shows up once, as created
+        ChangeTracker.Delta all = tracker.changesSince(0, null);
+        assertEquals(1, all.changes.stream().filter(x -> x.getId().equals(a.getId())).count());
+        assertTrue(tracker.changesSince(0, "other-epoch").resync);
+        assertTrue(tracker.changesSince(d.version + 1, null).resync);
+    }
+
+    @Test
+    public void wrappedJournalRequiresResync() {
+        ChangeTracker small = new ChangeTracker(model, feed, 2);
+        small.attach();
+        try {
+            IArchimateElement a = addActor("A");
+            a.setName("B");
+            a.setName("C");
+            assertTrue(small.changesSince(0, null).resync);
+            assertFalse(small.changesSince(small.getVersion() - 1, null).resync);
+        } finally {
+            small.detach();
+        }
+    }
+
+    @Test
+    public void batchTakesOneJournalSlotPerObject() {
+        ChangeTracker small = new ChangeTracker(model, feed, 60);
+        small.attach();
+        try {
+            for (int i = 0; i < 50; i++) {
+                addActor("A" + i);
+            }
+            // every add updates the folder, which still takes a single slot
+            ChangeTracker.Delta d = small.changesSince(0, null);
+            assertFalse(d.resync);
+            assertEquals(51, d.changes.size());
+            assertTrue(small.getVersion() > d.changes.size());
+        } finally {
+            small.detach();
+        }
+    }
+
+    @Test
+    public void conceptUpdatesBumpViewsShowingThem() {
+        IArchimateElement a = addActor("A");
+        IArchimateElement b = addActor("B");
+        IArchimateDiagramModel view = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        model.getDefaultFolderForObject(view).getElements().add(view);
+        IDiagramModelArchimateObject dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateConcept(a);
+        view.getChildren().add(dmo);
+        tracker.attach();
+        assertEquals(0, tracker.getViewVersion(view.getId()));
+        b.setName("B2");
+        assertEquals(0, tracker.getViewVersion(view.getId()));
+        a.setName("A2");
+        assertEquals(tracker.getVersion(), tracker.getViewVersion(view.getId()));
+    }
+
+    @Test
+    public void deletedViewsAreForgotten() {
+        IArchimateElement a = addActor("A");
+        IArchimateDiagramModel view = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        IDiagramModelArchimateObject dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateConcept(a);
+        view.getChildren().add(dmo);
+        tracker.attach();
+        model.getDefaultFolderForObject(view).getElements().add(view);
+        assertTrue(tracker.getViewVersion(view.getId()) > 0);
+
+        model.getDefaultFolderForObject(view).getElements().remove(view);
+        assertEquals(0, tracker.getViewVersion(view.getId()));
+        // the removed view still shows the concept, but must not come back
+        a.setName("A2");
+        assertEquals(0, tracker.getViewVersion(view.getId()));
+    }
+}
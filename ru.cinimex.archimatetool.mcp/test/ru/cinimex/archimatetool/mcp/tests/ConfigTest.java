@@ -119,5 +119,37 @@ public class ConfigTest {
         assertEquals("192.168.1.100", Config.resolveHost());
     }
 
+    // HTTP concurrency settings
+    @Test
+    public void httpLimitDefaults() {
+        assertEquals(Config.DEFAULT_HTTP_EXECUTOR, Config.resolveHttpExecutor());
+        assertEquals(Config.DEFAULT_HTTP_MAX_CONCURRENT, Config.resolveHttpMaxConcurrent());
+        assertEquals(Config.DEFAULT_HTTP_MAX_QUEUED, Config.resolveHttpMaxQueued());
+    }
+
+    @Test
+    public void httpLimitPrecedence() throws Exception {
+        MCPPreferences.setHttpMaxConcurrent(4);
+        MCPPreferences.setHttpExecutor("pool");
+        assertEquals(4, Config.resolveHttpMaxConcurrent());
+        assertEquals("pool", Config.resolveHttpExecutor());
+        env.put("ARCHI_MCP_HTTP_MAX_CONCURRENT", "8");
+        assertEquals(8, Config.resolveHttpMaxConcurrent());
+        System.setProperty("archi.mcp.http.maxConcurrent", "2");
+        try {
+            assertEquals(2, Config.resolveHttpMaxConcurrent());
+        } finally {
+            System.clearProperty("archi.mcp.http.maxConcurrent");
+        }
+    }
+
+    @Test
+    public void invalidHttpLimitFallsBack() throws Exception {
+        env.put("ARCHI_MCP_HTTP_MAX_CONCURRENT", "0");
+        env.put("ARCHI_MCP_HTTP_MAX_QUEUED", "many");
+        assertEquals(Config.DEFAULT_HTTP_MAX_CONCURRENT, Config.resolveHttpMaxConcurrent());
+        assertEquals(Config.DEFAULT_HTTP_MAX_QUEUED, Config.resolveHttpMaxQueued());
+    }
+
     private static final Map<String, String> env = new HashMap<>();
 }
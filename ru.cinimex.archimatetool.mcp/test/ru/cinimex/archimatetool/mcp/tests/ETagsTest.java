@@ -0,0 +1,59 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.http.ETags;
+import ru.cinimex.archimatetool.mcp.http.handlers.OpenApiHttpHandler;
+
+public class ETagsTest {
+
+    @Test
+    public void matchesIfNoneMatchLists() {
+        String tag = "\"abc-1\"";
+        assertTrue(ETags.matches("\"abc-1\"", tag));
+        assertTrue(ETags.matches("\"x\", W/\"abc-1\"", tag));
+        assertTrue(ETags.matches("*", tag));
+        assertFalse(ETags.matches("\"abc-2\"", tag));
+        assertFalse(ETags.matches(null, tag));
+    }
+
+    @Test
+    public void contentTagsAreStable() {
+        assertEquals(ETags.ofBytes(new byte[] {1, 2}), ETags.ofBytes(new byte[] {1, 2}));
+        assertNotEquals(ETags.ofBytes(new byte[] {1, 2}), ETags.ofBytes(new byte[] {2, 1}));
+    }
+
+    @Test
+    public void openApiAnswersNotModified() throws Exception {
+        OpenApiHttpHandler handler = new OpenApiHttpHandler();
+        FakeHttpExchange first = new FakeHttpExchange("GET", "/openapi.json", null);
+        handler.handle(first);
+        assertEquals(200, first.getResponseCode());
+        String etag = first.getResponseHeaders().getFirst("ETag");
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""));
+
+        FakeHttpExchange again = new FakeHttpExchange("GET", "/openapi.json", null);
+        again.getRequestHeaders().set("If-None-Match", etag);
+        handler.handle(again);
+        assertEquals(304, again.getResponseCode());
+        assertEquals(0, again.getResponseBytes().length);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.views.ExportFiles;
+
+public class ExportFilesTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("export-files-test");
+    }
+
+    @After
+    public void tearDown() {
+        File[] left = dir.toFile().listFiles();
+        if (left != null) {
+            for (File f : left) {
+                f.delete();
+            }
+        }
+        dir.toFile().delete();
+    }
+
+    @Test
+    public void filesStayInsideTheServerDirectory() throws Exception {
+        ExportFiles files = new ExportFiles(dir, 60_000, 10);
+        Path file = files.create();
+        assertEquals(dir, file.getParent());
+        String token = files.issue(file);
+        assertTrue(token.matches("[A-Za-z0-9_-]{24}"));
+        assertEquals(file, files.resolve(token));
+        assertNull(files.resolve("nope"));
+        assertNull(files.resolve(null));
+        assertEquals(1L, files.stats().get("served"));
+    }
+
+    @Test
+    public void expiredFilesAreDeleted() throws Exception {
+        ExportFiles files = new ExportFiles(dir, 0, 10);
+        Path file = files.create();
+        String token = files.issue(file);
+        assertNull(files.resolve(token));
+        assertFalse(Files.exists(file));
+        assertEquals(0, files.stats().get("files"));
+    }
+
+    @Test
+    public void oldestFileMakesRoom() throws Exception {
+        ExportFiles files = new ExportFiles(dir, 60_000, 2);
+        Path first = files.create();
+        String firstToken = files.issue(first);
+        String second = files.issue(files.create());
+        String third = files.issue(files.create());
+        assertNull(files.resolve(firstToken));
+        assertFalse(Files.exists(first));
+        assertNotNull(files.resolve(second));
+        assertNotNull(files.resolve(third));
+    }
+
+    @Test
+    public void discardedFilesAreDeleted() throws Exception {
+        ExportFiles files = new ExportFiles(dir, 60_000, 2);
+        Path file = files.create();
+        files.discard(file);
+        assertFalse(Files.exists(file));
+    }
+}
@@ -37,6 +37,7 @@ public class FakeHttpExchange extends HttpExchange {
     private final String method;
     private final URI uri;
     private int responseCode;
+    private long responseLength;
 
     public FakeHttpExchange(String method, String path, String body) {
         this.method = method;
@@ -52,7 +53,7 @@ public class FakeHttpExchange extends HttpExchange {
     @Override public void close() {}
     @Override public InputStream getRequestBody() { return requestBody; }
     @Override public OutputStream getResponseBody() { return responseBody; }
-    @Override public void sendResponseHeaders(int rCode, long responseLength) throws IOException { responseCode = rCode; }
+    @Override public void sendResponseHeaders(int rCode, long responseLength) throws IOException { responseCode = rCode; this.responseLength = responseLength; }
     @Override public InetSocketAddress getRemoteAddress() { return null; }
     @Override public InetSocketAddress getLocalAddress() { return null; }
     @Override public String getProtocol() { return "HTTP/1.1"; }
@@ -62,5 +63,7 @@ public class FakeHttpExchange extends HttpExchange {
     @Override public HttpPrincipal getPrincipal() { return null; }
 
     public int getResponseCode() { return responseCode; }
+    public long getResponseLength() { return responseLength; }
     public String getResponseString() { return responseBody.toString(StandardCharsets.UTF_8); }
+    public byte[] getResponseBytes() { return responseBody.toByteArray(); }
 }
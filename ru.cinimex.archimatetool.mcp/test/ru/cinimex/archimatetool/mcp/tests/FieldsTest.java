@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+import ru.cinimex.archimatetool.mcp.core.types.Fields;
+
+public class FieldsTest {
+
+    @Test
+    public void emptySelectionKeepsEverything() {
+        assertTrue(Fields.parse(null).isAll());
+        assertTrue(Fields.parse(" ").isAll());
+        assertTrue(Fields.of(List.of()).isAll());
+        assertTrue(Fields.ALL.has("documentation"));
+    }
+
+    @Test
+    public void selectionKeepsListedFieldsAndIds() {
+        Fields f = Fields.parse("name, type");
+        assertFalse(f.isAll());
+        assertTrue(f.has("name"));
+        assertTrue(f.has("type"));
+        assertTrue(f.has("id"));
+        assertTrue(f.has("objectId"));
+        assertFalse(f.has("documentation"));
+        assertFalse(f.has("bounds"));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void unknownFieldIsRejected() {
+        Fields.of(List.of("name", "documentaton"));
+    }
+}
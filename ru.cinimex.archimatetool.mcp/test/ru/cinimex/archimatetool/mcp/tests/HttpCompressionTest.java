@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.server.HttpCompression;
+import ru.cinimex.archimatetool.mcp.server.JsonUtil;
+
+public class HttpCompressionTest {
+
+    private static final String JSON = "application/json; charset=utf-8";
+
+    @After
+    public void cleanup() {
+        System.clearProperty("archi.mcp.http.compressMinBytes");
+    }
+
+    private static byte[] large() {
+        return "{\"name\":\"Customer Portal\"},".repeat(200).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static FakeHttpExchange request(String acceptEncoding) {
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        if (acceptEncoding != null) ex.getRequestHeaders().set("Accept-Encoding", acceptEncoding);
+        return ex;
+    }
+
+    private static byte[] inflate(InputStream in) throws Exception {
+        try (InputStream is = in; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            is.transferTo(out);
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void negotiatesByQuality() {
+        assertEquals("gzip", HttpCompression.negotiate("gzip, deflate, br"));
+        assertEquals("deflate", HttpCompression.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("deflate", HttpCompression.negotiate("deflate"));
+        assertEquals("gzip", HttpCompression.negotiate("*"));
+        assertNull(HttpCompression.negotiate("gzip;q=0, deflate;q=0"));
+        assertNull(HttpCompression.negotiate("identity"));
+        assertNull(HttpCompression.negotiate(null));
+    }
+
+    @Test
+    public void gzipsLargeBody() throws Exception {
+        byte[] data = large();
+        FakeHttpExchange ex = request("gzip");
+        HttpCompression.send(ex, 200, JSON, data);
+        assertEquals("gzip", ex.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals("Accept-Encoding", ex.getResponseHeaders().getFirst("Vary"));
+        byte[] packed = ex.getResponseBytes();
+        assertTrue(packed.length < data.length);
+        assertArrayEquals(data, inflate(new GZIPInputStream(new ByteArrayInputStream(packed))));
+    }
+
+    @Test
+    public void deflatesWhenPreferred() throws Exception {
+        byte[] data = large();
+        FakeHttpExchange ex = request("deflate");
+        HttpCompression.send(ex, 200, JSON, data);
+        assertEquals("deflate", ex.getResponseHeaders().getFirst("Content-Encoding"));
+        assertArrayEquals(data, inflate(new InflaterInputStream(new ByteArrayInputStream(ex.getResponseBytes()))));
+    }
+
+    @Test
+    public void skipsSmallBodiesAndBinaryTypes() throws Exception {
+        FakeHttpExchange small = request("gzip");
+        JsonUtil.writeJson(small, 200, Map.of("ok", true));
+        assertNull(small.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals("{\"ok\":true}", small.getResponseString());
+
+        FakeHttpExchange png = request("gzip");
+        HttpCompression.send(png, 200, "image/png", large());
+        assertNull(png.getResponseHeaders().getFirst("Content-Encoding"));
+    }
+
+    @Test
+    public void skipsWithoutAcceptEncoding() throws Exception {
+        FakeHttpExchange ex = request(null);
+        HttpCompression.send(ex, 200, JSON, large());
+        assertNull(ex.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals(new String(large(), StandardCharsets.UTF_8), ex.getResponseString());
+    }
+
+    @Test
+    public void negativeThresholdDisables() throws Exception {
+        System.setProperty("archi.mcp.http.compressMinBytes", "-1");
+        FakeHttpExchange ex = request("gzip");
+        HttpCompression.send(ex, 200, JSON, large());
+        assertNull(ex.getResponseHeaders().getFirst("Content-Encoding"));
+    }
+
+    @Test
+    public void countsSavedBytes() throws Exception {
+        long before = (Long) HttpCompression.stats().get("bytesSaved");
+        HttpCompression.send(request("gzip"), 200, JSON, large());
+        Map<String, Object> stats = HttpCompression.stats();
+        assertTrue((Long) stats.get("bytesSaved") > before);
+        assertTrue((Double) stats.get("ratio") < 1.0);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.views.ImageCache;
+import ru.cinimex.archimatetool.mcp.core.views.ViewsCore.ImageData;
+
+public class ImageCacheTest {
+
+    private static ImageData image(int size) {
+        return new ImageData(new byte[size], "image/png");
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        ImageCache cache = new ImageCache(1000);
+        String key = ImageCache.key("v1", "e-1", "png", 1.0f, null, "transparent", 0);
+        assertNull(cache.lookup(key));
+        ImageData img = image(10);
+        cache.put("v1", "e-1", key, img);
+        assertSame(img, cache.lookup(key));
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+        assertEquals(0.5, cache.stats().get("hitRate"));
+    }
+
+    @Test
+    public void newerVersionDropsOlderRenderings() {
+        ImageCache cache = new ImageCache(1000);
+        String png = ImageCache.key("v1", "e-1", "png", 1.0f, null, "transparent", 0);
+        String svg = ImageCache.key("v1", "e-1", "svg", 1.0f, null, "transparent", 0);
+        String other = ImageCache.key("v2", "e-1", "png", 1.0f, null, "transparent", 0);
+        cache.put("v1", "e-1", png, image(10));
+        cache.put("v1", "e-1", svg, image(10));
+        cache.put("v2", "e-1", other, image(10));
+        cache.put("v1", "e-5", ImageCache.key("v1", "e-5", "png", 1.0f, null, "transparent", 0), image(10));
+        assertNull(cache.lookup(png));
+        assertNull(cache.lookup(svg));
+        assertNotNull(cache.lookup(other));
+        assertEquals(20L, cache.stats().get("bytes"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBySize() {
+        ImageCache cache = new ImageCache(100);
+        String a = ImageCache.key("a", "e-0", "png", 1.0f, null, "transparent", 0);
+        String b = ImageCache.key("b", "e-0", "png", 1.0f, null, "transparent", 0);
+        String c = ImageCache.key("c", "e-0", "png", 1.0f, null, "transparent", 0);
+        cache.put("a", "e-0", a, image(25));
+        cache.put("b", "e-0", b, image(25));
+        cache.lookup(a);
+        cache.put("c", "e-0", c, image(25));
+        cache.put("d", "e-0", ImageCache.key("d", "e-0", "png", 1.0f, null, "transparent", 0), image(25));
+        cache.put("e", "e-0", ImageCache.key("e", "e-0", "png", 1.0f, null, "transparent", 0), image(25));
+        assertNull(cache.lookup(b));
+        assertNotNull(cache.lookup(a));
+        assertEquals(100L, cache.stats().get("bytes"));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    public void skipsOversizedImagesAndDisabledCache() {
+        ImageCache cache = new ImageCache(100);
+        String key = ImageCache.key("a", "e-0", "png", 1.0f, null, "transparent", 0);
+        cache.put("a", "e-0", key, image(26));
+        assertNull(cache.lookup(key));
+        assertFalse(new ImageCache(0).isEnabled());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.views.ImageLinks;
+import ru.cinimex.archimatetool.mcp.core.views.ViewsCore.ImageData;
+
+public class ImageLinksTest {
+
+    @Test
+    public void tokenServesTheSameBytes() {
+        ImageLinks links = new ImageLinks(60_000, 10, 1024);
+        ImageData img = new ImageData(new byte[] { 1, 2, 3 }, "image/png");
+        String token = links.issue(img);
+        assertTrue(token.matches("[A-Za-z0-9_-]{24}"));
+        assertSame(img, links.resolve(token));
+        assertNull(links.resolve("nope"));
+        assertNull(links.resolve(null));
+        assertEquals(1L, links.stats().get("served"));
+    }
+
+    @Test
+    public void expiredTokensAreGone() {
+        ImageLinks links = new ImageLinks(0, 10, 1024);
+        String token = links.issue(new ImageData(new byte[1], "image/png"));
+        assertNull(links.resolve(token));
+        assertEquals(0, links.stats().get("links"));
+    }
+
+    @Test
+    public void oldestTokenMakesRoom() {
+        ImageLinks links = new ImageLinks(60_000, 2, 1024);
+        String first = links.issue(new ImageData(new byte[1], "image/png"));
+        String second = links.issue(new ImageData(new byte[1], "image/png"));
+        String third = links.issue(new ImageData(new byte[1], "image/png"));
+        assertNull(links.resolve(first));
+        assertNotNull(links.resolve(second));
+        assertNotNull(links.resolve(third));
+    }
+
+    @Test
+    public void oldestTokensMakeRoomForBytes() {
+        ImageLinks links = new ImageLinks(60_000, 10, 10);
+        String first = links.issue(new ImageData(new byte[4], "image/png"));
+        String second = links.issue(new ImageData(new byte[4], "image/png"));
+        String third = links.issue(new ImageData(new byte[4], "image/png"));
+        assertNull(links.resolve(first));
+        assertNotNull(links.resolve(second));
+        assertNotNull(links.resolve(third));
+        assertEquals(8L, links.stats().get("bytes"));
+        // one image over the limit still gets its link, alone
+        String big = links.issue(new ImageData(new byte[16], "image/png"));
+        assertNotNull(links.resolve(big));
+        assertNull(links.resolve(third));
+        assertEquals(16L, links.stats().get("bytes"));
+    }
+}
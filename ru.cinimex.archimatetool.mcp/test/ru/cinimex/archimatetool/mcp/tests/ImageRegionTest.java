@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+import ru.cinimex.archimatetool.mcp.core.types.ImageRegion;
+
+public class ImageRegionTest {
+
+    @Test
+    public void lastTileIsClippedToTheExtents() {
+        ImageRegion.Plan plan = ImageRegion.tile(1, 1, 512).plan(0, 0, 1000, 600, 1f);
+        assertEquals(2, plan.cols);
+        assertEquals(2, plan.rows);
+        assertEquals(512, plan.x);
+        assertEquals(512, plan.y);
+        assertEquals(488, plan.pixelWidth);
+        assertEquals(88, plan.pixelHeight);
+    }
+
+    @Test
+    public void zoomGrowsTheGrid() {
+        ImageRegion.Plan plan = ImageRegion.tile(0, 0, 512).plan(-20, -20, 1000, 600, 2f);
+        assertEquals(4, plan.cols);
+        assertEquals(3, plan.rows);
+        assertEquals(-20, plan.x);
+        assertEquals(256, plan.width);
+        assertEquals(512, plan.pixelWidth);
+    }
+
+    @Test
+    public void tilesMeetAtWholePixelsForFractionalSpans() {
+        // 512 / 3 is not a whole number of diagram units
+        ImageRegion.Plan first = ImageRegion.tile(0, 0, 512).plan(0, 0, 1000, 600, 3f);
+        ImageRegion.Plan second = ImageRegion.tile(1, 0, 512).plan(0, 0, 1000, 600, 3f);
+        ImageRegion.Plan last = ImageRegion.tile(5, 3, 512).plan(0, 0, 1000, 600, 3f);
+        assertEquals(6, first.cols);
+        assertEquals(4, first.rows);
+        assertEquals(0, first.pixelX);
+        assertEquals(512, first.pixelWidth);
+        assertEquals(512, second.pixelX);
+        assertEquals(512, second.pixelWidth);
+        assertEquals(0, second.originX);
+        assertEquals(170, second.x);
+        assertEquals(2560, last.pixelX);
+        assertEquals(440, last.pixelWidth);
+        assertEquals(1536, last.pixelY);
+        assertEquals(264, last.pixelHeight);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void tileOutsideTheGridIsRejected() {
+        ImageRegion.tile(2, 0, 512).plan(0, 0, 1000, 600, 1f);
+    }
+
+    @Test
+    public void thumbnailFitsThePixelBudget() {
+        ImageRegion.Plan plan = ImageRegion.thumbnail(1_000_000).plan(0, 0, 4000, 4000, 3f);
+        assertEquals(0.25f, plan.zoom, 0.0001f);
+        assertEquals(1000, plan.pixelWidth);
+        assertEquals(1000, plan.pixelHeight);
+        // small views are not blown up
+        assertEquals(1f, ImageRegion.thumbnail(1_000_000).plan(0, 0, 300, 200, 1f).zoom, 0.0001f);
+    }
+
+    @Test
+    public void parsesOneRegionFromParameters() {
+        assertNull(ImageRegion.of(null, "", null, false, null));
+        assertEquals(ImageRegion.Mode.VIEWPORT, ImageRegion.of("10, 20, 300, 200", null, null, false, null).getMode());
+        assertEquals("tile:3,4@512", ImageRegion.of(null, "3,4", null, false, null).cacheKey());
+        try {
+            ImageRegion.of("0,0,10,10", "0,0", null, false, null);
+            fail("expected BadRequestException");
+        } catch (BadRequestException expected) {
+            // only one mode per request
+        }
+        try {
+            ImageRegion.of("0,0,10", null, null, false, null);
+            fail("expected BadRequestException");
+        } catch (BadRequestException expected) {
+            // four numbers required
+        }
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void oversizedViewportIsRejected() {
+        ImageRegion.viewport(0, 0, 10000, 10000).plan(0, 0, 10000, 10000, 1f);
+    }
+}
@@ -18,9 +18,13 @@ package ru.cinimex.archimatetool.mcp.tests;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -33,6 +37,9 @@ import ru.cinimex.archimatetool.mcp.core.script.ScriptingCore;
 import ru.cinimex.archimatetool.mcp.core.script.ScriptRequest;
 import ru.cinimex.archimatetool.mcp.core.script.ScriptResult;
 import ru.cinimex.archimatetool.mcp.core.errors.CoreException;
+import ru.cinimex.archimatetool.mcp.core.tasks.Task;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskManager;
 import com.fasterxml.jackson.databind.JsonNode;
 
 /**
@@ -356,5 +363,167 @@ public class JsonRpcHttpHandlerTest {
             restoreScriptingCore(original);
         }
     }
-}
 
+    @Test
+    public void testBatchRunsReadOnlyCallsInParallelInOrder() throws Exception {
+        Field f = ToolRegistry.class.getDeclaredField("TOOLS");
+        f.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        Map<String, Tool> tools = (Map<String, Tool>) f.get(null);
+        CountDownLatch bothReading = new CountDownLatch(2);
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        tools.put("test_read", new Tool("test_read", "Waits for a second concurrent reader",
+            Collections.emptyList(),
+            params -> {
+                bothReading.countDown();
+                boolean concurrent = bothReading.await(5, TimeUnit.SECONDS);
+                log.add("read");
+                return Map.of("concurrent", concurrent);
+            }, true));
+        tools.put("test_write", new Tool("test_write", "Records its position",
+            Collections.emptyList(),
+            params -> {
+                log.add("write");
+                return Map.of("seen", new ArrayList<>(log));
+            }));
+        try {
+            String req = "[" +
+                "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"test_read\"}}," +
+                "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/call\",\"params\":{\"name\":\"test_read\"}}," +
+                "{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"tools/call\",\"params\":{\"name\":\"test_write\"}}," +
+                "{\"jsonrpc\":\"2.0\",\"id\":4,\"method\":\"tools/list\"}]";
+            FakeHttpExchange ex = new FakeHttpExchange("POST", "/mcp", req);
+            new JsonRpcHttpHandler().handle(ex);
+            JsonNode root = JacksonJson.mapper().readTree(ex.getResponseString());
+            assertEquals(4, root.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i + 1, root.get(i).get("id").asInt());
+            }
+            for (int i = 0; i < 2; i++) {
+                JsonNode res = JacksonJson.mapper().readTree(root.get(i).get("result").get("content").get(0).get("text").asText());
+                assertTrue(res.get("concurrent").asBoolean());
+            }
+            // the write ran only after both reads finished
+            JsonNode write = JacksonJson.mapper().readTree(root.get(2).get("result").get("content").get(0).get("text").asText());
+            assertEquals(3, write.get("seen").size());
+        } finally {
+            tools.remove("test_read");
+            tools.remove("test_write");
+        }
+    }
+
+    @Test
+    public void testReadOnlyToolsAreTagged() {
+        assertTrue(ToolRegistry.get("search").isReadOnly());
+        assertTrue(ToolRegistry.get("get_view_content").isReadOnly());
+        assertFalse(ToolRegistry.get("create_elements").isReadOnly());
+        assertEquals(Map.of("readOnlyHint", true), ToolRegistry.get("get_elements").toMap().get("annotations"));
+    }
+
+    @Test
+    public void testAsyncCallReturnsTaskId() throws Exception {
+        String req = "{\"jsonrpc\":\"2.0\",\"id\":9,\"method\":\"tools/call\"," +
+            "\"params\":{\"name\":\"status\",\"arguments\":{},\"_meta\":{\"async\":true}}}";
+        FakeHttpExchange ex = new FakeHttpExchange("POST", "/mcp", req);
+        new JsonRpcHttpHandler().handle(ex);
+        JsonNode root = JacksonJson.mapper().readTree(ex.getResponseString());
+        JsonNode started = JacksonJson.mapper().readTree(root.get("result").get("content").get(0).get("text").asText());
+        String taskId = started.get("taskId").asText();
+        assertEquals("status", started.get("tool").asText());
+
+        String poll = "{\"jsonrpc\":\"2.0\",\"id\":10,\"method\":\"tools/call\"," +
+            "\"params\":{\"name\":\"get_task\",\"arguments\":{\"task_id\":\"" + taskId + "\",\"wait_ms\":5000}}}";
+        ex = new FakeHttpExchange("POST", "/mcp", poll);
+        new JsonRpcHttpHandler().handle(ex);
+        root = JacksonJson.mapper().readTree(ex.getResponseString());
+        JsonNode task = JacksonJson.mapper().readTree(root.get("result").get("content").get(0).get("text").asText());
+        assertEquals("completed", task.get("state").asText());
+        assertTrue(task.get("result").get("ok").asBoolean());
+    }
+
+    @Test
+    public void testCancelledNotificationIsAccepted() throws Exception {
+        String req = "{\"jsonrpc\":\"2.0\",\"method\":\"notifications/cancelled\",\"params\":{\"requestId\":42}}";
+        FakeHttpExchange ex = new FakeHttpExchange("POST", "/mcp", req);
+        new JsonRpcHttpHandler().handle(ex);
+        assertEquals(202, ex.getResponseCode());
+    }
+
+    @Test
+    public void testInitializeCreatesSession() throws Exception {
+        String req = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\",\"params\":{}}";
+        FakeHttpExchange ex = new FakeHttpExchange("POST", "/mcp", req);
+        new JsonRpcHttpHandler().handle(ex);
+        String sessionId = ex.getResponseHeaders().getFirst(JsonRpcHttpHandler.SESSION_HEADER);
+        assertNotNull(sessionId);
+
+        ex = new FakeHttpExchange("DELETE", "/mcp", null);
+        ex.getRequestHeaders().set(JsonRpcHttpHandler.SESSION_HEADER, sessionId);
+        new JsonRpcHttpHandler().handle(ex);
+        assertEquals(204, ex.getResponseCode());
+
+        ex = new FakeHttpExchange("POST", "/mcp", "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/list\"}");
+        ex.getRequestHeaders().set(JsonRpcHttpHandler.SESSION_HEADER, sessionId);
+        new JsonRpcHttpHandler().handle(ex);
+        assertEquals(404, ex.getResponseCode());
+    }
+
+    @Test
+    public void testStreamRequiresSession() throws Exception {
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/mcp", null);
+        ex.getRequestHeaders().set("Accept", "text/event-stream");
+        new JsonRpcHttpHandler().handle(ex);
+        assertEquals(400, ex.getResponseCode());
+    }
+
+    @Test
+    public void testCallWithProgressTokenStreams() throws Exception {
+        Field f = ToolRegistry.class.getDeclaredField("TOOLS");
+        f.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        Map<String, Tool> tools = (Map<String, Tool>) f.get(null);
+        tools.put("test_progress", new Tool("test_progress", "Reports progress twice",
+            Collections.emptyList(),
+            params -> {
+                TaskContext.progress(1, 2L, "first");
+                TaskContext.progress(2, 2L, "second");
+                return Map.of("done", true);
+            }));
+        try {
+            String req = "{\"jsonrpc\":\"2.0\",\"id\":5,\"method\":\"tools/call\"," +
+                "\"params\":{\"name\":\"test_progress\",\"_meta\":{\"progressToken\":\"p1\"}}}";
+            FakeHttpExchange ex = new FakeHttpExchange("POST", "/mcp", req);
+            ex.getRequestHeaders().set("Accept", "application/json, text/event-stream");
+            new JsonRpcHttpHandler().handle(ex);
+            assertTrue(ex.getResponseHeaders().getFirst("Content-Type").startsWith("text/event-stream"));
+            List<JsonNode> events = new ArrayList<>();
+            for (String line : ex.getResponseString().split("\n")) {
+                if (line.startsWith("data: ")) events.add(JacksonJson.mapper().readTree(line.substring(6)));
+            }
+            JsonNode last = events.get(events.size() - 1);
+            assertEquals(5, last.get("id").asInt());
+            assertTrue(last.get("result").get("content").get(0).get("text").asText().contains("done"));
+            for (JsonNode e : events.subList(0, events.size() - 1)) {
+                assertEquals("notifications/progress", e.get("method").asText());
+                assertEquals("p1", e.get("params").get("progressToken").asText());
+            }
+        } finally {
+            tools.remove("test_progress");
+        }
+    }
+
+    @Test
+    public void testTaskToolWithProgressTokenRunsInline() throws Exception {
+        Task task = TaskManager.get().submit("test", null, null, () -> "x");
+        String req = "{\"jsonrpc\":\"2.0\",\"id\":6,\"method\":\"tools/call\"," +
+            "\"params\":{\"name\":\"get_task\",\"arguments\":{\"task_id\":\"" + task.getId() + "\",\"wait_ms\":5000}," +
+            "\"_meta\":{\"progressToken\":\"p2\"}}}";
+        FakeHttpExchange ex = new FakeHttpExchange("POST", "/mcp", req);
+        ex.getRequestHeaders().set("Accept", "application/json, text/event-stream");
+        new JsonRpcHttpHandler().handle(ex);
+        assertTrue(ex.getResponseHeaders().getFirst("Content-Type").startsWith("application/json"));
+        JsonNode resp = JacksonJson.mapper().readTree(ex.getResponseString());
+        assertNull(resp.get("error"));
+        assertTrue(resp.get("result").get("content").get(0).get("text").asText().contains("completed"));
+    }
+}
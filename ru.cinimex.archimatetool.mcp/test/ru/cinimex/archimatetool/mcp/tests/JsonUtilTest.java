@@ -17,14 +17,20 @@ package ru.cinimex.archimatetool.mcp.tests;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import org.junit.After;
 import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
 
 import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import ru.cinimex.archimatetool.mcp.server.JsonUtil;
 
 public class JsonUtilTest {
 
@@ -62,6 +68,78 @@ public class JsonUtilTest {
         assertTrue(json.contains("Привет"));
     }
 
+    @After
+    public void cleanup() {
+        System.clearProperty("archi.mcp.http.streamMinBytes");
+    }
+
+    @Test
+    public void smallBodyIsBuffered() throws Exception {
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        JsonUtil.writeJson(ex, 200, Map.of("ok", true));
+        assertEquals(200, ex.getResponseCode());
+        assertEquals(ex.getResponseBytes().length, ex.getResponseLength());
+        assertEquals("{\"ok\":true}", ex.getResponseString());
+    }
+
+    @Test
+    public void largeBodyIsStreamedChunked() throws Exception {
+        System.setProperty("archi.mcp.http.streamMinBytes", "1024");
+        List<Map<String, Object>> rows = rows();
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        JsonUtil.writeJson(ex, 200, rows);
+        assertEquals(200, ex.getResponseCode());
+        assertEquals(0, ex.getResponseLength());
+        assertEquals(toJson(rows), ex.getResponseString());
+    }
+
+    @Test
+    public void streamedBodyIsCompressed() throws Exception {
+        System.setProperty("archi.mcp.http.streamMinBytes", "1024");
+        List<Map<String, Object>> rows = rows();
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        ex.getRequestHeaders().set("Accept-Encoding", "gzip");
+        JsonUtil.writeJson(ex, 200, rows);
+        assertEquals(0, ex.getResponseLength());
+        assertEquals("gzip", ex.getResponseHeaders().getFirst("Content-Encoding"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(ex.getResponseBytes()))) {
+            assertEquals(toJson(rows), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void failureAfterSpillLeavesBodyUnterminated() throws Exception {
+        System.setProperty("archi.mcp.http.streamMinBytes", "1024");
+        List<Object> body = new ArrayList<>(rows());
+        body.add(new Broken());
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        try {
+            JsonUtil.writeJson(ex, 200, body);
+            fail("expected serialization failure");
+        } catch (IOException expected) {
+            // propagates so the server closes the connection
+        }
+        assertEquals(200, ex.getResponseCode());
+        String sent = ex.getResponseString();
+        assertTrue(sent.startsWith("[{"));
+        assertFalse(sent.endsWith("]"));
+    }
+
+    /** Bean whose serialization fails halfway through. */
+    public static final class Broken {
+        public String getValue() {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    private static List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rows.add(Map.of("id", "id-" + i, "name", "Элемент " + i));
+        }
+        return rows;
+    }
+
     private static String toJson(Object body) throws Exception {
         return new String(JacksonJson.writeBytes(body), StandardCharsets.UTF_8);
     }
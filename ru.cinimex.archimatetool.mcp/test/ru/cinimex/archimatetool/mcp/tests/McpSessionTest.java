@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.server.sse.McpSession;
+import ru.cinimex.archimatetool.mcp.server.sse.McpSessions;
+import ru.cinimex.archimatetool.mcp.server.sse.SseStream;
+
+public class McpSessionTest {
+
+    @Test
+    public void pumpWritesEventsAndHeartbeats() throws Exception {
+        McpSessions sessions = new McpSessions(8, 2);
+        McpSession session = sessions.create();
+        session.offer(Map.of("method", "notifications/progress"), true);
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/mcp", null);
+        Thread t = new Thread(() -> {
+            try {
+                session.pump(SseStream.open(ex), 20);
+            } catch (Exception ignore) {}
+        });
+        t.start();
+        Thread.sleep(150);
+        sessions.remove(session.getId());
+        t.join(5000);
+        assertFalse(t.isAlive());
+        String body = ex.getResponseString();
+        assertTrue(body.startsWith("id: 1\nevent: message\ndata: {\"method\":\"notifications/progress\"}\n\n"));
+        assertTrue(body.contains(": ping\n\n"));
+        assertEquals("text/event-stream; charset=utf-8", ex.getResponseHeaders().getFirst("Content-Type"));
+    }
+
+    @Test
+    public void fullQueueDropsProgress() {
+        McpSessions sessions = new McpSessions(2, 2);
+        McpSession session = sessions.create();
+        assertTrue(session.offer(Map.of("n", 1), true));
+        assertTrue(session.offer(Map.of("n", 2), true));
+        assertFalse(session.offer(Map.of("n", 3), true));
+        assertFalse(session.isClosed());
+        assertEquals(1L, sessions.stats().get("dropped"));
+        assertEquals(2, sessions.stats().get("queued"));
+    }
+
+    @Test
+    public void resourceUpdatesNeverBlockAndFlagResync() throws Exception {
+        McpSessions sessions = new McpSessions(1, 2);
+        McpSession session = sessions.create();
+        assertTrue(session.offerResourceUpdate("archi://changes", null));
+        long start = System.currentTimeMillis();
+        assertFalse(session.offerResourceUpdate("archi://changes", null));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertFalse(session.isClosed());
+        assertEquals(1L, sessions.stats().get("dropped"));
+
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/mcp", null);
+        Thread t = new Thread(() -> {
+            try {
+                session.pump(SseStream.open(ex), 20);
+            } catch (Exception ignore) {}
+        });
+        t.start();
+        Thread.sleep(100);
+        assertTrue(session.offerResourceUpdate("archi://changes", null));
+        Thread.sleep(100);
+        sessions.remove(session.getId());
+        t.join(5000);
+        String body = ex.getResponseString();
+        assertTrue(body.contains("\"params\":{\"uri\":\"archi://changes\"}"));
+        assertTrue(body.contains("\"params\":{\"uri\":\"archi://changes\",\"resync\":true}"));
+    }
+
+    @Test
+    public void streamSlotsAreCapped() {
+        McpSessions sessions = new McpSessions(2, 1);
+        assertTrue(sessions.acquireStream());
+        assertFalse(sessions.acquireStream());
+        sessions.releaseStream();
+        assertTrue(sessions.acquireStream());
+        assertEquals(1L, sessions.stats().get("rejectedStreams"));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.index.ModelIndex;
+import ru.cinimex.archimatetool.mcp.index.TextIndex;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateElement;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IArchimateRelationship;
+import com.archimatetool.model.IDiagramModelArchimateObject;
+import com.archimatetool.model.IFolder;
+
+public class ModelIndexTest {
+
+    private IArchimateModel model;
+    private ModelIndex index;
+
+    @Before
+    public void setUp() {
+        model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        index = new ModelIndex(model);
+    }
+
+    @After
+    public void tearDown() {
+        index.detach();
+    }
+
+    private IArchimateElement addActor(String name) {
+        IArchimateElement el = IArchimateFactory.eINSTANCE.createBusinessActor();
+        el.setName(name);
+        model.getDefaultFolderForObject(el).getElements().add(el);
+        return el;
+    }
+
+    @Test
+    public void testIndexesExistingContent() {
+        IArchimateElement a = addActor("A");
+        index.attach();
+        assertSame(a, index.get(a.getId()));
+        assertSame(model, index.get(model.getId()));
+        assertTrue(index.verify().isEmpty());
+    }
+
+    @Test
+    public void testTracksAddRemoveAndIdChange() {
+        index.attach();
+        IArchimateElement a = addActor("A");
+        assertSame(a, index.get(a.getId()));
+
+        String oldId = a.getId();
+        a.setId("renamed-id");
+        assertNull(index.get(oldId));
+        assertSame(a, index.get("renamed-id"));
+
+        ((IFolder) a.eContainer()).getElements().remove(a);
+        assertNull(index.get("renamed-id"));
+        assertTrue(index.verify().isEmpty());
+    }
+
+    @Test
+    public void testTracksSubfolders() {
+        index.attach();
+        IFolder sub = IArchimateFactory.eINSTANCE.createFolder();
+        IArchimateElement a = IArchimateFactory.eINSTANCE.createBusinessActor();
+        sub.getElements().add(a);
+        model.getDefaultFolderForObject(a).getFolders().add(sub);
+        assertSame(sub, index.get(sub.getId()));
+        assertSame(a, index.get(a.getId()));
+
+        ((IFolder) sub.eContainer()).getFolders().remove(sub);
+        assertNull(index.get(a.getId()));
+        assertTrue(index.verify().isEmpty());
+    }
+
+    @Test
+    public void testAdjacency() {
+        index.attach();
+        IArchimateElement a = addActor("A");
+        IArchimateElement b = addActor("B");
+        IArchimateElement c = addActor("C");
+        IArchimateRelationship r = IArchimateFactory.eINSTANCE.createAssociationRelationship();
+        r.connect(a, b);
+        // relations placed in a subfolder must be found as well
+        IFolder sub = IArchimateFactory.eINSTANCE.createFolder();
+        model.getDefaultFolderForObject(r).getFolders().add(sub);
+        sub.getElements().add(r);
+
+        assertEquals(1, index.getOutgoing(a).size());
+        assertEquals(1, index.getIncoming(b).size());
+        assertTrue(index.getRelations(c, "both").isEmpty());
+
+        r.setTarget(c);
+        assertTrue(index.getIncoming(b).isEmpty());
+        assertSame(r, index.getIncoming(c).get(0));
+        assertTrue(index.verify().isEmpty());
+
+        sub.getElements().remove(r);
+        assertTrue(index.getRelations(a, "both").isEmpty());
+        assertTrue(index.getRelations(c, "both").isEmpty());
+    }
+
+    @Test
+    public void testSelfRelationListedOnce() {
+        index.attach();
+        IArchimateElement a = addActor("A");
+        IArchimateRelationship r = IArchimateFactory.eINSTANCE.createAssociationRelationship();
+        r.connect(a, a);
+        model.getDefaultFolderForObject(r).getElements().add(r);
+        assertEquals(1, index.getRelations(a, "both").size());
+    }
+
+    @Test
+    public void testDiagramReferences() {
+        index.attach();
+        IArchimateElement a = addActor("A");
+        IArchimateElement b = addActor("B");
+        IArchimateDiagramModel view = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        model.getDefaultFolderForObject(view).getElements().add(view);
+        IDiagramModelArchimateObject dmo = IArchimateFactory.eINSTANCE.createDiagramModelArchimateObject();
+        dmo.setArchimateConcept(a);
+        view.getChildren().add(dmo);
+        assertSame(dmo, index.getReferences(a).get(0));
+
+        dmo.setArchimateConcept(b);
+        assertTrue(index.getReferences(a).isEmpty());
+        assertSame(dmo, index.getReferences(b).get(0));
+        assertTrue(index.verify().isEmpty());
+
+        view.getChildren().remove(dmo);
+        assertTrue(index.getReferences(b).isEmpty());
+    }
+
+    @Test
+    public void testTextIndexCandidates() {
+        ModelIndex withText = new ModelIndex(model, true);
+        withText.attach();
+        try {
+            TextIndex text = withText.getTextIndex();
+            IArchimateElement a = addActor("Customer Portal");
+            IArchimateElement b = addActor("Billing");
+            b.setDocumentation("Handles customer invoices");
+
+            // substring inside a token, not only prefixes
+            assertTrue(text.candidates("tomer", TextIndex.Field.NAME).contains(a));
+            assertFalse(text.candidates("tomer", TextIndex.Field.NAME).contains(b));
+            assertTrue(text.candidates("customer", TextIndex.Field.DOCUMENTATION).contains(b));
+            assertNull(text.candidates(" ", TextIndex.Field.NAME));
+
+            a.setName("Partner Portal");
+            assertTrue(text.candidates("customer", TextIndex.Field.NAME).isEmpty());
+
+            ((IFolder) b.eContainer()).getElements().remove(b);
+            assertTrue(text.candidates("invoices", TextIndex.Field.DOCUMENTATION).isEmpty());
+        } finally {
+            withText.detach();
+        }
+    }
+
+    @Test
+    public void testCounters() {
+        IArchimateElement a = addActor("A");
+        index.attach();
+        index.get(a.getId());
+        index.get("missing");
+        assertEquals(1L, index.stats().get("hits"));
+        assertEquals(1L, index.stats().get("misses"));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.errors.TimeoutException;
+import ru.cinimex.archimatetool.mcp.server.RenderPipeline;
+
+public class RenderPipelineTest {
+
+    private static final Consumer<Runnable> INLINE = Runnable::run;
+
+    @Test
+    public void finishesOffTheUiExecutor() {
+        RenderPipeline pipeline = new RenderPipeline(1, 1000);
+        Thread caller = Thread.currentThread();
+        Thread[] ui = new Thread[1];
+        Thread[] post = new Thread[1];
+        byte[] out = pipeline.render(() -> {
+            ui[0] = Thread.currentThread();
+            return "svg";
+        }, s -> {
+            post[0] = Thread.currentThread();
+            return s.getBytes();
+        }, r -> {
+            Thread t = new Thread(r);
+            t.start();
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertEquals("svg", new String(out));
+        assertNotSame(caller, ui[0]);
+        assertSame(caller, post[0]);
+        assertEquals(1L, pipeline.stats().get("rendered"));
+        assertEquals(0, pipeline.getActive());
+    }
+
+    @Test
+    public void capsConcurrentRenders() throws Exception {
+        RenderPipeline pipeline = new RenderPipeline(1, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busy = new Thread(() -> pipeline.render(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "";
+        }, String::getBytes, INLINE));
+        busy.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        try {
+            pipeline.render(() -> "", String::getBytes, INLINE);
+            fail("expected a timeout");
+        } catch (TimeoutException expected) {
+            assertEquals(1L, pipeline.stats().get("timeouts"));
+        } finally {
+            release.countDown();
+            busy.join();
+        }
+        assertEquals(0, pipeline.getActive());
+    }
+
+    @Test
+    public void releasesTheSlotOnFailure() {
+        RenderPipeline pipeline = new RenderPipeline(1, 50);
+        try {
+            pipeline.render(() -> "", s -> { throw new IllegalStateException(); }, INLINE);
+            fail();
+        } catch (IllegalStateException expected) {
+            // slot must be free again
+        }
+        assertEquals(0, pipeline.getActive());
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.http.RequestLimiter;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
+
+public class RequestLimiterTest {
+
+    private static void run(RequestLimiter limiter, FakeHttpExchange ex, HttpHandler handler) throws Exception {
+        new Filter.Chain(List.of(limiter), handler).doFilter(ex);
+    }
+
+    private static Thread hold(RequestLimiter limiter, CountDownLatch entered, CountDownLatch release) {
+        Thread t = new Thread(() -> {
+            try {
+                run(limiter, new FakeHttpExchange("GET", "/", null), ex -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ignore) {}
+                    ex.sendResponseHeaders(204, -1);
+                });
+            } catch (Exception ignore) {}
+        });
+        t.start();
+        return t;
+    }
+
+    @Test
+    public void passesThroughWhenFree() throws Exception {
+        RequestLimiter limiter = new RequestLimiter(2, 0);
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        run(limiter, ex, e -> e.sendResponseHeaders(204, -1));
+        assertEquals(204, ex.getResponseCode());
+        assertEquals(0, limiter.getActive());
+        assertEquals(1L, limiter.stats().get("served"));
+    }
+
+    @Test
+    public void rejectsWhenSaturatedWithoutQueue() throws Exception {
+        RequestLimiter limiter = new RequestLimiter(1, 0);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = hold(limiter, entered, release);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getActive());
+
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        run(limiter, ex, e -> fail("handler must not run"));
+        assertEquals(503, ex.getResponseCode());
+        assertEquals("1", ex.getResponseHeaders().getFirst("Retry-After"));
+        assertEquals("{\"error\":\"server busy\"}", ex.getResponseString());
+        assertEquals(1L, limiter.getRejected());
+
+        release.countDown();
+        holder.join(5000);
+        assertEquals(0, limiter.getActive());
+    }
+
+    @Test
+    public void queuedRequestRunsOnceSlotFrees() throws Exception {
+        RequestLimiter limiter = new RequestLimiter(1, 1, 5000);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = hold(limiter, entered, release);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        FakeHttpExchange queuedEx = new FakeHttpExchange("GET", "/", null);
+        Thread waiter = new Thread(() -> {
+            try {
+                run(limiter, queuedEx, e -> e.sendResponseHeaders(204, -1));
+            } catch (Exception ignore) {}
+        });
+        waiter.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (limiter.getQueued() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, limiter.getQueued());
+
+        // queue is full, the next request is turned away immediately
+        FakeHttpExchange overflow = new FakeHttpExchange("GET", "/", null);
+        run(limiter, overflow, e -> fail("handler must not run"));
+        assertEquals(503, overflow.getResponseCode());
+
+        release.countDown();
+        holder.join(5000);
+        waiter.join(5000);
+        assertEquals(204, queuedEx.getResponseCode());
+        assertEquals(0, limiter.getQueued());
+        assertEquals(2L, limiter.stats().get("served"));
+    }
+
+    @Test
+    public void waitTimesOut() throws Exception {
+        RequestLimiter limiter = new RequestLimiter(1, 1, 50);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = hold(limiter, entered, release);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        run(limiter, ex, e -> fail("handler must not run"));
+        assertEquals(503, ex.getResponseCode());
+
+        release.countDown();
+        holder.join(5000);
+    }
+
+    @Test
+    public void shedExchangeIsRejectedWithoutWaiting() throws Exception {
+        RequestLimiter limiter = new RequestLimiter(2, 2);
+        FakeHttpExchange ex = new FakeHttpExchange("GET", "/", null);
+        RequestLimiter.shed(() -> {
+            try {
+                run(limiter, ex, e -> fail("handler must not run"));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals(503, ex.getResponseCode());
+        assertEquals(1L, limiter.getRejected());
+
+        // only the shed exchange itself is turned away
+        FakeHttpExchange next = new FakeHttpExchange("GET", "/", null);
+        run(limiter, next, e -> e.sendResponseHeaders(204, -1));
+        assertEquals(204, next.getResponseCode());
+    }
+
+    @Test
+    public void eventStreamAcceptOnlyBypassesStreamRoutes() throws Exception {
+        RequestLimiter limiter = new RequestLimiter(1, 0);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = hold(limiter, entered, release);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        FakeHttpExchange image = new FakeHttpExchange("GET", "/views/v1/image", null);
+        image.getRequestHeaders().set("Accept", "text/event-stream");
+        run(limiter, image, e -> fail("handler must not run"));
+        assertEquals(503, image.getResponseCode());
+
+        FakeHttpExchange stream = new FakeHttpExchange("GET", "/changes", null);
+        stream.getRequestHeaders().set("Accept", "text/event-stream");
+        run(limiter, stream, e -> e.sendResponseHeaders(200, 0));
+        assertEquals(200, stream.getResponseCode());
+
+        release.countDown();
+        holder.join(5000);
+    }
+}
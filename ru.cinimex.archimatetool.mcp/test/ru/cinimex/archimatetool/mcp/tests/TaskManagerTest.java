@@ -0,0 +1,156 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.errors.ConflictException;
+import ru.cinimex.archimatetool.mcp.core.errors.NotFoundException;
+import ru.cinimex.archimatetool.mcp.core.errors.UnprocessableException;
+import ru.cinimex.archimatetool.mcp.core.tasks.Task;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskContext;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskManager;
+
+public class TaskManagerTest {
+
+    private TaskManager manager;
+
+    @After
+    public void tearDown() {
+        if (manager != null) manager.shutdown();
+    }
+
+    @Test
+    public void completesWithResultAndProgress() throws Exception {
+        manager = new TaskManager(2, 8, 60_000);
+        List<Map<String, Object>> notes = new CopyOnWriteArrayList<>();
+        manager.addListener(t -> {
+            Map<String, Object> n = t.progressNotification();
+            if (n != null) notes.add(n);
+        });
+        Task task = manager.submit("test", 7, "tok", () -> {
+            TaskContext.progress(1, 2L, "half");
+            return Map.of("ok", true);
+        });
+        manager.await(task.getId(), 5000);
+        assertEquals(Task.State.COMPLETED, task.getState());
+        Map<String, Object> m = task.toMap(true);
+        assertEquals("completed", m.get("state"));
+        assertEquals(Map.of("ok", true), m.get("result"));
+        assertEquals(2L, m.get("progress"));
+        assertFalse(notes.isEmpty());
+        assertEquals("notifications/progress", notes.get(0).get("method"));
+        assertEquals(1L, manager.stats().get("completed"));
+    }
+
+    @Test
+    public void reportsFailure() {
+        manager = new TaskManager(1, 8, 60_000);
+        Task task = manager.submit("test", null, null, () -> {
+            throw new UnprocessableException("boom");
+        });
+        manager.await(task.getId(), 5000);
+        assertEquals(Task.State.FAILED, task.getState());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> err = (Map<String, Object>) task.toMap(true).get("error");
+        assertEquals("UnprocessableException", err.get("type"));
+        assertEquals("boom", err.get("message"));
+        assertNull(task.toMap(true).get("result"));
+    }
+
+    @Test
+    public void cancelInterruptsWorker() throws Exception {
+        manager = new TaskManager(1, 8, 60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Task task = manager.submit("test", "s1", "req-1", null, null, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, manager.cancelByRequestId("s1", "req-1", "stop"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(Task.State.CANCELLED, task.getState());
+        assertEquals("stop", task.toMap(false).get("message"));
+        assertEquals(0, manager.cancelByRequestId("s1", "req-1", "again"));
+    }
+
+    @Test
+    public void cancelByRequestIdStaysInItsSession() throws Exception {
+        manager = new TaskManager(2, 8, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        // both clients number their requests from 1
+        Task mine = manager.submit("test", "s1", 1, null, null, () -> release.await(5, TimeUnit.SECONDS));
+        Task theirs = manager.submit("test", "s2", 1, null, null, () -> release.await(5, TimeUnit.SECONDS));
+        assertEquals(0, manager.cancelByRequestId("s1", "1", "string id"));
+        assertEquals(0, manager.cancelByRequestId(null, 1, "no session"));
+        assertEquals(1, manager.cancelByRequestId("s1", 1L, "stop"));
+        assertEquals(Task.State.CANCELLED, mine.getState());
+        assertEquals(Task.State.RUNNING, theirs.getState());
+        release.countDown();
+    }
+
+    @Test
+    public void boundedTableEvictsFinishedFirst() throws Exception {
+        manager = new TaskManager(1, 2, 60_000);
+        Task done = manager.submit("test", null, null, () -> "x");
+        manager.await(done.getId(), 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        manager.submit("test", null, null, () -> release.await(5, TimeUnit.SECONDS));
+        // the finished task makes room for the third one
+        manager.submit("test", null, null, () -> "y");
+        try {
+            manager.find(done.getId());
+            fail("finished task should have been evicted");
+        } catch (NotFoundException expected) {}
+        try {
+            manager.submit("test", null, null, () -> "z");
+            fail("table full of running tasks");
+        } catch (ConflictException expected) {}
+        assertEquals(1L, manager.stats().get("rejected"));
+        release.countDown();
+    }
+
+    @Test
+    public void finishedTasksExpire() throws Exception {
+        manager = new TaskManager(1, 8, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        Task task = manager.submit("test", null, null, () -> release.await(5, TimeUnit.SECONDS));
+        // running tasks never expire
+        assertEquals(1, manager.list().size());
+        release.countDown();
+        for (int i = 0; i < 500 && !task.isDone(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(task.isDone());
+        assertTrue(manager.list().isEmpty());
+        assertEquals(1L, manager.stats().get("evicted"));
+    }
+}
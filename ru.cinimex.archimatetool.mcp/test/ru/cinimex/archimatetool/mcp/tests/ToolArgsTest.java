@@ -0,0 +1,121 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.errors.BadRequestException;
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import ru.cinimex.archimatetool.mcp.server.tools.ParamBinder;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolArgs;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolParam;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolParamException;
+
+public class ToolArgsTest {
+
+    private final ParamBinder binder = new ParamBinder(Arrays.asList(
+        new ToolParam("view_id", "string", true, "View id", null),
+        new ToolParam("items", "array", false, "Items", null),
+        new ToolParam("scale", "number", false, "Scale", 1.0),
+        new ToolParam("limit", "integer", false, "Limit", 20),
+        new ToolParam("debug", "boolean", false, "Debug", Boolean.FALSE)
+    ));
+
+    private ToolArgs bind(String json) throws Exception {
+        return binder.bind(JacksonJson.mapper().readTree(json));
+    }
+
+    private static String pathOf(Runnable r) {
+        try {
+            r.run();
+        } catch (ToolParamException ex) {
+            return ex.getPath() + ": " + ex.getMessage();
+        }
+        fail("expected ToolParamException");
+        return null;
+    }
+
+    @Test
+    public void appliesDefaults() throws Exception {
+        ToolArgs args = bind("{\"view_id\":\"v1\"}");
+        assertEquals("v1", args.str("view_id"));
+        assertEquals(Double.valueOf(1.0), args.number("scale"));
+        assertFalse(args.flag("debug"));
+        assertNull(args.items("items", 50));
+    }
+
+    @Test
+    public void reportsMissingAndMistypedTopLevel() {
+        assertEquals("view_id: missing required param 'view_id'", pathOf(() -> binder.bind(null)));
+        assertEquals("view_id: param 'view_id' must be string",
+            pathOf(() -> binder.bind(JacksonJson.mapper().createObjectNode().put("view_id", 1))));
+    }
+
+    @Test
+    public void reportsNestedPaths() throws Exception {
+        ToolArgs args = bind("{\"view_id\":\"v\",\"items\":[{\"x\":1},{\"x\":\"wide\"}]}");
+        List<ToolArgs> items = args.items("items", 50);
+        assertEquals(Integer.valueOf(1), items.get(0).integer("x"));
+        assertEquals("items[1].x: param 'items[1].x' must be integer", pathOf(() -> items.get(1).integer("x")));
+
+        ToolArgs props = bind("{\"view_id\":\"v\",\"items\":[{\"properties\":{\"a\":\"1\",\"b\":[2]}}]}");
+        assertEquals("items[0].properties.b: param 'items[0].properties.b' must be string",
+            pathOf(() -> props.items("items", 50).get(0).stringMap("properties")));
+    }
+
+    @Test
+    public void acceptsWholeDecimalsAsIntegers() throws Exception {
+        ToolArgs args = bind("{\"view_id\":\"v\",\"items\":[{\"x\":120.0},{\"x\":1.5}]}");
+        List<ToolArgs> items = args.items("items", 50);
+        assertEquals(Integer.valueOf(120), items.get(0).integer("x"));
+        assertEquals("items[1].x: param 'items[1].x' must be integer", pathOf(() -> items.get(1).integer("x")));
+    }
+
+    @Test
+    public void binderAcceptsWholeDecimalsAsIntegers() throws Exception {
+        assertEquals(Integer.valueOf(10), bind("{\"view_id\":\"v\",\"limit\":10.0}").integer("limit"));
+        assertEquals("limit: param 'limit' must be integer",
+            pathOf(() -> binder.bind(JacksonJson.mapper().createObjectNode().put("view_id", "v").put("limit", 1.5))));
+    }
+
+    @Test
+    public void acceptsItemsAsJsonStrings() throws Exception {
+        ToolArgs args = bind("{\"view_id\":\"v\",\"items\":[\"{\\\"name\\\":\\\"A\\\",\\\"properties\\\":{\\\"n\\\":3}}\"]}");
+        ToolArgs item = args.items("items", 50).get(0);
+        assertEquals("A", item.str("name"));
+        assertEquals(Map.of("n", "3"), item.stringMap("properties"));
+
+        ToolArgs broken = bind("{\"view_id\":\"v\",\"items\":[\"{oops\"]}");
+        assertTrue(pathOf(() -> broken.items("items", 50)).startsWith("items[0]: param 'items[0]' is not valid JSON"));
+    }
+
+    @Test
+    public void limitsArraySize() throws Exception {
+        ToolArgs args = bind("{\"view_id\":\"v\",\"items\":[{},{},{}]}");
+        try {
+            args.items("items", 2);
+            fail("expected BadRequestException");
+        } catch (BadRequestException ex) {
+            assertEquals("too many items, max 2", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.tasks.Task;
+import ru.cinimex.archimatetool.mcp.core.tasks.TaskManager;
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import ru.cinimex.archimatetool.mcp.server.tools.Tool;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolParam;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolRegistry;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolResult;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class ToolRegistryTest {
+
+    private final Tool tool = ToolRegistry.versioned(new Tool("get_view_content", "Get view content",
+        Arrays.asList(new ToolParam("view_id", "string", true, "View id", null)),
+        params -> Map.of("view", params.str("view_id"))), () -> "m1:7");
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> call(String json) throws Exception {
+        return (Map<String, Object>) tool.getInvoker().invoke(tool.bind(JacksonJson.mapper().readTree(json)));
+    }
+
+    @Test
+    public void versionRepeatsForTheSameArguments() throws Exception {
+        Map<String, Object> first = call("{\"view_id\":\"A\",\"if_version\":\"\"}");
+        assertEquals(Boolean.FALSE, first.get("notModified"));
+        assertEquals(Map.of("view", "A"), first.get("result"));
+        Map<String, Object> again = call("{\"if_version\":\"" + first.get("version") + "\",\"view_id\":\"A\"}");
+        assertEquals(Boolean.TRUE, again.get("notModified"));
+        assertFalse(again.containsKey("result"));
+    }
+
+    @Test
+    public void versionReusedForOtherArgumentsReturnsResult() throws Exception {
+        Object version = call("{\"view_id\":\"A\",\"if_version\":\"\"}").get("version");
+        Map<String, Object> other = call("{\"view_id\":\"B\",\"if_version\":\"" + version + "\"}");
+        assertEquals(Boolean.FALSE, other.get("notModified"));
+        assertEquals(Map.of("view", "B"), other.get("result"));
+        assertNotEquals(version, other.get("version"));
+    }
+
+    @Test
+    public void withoutIfVersionTheResultIsPlain() throws Exception {
+        assertEquals(Map.of("view", "A"), call("{\"view_id\":\"A\"}"));
+    }
+
+    @Test
+    public void getTaskKeepsMediaResultsAsContent() throws Exception {
+        byte[] png = { (byte) 0x89, 'P', 'N', 'G' };
+        Task task = TaskManager.get().submit("get_view_image", null, null,
+            () -> ToolResult.Media.image(png, "image/png", Map.of("length", png.length)));
+        Tool getTask = ToolRegistry.get("get_task");
+        Object res = getTask.getInvoker().invoke(getTask.bind(JacksonJson.mapper().readTree(
+            "{\"task_id\":\"" + task.getId() + "\",\"wait_ms\":5000}")));
+        JsonNode node = JacksonJson.mapper().readTree(JacksonJson.writeBytes(ToolResult.wrap(res, ToolResult.TEXT)));
+        assertEquals("image", node.get("content").get(0).get("type").asText());
+        JsonNode text = JacksonJson.mapper().readTree(node.get("content").get(1).get("text").asText());
+        assertEquals("completed", text.get("state").asText());
+        assertEquals(4, text.get("result").get("length").asInt());
+        assertNull(text.get("result").get("data"));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import ru.cinimex.archimatetool.mcp.server.tools.ToolResult;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class ToolResultTest {
+
+    private static Map<String, Object> sample() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("name", "Quote \" backslash \\ newline \n tab \t bell \u0007 юникод");
+        m.put("ids", List.of("a", "b"));
+        return m;
+    }
+
+    private static JsonNode roundTrip(Map<String, Object> wrapped) throws Exception {
+        return JacksonJson.mapper().readTree(JacksonJson.writeBytes(wrapped));
+    }
+
+    @Test
+    public void textLiteralMatchesSingleSerialization() throws Exception {
+        Map<String, Object> result = sample();
+        JsonNode node = roundTrip(ToolResult.wrap(result, ToolResult.TEXT));
+        JsonNode first = node.get("content").get(0);
+        assertEquals("text", first.get("type").asText());
+        assertEquals(JacksonJson.mapper().writeValueAsString(result), first.get("text").asText());
+        assertNull(node.get("structuredContent"));
+    }
+
+    @Test
+    public void bothEmbedsStructuredContentRaw() throws Exception {
+        Map<String, Object> result = sample();
+        JsonNode node = roundTrip(ToolResult.wrap(result, ToolResult.BOTH));
+        assertEquals(JacksonJson.mapper().valueToTree(result), node.get("structuredContent"));
+        assertEquals(JacksonJson.mapper().writeValueAsString(result), node.get("content").get(0).get("text").asText());
+    }
+
+    @Test
+    public void structuredKeepsTextBlockShort() throws Exception {
+        JsonNode node = roundTrip(ToolResult.wrap(sample(), ToolResult.STRUCTURED));
+        assertEquals("text", node.get("content").get(0).get("type").asText());
+        assertTrue(node.get("content").get(0).get("text").asText().contains("structuredContent"));
+        assertEquals("a", node.get("structuredContent").get("ids").get(0).asText());
+    }
+
+    @Test
+    public void listsStayText() throws Exception {
+        JsonNode node = roundTrip(ToolResult.wrap(List.of(1, 2), ToolResult.STRUCTURED));
+        assertNull(node.get("structuredContent"));
+        assertEquals("[1,2]", node.get("content").get(0).get("text").asText());
+    }
+
+    @Test
+    public void imageGoesFirstAsBase64() throws Exception {
+        byte[] png = { (byte) 0x89, 'P', 'N', 'G', 0, 1, 2 };
+        JsonNode node = roundTrip(ToolResult.wrap(ToolResult.Media.image(png, "image/png", sample()), ToolResult.TEXT));
+        JsonNode image = node.get("content").get(0);
+        assertEquals("image", image.get("type").asText());
+        assertEquals("image/png", image.get("mimeType").asText());
+        assertArrayEquals(png, Base64.getDecoder().decode(image.get("data").asText()));
+        assertEquals(JacksonJson.mapper().writeValueAsString(sample()), node.get("content").get(1).get("text").asText());
+    }
+
+    @Test
+    public void linkCarriesNoBytes() throws Exception {
+        JsonNode node = roundTrip(ToolResult.wrap(
+                ToolResult.Media.link("http://127.0.0.1:8765/images/t", "v.png", "image/png", Map.of("length", 7)),
+                ToolResult.BOTH));
+        JsonNode link = node.get("content").get(0);
+        assertEquals("resource_link", link.get("type").asText());
+        assertEquals("http://127.0.0.1:8765/images/t", link.get("uri").asText());
+        assertNull(link.get("data"));
+        assertEquals(7, node.get("structuredContent").get("length").asInt());
+    }
+}
@@ -36,6 +36,18 @@ public class TypesHttpHandlerTest {
         assertTrue(root.get("viewTypes").size() > 0);
     }
 
+    @Test
+    public void testNotModified() throws Exception {
+        FakeHttpExchange first = new FakeHttpExchange("GET", "/types", null);
+        new TypesHttpHandler().handle(first);
+        String etag = first.getResponseHeaders().getFirst("ETag");
+        assertNotNull(etag);
+        FakeHttpExchange again = new FakeHttpExchange("GET", "/types", null);
+        again.getRequestHeaders().set("If-None-Match", etag);
+        new TypesHttpHandler().handle(again);
+        assertEquals(304, again.getResponseCode());
+    }
+
     @Test
     public void testRejectsNonGet() throws Exception {
         FakeHttpExchange ex = new FakeHttpExchange("POST", "/types", "{}");
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.commands.CommandStack;
+import org.junit.Test;
+
+import ru.cinimex.archimatetool.mcp.core.batch.UiBatch;
+
+public class UiBatchTest {
+
+    /** Appends its value on execute and removes it on undo. */
+    private static class Append extends Command {
+        private final List<Integer> target;
+        private final int value;
+
+        Append(List<Integer> target, int value) {
+            this.target = target;
+            this.value = value;
+        }
+
+        @Override
+        public void execute() {
+            target.add(value);
+        }
+
+        @Override
+        public void undo() {
+            target.remove(Integer.valueOf(value));
+        }
+    }
+
+    @Test
+    public void appliesAllCommandsAsOneUndoStep() {
+        List<Integer> seen = new ArrayList<>();
+        CommandStack stack = new CommandStack();
+        int[] changes = new int[1];
+        stack.addCommandStackEventListener(e -> {
+            if (e.isPostChangeEvent()) changes[0]++;
+        });
+        UiBatch batch = new UiBatch("test");
+        for (int i = 0; i < 300; i++) {
+            batch.add(new Append(seen, i));
+        }
+        batch.apply(stack);
+
+        assertEquals(300, seen.size());
+        for (int i = 0; i < 300; i++) {
+            assertEquals(Integer.valueOf(i), seen.get(i));
+        }
+        assertEquals(1, batch.getRoundTrips());
+        assertEquals(1, changes[0]);
+
+        stack.undo();
+        assertTrue(seen.isEmpty());
+        assertFalse(stack.canUndo());
+    }
+
+    @Test
+    public void appliesWithoutCommandStack() {
+        List<Integer> seen = new ArrayList<>();
+        UiBatch batch = new UiBatch("test");
+        batch.add(new Append(seen, 1));
+        batch.apply((CommandStack) null);
+        assertEquals(List.of(1), seen);
+        Map<String, Object> debug = new HashMap<>();
+        batch.describe(debug);
+        assertEquals(Boolean.FALSE, debug.get("undoable"));
+    }
+
+    @Test
+    public void emptyBatchSkipsUiThread() {
+        UiBatch batch = new UiBatch("test");
+        batch.apply(new CommandStack());
+        assertEquals(0, batch.getRoundTrips());
+    }
+
+    @Test
+    public void debugWrapsItemsOnlyWhenRequested() {
+        List<String> items = List.of("a");
+        assertSame(items, UiBatch.withDebug(items, null));
+
+        UiBatch batch = new UiBatch("test");
+        batch.add(new Append(new ArrayList<>(), 1));
+        batch.apply(new CommandStack());
+        Map<String, Object> debug = new HashMap<>();
+        batch.describe(debug);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> resp = (Map<String, Object>) UiBatch.withDebug(items, debug);
+        assertSame(items, resp.get("items"));
+        assertEquals(1, ((Map<?, ?>) resp.get("debug")).get("uiRoundTrips"));
+        assertEquals(Boolean.TRUE, ((Map<?, ?>) resp.get("debug")).get("undoable"));
+        assertTrue(((Map<?, ?>) resp.get("debug")).containsKey("uiThreadMs"));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Cinimex
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ru.cinimex.archimatetool.mcp.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import ru.cinimex.archimatetool.mcp.core.types.ExportViewsQuery;
+import ru.cinimex.archimatetool.mcp.core.views.ViewExporter;
+import ru.cinimex.archimatetool.mcp.core.views.ViewsCore.ImageData;
+import ru.cinimex.archimatetool.mcp.server.JacksonJson;
+import com.archimatetool.model.IArchimateDiagramModel;
+import com.archimatetool.model.IArchimateFactory;
+import com.archimatetool.model.IArchimateModel;
+import com.archimatetool.model.IDiagramModel;
+
+public class ViewExporterTest {
+
+    @Test
+    public void fileNamesDropUnsafeCharacters() {
+        assertEquals("Order_Payment flow", ViewExporter.fileName("Order/Payment flow", "id-1"));
+        assertEquals("a_b_c", ViewExporter.fileName("a:b*c", "id-1"));
+        assertEquals("hidden", ViewExporter.fileName("..hidden", "id-1"));
+    }
+
+    @Test
+    public void emptyNamesFallBackToTheId() {
+        assertEquals("id-1", ViewExporter.fileName(null, "id-1"));
+        assertEquals("id-1", ViewExporter.fileName("  ", "id-1"));
+        assertEquals("id-1", ViewExporter.fileName("..", "id-1"));
+    }
+
+    @Test
+    public void archiveKeepsViewOrderAndListsFailures() throws Exception {
+        IArchimateModel model = IArchimateFactory.eINSTANCE.createArchimateModel();
+        model.setDefaults();
+        List<IDiagramModel> views = Arrays.asList(view(model, "First"), view(model, "Broken"), view(model, "Third"));
+        ViewExporter.Renderer renderer = (m, v, q, onRender) -> {
+            if ("Broken".equals(v.getName())) throw new IllegalStateException("render failed");
+            // the first view finishes last, so completion order differs from view order
+            if ("First".equals(v.getName())) sleep(200);
+            onRender.run();
+            return new ImageData(v.getName().getBytes(StandardCharsets.UTF_8), "image/png");
+        };
+        ViewExporter.Job job = new ViewExporter.Job(renderer, model, views,
+                new ExportViewsQuery(null, null, "png", null, null, null, null), "png");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Map<String, Object> summary = job.writeTo(out);
+
+        assertEquals(3, summary.get("views"));
+        assertEquals(2, summary.get("rendered"));
+        assertEquals(1, summary.get("failed"));
+        assertEquals(1, ((List<?>) summary.get("errors")).size());
+        List<String> names = new ArrayList<>();
+        JsonNode manifest = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry e; (e = zip.getNextEntry()) != null;) {
+                names.add(e.getName());
+                byte[] data = zip.readAllBytes();
+                if (ViewExporter.MANIFEST.equals(e.getName())) {
+                    manifest = JacksonJson.readTree(new ByteArrayInputStream(data));
+                } else {
+                    assertEquals(ZipEntry.STORED, e.getMethod());
+                    assertArrayEquals(e.getName().replace(".png", "").getBytes(StandardCharsets.UTF_8), data);
+                }
+            }
+        }
+        assertEquals(Arrays.asList("First.png", "Third.png", ViewExporter.MANIFEST), names);
+        assertNotNull(manifest);
+        assertEquals(3, manifest.get("entries").size());
+        assertEquals("First.png", manifest.get("entries").get(0).get("file").asText());
+        assertEquals("render failed", manifest.get("entries").get(1).get("error").asText());
+        assertFalse(manifest.get("entries").get(1).has("file"));
+        assertEquals("Third.png", manifest.get("entries").get(2).get("file").asText());
+    }
+
+    private static IDiagramModel view(IArchimateModel model, String name) {
+        IArchimateDiagramModel view = IArchimateFactory.eINSTANCE.createArchimateDiagramModel();
+        view.setName(name);
+        model.getDefaultFolderForObject(view).getElements().add(view);
+        return view;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}